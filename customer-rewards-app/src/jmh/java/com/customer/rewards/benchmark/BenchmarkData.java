@@ -0,0 +1,73 @@
+package com.customer.rewards.benchmark;
+
+import com.customer.rewards.model.RewardSummary;
+import com.customer.rewards.model.Transaction;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic data sets for the benchmarks.
+ */
+public final class BenchmarkData {
+
+    private BenchmarkData() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    /**
+     * Generates transactions for one customer, spread over the last four months and
+     * with amounts between 0 and 300 so that every reward tier is exercised.
+     *
+     * @param customerId the ID of the customer
+     * @param count      the number of transactions
+     * @param seed       the random seed
+     * @return the generated transactions
+     */
+    public static List<Transaction> transactions(String customerId, int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        LocalDateTime now = LocalDateTime.now();
+        List<Transaction> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double amount = random.nextInt(30000) / 100.0;
+            LocalDateTime date = now.minusMinutes(random.nextInt(4 * 31 * 24 * 60));
+            transactions.add(new Transaction(customerId + "-" + i, customerId, amount, date));
+        }
+        return transactions;
+    }
+
+    /**
+     * Generates transaction amounts between 0 and 300.
+     *
+     * @param count the number of amounts
+     * @param seed  the random seed
+     * @return the generated amounts
+     */
+    public static double[] amounts(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] amounts = new double[count];
+        for (int i = 0; i < count; i++) {
+            amounts[i] = random.nextInt(30000) / 100.0;
+        }
+        return amounts;
+    }
+
+    /**
+     * Builds a typical reward summary with three months of points.
+     *
+     * @param customerId the ID of the customer
+     * @return the summary
+     */
+    public static RewardSummary summary(String customerId) {
+        Map<YearMonth, Integer> monthlyPoints = new LinkedHashMap<>();
+        monthlyPoints.put(YearMonth.of(2025, 12), 1250);
+        monthlyPoints.put(YearMonth.of(2026, 1), 310);
+        monthlyPoints.put(YearMonth.of(2026, 2), 2045);
+        return new RewardSummary(customerId, monthlyPoints, 3605);
+    }
+}
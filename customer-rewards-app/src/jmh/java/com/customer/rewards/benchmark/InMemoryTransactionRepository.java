@@ -0,0 +1,84 @@
+package com.customer.rewards.benchmark;
+
+import com.customer.rewards.model.RewardSummary;
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.repository.TransactionRepository;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory stand-in for {@link TransactionRepository}, so benchmarks measure the Java code paths
+ * without a database. Only the methods used by the reward computations are supported.
+ * <p>
+ * Aggregations are answered by scoring each customer with the supplied scorer, which makes the
+ * all-customer benchmarks measure the per-customer computation plus the orchestration around it.
+ */
+public final class InMemoryTransactionRepository implements InvocationHandler {
+
+    private final Map<String, List<Transaction>> transactionsByCustomer;
+    private Function<String, RewardSummary> scorer;
+
+    private InMemoryTransactionRepository(List<Transaction> transactions) {
+        this.transactionsByCustomer = transactions.stream()
+                .collect(Collectors.groupingBy(Transaction::getCustomerId, TreeMap::new, Collectors.toList()));
+    }
+
+    /**
+     * Creates a repository over the given transactions.
+     *
+     * @param transactions the transactions to serve
+     * @return the handler, to set the scorer on, and the repository proxy
+     */
+    public static InMemoryTransactionRepository of(List<Transaction> transactions) {
+        return new InMemoryTransactionRepository(transactions);
+    }
+
+    /**
+     * Returns the repository proxy backed by this handler.
+     *
+     * @return the repository
+     */
+    public TransactionRepository repository() {
+        return (TransactionRepository) Proxy.newProxyInstance(TransactionRepository.class.getClassLoader(),
+                new Class<?>[]{TransactionRepository.class}, this);
+    }
+
+    /**
+     * Sets how aggregation methods compute the summary of one customer.
+     *
+     * @param scorer computes a customer's summary
+     */
+    public void setScorer(Function<String, RewardSummary> scorer) {
+        this.scorer = scorer;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "findByCustomerId" -> transactionsByCustomer.getOrDefault((String) args[0], List.of());
+            case "findByCustomerIdAndDateBetween" -> transactionsByCustomer.getOrDefault((String) args[0], List.of()).stream()
+                    .filter(transaction -> !transaction.getDate().isBefore((LocalDateTime) args[1])
+                            && !transaction.getDate().isAfter((LocalDateTime) args[2]))
+                    .toList();
+            case "existsByCustomerId" -> transactionsByCustomer.containsKey((String) args[0]);
+            case "streamCustomerIds" -> transactionsByCustomer.keySet().stream();
+            case "aggregateRewardSummaries" -> args.length == 2
+                    ? transactionsByCustomer.keySet().stream().map(scorer).toList()
+                    : ((Collection<String>) args[0]).stream().filter(transactionsByCustomer::containsKey).map(scorer).toList();
+            case "toString" -> "InMemoryTransactionRepository";
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            default -> throw new UnsupportedOperationException(method.getName());
+        };
+    }
+}
@@ -0,0 +1,68 @@
+package com.customer.rewards.benchmark;
+
+import com.customer.rewards.configuration.JacksonConfig;
+import com.customer.rewards.model.RewardSummary;
+import com.customer.rewards.service.RewardMetrics;
+import com.customer.rewards.service.RewardSummaryEncoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Measures writing the all-customers response of a thousand {@link RewardSummary} in each
+ * {@link RewardSummaryEncoder.Format}, with and without pre-encoding, and prints the payload size
+ * of each format.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RewardSummaryEncodingBenchmark {
+
+    @Param({"JSON", "CBOR", "SMILE", "PROTOBUF"})
+    private RewardSummaryEncoder.Format format;
+
+    @Param({"false", "true"})
+    private boolean preEncoded;
+
+    private RewardSummaryEncoder encoder;
+    private List<RewardSummary> summaries;
+    private ByteArrayOutputStream outputStream;
+
+    @Setup
+    public void setUp() throws IOException {
+        encoder = new RewardSummaryEncoder(new JacksonConfig().objectMapper(), new RewardMetrics(new SimpleMeterRegistry()),
+                preEncoded, 100_000);
+        summaries = IntStream.range(0, 1000).mapToObj(i -> BenchmarkData.summary("cust" + i)).toList();
+        outputStream = new ByteArrayOutputStream(1 << 17);
+
+        int thousand = encodeThousandSummaries();
+        outputStream.reset();
+        encoder.write(format, summaries.get(0), outputStream);
+        System.out.printf("%s payload: %d bytes per summary, %d bytes per thousand summaries%n", format, outputStream.size(), thousand);
+    }
+
+    @Benchmark
+    public int encodeThousandSummaries() throws IOException {
+        outputStream.reset();
+        encoder.writeAll(format, summaries, outputStream);
+        return outputStream.size();
+    }
+}
@@ -0,0 +1,53 @@
+package com.customer.rewards.benchmark;
+
+import com.customer.rewards.configuration.JacksonConfig;
+import com.customer.rewards.model.RewardSummary;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Measures JSON serialization of {@link RewardSummary} with the application's {@link ObjectMapper}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RewardSummarySerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private RewardSummary summary;
+    private List<RewardSummary> summaries;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new JacksonConfig().objectMapper();
+        summary = BenchmarkData.summary("cust1");
+        summaries = IntStream.range(0, 1000).mapToObj(i -> BenchmarkData.summary("cust" + i)).toList();
+    }
+
+    @Benchmark
+    public byte[] serializeSummary() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(summary);
+    }
+
+    @Benchmark
+    public byte[] serializeThousandSummaries() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(summaries);
+    }
+}
@@ -0,0 +1,99 @@
+package com.customer.rewards.controller;
+
+import com.customer.rewards.EmbeddedMongoConfig;
+import com.customer.rewards.RewardsApplication;
+import com.customer.rewards.benchmark.BenchmarkData;
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.repository.TransactionRepository;
+import com.customer.rewards.util.Constants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of the rewards API over HTTP, comparing the servlet stack (Tomcat, blocking MongoDB
+ * driver) with the reactive stack (Netty, reactive MongoDB driver) under many concurrent clients.
+ * <p>
+ * Both stacks run in a fork with the same fixed heap against the same embedded MongoDB data set.
+ * The summary cache and the reward ledger are disabled so that every request reads the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms512m", "-Xmx512m"})
+@Threads(64)
+public class RewardsStackLoadBenchmark {
+
+    private static final int CUSTOMERS = 1000;
+    private static final int TRANSACTIONS_PER_CUSTOMER = 20;
+
+    @Param({"servlet", Constants.REACTIVE_PROFILE})
+    private String stack;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private String baseUri;
+
+    @Setup
+    public void setUp() {
+        SpringApplicationBuilder application = new SpringApplicationBuilder(RewardsApplication.class, EmbeddedMongoConfig.class)
+                .properties("server.port=0",
+                        "spring.cache.type=none",
+                        "rewards.ledger.enabled=false",
+                        "logging.level.root=WARN");
+        if (Constants.REACTIVE_PROFILE.equals(stack)) {
+            application.profiles(Constants.REACTIVE_PROFILE);
+        }
+        context = application.run();
+
+        List<Transaction> transactions = new ArrayList<>(CUSTOMERS * TRANSACTIONS_PER_CUSTOMER);
+        for (int i = 0; i < CUSTOMERS; i++) {
+            transactions.addAll(BenchmarkData.transactions("load" + i, TRANSACTIONS_PER_CUSTOMER, i));
+        }
+        context.getBean(TransactionRepository.class).saveAll(transactions);
+
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        baseUri = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/rewards/";
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int customerRewards() throws IOException, InterruptedException {
+        String customerId = "load" + ThreadLocalRandom.current().nextInt(CUSTOMERS);
+        HttpResponse<byte[]> response = httpClient.send(
+                HttpRequest.newBuilder(URI.create(baseUri + customerId)).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode() + " for " + customerId);
+        }
+        return response.body().length;
+    }
+}
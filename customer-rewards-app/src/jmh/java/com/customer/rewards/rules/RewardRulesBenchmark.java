@@ -0,0 +1,78 @@
+package com.customer.rewards.rules;
+
+import com.customer.rewards.benchmark.BenchmarkData;
+import com.customer.rewards.model.RewardCampaign;
+import com.customer.rewards.model.RewardRuleSet;
+import com.customer.rewards.model.RewardTier;
+import com.customer.rewards.util.RewardPoints;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-transaction reward point calculation with the default rules and with
+ * category tier tables and campaigns.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RewardRulesBenchmark {
+
+    private static final int AMOUNTS = 1024;
+    private static final String[] CATEGORIES = {null, "grocery", "fuel", "travel"};
+
+    @Param({"default", "campaigns"})
+    private String rules;
+
+    private RewardRules compiledRules;
+    private long[] cents;
+    private LocalDateTime date;
+
+    @Setup
+    public void setUp() {
+        RewardRuleSet ruleSet = RewardRuleSet.defaults();
+        if (rules.equals("campaigns")) {
+            LocalDate today = LocalDate.now();
+            ruleSet.setCategoryTiers(Map.of("grocery", List.of(new RewardTier(0, 2)), "fuel", List.of(new RewardTier(20, 1))));
+            ruleSet.setCampaigns(List.of(
+                    new RewardCampaign("double days", 2.0, today.minusDays(10), today.plusDays(10), null),
+                    new RewardCampaign("grocery boost", 1.5, today.minusDays(30), today, "grocery")));
+        }
+        compiledRules = RewardRules.compile(ruleSet);
+
+        double[] amounts = BenchmarkData.amounts(AMOUNTS, 42);
+        cents = new long[AMOUNTS];
+        for (int i = 0; i < AMOUNTS; i++) {
+            cents[i] = RewardPoints.toCents(amounts[i]);
+        }
+        date = LocalDateTime.now().minusDays(1);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(AMOUNTS)
+    public int points() {
+        int points = 0;
+        for (int i = 0; i < AMOUNTS; i++) {
+            points += compiledRules.points(cents[i], date, CATEGORIES[i & 3]);
+        }
+        return points;
+    }
+}
@@ -0,0 +1,73 @@
+package com.customer.rewards.service;
+
+import com.customer.rewards.benchmark.BenchmarkData;
+import com.customer.rewards.benchmark.InMemoryTransactionRepository;
+import com.customer.rewards.model.RewardSummary;
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.rules.RewardRuleEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link RewardService#getAllCustomerRewards()} against an in-memory repository,
+ * sequentially and with the parallel fan-out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AllCustomerRewardsBenchmark {
+
+    private static final int TRANSACTIONS_PER_CUSTOMER = 20;
+
+    @Param({"1000", "10000"})
+    private int customers;
+
+    @Param({"false", "true"})
+    private boolean parallel;
+
+    private ParallelRewardAggregator parallelRewardAggregator;
+    private RewardService rewardService;
+
+    @Setup
+    public void setUp() {
+        List<Transaction> transactions = new ArrayList<>(customers * TRANSACTIONS_PER_CUSTOMER);
+        for (int i = 0; i < customers; i++) {
+            transactions.addAll(BenchmarkData.transactions("cust" + i, TRANSACTIONS_PER_CUSTOMER, i));
+        }
+
+        InMemoryTransactionRepository repository = InMemoryTransactionRepository.of(transactions);
+        parallelRewardAggregator = new ParallelRewardAggregator(repository.repository(), 8, 500, 8, Duration.ofMinutes(1));
+        rewardService = new RewardService(repository.repository(), null, null, null, null, parallelRewardAggregator, null, new RewardRuleEngine(null, null), new RewardMetrics(new SimpleMeterRegistry()), Clock.systemDefaultZone(), false, parallel, false, 100, 1000, 3, 24);
+        repository.setScorer(rewardService::getRewardsByCustomer);
+    }
+
+    @TearDown
+    public void tearDown() {
+        parallelRewardAggregator.shutdown();
+    }
+
+    @Benchmark
+    public List<RewardSummary> getAllCustomerRewards() {
+        return rewardService.getAllCustomerRewards();
+    }
+}
@@ -0,0 +1,50 @@
+package com.customer.rewards.service;
+
+import com.customer.rewards.benchmark.BenchmarkData;
+import com.customer.rewards.benchmark.InMemoryTransactionRepository;
+import com.customer.rewards.model.RewardSummary;
+import com.customer.rewards.rules.RewardRuleEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-customer scoring loop of {@link RewardService#getRewardsByCustomer(String)}
+ * for customers with growing transaction histories.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerRewardsBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int transactions;
+
+    private RewardService rewardService;
+
+    @Setup
+    public void setUp() {
+        InMemoryTransactionRepository repository = InMemoryTransactionRepository.of(BenchmarkData.transactions("cust1", transactions, 42));
+        rewardService = new RewardService(repository.repository(), null, null, null, null, null, null, new RewardRuleEngine(null, null), new RewardMetrics(new SimpleMeterRegistry()), Clock.systemDefaultZone(), false, false, false, 100, 1000, 3, 24);
+    }
+
+    @Benchmark
+    public RewardSummary getRewardsByCustomer() {
+        return rewardService.getRewardsByCustomer("cust1");
+    }
+}
@@ -0,0 +1,92 @@
+package com.customer.rewards.service;
+
+import com.customer.rewards.benchmark.BenchmarkData;
+import com.customer.rewards.model.RewardSummary;
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.repository.TransactionPartitions;
+import com.customer.rewards.rules.RewardRuleEngine;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the scatter-gather all-customer computation of {@link PartitionedRewardAggregator} as the
+ * same data set is spread over 1 to 8 partitions, each served by its own embedded MongoDB server.
+ * <p>
+ * All servers share the benchmark JVM, so scaling levels off at the number of available cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PartitionedRewardsBenchmark {
+
+    private static final int CUSTOMERS = 2000;
+    private static final int TRANSACTIONS_PER_CUSTOMER = 20;
+
+    @Param({"1", "2", "4", "8"})
+    private int partitions;
+
+    private final List<MongoServer> servers = new ArrayList<>();
+    private final List<MongoClient> clients = new ArrayList<>();
+    private PartitionedRewardAggregator aggregator;
+    private LocalDateTime windowStart;
+
+    @Setup
+    public void setUp() {
+        List<MongoTemplate> templates = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            MongoServer server = new MongoServer(new MemoryBackend());
+            server.bind();
+            servers.add(server);
+            MongoClient client = MongoClients.create(server.getConnectionString());
+            clients.add(client);
+            templates.add(new MongoTemplate(client, "rewardsdb"));
+        }
+        TransactionPartitions transactionPartitions = new TransactionPartitions(templates, new RewardRuleEngine(null, null));
+
+        List<Transaction> transactions = new ArrayList<>(CUSTOMERS * TRANSACTIONS_PER_CUSTOMER);
+        for (int i = 0; i < CUSTOMERS; i++) {
+            transactions.addAll(BenchmarkData.transactions("cust" + i, TRANSACTIONS_PER_CUSTOMER, i));
+        }
+        transactionPartitions.insert(transactions);
+
+        aggregator = new PartitionedRewardAggregator(transactionPartitions, 0, Duration.ofMinutes(1));
+        windowStart = YearMonth.now().minusMonths(3).atDay(1).atStartOfDay();
+    }
+
+    @TearDown
+    public void tearDown() {
+        aggregator.shutdown();
+        clients.forEach(MongoClient::close);
+        servers.forEach(MongoServer::shutdownNow);
+    }
+
+    @Benchmark
+    public List<RewardSummary> aggregateAllCustomers() {
+        return aggregator.aggregate(windowStart, LocalDateTime.now());
+    }
+}
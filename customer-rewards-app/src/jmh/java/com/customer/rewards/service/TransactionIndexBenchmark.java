@@ -0,0 +1,100 @@
+package com.customer.rewards.service;
+
+import com.customer.rewards.EmbeddedMongoConfig;
+import com.customer.rewards.RewardsApplication;
+import com.customer.rewards.benchmark.BenchmarkData;
+import com.customer.rewards.model.RewardSummary;
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.util.TransactionColumns;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares per-customer reward reads over a custom window (which bypasses the summary cache)
+ * served by MongoDB with reads served by the in-memory {@link TransactionIndexService}, and prints
+ * the footprint of the index in bytes per transaction.
+ * <p>
+ * Runs against the in-process test MongoDB, so compare the two modes with each other rather than
+ * reading the absolute numbers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionIndexBenchmark {
+
+    private static final int CUSTOMERS = 1000;
+
+    @Param({"mongo", "index"})
+    private String mode;
+
+    @Param({"100"})
+    private int transactionsPerCustomer;
+
+    @Param({"false", "true"})
+    private boolean offHeap;
+
+    private ConfigurableApplicationContext context;
+    private RewardService rewardService;
+    private RewardWindow window;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(RewardsApplication.class, EmbeddedMongoConfig.class)
+                .web(WebApplicationType.NONE)
+                .properties("rewards.loader.source=classpath:none.json",
+                        "rewards.ledger.enabled=false",
+                        "rewards.index.enabled=" + "index".equals(mode),
+                        "rewards.index.off-heap=" + offHeap,
+                        "logging.level.root=WARN")
+                .run();
+
+        List<Transaction> transactions = new ArrayList<>(CUSTOMERS * transactionsPerCustomer);
+        for (int i = 0; i < CUSTOMERS; i++) {
+            transactions.addAll(BenchmarkData.transactions("cust" + i, transactionsPerCustomer, i));
+        }
+        context.getBean(MongoTemplate.class).insertAll(transactions);
+
+        rewardService = context.getBean(RewardService.class);
+        window = rewardService.rewardWindow(null, null, 3);
+
+        TransactionIndexService transactionIndexService = context.getBean(TransactionIndexService.class);
+        if (transactionIndexService.isEnabled()) {
+            transactionIndexService.rebuild().join();
+            TransactionColumns.Footprint footprint = transactionIndexService.footprint();
+            System.out.printf("Transaction index (%s): %d transactions, %d bytes, %.1f bytes per transaction%n",
+                    offHeap ? "off-heap" : "on-heap", footprint.transactions(), footprint.bytes(), footprint.bytesPerTransaction());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public RewardSummary getRewardsByCustomer() {
+        return rewardService.getRewardsByCustomer("cust" + ThreadLocalRandom.current().nextInt(CUSTOMERS), window);
+    }
+}
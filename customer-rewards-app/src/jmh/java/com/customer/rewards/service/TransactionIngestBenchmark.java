@@ -0,0 +1,76 @@
+package com.customer.rewards.service;
+
+import com.customer.rewards.EmbeddedMongoConfig;
+import com.customer.rewards.RewardsApplication;
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.repository.TransactionRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the insert throughput of many concurrent writers saving transactions one document at a
+ * time through the repository with submitting them to the micro-batching {@link TransactionIngestService}.
+ * <p>
+ * Runs against the in-process test MongoDB, so compare the two modes with each other rather than
+ * reading the absolute numbers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(64)
+public class TransactionIngestBenchmark {
+
+    @Param({"save", "micro-batch"})
+    private String mode;
+
+    private ConfigurableApplicationContext context;
+    private TransactionRepository transactionRepository;
+    private TransactionIngestService transactionIngestService;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(RewardsApplication.class, EmbeddedMongoConfig.class)
+                .web(WebApplicationType.NONE)
+                .properties("rewards.loader.source=classpath:none.json",
+                        "logging.level.root=WARN")
+                .run();
+        transactionRepository = context.getBean(TransactionRepository.class);
+        transactionIngestService = context.getBean(TransactionIngestService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object insert() {
+        Transaction transaction = new Transaction(null, "cust" + ThreadLocalRandom.current().nextInt(1000), 120.0,
+                LocalDateTime.now().minusDays(1));
+        return "save".equals(mode)
+                ? transactionRepository.save(transaction)
+                : transactionIngestService.submit(List.of(transaction)).join();
+    }
+}
@@ -1,51 +1,92 @@
 package com.customer.rewards;
 
+import com.customer.rewards.model.LoadReport;
 import com.customer.rewards.model.Transaction;
-import com.customer.rewards.repository.TransactionRepository;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import com.fasterxml.jackson.databind.SerializationFeature;
+import com.customer.rewards.service.RewardSnapshotService;
+import com.customer.rewards.service.TransactionBulkLoader;
+import com.customer.rewards.service.TransactionFileLoader;
 
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.io.Resource;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Component;
 
 import java.io.InputStream;
-import java.util.List;
+import java.nio.file.Path;
 
 /**
  * Loads transaction data from a JSON file into MongoDB
  * when the application starts.
+ * <p>
+ * The file is streamed into the database by the {@link TransactionBulkLoader}, so it may be far
+ * larger than the heap; its location is configured with {@code rewards.loader.source}. When
+ * {@code rewards.loader.directory} is set, the NDJSON and CSV files in that directory are loaded
+ * in parallel by the {@link TransactionFileLoader} instead. Nothing is loaded when the
+ * {@link RewardSnapshotService} restored a snapshot, since the database still holds the
+ * transactions it counted.
+ * <p>
+ * A load replaces the whole transactions collection, so it only runs while the collection is
+ * empty: transactions written through the API since the last load are kept across restarts.
+ * Set {@code rewards.loader.replace-existing} to reload the data over them.
  */
 @Component
 @Slf4j
 public class DataLoader implements CommandLineRunner {
 
-    private final TransactionRepository repository;
+    private final TransactionBulkLoader transactionBulkLoader;
+    private final TransactionFileLoader transactionFileLoader;
+    private final RewardSnapshotService rewardSnapshotService;
+    private final MongoTemplate mongoTemplate;
+    private final Resource source;
+    private final String directory;
+    private final boolean replaceExisting;
 
-    public DataLoader(TransactionRepository repository) {
-        this.repository = repository;
+    public DataLoader(TransactionBulkLoader transactionBulkLoader,
+                      TransactionFileLoader transactionFileLoader,
+                      RewardSnapshotService rewardSnapshotService,
+                      MongoTemplate mongoTemplate,
+                      @Value("${rewards.loader.source:classpath:transactions.json}") Resource source,
+                      @Value("${rewards.loader.directory:}") String directory,
+                      @Value("${rewards.loader.replace-existing:false}") boolean replaceExisting) {
+        this.transactionBulkLoader = transactionBulkLoader;
+        this.transactionFileLoader = transactionFileLoader;
+        this.rewardSnapshotService = rewardSnapshotService;
+        this.mongoTemplate = mongoTemplate;
+        this.source = source;
+        this.directory = directory;
+        this.replaceExisting = replaceExisting;
     }
 
     @Override
     public void run(String... args) throws Exception {
-        repository.deleteAll();
+        if (rewardSnapshotService.isRestored()) {
+            log.info("Restored a reward snapshot of the transactions in MongoDB. Skipping data load.");
+            return;
+        }
 
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.registerModule(new JavaTimeModule());
-        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        long existing = mongoTemplate.estimatedCount(Transaction.class);
+        if (existing > 0 && !replaceExisting) {
+            log.info("MongoDB already holds about {} transactions. Skipping data load; set rewards.loader.replace-existing to replace them.", existing);
+            return;
+        }
 
-        try (InputStream is = getClass().getClassLoader().getResourceAsStream("transactions.json")) {
-            if (is == null) {
-                log.warn("transactions.json not found in classpath. Skipping data load.");
-                return;
-            }
+        if (!directory.isBlank()) {
+            LoadReport report = transactionFileLoader.loadDirectory(Path.of(directory));
+            log.info("Loaded {} transactions into MongoDB.", report.getLoadedRecords());
+            return;
+        }
+
+        if (!source.exists()) {
+            log.warn("{} not found. Skipping data load.", source.getDescription());
+            return;
+        }
 
-            List<Transaction> transactions = mapper.readValue(is, new TypeReference<List<Transaction>>() {});
-            repository.saveAll(transactions);
-            log.info("Loaded {} transactions into MongoDB.", transactions.size());
+        try (InputStream is = source.getInputStream()) {
+            LoadReport report = transactionBulkLoader.load(source.getDescription(), is);
+            log.info("Loaded {} transactions into MongoDB.", report.getResumedFromOffset() + report.getLoadedRecords());
         } catch (Exception e) {
             log.error("Failed to load transactions data", e);
             throw e;
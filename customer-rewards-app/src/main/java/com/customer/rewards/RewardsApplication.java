@@ -2,11 +2,15 @@ package com.customer.rewards;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Entry point for the Customer Rewards Spring Boot application.
  */
 @SpringBootApplication
+@EnableCaching
+@EnableScheduling
 public class RewardsApplication {
 
     /**
@@ -0,0 +1,24 @@
+package com.customer.rewards.configuration;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+/**
+ * Configuration class providing the application's time source.
+ * Services read the current time from this {@link Clock} so tests can pin it.
+ */
+@Configuration
+public class ClockConfig {
+
+	/**
+	 * Provides the system clock in the default time zone, the zone in which transaction dates are stored.
+	 *
+	 * @return the system clock
+	 */
+	@Bean
+	public Clock clock() {
+		return Clock.systemDefaultZone();
+	}
+}
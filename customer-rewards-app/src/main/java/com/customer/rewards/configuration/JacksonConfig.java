@@ -2,9 +2,13 @@ package com.customer.rewards.configuration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 
 /**
  * Configuration class for customizing Jackson's ObjectMapper.
@@ -24,7 +28,38 @@ public class JacksonConfig {
      */
     @Bean
     public ObjectMapper objectMapper() {
-        ObjectMapper mapper = new ObjectMapper();
+        return configure(new ObjectMapper());
+    }
+
+    /**
+     * Provides the converter for {@code application/cbor} responses, configured like the JSON
+     * {@link ObjectMapper}. It replaces the converter Spring MVC registers by default.
+     *
+     * @return the CBOR message converter
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter() {
+        return new MappingJackson2CborHttpMessageConverter(configure(new CBORMapper()));
+    }
+
+    /**
+     * Provides the converter for {@code application/x-jackson-smile} responses, configured like
+     * the JSON {@link ObjectMapper}. It replaces the converter Spring MVC registers by default.
+     *
+     * @return the Smile message converter
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter() {
+        return new MappingJackson2SmileHttpMessageConverter(configure(new SmileMapper()));
+    }
+
+    /**
+     * Applies the application's Jackson settings to a mapper of any data format.
+     *
+     * @param mapper the mapper to configure
+     * @return the same mapper
+     */
+    public static <T extends ObjectMapper> T configure(T mapper) {
         mapper.registerModule(new JavaTimeModule());
         mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
         return mapper;
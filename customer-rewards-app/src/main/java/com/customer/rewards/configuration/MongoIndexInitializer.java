@@ -0,0 +1,131 @@
+package com.customer.rewards.configuration;
+
+import com.customer.rewards.model.RewardLedgerEntry;
+import com.customer.rewards.model.Transaction;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.StreamSupport;
+
+/**
+ * Declares and verifies the MongoDB indexes the application's queries rely on.
+ * <p>
+ * Spring Boot disables automatic index creation, so on startup the indexes declared on the
+ * mapped documents are created (unless {@code rewards.indexes.create-on-startup} is false)
+ * and every collection is checked for missing indexes, which are reported in the log.
+ */
+@Component
+@Slf4j
+public class MongoIndexInitializer {
+
+    /** Documents whose declared indexes are managed. */
+    private static final List<Class<?>> INDEXED_DOCUMENTS = List.of(Transaction.class, RewardLedgerEntry.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean createOnStartup;
+
+    public MongoIndexInitializer(MongoTemplate mongoTemplate,
+                                 @Value("${rewards.indexes.create-on-startup:true}") boolean createOnStartup) {
+        this.mongoTemplate = mongoTemplate;
+        this.createOnStartup = createOnStartup;
+    }
+
+    /**
+     * Creates the declared indexes if enabled, then logs the verification report.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void initializeIndexes() {
+        try {
+            if (createOnStartup) {
+                for (Class<?> document : INDEXED_DOCUMENTS) {
+                    ensureIndexes(document, mongoTemplate.getCollectionName(document));
+                }
+            }
+
+            Map<String, List<Document>> missingIndexes = findMissingIndexes();
+            if (missingIndexes.isEmpty()) {
+                log.info("MongoDB index check passed for collections {}",
+                        INDEXED_DOCUMENTS.stream().map(mongoTemplate::getCollectionName).toList());
+            } else {
+                missingIndexes.forEach((collection, keys) ->
+                        log.warn("Collection '{}' is missing expected indexes {}; queries on it will scan the collection", collection, keys));
+            }
+        } catch (RuntimeException e) {
+            // Missing indexes only cost performance, so they must not prevent startup
+            log.error("Failed to create or verify MongoDB indexes", e);
+        }
+    }
+
+    /**
+     * Creates the indexes declared on a mapped document in the given collection, e.g. in a
+     * staging collection that will later replace the document's own collection.
+     *
+     * @param document       the mapped document class
+     * @param collectionName the collection to create the indexes in
+     */
+    public void ensureIndexes(Class<?> document, String collectionName) {
+        IndexOperations indexOperations = mongoTemplate.indexOps(collectionName);
+        declaredIndexes(document).forEach(indexOperations::ensureIndex);
+    }
+
+    /**
+     * Compares the declared indexes of every managed document with the indexes present in its collection.
+     *
+     * @return the keys of the missing indexes by collection name; empty if none are missing
+     */
+    public Map<String, List<Document>> findMissingIndexes() {
+        Map<String, List<Document>> missingIndexes = new LinkedHashMap<>();
+
+        for (Class<?> document : INDEXED_DOCUMENTS) {
+            List<Document> existingKeys = mongoTemplate.indexOps(document).getIndexInfo().stream()
+                    .map(MongoIndexInitializer::keysOf)
+                    .toList();
+
+            List<Document> missing = new ArrayList<>();
+            for (IndexDefinition index : declaredIndexes(document)) {
+                // Documents compare as maps, so compare key order explicitly as well
+                boolean present = existingKeys.stream().anyMatch(keys ->
+                        new ArrayList<>(keys.entrySet()).equals(new ArrayList<>(index.getIndexKeys().entrySet())));
+                if (!present) {
+                    missing.add(index.getIndexKeys());
+                }
+            }
+
+            if (!missing.isEmpty()) {
+                missingIndexes.put(mongoTemplate.getCollectionName(document), missing);
+            }
+        }
+        return missingIndexes;
+    }
+
+    private List<IndexDefinition> declaredIndexes(Class<?> document) {
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        return StreamSupport.stream(resolver.resolveIndexFor(document).spliterator(), false)
+                .map(IndexDefinition.class::cast)
+                .toList();
+    }
+
+    private static Document keysOf(IndexInfo indexInfo) {
+        Document keys = new Document();
+        for (IndexField field : indexInfo.getIndexFields()) {
+            keys.append(field.getKey(), field.getDirection() == Sort.Direction.DESC ? -1 : 1);
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,26 @@
+package com.customer.rewards.configuration;
+
+import com.customer.rewards.util.Constants;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Configuration class for the reactive serving stack, active with the {@code reactive} profile.
+ */
+@Configuration
+@Profile(Constants.REACTIVE_PROFILE)
+public class ReactiveStackConfig {
+
+	/**
+	 * Serves WebFlux from Netty. Tomcat is on the classpath for the servlet stack and would
+	 * otherwise be preferred, running the reactive handlers through a servlet adapter.
+	 *
+	 * @return the Netty server factory; port and other {@code server.*} settings are applied by Spring Boot
+	 */
+	@Bean
+	public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+		return new NettyReactiveWebServerFactory();
+	}
+}
@@ -0,0 +1,38 @@
+package com.customer.rewards.configuration;
+
+import com.customer.rewards.service.RewardSummaryEncoder;
+import com.customer.rewards.util.Constants;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Configuration class registering the {@link RewardSummaryHttpMessageConverter} on the servlet stack,
+ * so that reward summaries are negotiated as JSON, CBOR, Smile or Protobuf from the Accept header.
+ * <p>
+ * With pre-encoding it is placed first, so that it writes every format; otherwise it is placed
+ * last, so that requests accepting any type still get JSON.
+ */
+@Configuration
+@Profile("!" + Constants.REACTIVE_PROFILE)
+public class RewardEncodingConfig implements WebMvcConfigurer {
+
+    private final RewardSummaryEncoder rewardSummaryEncoder;
+
+    public RewardEncodingConfig(RewardSummaryEncoder rewardSummaryEncoder) {
+        this.rewardSummaryEncoder = rewardSummaryEncoder;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        HttpMessageConverter<?> converter = new RewardSummaryHttpMessageConverter(rewardSummaryEncoder);
+        if (rewardSummaryEncoder.isPreEncoded()) {
+            converters.add(0, converter);
+        } else {
+            converters.add(converter);
+        }
+    }
+}
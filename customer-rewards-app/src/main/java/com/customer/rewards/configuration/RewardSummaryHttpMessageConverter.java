@@ -0,0 +1,84 @@
+package com.customer.rewards.configuration;
+
+import com.customer.rewards.model.RewardSummary;
+import com.customer.rewards.service.RewardSummaryEncoder;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes {@link RewardSummary} and {@code List<RewardSummary>} responses through the
+ * {@link RewardSummaryEncoder}: as Protobuf, and in every other format when pre-encoding is enabled.
+ * Other types, and the formats this converter does not write, are left to the Jackson converters.
+ */
+public class RewardSummaryHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    private final RewardSummaryEncoder rewardSummaryEncoder;
+
+    public RewardSummaryHttpMessageConverter(RewardSummaryEncoder rewardSummaryEncoder) {
+        super(rewardSummaryEncoder.isPreEncoded()
+                ? Arrays.stream(RewardSummaryEncoder.Format.values()).map(RewardSummaryEncoder.Format::mediaType).toArray(MediaType[]::new)
+                : new MediaType[]{RewardSummaryEncoder.Format.PROTOBUF.mediaType()});
+        this.rewardSummaryEncoder = rewardSummaryEncoder;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return RewardSummary.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        if (type instanceof ParameterizedType parameterized && List.class.isAssignableFrom(clazz)) {
+            return parameterized.getActualTypeArguments()[0] == RewardSummary.class && canWrite(mediaType);
+        }
+        return supports(clazz) && canWrite(mediaType);
+    }
+
+    /**
+     * Also lists the media types for lists, whose element type {@link #canWrite(Type, Class, MediaType)} checks.
+     */
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return supports(clazz) || List.class.isAssignableFrom(clazz) ? getSupportedMediaTypes() : List.of();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        RewardSummaryEncoder.Format format = RewardSummaryEncoder.Format.of(outputMessage.getHeaders().getContentType());
+        if (value instanceof RewardSummary summary) {
+            rewardSummaryEncoder.write(format, summary, outputMessage.getBody());
+        } else {
+            rewardSummaryEncoder.writeAll(format, (List<RewardSummary>) value, outputMessage.getBody());
+        }
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Reward summaries are not read by this converter", inputMessage);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Reward summaries are not read by this converter", inputMessage);
+    }
+}
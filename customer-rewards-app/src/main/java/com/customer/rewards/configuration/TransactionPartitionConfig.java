@@ -0,0 +1,43 @@
+package com.customer.rewards.configuration;
+
+import com.customer.rewards.repository.TransactionPartitions;
+import com.customer.rewards.rules.RewardRuleEngine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+
+/**
+ * Configuration class providing the {@link TransactionPartitions}.
+ * <p>
+ * The application serves the primary database as its single partition. Only the all-customer
+ * computation knows how to read several partitions: writes, the startup data load, per-customer
+ * reads, the ledger, the leaderboard and the index all use the primary database. Serving
+ * partitioned data would make those disagree with the all-customer results, so the application
+ * refuses to start when {@code rewards.partitions.uris} is set. Multi-database
+ * {@link TransactionPartitions} are built directly by the benchmarks and tests.
+ */
+@Configuration
+public class TransactionPartitionConfig {
+
+	/**
+	 * Provides the transaction partitions: the primary database alone.
+	 *
+	 * @param mongoTemplate    the template of the primary database
+	 * @param rewardRuleEngine the reward rules used to score transactions
+	 * @param uris             the connection strings of the partitions; must be empty
+	 * @return the partitions
+	 * @throws IllegalStateException if partitions are configured
+	 */
+	@Bean
+	public TransactionPartitions transactionPartitions(MongoTemplate mongoTemplate, RewardRuleEngine rewardRuleEngine,
+													   @Value("${rewards.partitions.uris:}") List<String> uris) {
+		if (!uris.isEmpty()) {
+			throw new IllegalStateException("rewards.partitions.uris is set, but only the all-customer computation reads partitions; "
+					+ "writes and every other read use the primary database. Remove the property to start.");
+		}
+		return new TransactionPartitions(List.of(mongoTemplate), rewardRuleEngine);
+	}
+}
@@ -0,0 +1,217 @@
+package com.customer.rewards.controller;
+
+import com.customer.rewards.model.BatchRewardsRequest;
+import com.customer.rewards.model.BatchRewardsResponse;
+import com.customer.rewards.model.RewardSummary;
+import com.customer.rewards.model.RewardSummaryChanges;
+import com.customer.rewards.model.RewardSummaryPage;
+import com.customer.rewards.service.ReactiveRewardService;
+import com.customer.rewards.service.RewardService;
+import com.customer.rewards.service.RewardVersionService;
+import com.customer.rewards.service.RewardWindow;
+import com.customer.rewards.util.Constants;
+import com.customer.rewards.util.LogSampler;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reactive REST controller for customer reward points, serving the same API as {@link RewardsController}
+ * when the {@code reactive} profile is active. Per-customer and all-customer rewards are computed without
+ * blocking; the paginated, batch and changes endpoints reuse the blocking {@link RewardService} on a
+ * bounded elastic scheduler so they never block an event-loop thread. Conditional requests are answered
+ * from the same {@link RewardVersionService} ETags, per requested format.
+ * <p>
+ * Unlike the servlet stack, per-customer and all-customer rewards are always read from MongoDB: see
+ * {@link ReactiveRewardService} for the read paths it does not take.
+ */
+@RestController
+@RequestMapping("/api/rewards")
+@Profile(Constants.REACTIVE_PROFILE)
+@Slf4j
+@Tag(name = "Customer Rewards", description = "REST API to calculate reward points for a customer")
+public class ReactiveRewardsController {
+
+    private final ReactiveRewardService reactiveRewardService;
+    private final RewardService rewardService;
+    private final RewardVersionService rewardVersionService;
+    private final LogSampler logSampler;
+
+    public ReactiveRewardsController(ReactiveRewardService reactiveRewardService, RewardService rewardService,
+                                     RewardVersionService rewardVersionService,
+                                     @Value("${rewards.logging.sample-rate:100}") int logSampleRate) {
+        this.reactiveRewardService = reactiveRewardService;
+        this.rewardService = rewardService;
+        this.rewardVersionService = rewardVersionService;
+        this.logSampler = new LogSampler(logSampleRate);
+    }
+
+    /**
+     * Returns the reward summary for the given customer ID, with a strong ETag for the requested
+     * media types that is answered with 304 without computing the summary while it still matches.
+     *
+     * @param customerId the ID of the customer
+     * @param from       the first day of the reward window (ISO date), optional
+     * @param to         the last day of the reward window (ISO date), optional; defaults to today
+     * @param months     the number of whole months before the last month to include, optional
+     * @param exchange   the exchange, for its conditional and {@code Vary} headers
+     * @return the reward summary including monthly and total points, or {@code null} when not modified
+     */
+    @GetMapping("/{customerId}")
+    @Operation(summary = "Get rewards by customer ID", description = "Retrieve monthly and total reward points for a customer, optionally over a custom window given by from/to dates or a number of months.")
+    public Mono<RewardSummary> getRewards(@PathVariable @NotBlank String customerId,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                          @RequestParam(required = false) Integer months,
+                                          ServerWebExchange exchange) {
+        if (log.isDebugEnabled() && logSampler.sample()) {
+            log.debug("Fetching rewards for customerId: {}, from: {}, to: {}, months: {}", customerId, from, to, months);
+        }
+        RewardWindow window = reactiveRewardService.rewardWindow(from, to, months);
+        if (exchange.checkNotModified(etag(rewardVersionService.customerVersion(customerId, window), exchange))) {
+            return null;
+        }
+        return reactiveRewardService.getRewardsByCustomer(customerId, window);
+    }
+
+    /**
+     * Returns the reward summaries for all customers as a JSON array, written as the summaries are
+     * computed, with a strong ETag for the requested media types that is answered with 304 while no
+     * summary has changed.
+     *
+     * @param from     the first day of the reward window (ISO date), optional
+     * @param to       the last day of the reward window (ISO date), optional; defaults to today
+     * @param months   the number of whole months before the last month to include, optional
+     * @param exchange the exchange, for its conditional and {@code Vary} headers
+     * @return the reward summaries for all customers, ordered by customer ID, or {@code null} when not modified
+     */
+    @GetMapping("/get-all-customer")
+    @Operation(summary = "Get rewards for all customers", description = "Retrieve monthly and total reward points for all customers, optionally over a custom window given by from/to dates or a number of months.")
+    public Flux<RewardSummary> getAllCustomerRewards(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                     @RequestParam(required = false) Integer months,
+                                                     ServerWebExchange exchange) {
+        if (log.isDebugEnabled() && logSampler.sample()) {
+            log.debug("Fetching rewards for all customers, from: {}, to: {}, months: {}", from, to, months);
+        }
+        RewardWindow window = reactiveRewardService.rewardWindow(from, to, months);
+        if (exchange.checkNotModified(etag(rewardVersionService.currentVersion(window), exchange))) {
+            return null;
+        }
+        return reactiveRewardService.streamAllCustomerRewards(window);
+    }
+
+    /**
+     * Returns the reward summaries of the customers that changed since an earlier version, or of
+     * all customers when that version cannot be used, together with the current version.
+     *
+     * @param since  the version returned by the previous request; omit to get every summary
+     * @param from   the first day of the reward window (ISO date), optional
+     * @param to     the last day of the reward window (ISO date), optional; defaults to today
+     * @param months the number of whole months before the last month to include, optional
+     * @return the changed summaries and the version to pass as {@code since} next time
+     */
+    @GetMapping("/get-all-customer/changes")
+    @Operation(summary = "Get the rewards that changed since a version", description = "Retrieve the reward points of the customers whose rewards changed since the version returned by the previous call, or of all customers when that version is unknown or outdated.")
+    public Mono<RewardSummaryChanges> getCustomerRewardsChanges(@RequestParam(required = false) String since,
+                                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                @RequestParam(required = false) Integer months) {
+        if (log.isDebugEnabled() && logSampler.sample()) {
+            log.debug("Fetching rewards changed since: {}, from: {}, to: {}, months: {}", since, from, to, months);
+        }
+        RewardWindow window = reactiveRewardService.rewardWindow(from, to, months);
+        // Versioned before computing, so that a change made meanwhile is listed again next time
+        String version = rewardVersionService.currentVersion(window);
+        Set<String> changed = rewardVersionService.customersChangedSince(since, window);
+        return Mono.fromCallable(() -> {
+                    List<RewardSummary> summaries = changed == null
+                            ? rewardService.getAllCustomerRewards(window)
+                            : rewardService.getCustomerRewards(changed, window);
+                    return RewardSummaryChanges.builder()
+                            .version(version)
+                            .delta(changed != null)
+                            .summaries(summaries)
+                            .build();
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Streams the reward summaries for all customers as newline-delimited JSON.
+     *
+     * @return the reward summaries for all customers, one JSON document per line
+     */
+    @GetMapping(value = "/get-all-customer/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream rewards for all customers", description = "Stream monthly and total reward points for all customers as newline-delimited JSON.")
+    public Flux<RewardSummary> streamAllCustomerRewards() {
+        if (log.isDebugEnabled() && logSampler.sample()) {
+            log.debug("Streaming rewards for all customers");
+        }
+        return reactiveRewardService.streamAllCustomerRewards(reactiveRewardService.rewardWindow(null, null, null));
+    }
+
+    /**
+     * Returns the reward summaries for many customers in one request.
+     *
+     * @param request the customer IDs to look up
+     * @return the summaries keyed by customer ID, and the IDs that were not found
+     */
+    @PostMapping("/batch")
+    @Operation(summary = "Get rewards for a batch of customers", description = "Retrieve monthly and total reward points for up to " + Constants.MAX_BATCH_SIZE + " customers; unknown customers are reported as not found.")
+    public Mono<BatchRewardsResponse> getBatchRewards(@Valid @RequestBody BatchRewardsRequest request) {
+        if (log.isDebugEnabled() && logSampler.sample()) {
+            log.debug("Fetching rewards for a batch of {} customers", request.getCustomerIds().size());
+        }
+        return Mono.fromCallable(() -> rewardService.getRewardsByCustomers(request.getCustomerIds()))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Returns one page of reward summaries, ordered by customer ID.
+     *
+     * @param pageToken the continuation token returned with the previous page; omit for the first page
+     * @param pageSize  the number of customers per page; defaults to the configured page size
+     * @return the page of reward summaries and the token for the next page
+     */
+    @GetMapping("/get-all-customer/page")
+    @Operation(summary = "Get a page of rewards for all customers", description = "Retrieve monthly and total reward points for one page of customers, with a continuation token for the next page.")
+    public Mono<RewardSummaryPage> getCustomerRewardsPage(@RequestParam(required = false) String pageToken,
+                                                          @RequestParam(required = false) Integer pageSize) {
+        if (log.isDebugEnabled() && logSampler.sample()) {
+            log.debug("Fetching rewards page for pageToken: {}, pageSize: {}", pageToken, pageSize);
+        }
+        return Mono.fromCallable(() -> rewardService.getCustomerRewardsPage(pageToken, pageSize))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Returns the ETag of a version for the media types the request accepts, and marks the response
+     * as varying by {@code Accept}, whether it is sent in full or answered with 304.
+     */
+    private static String etag(String version, ServerWebExchange exchange) {
+        exchange.getResponse().getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        return RewardVersionService.etag(version, exchange.getRequest().getHeaders().getFirst(HttpHeaders.ACCEPT));
+    }
+}
@@ -0,0 +1,59 @@
+package com.customer.rewards.controller;
+
+import com.customer.rewards.model.Leaderboard;
+import com.customer.rewards.model.LeaderboardEntry;
+import com.customer.rewards.service.RewardLeaderboardService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * REST controller for the rewards leaderboard, on either serving stack. Reads may rebuild the board from
+ * MongoDB, so they run on a bounded elastic scheduler and never block an event-loop thread under the
+ * {@code reactive} profile.
+ */
+@RestController
+@RequestMapping("/api/rewards/leaderboard")
+@Slf4j
+@Tag(name = "Rewards Leaderboard", description = "REST API to rank customers by reward points")
+public class RewardLeaderboardController {
+
+    private final RewardLeaderboardService rewardLeaderboardService;
+
+    @Autowired
+    public RewardLeaderboardController(RewardLeaderboardService rewardLeaderboardService) {
+        this.rewardLeaderboardService = rewardLeaderboardService;
+    }
+
+    /**
+     * Retrieves the customers with the most points over the default reward window.
+     *
+     * @param size the number of customers to list (optional)
+     * @return the top customers, highest points first
+     */
+    @GetMapping
+    @Operation(summary = "Get top customers", description = "Fetch the customers with the most reward points over the default reward window.")
+    public Mono<Leaderboard> getTopCustomers(@RequestParam(required = false) Integer size) {
+        return Mono.fromCallable(() -> rewardLeaderboardService.getTopCustomers(size)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Retrieves a customer's rank over the default reward window.
+     *
+     * @param customerId the ID of the customer
+     * @return the customer's rank and points
+     */
+    @GetMapping("/{customerId}")
+    @Operation(summary = "Get customer rank", description = "Fetch a customer's rank and reward points over the default reward window.")
+    public Mono<LeaderboardEntry> getCustomerRank(@PathVariable String customerId) {
+        return Mono.fromCallable(() -> rewardLeaderboardService.getCustomerRank(customerId)).subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,47 @@
+package com.customer.rewards.controller;
+
+import com.customer.rewards.model.LedgerReconciliationReport;
+import com.customer.rewards.service.RewardLedgerService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * REST controller for maintaining the precomputed reward ledger, on either serving stack. Reconciliation
+ * reads and writes MongoDB, so it runs on a bounded elastic scheduler and never blocks an event-loop
+ * thread under the {@code reactive} profile.
+ */
+@RestController
+@RequestMapping("/api/rewards/ledger")
+@Slf4j
+@Tag(name = "Reward Ledger", description = "REST API to reconcile the precomputed reward ledger")
+public class RewardLedgerController {
+
+    private final RewardLedgerService rewardLedgerService;
+
+    @Autowired
+    public RewardLedgerController(RewardLedgerService rewardLedgerService) {
+        this.rewardLedgerService = rewardLedgerService;
+    }
+
+    /**
+     * Recomputes the ledger from the raw transactions and reports any drift.
+     *
+     * @param repair whether drifted entries should be corrected
+     * @return the reconciliation report
+     */
+    @PostMapping("/reconcile")
+    @Operation(summary = "Reconcile the reward ledger", description = "Recompute the reward ledger from raw transactions, report drift and optionally repair it.")
+    public Mono<LedgerReconciliationReport> reconcile(@RequestParam(defaultValue = "false") boolean repair) {
+        log.info("Reconciling reward ledger, repair: {}", repair);
+        return Mono.fromCallable(() -> rewardLedgerService.reconcile(repair)).subscribeOn(Schedulers.boundedElastic());
+    }
+}
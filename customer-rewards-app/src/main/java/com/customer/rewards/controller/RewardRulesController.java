@@ -0,0 +1,59 @@
+package com.customer.rewards.controller;
+
+import com.customer.rewards.model.RewardRuleSet;
+import com.customer.rewards.rules.RewardRuleEngine;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * REST controller for viewing and changing the reward rules at runtime, on either serving stack. Updates
+ * store the rules in MongoDB, so they run on a bounded elastic scheduler and never block an event-loop
+ * thread under the {@code reactive} profile.
+ */
+@RestController
+@RequestMapping("/api/rewards/rules")
+@Slf4j
+@Tag(name = "Reward Rules", description = "REST API to manage reward tiers, category tiers and campaigns")
+public class RewardRulesController {
+
+    private final RewardRuleEngine rewardRuleEngine;
+
+    @Autowired
+    public RewardRulesController(RewardRuleEngine rewardRuleEngine) {
+        this.rewardRuleEngine = rewardRuleEngine;
+    }
+
+    /**
+     * Returns the reward rules in effect.
+     *
+     * @return the rule set
+     */
+    @GetMapping
+    @Operation(summary = "Get reward rules", description = "Fetch the reward tiers, category tiers and campaigns in effect.")
+    public RewardRuleSet getRules() {
+        return rewardRuleEngine.current().getDefinition();
+    }
+
+    /**
+     * Replaces the reward rules. The new rules apply to every request started afterwards;
+     * cached summaries are evicted and the reward ledger is rescored.
+     *
+     * @param ruleSet the new rule set
+     * @return the rule set now in effect
+     */
+    @PutMapping
+    @Operation(summary = "Replace reward rules", description = "Validate and activate new reward tiers, category tiers and campaigns without a restart.")
+    public Mono<RewardRuleSet> updateRules(@RequestBody RewardRuleSet ruleSet) {
+        log.info("Updating reward rules");
+        return Mono.fromCallable(() -> rewardRuleEngine.update(ruleSet).getDefinition()).subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -1,59 +1,232 @@
 package com.customer.rewards.controller;
 
+import com.customer.rewards.model.BatchRewardsRequest;
+import com.customer.rewards.model.BatchRewardsResponse;
 import com.customer.rewards.model.RewardSummary;
+import com.customer.rewards.model.RewardSummaryChanges;
+import com.customer.rewards.model.RewardSummaryPage;
 import com.customer.rewards.service.RewardService;
+import com.customer.rewards.service.RewardVersionService;
+import com.customer.rewards.service.RewardWindow;
+import com.customer.rewards.util.Constants;
+import com.customer.rewards.util.LogSampler;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
- * REST controller for calculating customer reward points.
+ * REST controller for calculating customer reward points on the servlet stack. It is replaced by the
+ * {@link ReactiveRewardsController} when the {@code reactive} profile is active.
  */
 @RestController
 @RequestMapping("/api/rewards")
+@Profile("!" + Constants.REACTIVE_PROFILE)
 @Slf4j
 @Tag(name = "Customer Rewards", description = "REST API to calculate reward points for a customer")
 public class RewardsController {
 
     private final RewardService rewardService;
+    private final RewardVersionService rewardVersionService;
+    private final ObjectMapper objectMapper;
+    private final LogSampler logSampler;
 
     @Autowired
-    public RewardsController(RewardService rewardService) {
+    public RewardsController(RewardService rewardService, RewardVersionService rewardVersionService, ObjectMapper objectMapper,
+                             @Value("${rewards.logging.sample-rate:100}") int logSampleRate) {
         this.rewardService = rewardService;
+        this.rewardVersionService = rewardVersionService;
+        this.objectMapper = objectMapper;
+        this.logSampler = new LogSampler(logSampleRate);
     }
 
     /**
-     * Returns the reward summary for the given customer ID.
+     * Returns the reward summary for the given customer ID. Without window parameters the
+     * default reward window is used and the summary may be served from the cache.
+     * <p>
+     * The response carries a strong ETag from the {@link RewardVersionService} and the requested
+     * media types; a request whose {@code If-None-Match} still matches it is answered with 304
+     * without computing the summary.
      *
      * @param customerId the ID of the customer
-     * @return the reward summary including monthly and total points
+     * @param from       the first day of the reward window (ISO date), optional
+     * @param to         the last day of the reward window (ISO date), optional; defaults to today
+     * @param months     the number of whole months before the last month to include, optional
+     * @param webRequest the request, for its conditional headers
+     * @param response   the response, for its {@code Vary} header
+     * @return the reward summary including monthly and total points, or {@code null} when not modified
      */
     @GetMapping("/{customerId}")
-    @Operation(summary = "Get rewards by customer ID", description = "Retrieve monthly and total reward points for a customer.")
-    public RewardSummary getRewards(@PathVariable @NotBlank String customerId) {
-        log.info("Fetching rewards for customerId: {}", customerId);
-        return rewardService.getRewardsByCustomer(customerId);
+    @Operation(summary = "Get rewards by customer ID", description = "Retrieve monthly and total reward points for a customer, optionally over a custom window given by from/to dates or a number of months.")
+    public RewardSummary getRewards(@PathVariable @NotBlank String customerId,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                    @RequestParam(required = false) Integer months,
+                                    WebRequest webRequest,
+                                    HttpServletResponse response) {
+        if (log.isDebugEnabled() && logSampler.sample()) {
+            log.debug("Fetching rewards for customerId: {}, from: {}, to: {}, months: {}", customerId, from, to, months);
+        }
+        RewardWindow window = rewardService.rewardWindow(from, to, months);
+        if (webRequest.checkNotModified(etag(rewardVersionService.customerVersion(customerId, window), webRequest, response))) {
+            return null;
+        }
+        if (from == null && to == null && months == null) {
+            return rewardService.getRewardsByCustomer(customerId);
+        }
+        return rewardService.getRewardsByCustomer(customerId, window);
     }
 
     /**
-     * Returns the reward summaries for all customers.
+     * Returns the reward summaries for all customers, with a strong ETag for the requested media
+     * types that is answered with 304 while no summary has changed.
      *
-     * @return a list of reward summaries for all customers
+     * @param from       the first day of the reward window (ISO date), optional
+     * @param to         the last day of the reward window (ISO date), optional; defaults to today
+     * @param months     the number of whole months before the last month to include, optional
+     * @param webRequest the request, for its conditional headers
+     * @param response   the response, for its {@code Vary} header
+     * @return a list of reward summaries for all customers, or {@code null} when not modified
      */
     @GetMapping("/get-all-customer")
-    @Operation(summary = "Get rewards for all customers", description = "Retrieve monthly and total reward points for all customers.")
-    public List<RewardSummary> getAllCustomerRewards() {
-        log.info("Fetching rewards for all customers");
-        return rewardService.getAllCustomerRewards();
+    @Operation(summary = "Get rewards for all customers", description = "Retrieve monthly and total reward points for all customers, optionally over a custom window given by from/to dates or a number of months.")
+    public List<RewardSummary> getAllCustomerRewards(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                     @RequestParam(required = false) Integer months,
+                                                     WebRequest webRequest,
+                                                     HttpServletResponse response) {
+        if (log.isDebugEnabled() && logSampler.sample()) {
+            log.debug("Fetching rewards for all customers, from: {}, to: {}, months: {}", from, to, months);
+        }
+        RewardWindow window = rewardService.rewardWindow(from, to, months);
+        if (webRequest.checkNotModified(etag(rewardVersionService.currentVersion(window), webRequest, response))) {
+            return null;
+        }
+        return rewardService.getAllCustomerRewards(window);
+    }
+
+    /**
+     * Returns the reward summaries of the customers that changed since an earlier version, or of
+     * all customers when that version cannot be used, together with the current version.
+     *
+     * @param since  the version returned by the previous request; omit to get every summary
+     * @param from   the first day of the reward window (ISO date), optional
+     * @param to     the last day of the reward window (ISO date), optional; defaults to today
+     * @param months the number of whole months before the last month to include, optional
+     * @return the changed summaries and the version to pass as {@code since} next time
+     */
+    @GetMapping("/get-all-customer/changes")
+    @Operation(summary = "Get the rewards that changed since a version", description = "Retrieve the reward points of the customers whose rewards changed since the version returned by the previous call, or of all customers when that version is unknown or outdated.")
+    public RewardSummaryChanges getCustomerRewardsChanges(@RequestParam(required = false) String since,
+                                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                          @RequestParam(required = false) Integer months) {
+        if (log.isDebugEnabled() && logSampler.sample()) {
+            log.debug("Fetching rewards changed since: {}, from: {}, to: {}, months: {}", since, from, to, months);
+        }
+        RewardWindow window = rewardService.rewardWindow(from, to, months);
+        // Versioned before computing, so that a change made meanwhile is listed again next time
+        String version = rewardVersionService.currentVersion(window);
+        Set<String> changed = rewardVersionService.customersChangedSince(since, window);
+        List<RewardSummary> summaries = changed == null
+                ? rewardService.getAllCustomerRewards(window)
+                : rewardService.getCustomerRewards(changed, window);
+        return RewardSummaryChanges.builder()
+                .version(version)
+                .delta(changed != null)
+                .summaries(summaries)
+                .build();
+    }
+
+    /**
+     * Returns the reward summaries for many customers in one request.
+     *
+     * @param request the customer IDs to look up
+     * @return the summaries keyed by customer ID, and the IDs that were not found
+     */
+    @PostMapping("/batch")
+    @Operation(summary = "Get rewards for a batch of customers", description = "Retrieve monthly and total reward points for up to " + Constants.MAX_BATCH_SIZE + " customers; unknown customers are reported as not found.")
+    public BatchRewardsResponse getBatchRewards(@Valid @RequestBody BatchRewardsRequest request) {
+        if (log.isDebugEnabled() && logSampler.sample()) {
+            log.debug("Fetching rewards for a batch of {} customers", request.getCustomerIds().size());
+        }
+        return rewardService.getRewardsByCustomers(request.getCustomerIds());
+    }
+
+    /**
+     * Returns one page of reward summaries, ordered by customer ID.
+     *
+     * @param pageToken the continuation token returned with the previous page; omit for the first page
+     * @param pageSize  the number of customers per page; defaults to the configured page size
+     * @return the page of reward summaries and the token for the next page
+     */
+    @GetMapping("/get-all-customer/page")
+    @Operation(summary = "Get a page of rewards for all customers", description = "Retrieve monthly and total reward points for one page of customers, with a continuation token for the next page.")
+    public RewardSummaryPage getCustomerRewardsPage(@RequestParam(required = false) String pageToken,
+                                                    @RequestParam(required = false) Integer pageSize) {
+        if (log.isDebugEnabled() && logSampler.sample()) {
+            log.debug("Fetching rewards page for pageToken: {}, pageSize: {}", pageToken, pageSize);
+        }
+        return rewardService.getCustomerRewardsPage(pageToken, pageSize);
+    }
+
+    /**
+     * Streams the reward summaries for all customers as newline-delimited JSON.
+     * Each summary is written and flushed as soon as it has been computed.
+     *
+     * @return a streaming response body with one JSON summary per line
+     */
+    @GetMapping(value = "/get-all-customer/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream rewards for all customers", description = "Stream monthly and total reward points for all customers as newline-delimited JSON.")
+    public ResponseEntity<StreamingResponseBody> streamAllCustomerRewards() {
+        if (log.isDebugEnabled() && logSampler.sample()) {
+            log.debug("Streaming rewards for all customers");
+        }
+        StreamingResponseBody body = outputStream -> {
+            try (Stream<RewardSummary> summaries = rewardService.streamAllCustomerRewards()) {
+                Iterator<RewardSummary> iterator = summaries.iterator();
+                while (iterator.hasNext()) {
+                    // One document per write: a shared generator would separate root values with a space
+                    outputStream.write(objectMapper.writeValueAsBytes(iterator.next()));
+                    outputStream.write('\n');
+                    outputStream.flush();
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
+    /**
+     * Returns the ETag of a version for the media types the request accepts, and marks the response
+     * as varying by {@code Accept}, whether it is sent in full or answered with 304.
+     */
+    private static String etag(String version, WebRequest webRequest, HttpServletResponse response) {
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        return RewardVersionService.etag(version, webRequest.getHeader(HttpHeaders.ACCEPT));
+    }
 }
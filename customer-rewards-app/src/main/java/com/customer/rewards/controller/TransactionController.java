@@ -0,0 +1,75 @@
+package com.customer.rewards.controller;
+
+import com.customer.rewards.exception.TransactionConflictException;
+import com.customer.rewards.model.BulkTransactionsRequest;
+import com.customer.rewards.model.BulkTransactionsResponse;
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.service.TransactionIngestService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import jakarta.validation.Valid;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * REST controller for writing transactions.
+ * <p>
+ * Writes are acknowledged asynchronously, once the micro-batch holding them is committed, so
+ * request threads are not held while waiting for the database.
+ */
+@RestController
+@RequestMapping("/api/transactions")
+@Tag(name = "Transactions", description = "REST API to write customer transactions")
+public class TransactionController {
+
+    private final TransactionIngestService transactionIngestService;
+
+    @Autowired
+    public TransactionController(TransactionIngestService transactionIngestService) {
+        this.transactionIngestService = transactionIngestService;
+    }
+
+    /**
+     * Writes one transaction. Resubmitting a stored transaction with its ID does not store it twice.
+     *
+     * @param transaction the transaction; given an ID if it has none
+     * @return the written transaction, once committed
+     * @throws TransactionConflictException if another transaction is stored with the same ID
+     */
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    @Operation(summary = "Write a transaction", description = "Store a transaction; the response is sent once it is committed.")
+    public CompletableFuture<Transaction> createTransaction(@Valid @RequestBody Transaction transaction) {
+        return transactionIngestService.submit(List.of(transaction)).thenApply(acknowledgement -> {
+            if (!acknowledgement.conflicts().isEmpty()) {
+                throw new TransactionConflictException("Another transaction is stored with ID " + transaction.getId());
+            }
+            return transaction;
+        });
+    }
+
+    /**
+     * Writes many transactions at once.
+     *
+     * @param request the transactions; each is given an ID if it has none
+     * @return the number and IDs of the written transactions, and the IDs that were already stored, once committed
+     */
+    @PostMapping("/bulk")
+    @ResponseStatus(HttpStatus.CREATED)
+    @Operation(summary = "Write transactions in bulk", description = "Store up to 5000 transactions; the response is sent once they are committed.")
+    public CompletableFuture<BulkTransactionsResponse> createTransactions(@Valid @RequestBody BulkTransactionsRequest request) {
+        return transactionIngestService.submit(request.getTransactions()).thenApply(acknowledgement -> BulkTransactionsResponse.builder()
+                .written(acknowledgement.written().size())
+                .ids(acknowledgement.written().stream().map(Transaction::getId).toList())
+                .duplicates(acknowledgement.duplicates())
+                .conflicts(acknowledgement.conflicts())
+                .build());
+    }
+}
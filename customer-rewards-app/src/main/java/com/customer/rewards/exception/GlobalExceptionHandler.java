@@ -1,13 +1,19 @@
 package com.customer.rewards.exception;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
+import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.server.ServerWebInputException;
 
 import java.time.LocalDateTime;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Global exception handler to manage application-wide exceptions.
@@ -26,6 +32,131 @@ public class GlobalExceptionHandler {
         return buildErrorResponse(HttpStatus.NOT_FOUND, ex.getMessage());
     }
 
+    /**
+     * Handles InvalidPageTokenException and returns a 400 response.
+     *
+     * @param ex the InvalidPageTokenException thrown
+     * @return structured error response with 400 status
+     */
+    @ExceptionHandler(InvalidPageTokenException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidPageToken(InvalidPageTokenException ex) {
+        return buildErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    /**
+     * Handles InvalidRewardRulesException and returns a 400 response.
+     *
+     * @param ex the InvalidRewardRulesException thrown
+     * @return structured error response with 400 status
+     */
+    @ExceptionHandler(InvalidRewardRulesException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidRewardRules(InvalidRewardRulesException ex) {
+        return buildErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    /**
+     * Handles InvalidRewardWindowException and returns a 400 response.
+     *
+     * @param ex the InvalidRewardWindowException thrown
+     * @return structured error response with 400 status
+     */
+    @ExceptionHandler(InvalidRewardWindowException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidRewardWindow(InvalidRewardWindowException ex) {
+        return buildErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    /**
+     * Handles request parameters that cannot be converted, such as malformed dates, and returns a 400 response.
+     *
+     * @param ex the MethodArgumentTypeMismatchException thrown
+     * @return structured error response with 400 status
+     */
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<Map<String, Object>> handleArgumentTypeMismatch(MethodArgumentTypeMismatchException ex) {
+        return buildErrorResponse(HttpStatus.BAD_REQUEST, "Invalid value for parameter " + ex.getName() + ": " + ex.getValue());
+    }
+
+    /**
+     * Handles malformed request input on the reactive stack, such as unparseable parameters or
+     * an invalid request body, and returns a 400 response.
+     *
+     * @param ex the ServerWebInputException thrown
+     * @return structured error response with 400 status
+     */
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<Map<String, Object>> handleServerWebInput(ServerWebInputException ex) {
+        return buildErrorResponse(HttpStatus.BAD_REQUEST, ex.getReason());
+    }
+
+    /**
+     * Handles TransactionBufferFullException and returns a 503 response.
+     *
+     * @param ex the TransactionBufferFullException thrown
+     * @return structured error response with 503 status
+     */
+    @ExceptionHandler(TransactionBufferFullException.class)
+    public ResponseEntity<Map<String, Object>> handleTransactionBufferFull(TransactionBufferFullException ex) {
+        return buildErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+    }
+
+    /**
+     * Handles TransactionConflictException and returns a 409 response.
+     *
+     * @param ex the TransactionConflictException thrown
+     * @return structured error response with 409 status
+     */
+    @ExceptionHandler(TransactionConflictException.class)
+    public ResponseEntity<Map<String, Object>> handleTransactionConflict(TransactionConflictException ex) {
+        return buildErrorResponse(HttpStatus.CONFLICT, ex.getMessage());
+    }
+
+    /**
+     * Handles RewardComputationTimeoutException and returns a 504 response.
+     *
+     * @param ex the RewardComputationTimeoutException thrown
+     * @return structured error response with 504 status
+     */
+    @ExceptionHandler(RewardComputationTimeoutException.class)
+    public ResponseEntity<Map<String, Object>> handleComputationTimeout(RewardComputationTimeoutException ex) {
+        return buildErrorResponse(HttpStatus.GATEWAY_TIMEOUT, ex.getMessage());
+    }
+
+    /**
+     * Handles request body validation failures and returns a 400 response.
+     *
+     * @param ex the MethodArgumentNotValidException thrown
+     * @return structured error response with 400 status
+     */
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<Map<String, Object>> handleValidationFailure(MethodArgumentNotValidException ex) {
+        String message = ex.getBindingResult().getFieldErrors().stream()
+                .map(error -> error.getField() + " " + error.getDefaultMessage())
+                .collect(Collectors.joining("; "));
+        return buildErrorResponse(HttpStatus.BAD_REQUEST, message);
+    }
+
+    /**
+     * Handles request bodies that cannot be parsed and returns a 400 response.
+     *
+     * @param ex the HttpMessageNotReadableException thrown
+     * @return structured error response with 400 status
+     */
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<Map<String, Object>> handleUnreadableMessage(HttpMessageNotReadableException ex) {
+        return buildErrorResponse(HttpStatus.BAD_REQUEST, "Malformed request body");
+    }
+
+    /**
+     * Handles request bodies of an unsupported content type and returns a 415 response.
+     *
+     * @param ex the HttpMediaTypeNotSupportedException thrown
+     * @return structured error response with 415 status
+     */
+    @ExceptionHandler(HttpMediaTypeNotSupportedException.class)
+    public ResponseEntity<Map<String, Object>> handleUnsupportedMediaType(HttpMediaTypeNotSupportedException ex) {
+        return buildErrorResponse(HttpStatus.UNSUPPORTED_MEDIA_TYPE, ex.getMessage());
+    }
+
     /**
      * Handles any uncaught exceptions and returns a 500 response.
      *
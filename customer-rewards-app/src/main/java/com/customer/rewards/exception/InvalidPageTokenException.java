@@ -0,0 +1,22 @@
+package com.customer.rewards.exception;
+
+import java.io.Serial;
+
+/**
+ * Exception thrown when a pagination continuation token cannot be decoded.
+ */
+public class InvalidPageTokenException extends RuntimeException {
+
+	@Serial
+	private static final long serialVersionUID = 3187512467220957046L; // For serialization compatibility
+
+	/**
+	 * Constructs a new InvalidPageTokenException with the specified detail message and cause.
+	 *
+	 * @param message the detail message
+	 * @param cause   the cause of the exception
+	 */
+	public InvalidPageTokenException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
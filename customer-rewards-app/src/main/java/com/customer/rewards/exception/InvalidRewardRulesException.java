@@ -0,0 +1,21 @@
+package com.customer.rewards.exception;
+
+import java.io.Serial;
+
+/**
+ * Exception thrown when a reward rule set is inconsistent and cannot be compiled.
+ */
+public class InvalidRewardRulesException extends RuntimeException {
+
+	@Serial
+	private static final long serialVersionUID = -6120944837552094815L; // For serialization compatibility
+
+	/**
+	 * Constructs a new InvalidRewardRulesException with the specified detail message.
+	 *
+	 * @param message the detail message
+	 */
+	public InvalidRewardRulesException(String message) {
+		super(message);
+	}
+}
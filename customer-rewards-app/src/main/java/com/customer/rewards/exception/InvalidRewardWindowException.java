@@ -0,0 +1,21 @@
+package com.customer.rewards.exception;
+
+import java.io.Serial;
+
+/**
+ * Exception thrown when the requested reward window is inconsistent or too long.
+ */
+public class InvalidRewardWindowException extends RuntimeException {
+
+	@Serial
+	private static final long serialVersionUID = 4417306254021389518L; // For serialization compatibility
+
+	/**
+	 * Constructs a new InvalidRewardWindowException with the specified detail message.
+	 *
+	 * @param message the detail message
+	 */
+	public InvalidRewardWindowException(String message) {
+		super(message);
+	}
+}
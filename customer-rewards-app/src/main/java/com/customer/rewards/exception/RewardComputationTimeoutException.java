@@ -0,0 +1,21 @@
+package com.customer.rewards.exception;
+
+import java.io.Serial;
+
+/**
+ * Exception thrown when a reward computation does not finish within its deadline.
+ */
+public class RewardComputationTimeoutException extends RuntimeException {
+
+	@Serial
+	private static final long serialVersionUID = 5270164482904126317L; // For serialization compatibility
+
+	/**
+	 * Constructs a new RewardComputationTimeoutException with the specified detail message.
+	 *
+	 * @param message the detail message
+	 */
+	public RewardComputationTimeoutException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,21 @@
+package com.customer.rewards.exception;
+
+import java.io.Serial;
+
+/**
+ * Exception thrown when transactions cannot be accepted because the write buffer is full.
+ */
+public class TransactionBufferFullException extends RuntimeException {
+
+	@Serial
+	private static final long serialVersionUID = -2907383626271465081L; // For serialization compatibility
+
+	/**
+	 * Constructs a new TransactionBufferFullException with the specified detail message.
+	 *
+	 * @param message the detail message
+	 */
+	public TransactionBufferFullException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,21 @@
+package com.customer.rewards.exception;
+
+import java.io.Serial;
+
+/**
+ * Exception thrown when a transaction reuses the ID of a stored transaction with other content.
+ */
+public class TransactionConflictException extends RuntimeException {
+
+	@Serial
+	private static final long serialVersionUID = 4410671824587391742L; // For serialization compatibility
+
+	/**
+	 * Constructs a new TransactionConflictException with the specified detail message.
+	 *
+	 * @param message the detail message
+	 */
+	public TransactionConflictException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,29 @@
+package com.customer.rewards.listener;
+
+import com.customer.rewards.model.Transaction;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.MongoMappingEvent;
+
+/**
+ * Base class for listeners reacting to MongoDB lifecycle events of {@link Transaction}s.
+ */
+public abstract class AbstractTransactionEventListener extends AbstractMongoEventListener<Transaction> {
+
+    private static final String TRANSACTIONS_COLLECTION = "transactions";
+
+    /**
+     * Repository {@code deleteAll()} publishes its delete events without a domain type, which the base
+     * class would ignore, so untyped deletes on the transactions collection are routed here explicitly.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void onApplicationEvent(MongoMappingEvent<?> event) {
+        if (event instanceof AfterDeleteEvent<?> deleteEvent && deleteEvent.getType() == null
+                && TRANSACTIONS_COLLECTION.equals(deleteEvent.getCollectionName())) {
+            onAfterDelete((AfterDeleteEvent<Transaction>) deleteEvent);
+            return;
+        }
+        super.onApplicationEvent(event);
+    }
+}
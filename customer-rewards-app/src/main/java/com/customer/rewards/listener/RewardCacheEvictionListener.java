@@ -0,0 +1,70 @@
+package com.customer.rewards.listener;
+
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.rules.RewardRulesChangedEvent;
+import com.customer.rewards.service.RewardSummaryCache;
+import com.customer.rewards.service.TransactionsReplacedEvent;
+import com.customer.rewards.service.TransactionsWrittenEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts cached reward summaries when the transactions or reward rules they were computed from change.
+ */
+@Component
+public class RewardCacheEvictionListener extends AbstractTransactionEventListener {
+
+    private final RewardSummaryCache rewardSummaryCache;
+
+    public RewardCacheEvictionListener(RewardSummaryCache rewardSummaryCache) {
+        this.rewardSummaryCache = rewardSummaryCache;
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Transaction> event) {
+        rewardSummaryCache.evict(event.getSource().getCustomerId());
+    }
+
+    /**
+     * Evicts the customers of a committed micro-batch of submitted transactions.
+     *
+     * @param event the written batch
+     */
+    @EventListener
+    public void onTransactionsWritten(TransactionsWrittenEvent event) {
+        event.transactions().stream()
+                .map(Transaction::getCustomerId)
+                .distinct()
+                .forEach(rewardSummaryCache::evict);
+    }
+
+    /**
+     * Delete events only carry the delete query, not the affected customers, so every entry is evicted.
+     */
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Transaction> event) {
+        rewardSummaryCache.evictAll();
+    }
+
+    /**
+     * The whole transactions collection was replaced, so every entry is evicted.
+     *
+     * @param event the replacement
+     */
+    @EventListener
+    public void onTransactionsReplaced(TransactionsReplacedEvent event) {
+        rewardSummaryCache.evictAll();
+    }
+
+    /**
+     * Every cached summary was scored with the previous rules, so all entries are evicted.
+     *
+     * @param event the rules change
+     */
+    @EventListener
+    public void onRewardRulesChanged(RewardRulesChangedEvent event) {
+        rewardSummaryCache.evictAll();
+    }
+}
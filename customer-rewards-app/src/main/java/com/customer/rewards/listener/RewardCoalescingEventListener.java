@@ -0,0 +1,71 @@
+package com.customer.rewards.listener;
+
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.rules.RewardRulesChangedEvent;
+import com.customer.rewards.service.RewardRequestCoalescer;
+import com.customer.rewards.service.TransactionsReplacedEvent;
+import com.customer.rewards.service.TransactionsWrittenEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps later reward lookups from joining computations started before the transactions or reward
+ * rules they read changed.
+ */
+@Component
+public class RewardCoalescingEventListener extends AbstractTransactionEventListener {
+
+    private final RewardRequestCoalescer rewardRequestCoalescer;
+
+    public RewardCoalescingEventListener(RewardRequestCoalescer rewardRequestCoalescer) {
+        this.rewardRequestCoalescer = rewardRequestCoalescer;
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Transaction> event) {
+        rewardRequestCoalescer.forget(event.getSource().getCustomerId());
+    }
+
+    /**
+     * Forgets the computations of the customers of a committed micro-batch of submitted transactions.
+     *
+     * @param event the written batch
+     */
+    @EventListener
+    public void onTransactionsWritten(TransactionsWrittenEvent event) {
+        event.transactions().stream()
+                .map(Transaction::getCustomerId)
+                .distinct()
+                .forEach(rewardRequestCoalescer::forget);
+    }
+
+    /**
+     * Delete events only carry the delete query, not the affected customers, so every computation is forgotten.
+     */
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Transaction> event) {
+        rewardRequestCoalescer.forgetAll();
+    }
+
+    /**
+     * The whole transactions collection was replaced, so every computation is forgotten.
+     *
+     * @param event the replacement
+     */
+    @EventListener
+    public void onTransactionsReplaced(TransactionsReplacedEvent event) {
+        rewardRequestCoalescer.forgetAll();
+    }
+
+    /**
+     * Running computations may score with the previous rules, so every computation is forgotten.
+     *
+     * @param event the rules change
+     */
+    @EventListener
+    public void onRewardRulesChanged(RewardRulesChangedEvent event) {
+        rewardRequestCoalescer.forgetAll();
+    }
+}
@@ -0,0 +1,68 @@
+package com.customer.rewards.listener;
+
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.rules.RewardRulesChangedEvent;
+import com.customer.rewards.service.RewardLeaderboardService;
+import com.customer.rewards.service.TransactionsReplacedEvent;
+import com.customer.rewards.service.TransactionsWrittenEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the rewards leaderboard up to date by listening to MongoDB lifecycle events of {@link Transaction}s.
+ * Like the reward ledger, it treats every save as a new transaction.
+ */
+@Component
+public class RewardLeaderboardEventListener extends AbstractTransactionEventListener {
+
+    private final RewardLeaderboardService rewardLeaderboardService;
+
+    public RewardLeaderboardEventListener(RewardLeaderboardService rewardLeaderboardService) {
+        this.rewardLeaderboardService = rewardLeaderboardService;
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Transaction> event) {
+        rewardLeaderboardService.record(event.getSource());
+    }
+
+    /**
+     * Adds a committed micro-batch of submitted transactions.
+     *
+     * @param event the written batch
+     */
+    @EventListener
+    public void onTransactionsWritten(TransactionsWrittenEvent event) {
+        event.transactions().forEach(rewardLeaderboardService::record);
+    }
+
+    /**
+     * Delete events only carry the delete query, not the affected customers, so the leaderboard is rebuilt.
+     */
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Transaction> event) {
+        rewardLeaderboardService.invalidate();
+    }
+
+    /**
+     * The whole transactions collection was replaced, so the leaderboard is rebuilt.
+     *
+     * @param event the replacement
+     */
+    @EventListener
+    public void onTransactionsReplaced(TransactionsReplacedEvent event) {
+        rewardLeaderboardService.invalidate();
+    }
+
+    /**
+     * Every customer was scored with the previous rules, so the leaderboard is rebuilt.
+     *
+     * @param event the rules change
+     */
+    @EventListener
+    public void onRewardRulesChanged(RewardRulesChangedEvent event) {
+        rewardLeaderboardService.invalidate();
+    }
+}
@@ -0,0 +1,84 @@
+package com.customer.rewards.listener;
+
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.rules.RewardRulesChangedEvent;
+import com.customer.rewards.service.RewardLedgerService;
+import com.customer.rewards.service.TransactionsReplacedEvent;
+import com.customer.rewards.service.TransactionsWrittenEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the reward ledger up to date by listening to MongoDB lifecycle events of {@link Transaction}s.
+ * <p>
+ * Transactions are treated as immutable: every save is recorded as a new transaction, and
+ * corrections should be written as new (e.g. negative) transactions. Deletes of individual
+ * transactions cannot be reflected incrementally and are left to ledger reconciliation.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "rewards.ledger.enabled", havingValue = "true", matchIfMissing = true)
+public class RewardLedgerEventListener extends AbstractTransactionEventListener {
+
+    private final RewardLedgerService rewardLedgerService;
+
+    public RewardLedgerEventListener(RewardLedgerService rewardLedgerService) {
+        this.rewardLedgerService = rewardLedgerService;
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Transaction> event) {
+        rewardLedgerService.record(event.getSource());
+    }
+
+    /**
+     * Adds a committed micro-batch of submitted transactions with one bulk ledger update.
+     *
+     * @param event the written batch
+     */
+    @EventListener
+    public void onTransactionsWritten(TransactionsWrittenEvent event) {
+        rewardLedgerService.recordAll(event.transactions());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Transaction> event) {
+        if (event.getSource().isEmpty()) {
+            rewardLedgerService.clear(); // All transactions were deleted
+        } else {
+            log.warn("Transactions deleted by {}; the reward ledger is stale until the next reconciliation", event.getSource().toJson());
+        }
+    }
+
+    /**
+     * Rebuilds the ledger after the transactions collection was replaced by a bulk load,
+     * which does not publish per-document events.
+     *
+     * @param event the replacement
+     */
+    @EventListener
+    public void onTransactionsReplaced(TransactionsReplacedEvent event) {
+        log.info("Rebuilding the reward ledger after loading {}", event.source());
+        rewardLedgerService.reconcile(true);
+    }
+
+    /**
+     * Rescores the whole ledger in the background after the reward rules were changed through
+     * this instance, so the update that changed them is not held up by the rescore. Changes picked
+     * up from the stored rule set were already applied to the shared ledger by the instance that
+     * made them.
+     *
+     * @param event the rules change
+     */
+    @EventListener
+    public void onRewardRulesChanged(RewardRulesChangedEvent event) {
+        if (event.localUpdate()) {
+            log.info("Rebuilding the reward ledger for reward rules revision {}", event.rules().getRevision());
+            rewardLedgerService.reconcileInBackground();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.customer.rewards.listener;
+
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.rules.RewardRulesChangedEvent;
+import com.customer.rewards.service.RewardSnapshotService;
+import com.customer.rewards.service.TransactionsReplacedEvent;
+import com.customer.rewards.service.TransactionsWrittenEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Keeps the reward snapshot in use up to date by listening to MongoDB lifecycle events of
+ * {@link Transaction}s, and discards it after changes it cannot follow.
+ */
+@Component
+@ConditionalOnProperty(name = "rewards.snapshot.enabled", havingValue = "true")
+public class RewardSnapshotEventListener extends AbstractTransactionEventListener {
+
+    private final RewardSnapshotService rewardSnapshotService;
+
+    public RewardSnapshotEventListener(RewardSnapshotService rewardSnapshotService) {
+        this.rewardSnapshotService = rewardSnapshotService;
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Transaction> event) {
+        rewardSnapshotService.recordAll(List.of(event.getSource()));
+    }
+
+    /**
+     * Adds a committed micro-batch of submitted transactions.
+     *
+     * @param event the written batch
+     */
+    @EventListener
+    public void onTransactionsWritten(TransactionsWrittenEvent event) {
+        rewardSnapshotService.recordAll(event.transactions());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Transaction> event) {
+        rewardSnapshotService.discard("transactions were deleted");
+    }
+
+    /**
+     * @param event the replacement
+     */
+    @EventListener
+    public void onTransactionsReplaced(TransactionsReplacedEvent event) {
+        rewardSnapshotService.discard("transactions were loaded from " + event.source());
+    }
+
+    /**
+     * @param event the rules change
+     */
+    @EventListener
+    public void onRewardRulesChanged(RewardRulesChangedEvent event) {
+        rewardSnapshotService.rulesChanged(event.rules());
+    }
+}
@@ -0,0 +1,59 @@
+package com.customer.rewards.listener;
+
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.service.RewardVersionService;
+import com.customer.rewards.service.TransactionsReplacedEvent;
+import com.customer.rewards.service.TransactionsWrittenEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Advances the versions of reward summaries when the transactions they are computed from change.
+ * Reward rule changes need no event, since versions hold the rules revision.
+ */
+@Component
+public class RewardVersionEventListener extends AbstractTransactionEventListener {
+
+    private final RewardVersionService rewardVersionService;
+
+    public RewardVersionEventListener(RewardVersionService rewardVersionService) {
+        this.rewardVersionService = rewardVersionService;
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Transaction> event) {
+        rewardVersionService.recordAll(List.of(event.getSource()));
+    }
+
+    /**
+     * Advances the customers of a committed micro-batch of submitted transactions.
+     *
+     * @param event the written batch
+     */
+    @EventListener
+    public void onTransactionsWritten(TransactionsWrittenEvent event) {
+        rewardVersionService.recordAll(event.transactions());
+    }
+
+    /**
+     * Delete events only carry the delete query, not the affected customers, so every version changes.
+     */
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Transaction> event) {
+        rewardVersionService.invalidateAll();
+    }
+
+    /**
+     * The whole transactions collection was replaced, so every version changes.
+     *
+     * @param event the replacement
+     */
+    @EventListener
+    public void onTransactionsReplaced(TransactionsReplacedEvent event) {
+        rewardVersionService.invalidateAll();
+    }
+}
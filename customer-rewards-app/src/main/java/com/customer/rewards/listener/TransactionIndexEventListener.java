@@ -0,0 +1,61 @@
+package com.customer.rewards.listener;
+
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.service.TransactionIndexService;
+import com.customer.rewards.service.TransactionsReplacedEvent;
+import com.customer.rewards.service.TransactionsWrittenEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Keeps the in-memory transaction index up to date by listening to MongoDB lifecycle events of
+ * {@link Transaction}s. Like the reward ledger, it treats every save as a new transaction.
+ */
+@Component
+@ConditionalOnProperty(name = "rewards.index.enabled", havingValue = "true")
+public class TransactionIndexEventListener extends AbstractTransactionEventListener {
+
+    private final TransactionIndexService transactionIndexService;
+
+    public TransactionIndexEventListener(TransactionIndexService transactionIndexService) {
+        this.transactionIndexService = transactionIndexService;
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Transaction> event) {
+        transactionIndexService.recordAll(List.of(event.getSource()));
+    }
+
+    /**
+     * Adds a committed micro-batch of submitted transactions.
+     *
+     * @param event the written batch
+     */
+    @EventListener
+    public void onTransactionsWritten(TransactionsWrittenEvent event) {
+        transactionIndexService.recordAll(event.transactions());
+    }
+
+    /**
+     * Delete events only carry the delete query, not the affected transactions, so the index is rebuilt.
+     */
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Transaction> event) {
+        transactionIndexService.invalidate();
+    }
+
+    /**
+     * The whole transactions collection was replaced, so the index is rebuilt.
+     *
+     * @param event the replacement
+     */
+    @EventListener
+    public void onTransactionsReplaced(TransactionsReplacedEvent event) {
+        transactionIndexService.invalidate();
+    }
+}
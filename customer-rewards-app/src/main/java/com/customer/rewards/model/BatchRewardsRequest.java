@@ -0,0 +1,26 @@
+package com.customer.rewards.model;
+
+import com.customer.rewards.util.Constants;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Represents a request for the reward summaries of many customers at once.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public final class BatchRewardsRequest {
+
+    @NotEmpty
+    @Size(max = Constants.MAX_BATCH_SIZE)
+    private List<@NotBlank String> customerIds;
+}
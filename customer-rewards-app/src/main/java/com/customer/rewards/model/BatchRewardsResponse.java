@@ -0,0 +1,24 @@
+package com.customer.rewards.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents the reward summaries of a batch of customers, keyed by customer ID
+ * in request order, together with the IDs that have no transactions.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public final class BatchRewardsResponse {
+
+    private Map<String, RewardSummary> rewards;
+
+    private List<String> notFound;
+}
@@ -0,0 +1,27 @@
+package com.customer.rewards.model;
+
+import com.customer.rewards.util.Constants;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Represents a request to write many transactions at once.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public final class BulkTransactionsRequest {
+
+    @NotEmpty
+    @Size(max = Constants.MAX_BATCH_SIZE)
+    private List<@Valid @NotNull Transaction> transactions;
+}
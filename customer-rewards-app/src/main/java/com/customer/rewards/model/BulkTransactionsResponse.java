@@ -0,0 +1,30 @@
+package com.customer.rewards.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Represents the outcome of a bulk write of transactions.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public final class BulkTransactionsResponse {
+
+    /** The number of transactions stored by this request. */
+    private int written;
+
+    /** The IDs of the transactions stored by this request, in request order. */
+    private List<String> ids;
+
+    /** The IDs of transactions that were already stored with the same content, such as ones resubmitted after a lost response. */
+    private List<String> duplicates;
+
+    /** The IDs of transactions that were already stored with other content; the stored transactions were kept. */
+    private List<String> conflicts;
+}
@@ -0,0 +1,28 @@
+package com.customer.rewards.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Represents the customers with the most reward points over the default reward window.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public final class Leaderboard {
+
+    /** The inclusive start of the reward window the points were earned in. */
+    private LocalDateTime windowStart;
+
+    /** The number of ranked customers, including those without points in the window. */
+    private int customerCount;
+
+    /** The top customers, highest points first. */
+    private List<LeaderboardEntry> entries;
+}
@@ -0,0 +1,23 @@
+package com.customer.rewards.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents a customer's position on the rewards leaderboard.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public final class LeaderboardEntry {
+
+    /** One plus the number of customers with more points; customers with equal points share a rank. */
+    private int rank;
+
+    private String customerId;
+
+    private int totalPoints;
+}
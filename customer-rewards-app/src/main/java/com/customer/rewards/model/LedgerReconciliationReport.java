@@ -0,0 +1,51 @@
+package com.customer.rewards.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Represents the outcome of comparing the reward ledger with the ledger
+ * recomputed from raw transactions.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public final class LedgerReconciliationReport {
+
+    private LocalDateTime startedAt;
+
+    private long durationMillis;
+
+    /** Number of ledger entries expected from the raw transactions. */
+    private long expectedEntries;
+
+    /** Expected entries that were absent from the ledger. */
+    private long missingEntries;
+
+    /** Ledger entries without any matching transaction. */
+    private long unexpectedEntries;
+
+    /** Entries whose points or transaction count differed. */
+    private long mismatchedEntries;
+
+    /** Whether the drifted entries were corrected. */
+    private boolean repaired;
+
+    /** A bounded sample of drift descriptions, for troubleshooting. */
+    private List<String> driftSamples;
+
+    /**
+     * Returns whether any drift was found.
+     *
+     * @return {@code true} if the ledger differed from the raw transactions
+     */
+    public boolean hasDrift() {
+        return missingEntries + unexpectedEntries + mismatchedEntries > 0;
+    }
+}
@@ -0,0 +1,33 @@
+package com.customer.rewards.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents the progress of an interrupted bulk load, so that it can resume where it stopped.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "load_checkpoints")
+public final class LoadCheckpoint {
+
+    /** The name of the source being loaded. */
+    @Id
+    private String source;
+
+    /** Seconds since the epoch at which the load started; seeds the IDs of loaded records. */
+    private int loadEpochSecond;
+
+    /** Number of records from the start of the source that are stored in the staging collection. */
+    private long offset;
+
+    private LocalDateTime updatedAt;
+}
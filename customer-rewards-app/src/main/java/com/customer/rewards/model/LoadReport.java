@@ -0,0 +1,28 @@
+package com.customer.rewards.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents the outcome of a bulk load of transactions.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public final class LoadReport {
+
+    private String source;
+
+    /** Number of records written by this run. */
+    private long loadedRecords;
+
+    /** Number of records skipped because an earlier, interrupted run had already stored them. */
+    private long resumedFromOffset;
+
+    private long durationMillis;
+
+    private double recordsPerSecond;
+}
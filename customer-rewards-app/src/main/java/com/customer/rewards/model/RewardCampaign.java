@@ -0,0 +1,33 @@
+package com.customer.rewards.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Represents a time-boxed promotion that multiplies the points earned by transactions dated
+ * within its effective range, optionally restricted to one transaction category.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public final class RewardCampaign {
+
+    private String name;
+
+    /** Factor applied to the tier points, e.g. {@code 1.5}; fractions of a point are truncated. */
+    private double multiplier;
+
+    /** The first day of the campaign. */
+    private LocalDate startDate;
+
+    /** The last day of the campaign, inclusive. */
+    private LocalDate endDate;
+
+    /** The category the campaign is limited to, or {@code null} for all transactions. */
+    private String category;
+}
@@ -0,0 +1,48 @@
+package com.customer.rewards.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.YearMonth;
+
+/**
+ * Represents the precomputed reward points a customer earned in one calendar month.
+ * Entries are maintained incrementally as transactions are written.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "reward_ledger")
+@CompoundIndex(name = "customerId_yearMonth", def = "{ 'customerId' : 1, 'yearMonth' : 1 }", unique = true)
+public final class RewardLedgerEntry {
+
+    /** Deterministic key of the form {@code customerId|yyyy-MM}, so increments can upsert by ID. */
+    @Id
+    private String id;
+
+    private String customerId;
+
+    /** The calendar month in ISO {@code yyyy-MM} form, which sorts chronologically. */
+    private String yearMonth;
+
+    private int points;
+
+    private int transactionCount;
+
+    /**
+     * Builds the ledger key for a customer and month.
+     *
+     * @param customerId the ID of the customer
+     * @param yearMonth  the calendar month
+     * @return the ledger entry ID
+     */
+    public static String idOf(String customerId, YearMonth yearMonth) {
+        return customerId + "|" + yearMonth;
+    }
+}
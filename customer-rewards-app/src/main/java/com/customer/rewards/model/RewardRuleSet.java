@@ -0,0 +1,62 @@
+package com.customer.rewards.model;
+
+import com.customer.rewards.util.Constants;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents the reward rules in effect: the default tier table, tier tables for specific
+ * transaction categories, and promotional campaigns.
+ * <p>
+ * A single document is stored; every change increments its {@code revision}, which is how
+ * running instances notice that the rules changed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "reward_rules")
+public final class RewardRuleSet {
+
+    /** ID of the rule set document in effect. */
+    public static final String ACTIVE_ID = "active";
+
+    @Id
+    private String id;
+
+    private long revision;
+
+    private LocalDateTime updatedAt;
+
+    /** Tier table for transactions without a category or with a category that has no table of its own. */
+    private List<RewardTier> tiers;
+
+    /** Tier tables keyed by transaction category. */
+    private Map<String, List<RewardTier>> categoryTiers;
+
+    private List<RewardCampaign> campaigns;
+
+    /**
+     * Builds the rule set that reproduces the fixed thresholds in {@link Constants}.
+     *
+     * @return the default rule set
+     */
+    public static RewardRuleSet defaults() {
+        return RewardRuleSet.builder()
+                .id(ACTIVE_ID)
+                .tiers(List.of(
+                        new RewardTier(Constants.LOWER_THRESHOLD, Constants.ONE_POINT),
+                        new RewardTier(Constants.UPPER_THRESHOLD, Constants.TWO_POINTS)))
+                .categoryTiers(Map.of())
+                .campaigns(List.of())
+                .build();
+    }
+}
@@ -5,12 +5,15 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.time.Month;
+import java.time.YearMonth;
 import java.util.Map;
 
 /**
  * Represents a summary of reward points earned by a customer,
  * broken down by month and including a total.
+ * <p>
+ * Monthly points are keyed by calendar month, so the same month of different years never
+ * collides, and are listed in chronological order; in JSON the keys are written as {@code yyyy-MM}.
  */
 @Data
 @Builder
@@ -19,6 +22,6 @@ import java.util.Map;
 public final class RewardSummary {
 
     private String customerId;
-    private Map<Month, Integer> monthlyPoints;
+    private Map<YearMonth, Integer> monthlyPoints;
     private int totalPoints;
 }
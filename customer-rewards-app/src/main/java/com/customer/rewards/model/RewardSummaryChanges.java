@@ -0,0 +1,27 @@
+package com.customer.rewards.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Represents the reward summaries that changed since an earlier version of all summaries,
+ * together with the current version to ask for the next changes.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public final class RewardSummaryChanges {
+
+    /** Opaque version of all summaries, to pass as {@code since} on the next request. */
+    private String version;
+
+    /** {@code false} when the earlier version could not be used and every summary is included. */
+    private boolean delta;
+
+    private List<RewardSummary> summaries;
+}
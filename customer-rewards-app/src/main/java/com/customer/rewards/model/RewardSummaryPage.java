@@ -0,0 +1,24 @@
+package com.customer.rewards.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Represents one page of customer reward summaries, together with the
+ * continuation token to request the next page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public final class RewardSummaryPage {
+
+    private List<RewardSummary> summaries;
+
+    /** Opaque token for the next page, or {@code null} when this is the last page. */
+    private String nextPageToken;
+}
@@ -0,0 +1,22 @@
+package com.customer.rewards.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents one tier of a reward tier table: every dollar spent above the threshold,
+ * up to the threshold of the next tier, earns the given number of points.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public final class RewardTier {
+
+    /** The amount in dollars above which the tier applies. */
+    private double threshold;
+
+    private int pointsPerDollar;
+}
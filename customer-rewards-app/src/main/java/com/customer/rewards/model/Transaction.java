@@ -1,30 +1,58 @@
 package com.customer.rewards.model;
 
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 
 /**
  * Represents a transaction made by a customer.
+ * <p>
+ * The compound index serves per-customer date-window queries; {@code amount} and {@code category} are
+ * included as trailing keys so that queries projecting only the fields needed for scoring are covered by the index.
  */
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "transactions")
+@CompoundIndex(name = Transaction.CUSTOMER_DATE_INDEX, def = "{ 'customerId' : 1, 'date' : 1, 'amount' : 1, 'category' : 1 }")
 public final class Transaction {
 
+    /** Name of the compound index on customer ID and date. */
+    public static final String CUSTOMER_DATE_INDEX = "customerId_date_amount_category";
+
     @Id
     private String id;
 
+    @NotBlank
     private String customerId;
 
+    @NotNull
     private Double amount;
 
+    @NotNull
     private LocalDateTime date;
+
+    /** The category of the purchase, used to select a category-specific tier table; may be {@code null}. */
+    private String category;
+
+    /**
+     * Creates a transaction without a category.
+     *
+     * @param id         the ID of the transaction
+     * @param customerId the ID of the customer
+     * @param amount     the amount in dollars
+     * @param date       the date of the transaction
+     */
+    public Transaction(String id, String customerId, Double amount, LocalDateTime date) {
+        this(id, customerId, amount, date, null);
+    }
 }
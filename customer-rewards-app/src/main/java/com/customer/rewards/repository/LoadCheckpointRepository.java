@@ -0,0 +1,12 @@
+package com.customer.rewards.repository;
+
+import com.customer.rewards.model.LoadCheckpoint;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for accessing bulk load {@link LoadCheckpoint}s from MongoDB.
+ */
+@Repository
+public interface LoadCheckpointRepository extends MongoRepository<LoadCheckpoint, String> {
+}
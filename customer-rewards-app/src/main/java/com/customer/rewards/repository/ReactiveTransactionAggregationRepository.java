@@ -0,0 +1,23 @@
+package com.customer.rewards.repository;
+
+import com.customer.rewards.model.RewardSummary;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+/**
+ * Custom reactive repository fragment for reward computations that run as MongoDB aggregation pipelines.
+ */
+public interface ReactiveTransactionAggregationRepository {
+
+    /**
+     * Streams the reward summary of every customer from a single aggregation cursor, like
+     * {@link TransactionAggregationRepository#streamRewardSummaries}. Rows are requested from
+     * the cursor only as fast as the subscriber consumes summaries.
+     *
+     * @param windowStart the inclusive start of the reward window
+     * @param windowEnd   the inclusive end of the reward window
+     * @return the reward summaries of all customers, ordered by customer ID
+     */
+    Flux<RewardSummary> streamRewardSummaries(LocalDateTime windowStart, LocalDateTime windowEnd);
+}
@@ -0,0 +1,41 @@
+package com.customer.rewards.repository;
+
+import com.customer.rewards.model.RewardSummary;
+import com.customer.rewards.rules.RewardRuleEngine;
+import com.customer.rewards.util.MonthlyPoints;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+/**
+ * {@link ReactiveMongoTemplate} based implementation of {@link ReactiveTransactionAggregationRepository}.
+ */
+public class ReactiveTransactionAggregationRepositoryImpl implements ReactiveTransactionAggregationRepository {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final RewardPipelines rewardPipelines;
+
+    public ReactiveTransactionAggregationRepositoryImpl(ReactiveMongoTemplate reactiveMongoTemplate, RewardRuleEngine rewardRuleEngine) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.rewardPipelines = new RewardPipelines(rewardRuleEngine);
+    }
+
+    @Override
+    public Flux<RewardSummary> streamRewardSummaries(LocalDateTime windowStart, LocalDateTime windowEnd) {
+        return Flux.defer(() -> {
+            // One accumulator per subscription; customers are folded one after the other
+            MonthlyPoints monthlyPoints = new MonthlyPoints(YearMonth.from(windowStart), YearMonth.from(windowEnd));
+
+            return reactiveMongoTemplate.aggregate(rewardPipelines.rewardSummaries(null, windowStart, windowEnd), Document.class)
+                    .bufferUntilChanged(RewardPipelines::customerIdOf)
+                    .map(rows -> {
+                        monthlyPoints.clear();
+                        rows.forEach(row -> RewardPipelines.addPoints(monthlyPoints, row));
+                        return new RewardSummary(RewardPipelines.customerIdOf(rows.get(0)), monthlyPoints.toMap(), monthlyPoints.totalPoints());
+                    });
+        });
+    }
+}
@@ -0,0 +1,39 @@
+package com.customer.rewards.repository;
+
+import com.customer.rewards.model.Transaction;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Non-blocking repository for {@link Transaction} data, used by the reactive serving stack.
+ * It is only created with the {@code reactive} profile, which enables the reactive MongoDB client.
+ */
+@Repository
+public interface ReactiveTransactionRepository extends ReactiveMongoRepository<Transaction, String>, ReactiveTransactionAggregationRepository {
+
+    /**
+     * Finds the transactions of a customer dated within an inclusive date range, returning only
+     * the fields needed for scoring, like {@link TransactionRepository#findByCustomerIdAndDateBetween}.
+     *
+     * @param customerId the ID of the customer
+     * @param from       the inclusive start of the range
+     * @param to         the inclusive end of the range
+     * @return the transactions within the range, with only amount, date and category populated
+     */
+    @Query(value = "{ 'customerId' : ?0, 'date' : { '$gte' : ?1, '$lte' : ?2 } }",
+            fields = "{ '_id' : 0, 'amount' : 1, 'date' : 1, 'category' : 1 }")
+    Flux<Transaction> findByCustomerIdAndDateBetween(String customerId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Checks whether the customer has any transaction at all, using the customer/date index.
+     *
+     * @param customerId the ID of the customer
+     * @return {@code true} if at least one transaction exists
+     */
+    Mono<Boolean> existsByCustomerId(String customerId);
+}
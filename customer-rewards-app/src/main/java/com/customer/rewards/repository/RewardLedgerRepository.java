@@ -0,0 +1,42 @@
+package com.customer.rewards.repository;
+
+import com.customer.rewards.model.RewardLedgerEntry;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Repository interface for accessing the precomputed {@link RewardLedgerEntry} data from MongoDB.
+ */
+@Repository
+public interface RewardLedgerRepository extends MongoRepository<RewardLedgerEntry, String>, RewardLedgerUpdateRepository {
+
+    /**
+     * Finds the ledger entries of a customer for an inclusive range of months.
+     *
+     * @param customerId the ID of the customer
+     * @param fromMonth  the first month, in {@code yyyy-MM} form
+     * @param toMonth    the last month, in {@code yyyy-MM} form
+     * @return the ledger entries of the customer within the range
+     */
+    @Query("{ 'customerId' : ?0, 'yearMonth' : { '$gte' : ?1, '$lte' : ?2 } }")
+    List<RewardLedgerEntry> findByCustomerIdAndMonthRange(String customerId, String fromMonth, String toMonth);
+
+    /**
+     * Checks whether the customer has any ledger entry, i.e. has ever made a transaction.
+     *
+     * @param customerId the ID of the customer
+     * @return {@code true} if at least one entry exists
+     */
+    boolean existsByCustomerId(String customerId);
+
+    /**
+     * Streams every ledger entry ordered by customer and month. The stream must be closed.
+     *
+     * @return a stream of all ledger entries
+     */
+    Stream<RewardLedgerEntry> streamAllByOrderByCustomerIdAscYearMonthAsc();
+}
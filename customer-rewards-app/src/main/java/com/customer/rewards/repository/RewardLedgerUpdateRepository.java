@@ -0,0 +1,30 @@
+package com.customer.rewards.repository;
+
+import com.customer.rewards.model.RewardLedgerEntry;
+
+import java.time.YearMonth;
+import java.util.Collection;
+
+/**
+ * Custom repository fragment for atomic, incremental updates of the reward ledger.
+ */
+public interface RewardLedgerUpdateRepository {
+
+    /**
+     * Atomically adds the points of one transaction to the ledger entry of its customer and month,
+     * creating the entry if it does not exist yet.
+     *
+     * @param customerId the ID of the customer
+     * @param yearMonth  the calendar month of the transaction
+     * @param points     the reward points the transaction earned
+     */
+    void addTransaction(String customerId, YearMonth yearMonth, int points);
+
+    /**
+     * Adds many increments with one unordered bulk upsert. Each increment is added to the ledger
+     * entry with the same ID, creating the entry if it does not exist yet.
+     *
+     * @param increments the points and transaction counts to add, at most one per ledger entry
+     */
+    void addIncrements(Collection<RewardLedgerEntry> increments);
+}
@@ -0,0 +1,51 @@
+package com.customer.rewards.repository;
+
+import com.customer.rewards.model.RewardLedgerEntry;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.YearMonth;
+import java.util.Collection;
+
+/**
+ * {@link MongoTemplate} based implementation of {@link RewardLedgerUpdateRepository}.
+ */
+public class RewardLedgerUpdateRepositoryImpl implements RewardLedgerUpdateRepository {
+
+    private final MongoTemplate mongoTemplate;
+
+    public RewardLedgerUpdateRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void addTransaction(String customerId, YearMonth yearMonth, int points) {
+        Query query = Query.query(Criteria.where("_id").is(RewardLedgerEntry.idOf(customerId, yearMonth)));
+        Update update = new Update()
+                .setOnInsert("customerId", customerId)
+                .setOnInsert("yearMonth", yearMonth.toString())
+                .inc("points", points)
+                .inc("transactionCount", 1);
+
+        mongoTemplate.upsert(query, update, RewardLedgerEntry.class);
+    }
+
+    @Override
+    public void addIncrements(Collection<RewardLedgerEntry> increments) {
+        if (increments.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, RewardLedgerEntry.class);
+        for (RewardLedgerEntry increment : increments) {
+            bulk.upsert(Query.query(Criteria.where("_id").is(increment.getId())), new Update()
+                    .setOnInsert("customerId", increment.getCustomerId())
+                    .setOnInsert("yearMonth", increment.getYearMonth())
+                    .inc("points", increment.getPoints())
+                    .inc("transactionCount", increment.getTransactionCount()));
+        }
+        bulk.execute();
+    }
+}
@@ -0,0 +1,147 @@
+package com.customer.rewards.repository;
+
+import com.customer.rewards.model.RewardLedgerEntry;
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.rules.RewardRuleEngine;
+import com.customer.rewards.rules.RewardRulesExpressions;
+import com.customer.rewards.util.MonthlyPoints;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.BooleanOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Builds the reward aggregation pipelines shared by the blocking and the reactive repository
+ * fragments, and reads the rows they produce.
+ */
+final class RewardPipelines {
+
+    private final RewardRuleEngine rewardRuleEngine;
+
+    RewardPipelines(RewardRuleEngine rewardRuleEngine) {
+        this.rewardRuleEngine = rewardRuleEngine;
+    }
+
+    /**
+     * Builds the reward pipeline: {@code $project} scores each transaction with the reward
+     * rules in effect, as {@code RewardService#getRewardsByCustomer} does, {@code $group} sums the points
+     * per customer and calendar month, and {@code $sort} orders the groups by customer and month so
+     * that they can be folded into one summary per customer while the cursor is read.
+     *
+     * @param criteria    an optional filter applied before scoring, or {@code null}
+     * @param windowStart the inclusive start of the reward window
+     * @param windowEnd   the inclusive end of the reward window
+     * @return the aggregation
+     */
+    TypedAggregation<Transaction> rewardSummaries(Criteria criteria, LocalDateTime windowStart, LocalDateTime windowEnd) {
+        DateOperators.Timezone timezone = storageTimezone();
+
+        List<AggregationOperation> stages = new ArrayList<>();
+        if (criteria != null) {
+            stages.add(Aggregation.match(criteria));
+        }
+        stages.add(Aggregation.project("customerId")
+                .and(DateOperators.Year.yearOf("date").withTimezone(timezone)).as("year")
+                .and(DateOperators.Month.monthOf("date").withTimezone(timezone)).as("month")
+                .and(windowedPoints(windowStart, windowEnd)).as("points"));
+        stages.add(Aggregation.group("customerId", "year", "month").sum("points").as("points"));
+        stages.add(Aggregation.sort(Sort.Direction.ASC, "customerId", "year", "month"));
+
+        return Aggregation.newAggregation(Transaction.class, stages)
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+    }
+
+    /**
+     * Builds the ledger pipeline: the points and number of transactions of every customer and
+     * calendar month, regardless of the reward window, ordered by customer and month.
+     *
+     * @return the aggregation
+     */
+    TypedAggregation<Transaction> ledgerEntries() {
+        DateOperators.Timezone timezone = storageTimezone();
+
+        return Aggregation.newAggregation(Transaction.class,
+                        Aggregation.project("customerId")
+                                .and(DateOperators.Year.yearOf("date").withTimezone(timezone)).as("year")
+                                .and(DateOperators.Month.monthOf("date").withTimezone(timezone)).as("month")
+                                .and(rulePoints()).as("points"),
+                        Aggregation.group("customerId", "year", "month").sum("points").as("points").count().as("transactionCount"),
+                        Aggregation.sort(Sort.Direction.ASC, "customerId", "year", "month"))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+    }
+
+    /**
+     * Converts a row of the ledger pipeline into a ledger entry.
+     */
+    static RewardLedgerEntry toLedgerEntry(Document row) {
+        Document key = row.get("_id", Document.class);
+        String customerId = key.getString("customerId");
+        YearMonth yearMonth = YearMonth.of(((Number) key.get("year")).intValue(), ((Number) key.get("month")).intValue());
+        return new RewardLedgerEntry(RewardLedgerEntry.idOf(customerId, yearMonth), customerId, yearMonth.toString(),
+                ((Number) row.get("points")).intValue(), ((Number) row.get("transactionCount")).intValue());
+    }
+
+    /**
+     * Adds the points of a row of the reward pipeline to its month. Rows that earned points
+     * must fall within the window of the accumulator.
+     */
+    static void addPoints(MonthlyPoints monthlyPoints, Document row) {
+        int points = ((Number) row.get("points")).intValue();
+        if (points > 0) {
+            Document key = row.get("_id", Document.class);
+            monthlyPoints.add(((Number) key.get("year")).intValue(), ((Number) key.get("month")).intValue(), points);
+        }
+    }
+
+    static String customerIdOf(Document row) {
+        return row.get("_id", Document.class).getString("customerId");
+    }
+
+    /**
+     * Builds the expression for the points a transaction earns: its tiered points when it is dated
+     * within the window, zero otherwise. Out-of-window transactions are scored as zero rather than
+     * filtered out so that customers without recent activity still get an (empty) summary.
+     */
+    private AggregationExpression windowedPoints(LocalDateTime windowStart, LocalDateTime windowEnd) {
+        AggregationExpression inWindow = BooleanOperators.And.and(
+                ComparisonOperators.Gte.valueOf("date").greaterThanEqualToValue(toDate(windowStart)),
+                ComparisonOperators.Lte.valueOf("date").lessThanEqualToValue(toDate(windowEnd)));
+
+        return ConditionalOperators.when(inWindow)
+                .thenValueOf(rulePoints())
+                .otherwise(0);
+    }
+
+    /**
+     * Scores a transaction with the reward rules in effect, like {@code RewardRules#points}.
+     */
+    private AggregationExpression rulePoints() {
+        return RewardRulesExpressions.points(rewardRuleEngine.current(), ZoneId.systemDefault());
+    }
+
+    /**
+     * LocalDateTime values are stored as instants in the JVM's default zone, so months are bucketed in that zone too.
+     */
+    private static DateOperators.Timezone storageTimezone() {
+        return DateOperators.Timezone.valueOf(ZoneId.systemDefault().getId());
+    }
+
+    private static Date toDate(LocalDateTime dateTime) {
+        return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -0,0 +1,12 @@
+package com.customer.rewards.repository;
+
+import com.customer.rewards.model.RewardRuleSet;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for accessing the stored {@link RewardRuleSet} from MongoDB.
+ */
+@Repository
+public interface RewardRuleSetRepository extends MongoRepository<RewardRuleSet, String> {
+}
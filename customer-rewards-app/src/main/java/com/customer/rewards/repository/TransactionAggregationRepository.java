@@ -0,0 +1,122 @@
+package com.customer.rewards.repository;
+
+import com.customer.rewards.model.RewardLedgerEntry;
+import com.customer.rewards.model.RewardSummary;
+import com.customer.rewards.model.Transaction;
+import org.bson.types.ObjectId;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Custom repository fragment for reward computations that run as MongoDB aggregation pipelines
+ * or as single cursor scans.
+ */
+public interface TransactionAggregationRepository {
+
+    /**
+     * Computes the reward summary of every customer in a single aggregation pass.
+     * Only transactions dated within {@code [windowStart, windowEnd]} earn points, but every
+     * customer that has at least one transaction is returned.
+     *
+     * @param windowStart the inclusive start of the reward window
+     * @param windowEnd   the inclusive end of the reward window
+     * @return the reward summaries of all customers, ordered by customer ID
+     */
+    List<RewardSummary> aggregateRewardSummaries(LocalDateTime windowStart, LocalDateTime windowEnd);
+
+    /**
+     * Computes the reward summaries of the given customers in a single aggregation pass.
+     * Customers without any transaction are absent from the result.
+     *
+     * @param customerIds the IDs of the customers to compute
+     * @param windowStart the inclusive start of the reward window
+     * @param windowEnd   the inclusive end of the reward window
+     * @return the reward summaries of the given customers, ordered by customer ID
+     */
+    List<RewardSummary> aggregateRewardSummaries(Collection<String> customerIds, LocalDateTime windowStart, LocalDateTime windowEnd);
+
+    /**
+     * Streams the reward summary of every customer from a single aggregation cursor.
+     * Each summary is built as soon as the cursor has passed its customer, so only one customer
+     * is held in memory at a time. The returned stream must be closed to release the cursor.
+     *
+     * @param windowStart the inclusive start of the reward window
+     * @param windowEnd   the inclusive end of the reward window
+     * @return a stream of reward summaries of all customers, ordered by customer ID
+     */
+    Stream<RewardSummary> streamRewardSummaries(LocalDateTime windowStart, LocalDateTime windowEnd);
+
+    /**
+     * Streams the reward summary of every customer like {@link #streamRewardSummaries}, counting
+     * only the transactions written up to a high-water mark: those whose ObjectId does not sort
+     * after it, and those whose ID is not an ObjectId. The returned stream must be closed to
+     * release the cursor.
+     *
+     * @param highWaterMark the ID of the last transaction to count
+     * @param windowStart   the inclusive start of the reward window
+     * @param windowEnd     the inclusive end of the reward window
+     * @return a stream of reward summaries of all customers, ordered by customer ID
+     */
+    Stream<RewardSummary> streamRewardSummariesUpTo(ObjectId highWaterMark, LocalDateTime windowStart, LocalDateTime windowEnd);
+
+    /**
+     * Counts the transactions written up to a high-water mark, as counted by
+     * {@link #streamRewardSummariesUpTo}.
+     *
+     * @param highWaterMark the ID of the last transaction to count
+     * @return the number of transactions
+     */
+    long countTransactionsUpTo(ObjectId highWaterMark);
+
+    /**
+     * Streams the transactions that a snapshot taken at a high-water mark does not count because
+     * their ObjectId sorts after the mark, using the {@code _id} index. The returned stream must
+     * be closed to release the cursor.
+     *
+     * @param highWaterMark the ID of the last transaction the snapshot counts
+     * @return the transactions, with customer ID, amount, date and category populated
+     */
+    Stream<Transaction> streamTransactionsAfter(ObjectId highWaterMark);
+
+    /**
+     * Streams the reward summary of every customer from a single cursor over the raw transactions,
+     * sorted by customer ID and date through the customer/date index, and scored in the application.
+     * Unlike {@link #streamRewardSummaries}, the database does not group the transactions first,
+     * so neither side holds more than one customer's state at a time, however large the collection.
+     * The returned stream must be closed to release the cursor.
+     *
+     * @param windowStart the inclusive start of the reward window
+     * @param windowEnd   the inclusive end of the reward window
+     * @return a stream of reward summaries of all customers, ordered by customer ID
+     */
+    Stream<RewardSummary> scanRewardSummaries(LocalDateTime windowStart, LocalDateTime windowEnd);
+
+    /**
+     * Streams the distinct customer IDs in ascending order from a single cursor.
+     * The returned stream must be closed to release the cursor.
+     *
+     * @return a stream of all customer IDs
+     */
+    Stream<String> streamCustomerIds();
+
+    /**
+     * Finds the distinct customer IDs that sort after the given one.
+     *
+     * @param afterCustomerId the exclusive lower bound, or {@code null} to start from the first customer
+     * @param limit           the maximum number of IDs to return
+     * @return up to {@code limit} customer IDs in ascending order
+     */
+    List<String> findCustomerIdsAfter(String afterCustomerId, int limit);
+
+    /**
+     * Recomputes the reward ledger from the raw transactions: the points and the number of
+     * transactions of every customer and calendar month, regardless of the reward window.
+     * The returned stream must be closed to release the cursor.
+     *
+     * @return a stream of ledger entries ordered by customer ID and month
+     */
+    Stream<RewardLedgerEntry> streamLedgerEntries();
+}
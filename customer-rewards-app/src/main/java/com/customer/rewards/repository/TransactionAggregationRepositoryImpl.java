@@ -0,0 +1,211 @@
+package com.customer.rewards.repository;
+
+import com.customer.rewards.model.RewardLedgerEntry;
+import com.customer.rewards.model.RewardSummary;
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.rules.RewardRuleEngine;
+import com.customer.rewards.rules.RewardRules;
+import com.customer.rewards.util.MonthlyPoints;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * {@link MongoTemplate} based implementation of {@link TransactionAggregationRepository}.
+ */
+public class TransactionAggregationRepositoryImpl implements TransactionAggregationRepository {
+
+    private final MongoTemplate mongoTemplate;
+    private final RewardRuleEngine rewardRuleEngine;
+    private final RewardPipelines rewardPipelines;
+
+    public TransactionAggregationRepositoryImpl(MongoTemplate mongoTemplate, RewardRuleEngine rewardRuleEngine) {
+        this.mongoTemplate = mongoTemplate;
+        this.rewardRuleEngine = rewardRuleEngine;
+        this.rewardPipelines = new RewardPipelines(rewardRuleEngine);
+    }
+
+    @Override
+    public List<RewardSummary> aggregateRewardSummaries(LocalDateTime windowStart, LocalDateTime windowEnd) {
+        try (Stream<RewardSummary> summaries = streamRewardSummaries(windowStart, windowEnd)) {
+            return summaries.toList();
+        }
+    }
+
+    @Override
+    public List<RewardSummary> aggregateRewardSummaries(Collection<String> customerIds, LocalDateTime windowStart, LocalDateTime windowEnd) {
+        if (customerIds.isEmpty()) {
+            return List.of();
+        }
+        try (Stream<RewardSummary> summaries = foldByCustomer(mongoTemplate.aggregateStream(
+                rewardPipelines.rewardSummaries(Criteria.where("customerId").in(customerIds), windowStart, windowEnd), Document.class),
+                windowStart, windowEnd)) {
+            return summaries.toList();
+        }
+    }
+
+    @Override
+    public Stream<RewardSummary> streamRewardSummaries(LocalDateTime windowStart, LocalDateTime windowEnd) {
+        return foldByCustomer(mongoTemplate.aggregateStream(rewardPipelines.rewardSummaries(null, windowStart, windowEnd), Document.class),
+                windowStart, windowEnd);
+    }
+
+    @Override
+    public Stream<RewardSummary> streamRewardSummariesUpTo(ObjectId highWaterMark, LocalDateTime windowStart, LocalDateTime windowEnd) {
+        return foldByCustomer(mongoTemplate.aggregateStream(
+                        rewardPipelines.rewardSummaries(upTo(highWaterMark), windowStart, windowEnd), Document.class),
+                windowStart, windowEnd);
+    }
+
+    @Override
+    public long countTransactionsUpTo(ObjectId highWaterMark) {
+        return mongoTemplate.count(new Query(upTo(highWaterMark)), Transaction.class);
+    }
+
+    @Override
+    public Stream<Transaction> streamTransactionsAfter(ObjectId highWaterMark) {
+        Query query = new Query(Criteria.where("_id").gt(highWaterMark));
+        query.fields().include("customerId", "amount", "date", "category");
+        return mongoTemplate.stream(query, Transaction.class);
+    }
+
+    /**
+     * Matches the transactions whose ObjectId does not sort after the mark, and those with other IDs.
+     */
+    private static Criteria upTo(ObjectId highWaterMark) {
+        return new Criteria().orOperator(
+                Criteria.where("_id").lte(highWaterMark),
+                Criteria.where("_id").not().type(JsonSchemaObject.Type.OBJECT_ID));
+    }
+
+    @Override
+    public Stream<RewardSummary> scanRewardSummaries(LocalDateTime windowStart, LocalDateTime windowEnd) {
+        Query query = new Query()
+                .with(Sort.by(Sort.Direction.ASC, "customerId", "date"))
+                .withHint(Transaction.CUSTOMER_DATE_INDEX);
+        query.fields().exclude("_id").include("customerId", "amount", "date", "category");
+
+        RewardRules rules = rewardRuleEngine.current();
+        return foldByCustomer(mongoTemplate.stream(query, Transaction.class), Transaction::getCustomerId,
+                (monthlyPoints, transaction) -> {
+                    LocalDateTime date = transaction.getDate();
+                    if (!date.isBefore(windowStart) && !date.isAfter(windowEnd)) {
+                        int points = rules.points(transaction);
+                        if (points > 0) {
+                            monthlyPoints.add(date, points);
+                        }
+                    }
+                },
+                windowStart, windowEnd);
+    }
+
+    @Override
+    public Stream<String> streamCustomerIds() {
+        TypedAggregation<Transaction> aggregation = Aggregation.newAggregation(Transaction.class,
+                        Aggregation.match(Criteria.where("customerId").ne(null)),
+                        Aggregation.group("customerId"),
+                        Aggregation.sort(Sort.Direction.ASC, "_id"))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        return mongoTemplate.aggregateStream(aggregation, Document.class).map(row -> row.getString("_id"));
+    }
+
+    @Override
+    public List<String> findCustomerIdsAfter(String afterCustomerId, int limit) {
+        Criteria criteria = afterCustomerId == null
+                ? Criteria.where("customerId").ne(null)
+                : Criteria.where("customerId").gt(afterCustomerId);
+
+        // Sorting on the leading field of the customer/date index before grouping lets the server
+        // read one index key per customer (DISTINCT_SCAN) instead of every matching transaction
+        TypedAggregation<Transaction> aggregation = Aggregation.newAggregation(Transaction.class,
+                Aggregation.match(criteria),
+                Aggregation.sort(Sort.Direction.ASC, "customerId"),
+                Aggregation.group("customerId"),
+                Aggregation.sort(Sort.Direction.ASC, "_id"),
+                Aggregation.limit(limit));
+
+        return mongoTemplate.aggregate(aggregation, Document.class).getMappedResults().stream()
+                .map(row -> row.getString("_id"))
+                .toList();
+    }
+
+    @Override
+    public Stream<RewardLedgerEntry> streamLedgerEntries() {
+        return mongoTemplate.aggregateStream(rewardPipelines.ledgerEntries(), Document.class).map(RewardPipelines::toLedgerEntry);
+    }
+
+    /**
+     * Lazily folds the per-customer, per-month rows of the reward pipeline into one
+     * {@link RewardSummary} per customer. Rows must arrive grouped by customer; rows that earned
+     * points must fall within the window. Closing the returned stream closes the underlying cursor.
+     */
+    static Stream<RewardSummary> foldByCustomer(Stream<Document> rows, LocalDateTime windowStart, LocalDateTime windowEnd) {
+        return foldByCustomer(rows, RewardPipelines::customerIdOf, RewardPipelines::addPoints, windowStart, windowEnd);
+    }
+
+    /**
+     * Lazily folds rows into one {@link RewardSummary} per customer, emitting each summary as soon
+     * as the first row of the next customer is read, so only one customer's points are held at a
+     * time. Rows must arrive grouped by customer. Closing the returned stream closes the underlying cursor.
+     */
+    private static <T> Stream<RewardSummary> foldByCustomer(Stream<T> rows, Function<T, String> customerIdOf,
+                                                            BiConsumer<MonthlyPoints, T> addPoints,
+                                                            LocalDateTime windowStart, LocalDateTime windowEnd) {
+        Iterator<T> iterator = rows.iterator();
+        MonthlyPoints monthlyPoints = new MonthlyPoints(YearMonth.from(windowStart), YearMonth.from(windowEnd));
+
+        Spliterator<RewardSummary> spliterator = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+
+            /** First row of the next customer, read ahead while detecting the customer boundary. */
+            private T pending;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super RewardSummary> action) {
+                T row = pending != null ? pending : next();
+                if (row == null) {
+                    return false;
+                }
+
+                String customerId = customerIdOf.apply(row);
+                monthlyPoints.clear();
+
+                while (row != null && customerId.equals(customerIdOf.apply(row))) {
+                    addPoints.accept(monthlyPoints, row);
+                    row = next();
+                }
+
+                pending = row;
+                action.accept(new RewardSummary(customerId, monthlyPoints.toMap(), monthlyPoints.totalPoints()));
+                return true;
+            }
+
+            private T next() {
+                return iterator.hasNext() ? iterator.next() : null;
+            }
+        };
+
+        return StreamSupport.stream(spliterator, false).onClose(rows::close);
+    }
+}
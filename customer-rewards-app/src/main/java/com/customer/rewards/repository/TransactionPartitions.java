@@ -0,0 +1,94 @@
+package com.customer.rewards.repository;
+
+import com.customer.rewards.model.RewardSummary;
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.rules.RewardRuleEngine;
+import com.customer.rewards.util.CustomerPartitioner;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * The {@code transactions} collection split across several MongoDB databases, each holding all
+ * transactions of the customers that hash to it (see {@link CustomerPartitioner}).
+ * <p>
+ * Every partition has the same schema and indexes as the primary database, so each one can run the
+ * reward pipeline on its own; because customers never span partitions, their results can be merged
+ * without combining summaries.
+ */
+public class TransactionPartitions {
+
+    private final List<MongoTemplate> partitions;
+    private final CustomerPartitioner partitioner;
+    private final RewardPipelines rewardPipelines;
+
+    /**
+     * Creates the partitions.
+     *
+     * @param partitions       one template per partition, in partition order
+     * @param rewardRuleEngine the reward rules used to score transactions
+     */
+    public TransactionPartitions(List<MongoTemplate> partitions, RewardRuleEngine rewardRuleEngine) {
+        this.partitions = List.copyOf(partitions);
+        this.partitioner = new CustomerPartitioner(partitions.size());
+        this.rewardPipelines = new RewardPipelines(rewardRuleEngine);
+    }
+
+    /**
+     * @return the number of partitions
+     */
+    public int count() {
+        return partitions.size();
+    }
+
+    /**
+     * Returns the partition holding a customer's transactions.
+     *
+     * @param customerId the ID of the customer
+     * @return the partition, from {@code 0} to {@code count() - 1}
+     */
+    public int partitionOf(String customerId) {
+        return partitioner.partitionOf(customerId);
+    }
+
+    /**
+     * Inserts transactions into the partitions of their customers, with one bulk insert per partition.
+     *
+     * @param transactions the transactions to insert
+     */
+    public void insert(Collection<Transaction> transactions) {
+        List<List<Transaction>> byPartition = new ArrayList<>(partitions.size());
+        for (int i = 0; i < partitions.size(); i++) {
+            byPartition.add(new ArrayList<>());
+        }
+        for (Transaction transaction : transactions) {
+            byPartition.get(partitionOf(transaction.getCustomerId())).add(transaction);
+        }
+        for (int i = 0; i < partitions.size(); i++) {
+            if (!byPartition.get(i).isEmpty()) {
+                partitions.get(i).insertAll(byPartition.get(i));
+            }
+        }
+    }
+
+    /**
+     * Streams the reward summary of every customer of one partition, like
+     * {@link TransactionAggregationRepository#streamRewardSummaries}. The returned stream must be
+     * closed to release the cursor.
+     *
+     * @param partition   the partition
+     * @param windowStart the inclusive start of the reward window
+     * @param windowEnd   the inclusive end of the reward window
+     * @return a stream of reward summaries of the partition's customers, ordered by customer ID
+     */
+    public Stream<RewardSummary> streamRewardSummaries(int partition, LocalDateTime windowStart, LocalDateTime windowEnd) {
+        return TransactionAggregationRepositoryImpl.foldByCustomer(partitions.get(partition).aggregateStream(
+                        rewardPipelines.rewardSummaries(null, windowStart, windowEnd), Document.class),
+                windowStart, windowEnd);
+    }
+}
@@ -1,17 +1,20 @@
 package com.customer.rewards.repository;
 
 import com.customer.rewards.model.Transaction;
+import org.springframework.data.mongodb.repository.Hint;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for accessing {@link Transaction} data from MongoDB.
  */
 @Repository
-public interface TransactionRepository extends MongoRepository<Transaction, String> {
+public interface TransactionRepository extends MongoRepository<Transaction, String>, TransactionAggregationRepository {
 
     /**
      * Finds all transactions associated with the specified customer ID.
@@ -21,11 +24,51 @@ public interface TransactionRepository extends MongoRepository<Transaction, Stri
      */
     List<Transaction> findByCustomerId(String customerId);
 
+    /**
+     * Finds the transactions of a customer dated within an inclusive date range, returning only
+     * the fields needed for scoring. The filter and projection are fully served by the
+     * customer/date compound index, so the query never reads the documents themselves.
+     *
+     * @param customerId the ID of the customer
+     * @param from       the inclusive start of the range
+     * @param to         the inclusive end of the range
+     * @return the transactions within the range, with only amount, date and category populated
+     */
+    @Query(value = "{ 'customerId' : ?0, 'date' : { '$gte' : ?1, '$lte' : ?2 } }",
+            fields = "{ '_id' : 0, 'amount' : 1, 'date' : 1, 'category' : 1 }")
+    List<Transaction> findByCustomerIdAndDateBetween(String customerId, LocalDateTime from, LocalDateTime to);
 
+    /**
+     * Checks whether the customer has a transaction dated after a date, up to an inclusive end,
+     * using the customer/date index.
+     *
+     * @param customerId the ID of the customer
+     * @param after      the exclusive start of the range
+     * @param to         the inclusive end of the range
+     * @return {@code true} if at least one transaction is dated within the range
+     */
+    @Query(value = "{ 'customerId' : ?0, 'date' : { '$gt' : ?1, '$lte' : ?2 } }", exists = true)
+    boolean existsByCustomerIdAndDateAfter(String customerId, LocalDateTime after, LocalDateTime to);
 
-    @Query(value = "{}", fields = "{ 'customerId' : 1 }")
-     List<Transaction> findAllCustomerIds();
-
-
+    /**
+     * Checks whether the customer has any transaction at all, using the customer/date index.
+     *
+     * @param customerId the ID of the customer
+     * @return {@code true} if at least one transaction exists
+     */
+    boolean existsByCustomerId(String customerId);
 
+    /**
+     * Streams the transactions dated on or after a date, returning only the fields needed to
+     * score them. The hint walks the customer/date index, so each customer's transactions are
+     * returned together and the query is covered by the index. The returned stream must be closed
+     * to release the cursor.
+     *
+     * @param from the inclusive start date
+     * @return the transactions from that date, with customer ID, amount, date and category populated
+     */
+    @Hint(Transaction.CUSTOMER_DATE_INDEX)
+    @Query(value = "{ 'date' : { '$gte' : ?0 } }",
+            fields = "{ '_id' : 0, 'customerId' : 1, 'amount' : 1, 'date' : 1, 'category' : 1 }")
+    Stream<Transaction> streamByDateGreaterThanEqual(LocalDateTime from);
 }
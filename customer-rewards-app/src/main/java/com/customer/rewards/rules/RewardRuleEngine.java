@@ -0,0 +1,122 @@
+package com.customer.rewards.rules;
+
+import com.customer.rewards.exception.InvalidRewardRulesException;
+import com.customer.rewards.model.RewardRuleSet;
+import com.customer.rewards.repository.RewardRuleSetRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Holds the reward rules in effect and swaps in new ones without a restart.
+ * <p>
+ * Rules are stored as a single {@link RewardRuleSet} document. Changes made through
+ * {@link #update(RewardRuleSet)} take effect immediately; changes made by other instances, or
+ * directly in the database, are picked up every {@code rewards.rules.refresh-interval}
+ * milliseconds. Until a rule set is stored, {@link RewardRuleSet#defaults()} apply.
+ * <p>
+ * Swapping replaces a single reference, so readers never block. Callers should read
+ * {@link #current()} once per request, which keeps each request on one consistent rule set.
+ * {@link RewardRulesChangedEvent}s are published after the engine's lock is released, so
+ * listeners never hold up other updates.
+ */
+@Component
+@Slf4j
+public class RewardRuleEngine {
+
+    private final RewardRuleSetRepository rewardRuleSetRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile RewardRules current = RewardRules.compile(RewardRuleSet.defaults());
+
+    public RewardRuleEngine(RewardRuleSetRepository rewardRuleSetRepository, ApplicationEventPublisher eventPublisher) {
+        this.rewardRuleSetRepository = rewardRuleSetRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Returns the rules in effect.
+     *
+     * @return the compiled rules
+     */
+    public RewardRules current() {
+        return current;
+    }
+
+    /**
+     * Validates, stores and activates a new rule set.
+     *
+     * @param ruleSet the new rule set; its ID, revision and update time are assigned here
+     * @return the rules now in effect
+     * @throws InvalidRewardRulesException if the rule set is inconsistent
+     */
+    public RewardRules update(RewardRuleSet ruleSet) {
+        RewardRules.compile(ruleSet); // Reject invalid rules before anything is stored
+
+        RewardRules rules;
+        synchronized (this) {
+            long storedRevision = rewardRuleSetRepository.findById(RewardRuleSet.ACTIVE_ID)
+                    .map(RewardRuleSet::getRevision)
+                    .orElse(0L);
+            ruleSet.setId(RewardRuleSet.ACTIVE_ID);
+            ruleSet.setRevision(Math.max(storedRevision, current.getRevision()) + 1);
+            ruleSet.setUpdatedAt(LocalDateTime.now());
+
+            rules = RewardRules.compile(rewardRuleSetRepository.save(ruleSet));
+            activate(rules, true);
+        }
+        eventPublisher.publishEvent(new RewardRulesChangedEvent(rules, true));
+        return rules;
+    }
+
+    /**
+     * Activates the stored rule set if its revision differs from the rules in effect.
+     * A stored rule set that fails to compile is logged and ignored.
+     */
+    @Scheduled(fixedDelayString = "${rewards.rules.refresh-interval:30000}", initialDelayString = "${rewards.rules.refresh-interval:30000}")
+    public void refresh() {
+        try {
+            rewardRuleSetRepository.findById(RewardRuleSet.ACTIVE_ID)
+                    .filter(stored -> stored.getRevision() != current.getRevision())
+                    .ifPresent(stored -> swap(RewardRules.compile(stored), false));
+        } catch (InvalidRewardRulesException e) {
+            log.error("Stored reward rules are invalid and were not applied: {}", e.getMessage());
+        } catch (DataAccessException e) {
+            log.warn("Could not refresh reward rules: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Loads the stored rule set at startup.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void loadOnStartup() {
+        refresh();
+    }
+
+    private void swap(RewardRules rules, boolean localUpdate) {
+        if (activate(rules, localUpdate)) {
+            eventPublisher.publishEvent(new RewardRulesChangedEvent(rules, localUpdate));
+        }
+    }
+
+    /**
+     * Puts rules in effect, unless rules picked up from the database were already applied.
+     *
+     * @return {@code true} if the rules were put in effect
+     */
+    private synchronized boolean activate(RewardRules rules, boolean localUpdate) {
+        if (!localUpdate && rules.getRevision() == current.getRevision()) {
+            return false; // Already applied by a concurrent update
+        }
+        current = rules;
+        log.info("Reward rules revision {} in effect", rules.getRevision());
+        return true;
+    }
+}
@@ -0,0 +1,289 @@
+package com.customer.rewards.rules;
+
+import com.customer.rewards.exception.InvalidRewardRulesException;
+import com.customer.rewards.model.RewardCampaign;
+import com.customer.rewards.model.RewardRuleSet;
+import com.customer.rewards.model.RewardTier;
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.util.Constants;
+import com.customer.rewards.util.RewardPoints;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable, compiled {@link RewardRuleSet}.
+ * <p>
+ * Tier tables are flattened into arrays of thresholds in cents, rates, and the points earned
+ * below each threshold, and campaigns into arrays ordered by decreasing multiplier. Scoring a
+ * transaction is then a short scan over primitive arrays with integer arithmetic; nothing is
+ * interpreted or allocated per transaction.
+ */
+public final class RewardRules {
+
+    /** Multipliers are applied in basis points so that scoring stays in integer arithmetic. */
+    static final long BASIS_POINTS = 10_000L;
+
+    private final RewardRuleSet definition;
+
+    /** Category of each tier table; index 0 is the default table and has no category. */
+    final String[] tableCategories;
+    final long[][] thresholdsCents;
+    final int[][] pointsPerDollar;
+    /** Points earned by an amount equal to each threshold, i.e. by all lower tiers together. */
+    final long[][] basePoints;
+    private final Map<String, Integer> tableByCategory;
+
+    final LocalDateTime[] campaignStarts;
+    /** Exclusive ends: the start of the day after each campaign's last day. */
+    final LocalDateTime[] campaignEnds;
+    final String[] campaignCategories;
+    final long[] campaignBasisPoints;
+    /** Campaign starts and exclusive ends as epoch milliseconds of the local date-time read as UTC. */
+    final long[] campaignStartMillis;
+    final long[] campaignEndMillis;
+
+    private RewardRules(RewardRuleSet definition, List<String> categories, List<List<RewardTier>> tables,
+                        List<RewardCampaign> campaigns) {
+        this.definition = definition;
+
+        int tableCount = tables.size();
+        this.tableCategories = categories.toArray(String[]::new);
+        this.thresholdsCents = new long[tableCount][];
+        this.pointsPerDollar = new int[tableCount][];
+        this.basePoints = new long[tableCount][];
+        this.tableByCategory = new HashMap<>();
+        for (int table = 0; table < tableCount; table++) {
+            List<RewardTier> tiers = tables.get(table);
+            thresholdsCents[table] = new long[tiers.size()];
+            pointsPerDollar[table] = new int[tiers.size()];
+            basePoints[table] = new long[tiers.size()];
+            for (int tier = 0; tier < tiers.size(); tier++) {
+                thresholdsCents[table][tier] = RewardPoints.toCents(tiers.get(tier).getThreshold());
+                pointsPerDollar[table][tier] = tiers.get(tier).getPointsPerDollar();
+                if (tier > 0) {
+                    basePoints[table][tier] = basePoints[table][tier - 1] + (thresholdsCents[table][tier] - thresholdsCents[table][tier - 1])
+                            * pointsPerDollar[table][tier - 1] / Constants.CENTS_PER_DOLLAR;
+                }
+            }
+            if (table > 0) {
+                tableByCategory.put(tableCategories[table], table);
+            }
+        }
+
+        int campaignCount = campaigns.size();
+        this.campaignStarts = new LocalDateTime[campaignCount];
+        this.campaignEnds = new LocalDateTime[campaignCount];
+        this.campaignCategories = new String[campaignCount];
+        this.campaignBasisPoints = new long[campaignCount];
+        this.campaignStartMillis = new long[campaignCount];
+        this.campaignEndMillis = new long[campaignCount];
+        for (int i = 0; i < campaignCount; i++) {
+            RewardCampaign campaign = campaigns.get(i);
+            campaignStarts[i] = campaign.getStartDate().atStartOfDay();
+            campaignEnds[i] = campaign.getEndDate().plusDays(1).atStartOfDay();
+            campaignCategories[i] = campaign.getCategory();
+            campaignBasisPoints[i] = Math.round(campaign.getMultiplier() * BASIS_POINTS);
+            campaignStartMillis[i] = epochMilli(campaignStarts[i]);
+            campaignEndMillis[i] = epochMilli(campaignEnds[i]);
+        }
+    }
+
+    /**
+     * Validates and compiles a rule set. Tiers are ordered by threshold and campaigns by
+     * decreasing multiplier, so that when campaigns overlap the most generous one applies.
+     *
+     * @param ruleSet the rule set
+     * @return the compiled rules
+     * @throws InvalidRewardRulesException if the rule set is inconsistent
+     */
+    public static RewardRules compile(RewardRuleSet ruleSet) {
+        if (ruleSet == null) {
+            throw new InvalidRewardRulesException("Reward rules are missing");
+        }
+
+        List<String> categories = new ArrayList<>();
+        List<List<RewardTier>> tables = new ArrayList<>();
+        categories.add(null);
+        tables.add(sortedTiers("default", ruleSet.getTiers()));
+
+        Map<String, List<RewardTier>> categoryTiers = new HashMap<>();
+        if (ruleSet.getCategoryTiers() != null) {
+            ruleSet.getCategoryTiers().entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .forEach(entry -> {
+                        if (entry.getKey() == null || entry.getKey().isBlank()) {
+                            throw new InvalidRewardRulesException("Category names must not be blank");
+                        }
+                        List<RewardTier> tiers = sortedTiers("category " + entry.getKey(), entry.getValue());
+                        categories.add(entry.getKey());
+                        tables.add(tiers);
+                        categoryTiers.put(entry.getKey(), tiers);
+                    });
+        }
+
+        List<RewardCampaign> campaigns = new ArrayList<>(ruleSet.getCampaigns() != null ? ruleSet.getCampaigns() : List.of());
+        for (RewardCampaign campaign : campaigns) {
+            if (campaign == null || campaign.getStartDate() == null || campaign.getEndDate() == null) {
+                throw new InvalidRewardRulesException("Campaigns need a start date and an end date");
+            }
+            if (campaign.getEndDate().isBefore(campaign.getStartDate())) {
+                throw new InvalidRewardRulesException("Campaign " + campaign.getName() + " ends before it starts");
+            }
+            if (!(campaign.getMultiplier() >= 0) || Double.isInfinite(campaign.getMultiplier())) {
+                throw new InvalidRewardRulesException("Campaign " + campaign.getName() + " has an invalid multiplier");
+            }
+        }
+        campaigns.sort(Comparator.comparingDouble(RewardCampaign::getMultiplier).reversed());
+
+        RewardRuleSet definition = RewardRuleSet.builder()
+                .id(ruleSet.getId())
+                .revision(ruleSet.getRevision())
+                .updatedAt(ruleSet.getUpdatedAt())
+                .tiers(tables.get(0))
+                .categoryTiers(categoryTiers)
+                .campaigns(List.copyOf(campaigns))
+                .build();
+        return new RewardRules(definition, categories, tables, campaigns);
+    }
+
+    private static List<RewardTier> sortedTiers(String table, List<RewardTier> tiers) {
+        if (tiers == null) {
+            return List.of();
+        }
+        List<RewardTier> sorted = new ArrayList<>(tiers);
+        if (sorted.contains(null)) {
+            throw new InvalidRewardRulesException("Tier table " + table + " contains an empty tier");
+        }
+        sorted.sort(Comparator.comparingDouble(RewardTier::getThreshold));
+        for (int i = 0; i < sorted.size(); i++) {
+            RewardTier tier = sorted.get(i);
+            if (!(tier.getThreshold() >= 0) || Double.isInfinite(tier.getThreshold()) || tier.getPointsPerDollar() < 0) {
+                throw new InvalidRewardRulesException("Tier table " + table + " has a negative or invalid tier");
+            }
+            if (i > 0 && RewardPoints.toCents(tier.getThreshold()) == RewardPoints.toCents(sorted.get(i - 1).getThreshold())) {
+                throw new InvalidRewardRulesException("Tier table " + table + " has duplicate threshold " + tier.getThreshold());
+            }
+        }
+        return List.copyOf(sorted);
+    }
+
+    /**
+     * Returns the normalized rule set these rules were compiled from.
+     *
+     * @return the rule set
+     */
+    public RewardRuleSet getDefinition() {
+        return definition;
+    }
+
+    /**
+     * Returns the revision of the rule set these rules were compiled from.
+     *
+     * @return the revision
+     */
+    public long getRevision() {
+        return definition.getRevision();
+    }
+
+    /**
+     * Calculates the reward points of a transaction.
+     *
+     * @param transaction the transaction
+     * @return the reward points
+     */
+    public int points(Transaction transaction) {
+        return points(RewardPoints.toCents(transaction.getAmount()), transaction.getDate(), transaction.getCategory());
+    }
+
+    /**
+     * Calculates the reward points of an amount: the tier points of the category's tier table
+     * (or the default table), scaled by the largest multiplier of the campaigns in effect on
+     * the given date. Fractions of a point are truncated.
+     *
+     * @param cents    the amount in cents
+     * @param date     the date of the transaction
+     * @param category the category of the transaction, or {@code null}
+     * @return the reward points
+     */
+    public int points(long cents, LocalDateTime date, String category) {
+        long points = tierPoints(cents, category);
+        if (points == 0 || campaignBasisPoints.length == 0) {
+            return (int) points;
+        }
+        return (int) (points * multiplierBasisPoints(date, category) / BASIS_POINTS);
+    }
+
+    /**
+     * Calculates the reward points of an amount like {@link #points(long, LocalDateTime, String)},
+     * with the date given as the epoch millisecond of its local date-time read as UTC (see
+     * {@link #epochMilli(LocalDateTime)}), so that columnar data can be scored without creating
+     * date objects.
+     *
+     * @param cents      the amount in cents
+     * @param epochMilli the date of the transaction
+     * @param category   the category of the transaction, or {@code null}
+     * @return the reward points
+     */
+    public int points(long cents, long epochMilli, String category) {
+        long points = tierPoints(cents, category);
+        if (points == 0 || campaignBasisPoints.length == 0) {
+            return (int) points;
+        }
+        return (int) (points * multiplierBasisPoints(epochMilli, category) / BASIS_POINTS);
+    }
+
+    /**
+     * Encodes a local date-time as the epoch millisecond it would have in UTC. The encoding is
+     * only used to order and compare dates, so no time zone is implied.
+     *
+     * @param date the date-time
+     * @return the encoded date-time, truncated to the millisecond
+     */
+    public static long epochMilli(LocalDateTime date) {
+        return date.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private long tierPoints(long cents, String category) {
+        int table = 0;
+        if (category != null) {
+            Integer categoryTable = tableByCategory.get(category);
+            table = categoryTable != null ? categoryTable : 0;
+        }
+        return tierPoints(thresholdsCents[table], pointsPerDollar[table], basePoints[table], cents);
+    }
+
+    private static long tierPoints(long[] thresholds, int[] rates, long[] base, long cents) {
+        for (int tier = thresholds.length - 1; tier >= 0; tier--) {
+            if (cents > thresholds[tier]) {
+                return base[tier] + (cents - thresholds[tier]) * rates[tier] / Constants.CENTS_PER_DOLLAR;
+            }
+        }
+        return 0;
+    }
+
+    private long multiplierBasisPoints(LocalDateTime date, String category) {
+        for (int i = 0; i < campaignBasisPoints.length; i++) {
+            if (!date.isBefore(campaignStarts[i]) && date.isBefore(campaignEnds[i])
+                    && (campaignCategories[i] == null || campaignCategories[i].equals(category))) {
+                return campaignBasisPoints[i];
+            }
+        }
+        return BASIS_POINTS;
+    }
+
+    private long multiplierBasisPoints(long epochMilli, String category) {
+        for (int i = 0; i < campaignBasisPoints.length; i++) {
+            if (epochMilli >= campaignStartMillis[i] && epochMilli < campaignEndMillis[i]
+                    && (campaignCategories[i] == null || campaignCategories[i].equals(category))) {
+                return campaignBasisPoints[i];
+            }
+        }
+        return BASIS_POINTS;
+    }
+}
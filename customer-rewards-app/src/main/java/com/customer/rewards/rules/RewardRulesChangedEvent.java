@@ -0,0 +1,11 @@
+package com.customer.rewards.rules;
+
+/**
+ * Published after new reward rules were swapped in.
+ *
+ * @param rules       the rules now in effect
+ * @param localUpdate {@code true} if the change was made through this instance, {@code false}
+ *                    if it was picked up from the stored rule set
+ */
+public record RewardRulesChangedEvent(RewardRules rules, boolean localUpdate) {
+}
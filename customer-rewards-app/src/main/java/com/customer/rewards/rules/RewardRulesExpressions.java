@@ -0,0 +1,107 @@
+package com.customer.rewards.rules;
+
+import com.customer.rewards.util.Constants;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.BooleanOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.LiteralOperators;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Translates {@link RewardRules} into a MongoDB aggregation expression that scores a
+ * transaction document exactly like {@link RewardRules#points(long, LocalDateTime, String)},
+ * so that server-side aggregations follow the rules in effect.
+ */
+public final class RewardRulesExpressions {
+
+    /** Private constructor to prevent instantiation. */
+    private RewardRulesExpressions() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    /**
+     * Builds the expression for the reward points of a transaction document with
+     * {@code amount}, {@code date} and {@code category} fields.
+     * <p>
+     * The amount is rounded to whole cents the way {@link Math#round(double)} does, and every
+     * quotient is truncated exactly like the integer division in the Java implementation.
+     *
+     * @param rules the compiled rules
+     * @param zone  the time zone in which {@code date} values were stored
+     * @return the points expression
+     */
+    public static AggregationExpression points(RewardRules rules, ZoneId zone) {
+        AggregationExpression cents = ArithmeticOperators.Floor.floorValueOf(
+                ArithmeticOperators.Add.valueOf(
+                                ArithmeticOperators.Multiply.valueOf("amount").multiplyBy(Constants.CENTS_PER_DOLLAR))
+                        .add(0.5));
+
+        AggregationExpression tierPoints = tierPoints(rules, 0, cents);
+        for (int table = rules.tableCategories.length - 1; table > 0; table--) {
+            tierPoints = ConditionalOperators
+                    .when(ComparisonOperators.Eq.valueOf("category").equalToValue(rules.tableCategories[table]))
+                    .thenValueOf(tierPoints(rules, table, cents))
+                    .otherwiseValueOf(tierPoints);
+        }
+
+        if (rules.campaignBasisPoints.length == 0) {
+            return tierPoints;
+        }
+        return ArithmeticOperators.Trunc.truncValueOf(
+                ArithmeticOperators.Divide.valueOf(
+                                ArithmeticOperators.Multiply.valueOf(tierPoints).multiplyBy(multiplierBasisPoints(rules, zone)))
+                        .divideBy(RewardRules.BASIS_POINTS));
+    }
+
+    /**
+     * One condition per tier, highest threshold first, each adding the points of the lower tiers.
+     */
+    private static AggregationExpression tierPoints(RewardRules rules, int table, AggregationExpression cents) {
+        long[] thresholds = rules.thresholdsCents[table];
+        AggregationExpression points = LiteralOperators.Literal.asLiteral(0);
+        for (int tier = 0; tier < thresholds.length; tier++) {
+            AggregationExpression tierPoints = ArithmeticOperators.Add.valueOf(
+                            ArithmeticOperators.Trunc.truncValueOf(
+                                    ArithmeticOperators.Divide.valueOf(
+                                                    ArithmeticOperators.Multiply.valueOf(
+                                                                    ArithmeticOperators.Subtract.valueOf(cents).subtract(thresholds[tier]))
+                                                            .multiplyBy(rules.pointsPerDollar[table][tier]))
+                                            .divideBy(Constants.CENTS_PER_DOLLAR)))
+                    .add(rules.basePoints[table][tier]);
+            points = ConditionalOperators.when(ComparisonOperators.Gt.valueOf(cents).greaterThanValue(thresholds[tier]))
+                    .thenValueOf(tierPoints)
+                    .otherwiseValueOf(points);
+        }
+        return points;
+    }
+
+    /**
+     * One condition per campaign, largest multiplier first, falling back to no multiplier.
+     */
+    private static AggregationExpression multiplierBasisPoints(RewardRules rules, ZoneId zone) {
+        AggregationExpression basisPoints = LiteralOperators.Literal.asLiteral(RewardRules.BASIS_POINTS);
+        for (int i = rules.campaignBasisPoints.length - 1; i >= 0; i--) {
+            List<AggregationExpression> conditions = new ArrayList<>();
+            conditions.add(ComparisonOperators.Gte.valueOf("date").greaterThanEqualToValue(toDate(rules.campaignStarts[i], zone)));
+            conditions.add(ComparisonOperators.Lt.valueOf("date").lessThanValue(toDate(rules.campaignEnds[i], zone)));
+            if (rules.campaignCategories[i] != null) {
+                conditions.add(ComparisonOperators.Eq.valueOf("category").equalToValue(rules.campaignCategories[i]));
+            }
+            basisPoints = ConditionalOperators.when(BooleanOperators.And.and((Object[]) conditions.toArray(AggregationExpression[]::new)))
+                    .then(rules.campaignBasisPoints[i])
+                    .otherwiseValueOf(basisPoints);
+        }
+        return basisPoints;
+    }
+
+    private static Date toDate(LocalDateTime dateTime, ZoneId zone) {
+        return Date.from(dateTime.atZone(zone).toInstant());
+    }
+}
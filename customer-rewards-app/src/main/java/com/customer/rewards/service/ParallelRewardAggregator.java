@@ -0,0 +1,128 @@
+package com.customer.rewards.service;
+
+import com.customer.rewards.exception.RewardComputationTimeoutException;
+import com.customer.rewards.model.RewardSummary;
+import com.customer.rewards.repository.TransactionRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+/**
+ * Computes the reward summaries of all customers by fanning chunks of customers out to a
+ * bounded pool of workers, each running one aggregation for its chunk.
+ * <p>
+ * The customer IDs are read from a single cursor on the request thread. A semaphore caps the
+ * number of chunk queries in flight per request, which also throttles the cursor, so at most
+ * {@code max-in-flight} chunks are ever buffered. Results keep the customer ID order, and the
+ * whole computation must finish within the configured deadline.
+ */
+@Component
+@Slf4j
+public class ParallelRewardAggregator {
+
+    private final TransactionRepository transactionRepository;
+    private final ExecutorService executor;
+    private final int chunkSize;
+    private final int maxInFlight;
+    private final Duration deadline;
+
+    public ParallelRewardAggregator(TransactionRepository transactionRepository,
+                                    @Value("${rewards.all-customers.parallel.threads:8}") int threads,
+                                    @Value("${rewards.all-customers.parallel.chunk-size:500}") int chunkSize,
+                                    @Value("${rewards.all-customers.parallel.max-in-flight:8}") int maxInFlight,
+                                    @Value("${rewards.all-customers.parallel.deadline:30s}") Duration deadline) {
+        this.transactionRepository = transactionRepository;
+        this.executor = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("rewards-fanout-"));
+        this.chunkSize = chunkSize;
+        this.maxInFlight = maxInFlight;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Computes the reward summaries of all customers.
+     *
+     * @param windowStart the inclusive start of the reward window
+     * @param windowEnd   the inclusive end of the reward window
+     * @return the reward summaries of all customers, ordered by customer ID
+     * @throws RewardComputationTimeoutException if the computation exceeds the deadline
+     */
+    public List<RewardSummary> aggregate(LocalDateTime windowStart, LocalDateTime windowEnd) {
+        long deadlineNanos = System.nanoTime() + deadline.toNanos();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        List<Future<List<RewardSummary>>> chunks = new ArrayList<>();
+
+        try {
+            try (Stream<String> customerIds = transactionRepository.streamCustomerIds()) {
+                Iterator<String> iterator = customerIds.iterator();
+                while (iterator.hasNext()) {
+                    List<String> chunk = new ArrayList<>(chunkSize);
+                    while (iterator.hasNext() && chunk.size() < chunkSize) {
+                        chunk.add(iterator.next());
+                    }
+
+                    if (!inFlight.tryAcquire(remaining(deadlineNanos), TimeUnit.NANOSECONDS)) {
+                        throw timeout(chunks.size());
+                    }
+                    chunks.add(executor.submit(() -> {
+                        try {
+                            return transactionRepository.aggregateRewardSummaries(chunk, windowStart, windowEnd);
+                        } finally {
+                            inFlight.release();
+                        }
+                    }));
+                }
+            }
+
+            List<RewardSummary> summaries = new ArrayList<>();
+            for (Future<List<RewardSummary>> chunk : chunks) {
+                summaries.addAll(chunk.get(remaining(deadlineNanos), TimeUnit.NANOSECONDS));
+            }
+            log.debug("Computed rewards for {} customers in {} chunks", summaries.size(), chunks.size());
+            return summaries;
+        } catch (TimeoutException e) {
+            throw timeout(chunks.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while computing rewards for all customers");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Failed to compute rewards for all customers", e.getCause());
+        } finally {
+            // No-op for completed chunks; stops the remaining ones after a failure or timeout
+            chunks.forEach(chunk -> chunk.cancel(true));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static long remaining(long deadlineNanos) {
+        return Math.max(0, deadlineNanos - System.nanoTime());
+    }
+
+    private RewardComputationTimeoutException timeout(int submittedChunks) {
+        return new RewardComputationTimeoutException("Rewards for all customers were not computed within "
+                + deadline.toMillis() + " ms (" + submittedChunks + " chunks submitted)");
+    }
+}
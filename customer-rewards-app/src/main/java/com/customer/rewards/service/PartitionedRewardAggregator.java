@@ -0,0 +1,142 @@
+package com.customer.rewards.service;
+
+import com.customer.rewards.exception.RewardComputationTimeoutException;
+import com.customer.rewards.model.RewardSummary;
+import com.customer.rewards.repository.TransactionPartitions;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+/**
+ * Computes the reward summaries of all customers by scatter-gather across the
+ * {@link TransactionPartitions}: every partition runs the reward pipeline for its own customers on a
+ * worker, and the per-partition results, each ordered by customer ID, are merged into one list in
+ * customer ID order. Customers never span partitions, so no summaries need to be combined.
+ * <p>
+ * The whole computation must finish within the configured deadline.
+ */
+@Component
+@Slf4j
+public class PartitionedRewardAggregator {
+
+    private final TransactionPartitions transactionPartitions;
+    private final ExecutorService executor;
+    private final Duration deadline;
+
+    public PartitionedRewardAggregator(TransactionPartitions transactionPartitions,
+                                       @Value("${rewards.partitions.threads:0}") int threads,
+                                       @Value("${rewards.partitions.deadline:30s}") Duration deadline) {
+        this.transactionPartitions = transactionPartitions;
+        this.executor = Executors.newFixedThreadPool(threads > 0 ? threads : transactionPartitions.count(),
+                new CustomizableThreadFactory("rewards-partition-"));
+        this.deadline = deadline;
+    }
+
+    /**
+     * @return {@code true} if transactions are spread over more than one partition
+     */
+    public boolean isPartitioned() {
+        return transactionPartitions.count() > 1;
+    }
+
+    /**
+     * Computes the reward summaries of all customers.
+     *
+     * @param windowStart the inclusive start of the reward window
+     * @param windowEnd   the inclusive end of the reward window
+     * @return the reward summaries of all customers, ordered by customer ID
+     * @throws RewardComputationTimeoutException if the computation exceeds the deadline
+     */
+    public List<RewardSummary> aggregate(LocalDateTime windowStart, LocalDateTime windowEnd) {
+        long deadlineNanos = System.nanoTime() + deadline.toNanos();
+        List<Future<List<RewardSummary>>> partitions = new ArrayList<>(transactionPartitions.count());
+
+        try {
+            for (int i = 0; i < transactionPartitions.count(); i++) {
+                int partition = i;
+                partitions.add(executor.submit(() -> {
+                    try (Stream<RewardSummary> summaries = transactionPartitions.streamRewardSummaries(partition, windowStart, windowEnd)) {
+                        return summaries.toList();
+                    }
+                }));
+            }
+
+            List<List<RewardSummary>> results = new ArrayList<>(partitions.size());
+            for (Future<List<RewardSummary>> partition : partitions) {
+                results.add(partition.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS));
+            }
+
+            List<RewardSummary> summaries = merge(results);
+            log.debug("Computed rewards for {} customers across {} partitions", summaries.size(), partitions.size());
+            return summaries;
+        } catch (TimeoutException e) {
+            throw new RewardComputationTimeoutException("Rewards for all customers were not computed within "
+                    + deadline.toMillis() + " ms across " + partitions.size() + " partitions");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while computing rewards for all customers");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Failed to compute rewards for all customers", e.getCause());
+        } finally {
+            // No-op for completed partitions; stops the remaining ones after a failure or timeout
+            partitions.forEach(partition -> partition.cancel(true));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * K-way merges lists that are each ordered by customer ID, in O(N log K).
+     */
+    private static List<RewardSummary> merge(List<List<RewardSummary>> sortedLists) {
+        if (sortedLists.size() == 1) {
+            return sortedLists.get(0);
+        }
+
+        record Head(RewardSummary summary, Iterator<RewardSummary> rest) {
+        }
+        PriorityQueue<Head> heads = new PriorityQueue<>(Comparator.comparing(head -> head.summary().getCustomerId()));
+        int total = 0;
+        for (List<RewardSummary> list : sortedLists) {
+            total += list.size();
+            Iterator<RewardSummary> iterator = list.iterator();
+            if (iterator.hasNext()) {
+                heads.add(new Head(iterator.next(), iterator));
+            }
+        }
+
+        List<RewardSummary> merged = new ArrayList<>(total);
+        while (!heads.isEmpty()) {
+            Head head = heads.poll();
+            merged.add(head.summary());
+            if (head.rest().hasNext()) {
+                heads.add(new Head(head.rest().next(), head.rest()));
+            }
+        }
+        return merged;
+    }
+}
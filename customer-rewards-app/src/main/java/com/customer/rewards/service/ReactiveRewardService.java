@@ -0,0 +1,117 @@
+package com.customer.rewards.service;
+
+import com.customer.rewards.exception.CustomerNotFoundException;
+import com.customer.rewards.model.RewardSummary;
+import com.customer.rewards.repository.ReactiveTransactionRepository;
+import com.customer.rewards.rules.RewardRuleEngine;
+import com.customer.rewards.rules.RewardRules;
+import com.customer.rewards.util.Constants;
+import com.customer.rewards.util.MonthlyPoints;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+/**
+ * Non-blocking counterpart of {@link RewardService} for the reactive serving stack, reading
+ * transactions through the {@link ReactiveTransactionRepository}. Results are identical to those of
+ * {@link RewardService} for the same window.
+ * <p>
+ * Every read goes to MongoDB. The read paths of {@link RewardService} that block, or that hold
+ * their own state, are not taken on this stack, whatever their properties say:
+ * <ul>
+ *   <li>the {@code rewardSummaries} cache ({@code spring.cache.*}): summaries are not cached;</li>
+ *   <li>request coalescing ({@code rewards.coalescing.*}): concurrent requests for a customer each
+ *       read its transactions;</li>
+ *   <li>the reward ledger ({@code rewards.ledger.serve-reads}), the reward snapshot
+ *       ({@code rewards.snapshot.*}) and the in-memory transaction index ({@code rewards.index.*}):
+ *       they are kept up to date, but not read from.</li>
+ * </ul>
+ * The batch, paginated and changes endpoints call {@link RewardService} on a bounded elastic
+ * scheduler, and take these paths just as on the servlet stack.
+ */
+@Service
+@Profile(Constants.REACTIVE_PROFILE)
+@Slf4j
+public class ReactiveRewardService {
+
+    private final ReactiveTransactionRepository reactiveTransactionRepository;
+    private final RewardService rewardService;
+    private final RewardRuleEngine rewardRuleEngine;
+    private final RewardMetrics rewardMetrics;
+
+    public ReactiveRewardService(ReactiveTransactionRepository reactiveTransactionRepository,
+                                 RewardService rewardService,
+                                 RewardRuleEngine rewardRuleEngine,
+                                 RewardMetrics rewardMetrics) {
+        this.reactiveTransactionRepository = reactiveTransactionRepository;
+        this.rewardService = rewardService;
+        this.rewardRuleEngine = rewardRuleEngine;
+        this.rewardMetrics = rewardMetrics;
+    }
+
+    /**
+     * Resolves the reward window of a request; see {@link RewardService#rewardWindow}.
+     *
+     * @param from   the first day of the window, or {@code null}
+     * @param to     the last day of the window, or {@code null} for today
+     * @param months the number of whole months before the last month, or {@code null}
+     * @return the resolved window
+     */
+    public RewardWindow rewardWindow(LocalDate from, LocalDate to, Integer months) {
+        return rewardService.rewardWindow(from, to, months);
+    }
+
+    /**
+     * Computes the reward summary of a customer over the given window. Only transactions dated
+     * within the window are read; they are scored as they arrive from the cursor. Because scoring
+     * is interleaved with I/O, only the transaction counters are recorded, not the scoring timer.
+     *
+     * @param customerId the ID of the customer
+     * @param window     the reward window
+     * @return the reward summary, or an error with {@link CustomerNotFoundException} if the customer has no transactions
+     */
+    public Mono<RewardSummary> getRewardsByCustomer(String customerId, RewardWindow window) {
+        return Mono.defer(() -> {
+            RewardRules rules = rewardRuleEngine.current();
+            long[] tally = new long[2]; // transactions scanned, transactions that earned points
+
+            return reactiveTransactionRepository.findByCustomerIdAndDateBetween(customerId, window.start(), window.end())
+                    .collect(() -> new MonthlyPoints(window.firstMonth(), window.lastMonth()), (monthlyPoints, transaction) -> {
+                        int points = rules.points(transaction);
+                        tally[0]++;
+                        if (points > 0) {
+                            monthlyPoints.add(transaction.getDate(), points);
+                            tally[1]++;
+                        }
+                    })
+                    .doOnNext(monthlyPoints -> rewardMetrics.recordTransactions(tally[0], tally[1]))
+                    // Only a summary without points needs the extra lookup to tell an unknown customer apart
+                    .flatMap(monthlyPoints -> monthlyPoints.totalPoints() > 0
+                            ? Mono.just(monthlyPoints)
+                            : reactiveTransactionRepository.existsByCustomerId(customerId)
+                                    .flatMap(exists -> exists
+                                            ? Mono.just(monthlyPoints)
+                                            : Mono.error(new CustomerNotFoundException("No transactions found for customer: " + customerId))))
+                    .map(monthlyPoints -> RewardSummary.builder()
+                            .customerId(customerId)
+                            .monthlyPoints(monthlyPoints.toMap())
+                            .totalPoints(monthlyPoints.totalPoints())
+                            .build());
+        });
+    }
+
+    /**
+     * Streams the reward summaries of all customers over the given window, ordered by customer ID,
+     * from a single aggregation cursor. Summaries are produced only as fast as they are consumed.
+     *
+     * @param window the reward window
+     * @return the reward summaries of all customers
+     */
+    public Flux<RewardSummary> streamAllCustomerRewards(RewardWindow window) {
+        return reactiveTransactionRepository.streamRewardSummaries(window.start(), window.end());
+    }
+}
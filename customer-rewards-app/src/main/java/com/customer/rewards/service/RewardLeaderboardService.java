@@ -0,0 +1,257 @@
+package com.customer.rewards.service;
+
+import com.customer.rewards.exception.CustomerNotFoundException;
+import com.customer.rewards.model.Leaderboard;
+import com.customer.rewards.model.LeaderboardEntry;
+import com.customer.rewards.model.RewardSummary;
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.repository.TransactionRepository;
+import com.customer.rewards.rules.RewardRuleEngine;
+import com.customer.rewards.util.RankedScores;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Service class maintaining the rewards leaderboard: every customer ranked by the points earned
+ * over the default reward window, kept in memory and updated as transactions are written.
+ * <p>
+ * Top-N and rank queries are answered from the {@link RankedScores} without reading the
+ * transactions. The leaderboard is built from a single aggregation on first use, and built again
+ * after changes that cannot be applied incrementally: deletes, bulk loads, reward rule changes and
+ * the start of a new month, which shifts the window. Builds run one at a time; transactions written
+ * while one runs are buffered and applied to the new leaderboard before it is swapped in, and a
+ * build that a delete, bulk load or rule change overtook is discarded rather than swapped in. A
+ * buffered transaction that the build's aggregation also read counts twice until the next build;
+ * {@code rewards.leaderboard.rebuild-cron} schedules periodic rebuilds to bound that drift.
+ */
+@Service
+@Slf4j
+public class RewardLeaderboardService {
+
+    /** The ranked points of one reward window. */
+    private record Board(RewardWindow window, RankedScores scores) {
+    }
+
+    private final TransactionRepository transactionRepository;
+    private final RewardService rewardService;
+    private final RewardRuleEngine rewardRuleEngine;
+    private final Clock clock;
+    private final int defaultSize;
+    private final int maxSize;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock buildLock = new ReentrantLock();
+    private volatile Board board;
+
+    // Guarded by this: the transactions written while a build runs, replayed on the new board, and a
+    // count of invalidations, so that a board built before one is not swapped in
+    private List<Transaction> pending;
+    private long generation;
+
+    public RewardLeaderboardService(TransactionRepository transactionRepository,
+                                    RewardService rewardService,
+                                    RewardRuleEngine rewardRuleEngine,
+                                    Clock clock,
+                                    @Value("${rewards.leaderboard.default-size:10}") int defaultSize,
+                                    @Value("${rewards.leaderboard.max-size:1000}") int maxSize) {
+        this.transactionRepository = transactionRepository;
+        this.rewardService = rewardService;
+        this.rewardRuleEngine = rewardRuleEngine;
+        this.clock = clock;
+        this.defaultSize = defaultSize;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Lists the customers with the most points over the default reward window.
+     *
+     * @param size the number of customers to list, or {@code null} for the configured default;
+     *             values are clamped to the configured maximum
+     * @return the top customers, highest points first
+     */
+    public Leaderboard getTopCustomers(Integer size) {
+        int limit = Math.max(1, Math.min(size != null ? size : defaultSize, maxSize));
+        Board current = currentBoard();
+
+        lock.readLock().lock();
+        try {
+            return Leaderboard.builder()
+                    .windowStart(current.window().start())
+                    .customerCount(current.scores().size())
+                    .entries(current.scores().top(limit).stream().map(RewardLeaderboardService::toEntry).toList())
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Looks up a customer's position on the leaderboard.
+     *
+     * @param customerId the ID of the customer
+     * @return the customer's rank and points
+     * @throws CustomerNotFoundException if the customer has no transactions
+     */
+    public LeaderboardEntry getCustomerRank(String customerId) {
+        Board current = currentBoard();
+
+        RankedScores.Ranking ranking;
+        lock.readLock().lock();
+        try {
+            ranking = current.scores().rank(customerId);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (ranking == null) {
+            throw new CustomerNotFoundException("No transactions found for customer: " + customerId);
+        }
+        return toEntry(ranking);
+    }
+
+    /**
+     * Adds a newly written transaction to the leaderboard. Transactions dated outside the
+     * window only register their customer. Buffered for the new leaderboard while one is being
+     * built, and otherwise ignored until the leaderboard is built.
+     *
+     * @param transaction the transaction that was written
+     */
+    public void record(Transaction transaction) {
+        Board current;
+        synchronized (this) {
+            if (pending != null) {
+                pending.add(transaction);
+            }
+            current = board;
+        }
+        if (current != null) {
+            add(current, transaction);
+        }
+    }
+
+    /**
+     * Discards the leaderboard, so that it is built again on next use. A build already running is
+     * not swapped in.
+     */
+    public synchronized void invalidate() {
+        generation++;
+        board = null;
+    }
+
+    /**
+     * Periodically rebuilds the leaderboard, if it is in use. Disabled unless
+     * {@code rewards.leaderboard.rebuild-cron} is set.
+     */
+    @Scheduled(cron = "${rewards.leaderboard.rebuild-cron:-}")
+    public void scheduledRebuild() {
+        if (board != null) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Returns the leaderboard of the current reward window, building it if it was discarded or
+     * was built in an earlier month.
+     */
+    private Board currentBoard() {
+        Board current = board;
+        if (isCurrent(current)) {
+            return current;
+        }
+        buildLock.lock();
+        try {
+            current = board;
+            while (!isCurrent(current)) {
+                current = rebuild();
+            }
+            return current;
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    private boolean isCurrent(Board current) {
+        return current != null && current.window().lastMonth().equals(YearMonth.now(clock));
+    }
+
+    /**
+     * Builds the leaderboard and swaps it in, unless it was invalidated meanwhile.
+     *
+     * @return the new leaderboard, or {@code null} if it was invalidated while being built
+     */
+    private Board rebuild() {
+        buildLock.lock();
+        try {
+            long buildGeneration;
+            synchronized (this) {
+                pending = new ArrayList<>();
+                buildGeneration = generation;
+            }
+
+            Board rebuilt = new Board(rewardService.rewardWindow(null, null, null), new RankedScores());
+            try (Stream<RewardSummary> summaries = transactionRepository.streamRewardSummaries(rebuilt.window().start(), rebuilt.window().end())) {
+                summaries.forEach(summary -> rebuilt.scores().add(summary.getCustomerId(), summary.getTotalPoints()));
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    pending = null;
+                }
+                throw e;
+            }
+
+            boolean swapped;
+            synchronized (this) {
+                swapped = generation == buildGeneration;
+                if (swapped) {
+                    pending.forEach(transaction -> add(rebuilt, transaction));
+                    board = rebuilt;
+                }
+                pending = null;
+            }
+            if (!swapped) {
+                log.info("Discarded a rewards leaderboard invalidated while it was built");
+                return null;
+            }
+            log.info("Built the rewards leaderboard with {} customers from {}", rebuilt.scores().size(), rebuilt.window().start());
+            return rebuilt;
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    /**
+     * Adds a transaction to a leaderboard. Transactions dated outside the window only register
+     * their customer.
+     */
+    private void add(Board current, Transaction transaction) {
+        LocalDateTime date = transaction.getDate();
+        boolean inWindow = !date.isBefore(current.window().start()) && !date.isAfter(LocalDateTime.now(clock));
+        int points = inWindow ? rewardRuleEngine.current().points(transaction) : 0;
+
+        lock.writeLock().lock();
+        try {
+            current.scores().add(transaction.getCustomerId(), points);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static LeaderboardEntry toEntry(RankedScores.Ranking ranking) {
+        return LeaderboardEntry.builder()
+                .rank(ranking.rank())
+                .customerId(ranking.customerId())
+                .totalPoints(ranking.points())
+                .build();
+    }
+}
@@ -0,0 +1,258 @@
+package com.customer.rewards.service;
+
+import com.customer.rewards.exception.CustomerNotFoundException;
+import com.customer.rewards.model.LedgerReconciliationReport;
+import com.customer.rewards.model.RewardLedgerEntry;
+import com.customer.rewards.model.RewardSummary;
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.repository.RewardLedgerRepository;
+import com.customer.rewards.repository.TransactionRepository;
+import com.customer.rewards.rules.RewardRuleEngine;
+import com.customer.rewards.rules.RewardRules;
+import com.customer.rewards.util.MonthlyPoints;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Service class maintaining the reward ledger, a precomputed per-customer, per-month
+ * total of reward points that serves reads without rescoring the transaction history.
+ */
+@Service
+@Slf4j
+public class RewardLedgerService {
+
+    /** Maximum number of drift descriptions kept in a reconciliation report. */
+    private static final int MAX_DRIFT_SAMPLES = 20;
+
+    private static final Comparator<RewardLedgerEntry> LEDGER_ORDER = Comparator
+            .comparing(RewardLedgerEntry::getCustomerId)
+            .thenComparing(RewardLedgerEntry::getYearMonth);
+
+    private final RewardLedgerRepository rewardLedgerRepository;
+    private final TransactionRepository transactionRepository;
+    private final RewardRuleEngine rewardRuleEngine;
+    private final ExecutorService reconciler = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("rewards-ledger-"));
+    private CompletableFuture<LedgerReconciliationReport> queuedReconcile; // Guarded by this
+
+    public RewardLedgerService(RewardLedgerRepository rewardLedgerRepository, TransactionRepository transactionRepository,
+                               RewardRuleEngine rewardRuleEngine) {
+        this.rewardLedgerRepository = rewardLedgerRepository;
+        this.transactionRepository = transactionRepository;
+        this.rewardRuleEngine = rewardRuleEngine;
+    }
+
+    /**
+     * Adds a newly written transaction to the ledger entry of its customer and month.
+     *
+     * @param transaction the transaction that was written
+     */
+    public void record(Transaction transaction) {
+        rewardLedgerRepository.addTransaction(transaction.getCustomerId(), YearMonth.from(transaction.getDate()),
+                rewardRuleEngine.current().points(transaction));
+    }
+
+    /**
+     * Adds a batch of newly written transactions to the ledger, summing them per customer and
+     * month first so that each affected entry is updated once, in a single bulk write.
+     *
+     * @param transactions the transactions that were written
+     */
+    public void recordAll(List<Transaction> transactions) {
+        RewardRules rules = rewardRuleEngine.current();
+        Map<String, RewardLedgerEntry> increments = new LinkedHashMap<>();
+        for (Transaction transaction : transactions) {
+            YearMonth yearMonth = YearMonth.from(transaction.getDate());
+            RewardLedgerEntry increment = increments.computeIfAbsent(RewardLedgerEntry.idOf(transaction.getCustomerId(), yearMonth),
+                    id -> new RewardLedgerEntry(id, transaction.getCustomerId(), yearMonth.toString(), 0, 0));
+            increment.setPoints(increment.getPoints() + rules.points(transaction));
+            increment.setTransactionCount(increment.getTransactionCount() + 1);
+        }
+        rewardLedgerRepository.addIncrements(increments.values());
+    }
+
+    /**
+     * Removes every ledger entry, e.g. after all transactions were deleted.
+     */
+    public void clear() {
+        rewardLedgerRepository.deleteAll();
+    }
+
+    /**
+     * Builds a customer's reward summary from the ledger entries of whole calendar months.
+     *
+     * @param customerId the ID of the customer
+     * @param fromMonth  the first month of the reward window
+     * @param toMonth    the last month of the reward window
+     * @return the reward summary containing monthly and total reward points
+     * @throws CustomerNotFoundException if the customer has no ledger entry at all
+     */
+    public RewardSummary getRewardsByCustomer(String customerId, YearMonth fromMonth, YearMonth toMonth) {
+        List<RewardLedgerEntry> entries = rewardLedgerRepository.findByCustomerIdAndMonthRange(
+                customerId, fromMonth.toString(), toMonth.toString());
+
+        if (entries.isEmpty() && !rewardLedgerRepository.existsByCustomerId(customerId)) {
+            throw new CustomerNotFoundException("No transactions found for customer: " + customerId);
+        }
+
+        MonthlyPoints monthlyPoints = new MonthlyPoints(fromMonth, toMonth);
+
+        for (RewardLedgerEntry entry : entries) {
+            if (entry.getPoints() > 0) {
+                YearMonth month = YearMonth.parse(entry.getYearMonth());
+                monthlyPoints.add(month.getYear(), month.getMonthValue(), entry.getPoints());
+            }
+        }
+
+        return RewardSummary.builder()
+                .customerId(customerId)
+                .monthlyPoints(monthlyPoints.toMap())
+                .totalPoints(monthlyPoints.totalPoints())
+                .build();
+    }
+
+    /**
+     * Recomputes the ledger from the raw transactions and compares it with the stored ledger.
+     * Both sides are read as cursors ordered by customer and month and merge-joined, so memory
+     * use does not depend on the size of either collection.
+     * <p>
+     * Repairs overwrite drifted entries, so increments made concurrently to those entries are
+     * lost; repair while writes are quiet, or run another reconciliation afterwards.
+     *
+     * @param repair whether drifted entries should be corrected
+     * @return a report of the drift found
+     */
+    public LedgerReconciliationReport reconcile(boolean repair) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long expectedCount = 0;
+        long missing = 0;
+        long unexpected = 0;
+        long mismatched = 0;
+        List<String> samples = new ArrayList<>();
+
+        try (Stream<RewardLedgerEntry> expectedEntries = transactionRepository.streamLedgerEntries();
+             Stream<RewardLedgerEntry> actualEntries = rewardLedgerRepository.streamAllByOrderByCustomerIdAscYearMonthAsc()) {
+            Iterator<RewardLedgerEntry> expectedIterator = expectedEntries.iterator();
+            Iterator<RewardLedgerEntry> actualIterator = actualEntries.iterator();
+            RewardLedgerEntry expected = next(expectedIterator);
+            RewardLedgerEntry actual = next(actualIterator);
+
+            while (expected != null || actual != null) {
+                int order = expected == null ? 1 : actual == null ? -1 : LEDGER_ORDER.compare(expected, actual);
+
+                if (order < 0) {
+                    missing++;
+                    addSample(samples, "Missing " + expected.getId() + ": expected " + describe(expected));
+                    if (repair) {
+                        rewardLedgerRepository.save(expected);
+                    }
+                } else if (order > 0) {
+                    unexpected++;
+                    addSample(samples, "Unexpected " + actual.getId() + ": found " + describe(actual));
+                    if (repair) {
+                        rewardLedgerRepository.delete(actual);
+                    }
+                } else if (expected.getPoints() != actual.getPoints()
+                        || expected.getTransactionCount() != actual.getTransactionCount()) {
+                    mismatched++;
+                    addSample(samples, "Mismatched " + expected.getId() + ": expected " + describe(expected)
+                            + ", found " + describe(actual));
+                    if (repair) {
+                        rewardLedgerRepository.save(expected);
+                    }
+                }
+
+                if (order <= 0) {
+                    expectedCount++;
+                    expected = next(expectedIterator);
+                }
+                if (order >= 0) {
+                    actual = next(actualIterator);
+                }
+            }
+        }
+
+        LedgerReconciliationReport report = LedgerReconciliationReport.builder()
+                .startedAt(startedAt)
+                .durationMillis(Duration.between(startedAt, LocalDateTime.now()).toMillis())
+                .expectedEntries(expectedCount)
+                .missingEntries(missing)
+                .unexpectedEntries(unexpected)
+                .mismatchedEntries(mismatched)
+                .repaired(repair)
+                .driftSamples(samples)
+                .build();
+
+        if (report.hasDrift()) {
+            log.warn("Reward ledger drift detected: {} missing, {} unexpected, {} mismatched of {} entries (repaired: {})",
+                    missing, unexpected, mismatched, expectedCount, repair);
+        } else {
+            log.info("Reward ledger is consistent with {} entries", expectedCount);
+        }
+        return report;
+    }
+
+    /**
+     * Rescores and repairs the whole ledger on a background thread, e.g. after the reward rules
+     * changed, then reconciles once more to repair the increments that writes made meanwhile lost
+     * to the rescore. Requests made while a rescore is queued but not started share it.
+     *
+     * @return completes with the report of the second reconciliation
+     */
+    public synchronized CompletableFuture<LedgerReconciliationReport> reconcileInBackground() {
+        if (queuedReconcile == null) {
+            queuedReconcile = CompletableFuture.supplyAsync(() -> {
+                synchronized (this) {
+                    queuedReconcile = null;
+                }
+                reconcile(true);
+                return reconcile(true);
+            }, reconciler);
+        }
+        return queuedReconcile;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        reconciler.shutdownNow();
+    }
+
+    /**
+     * Periodically reconciles and repairs the ledger. Disabled unless
+     * {@code rewards.ledger.reconcile-cron} is set.
+     */
+    @Scheduled(cron = "${rewards.ledger.reconcile-cron:-}")
+    public void scheduledReconcile() {
+        reconcile(true);
+    }
+
+    private static RewardLedgerEntry next(Iterator<RewardLedgerEntry> iterator) {
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    private static void addSample(List<String> samples, String sample) {
+        if (samples.size() < MAX_DRIFT_SAMPLES) {
+            samples.add(sample);
+        }
+    }
+
+    private static String describe(RewardLedgerEntry entry) {
+        return entry.getPoints() + " points over " + entry.getTransactionCount() + " transactions";
+    }
+}
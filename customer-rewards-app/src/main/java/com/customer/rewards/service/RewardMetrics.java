@@ -0,0 +1,163 @@
+package com.customer.rewards.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters for the reward scoring hot path, the transaction write path, the transaction index
+ * the pre-encoded response cache and coalesced reward lookups.
+ * <p>
+ * Endpoints and repository methods are timed by Spring Boot ({@code http.server.requests} and
+ * {@code spring.data.repository.invocations}); this class adds the time spent scoring transactions
+ * and how many of the scanned transactions earned points. Percentile histograms are enabled
+ * through {@code management.metrics.distribution.percentiles-histogram.*}.
+ */
+@Component
+public class RewardMetrics {
+
+    /** Timer for scoring one customer's transactions, excluding the database read. */
+    public static final String SCORING = "rewards.scoring";
+
+    /** Counter of transactions read for scoring. */
+    public static final String TRANSACTIONS_SCANNED = "rewards.transactions.scanned";
+
+    /** Counter of scanned transactions that earned points. */
+    public static final String TRANSACTIONS_SCORED = "rewards.transactions.scored";
+
+    /** Timer for writing one micro-batch of submitted transactions. */
+    public static final String INGEST_FLUSH = "rewards.ingest.flush";
+
+    /** Distribution of the number of transactions per written micro-batch. */
+    public static final String INGEST_BATCH_SIZE = "rewards.ingest.batch.size";
+
+    /** Gauge of the transactions held by the in-memory transaction index. */
+    public static final String INDEX_TRANSACTIONS = "rewards.index.transactions";
+
+    /** Gauge of the memory held by the in-memory transaction index. */
+    public static final String INDEX_BYTES = "rewards.index.bytes";
+
+    /** Counter of reward summary encodings, tagged {@code result=hit} when pre-encoded bytes were reused. */
+    public static final String ENCODING_CACHE = "rewards.encoding.cache";
+
+    /** Counter of per-customer reward lookups, tagged {@code result=coalesced} when they shared a concurrent computation. */
+    public static final String COALESCING = "rewards.coalescing";
+
+    private final MeterRegistry meterRegistry;
+    private final Timer scoringTimer;
+    private final Counter scannedCounter;
+    private final Counter scoredCounter;
+    private final Timer ingestFlushTimer;
+    private final DistributionSummary ingestBatchSize;
+    private final Counter encodingHitCounter;
+    private final Counter encodingMissCounter;
+    private final Counter coalescedCounter;
+    private final Counter computedCounter;
+
+    public RewardMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.scoringTimer = Timer.builder(SCORING)
+                .description("Time spent scoring the transactions of one customer")
+                .register(meterRegistry);
+        this.scannedCounter = Counter.builder(TRANSACTIONS_SCANNED)
+                .description("Transactions read for scoring")
+                .register(meterRegistry);
+        this.scoredCounter = Counter.builder(TRANSACTIONS_SCORED)
+                .description("Scanned transactions that earned reward points")
+                .register(meterRegistry);
+        this.ingestFlushTimer = Timer.builder(INGEST_FLUSH)
+                .description("Time spent writing one micro-batch of submitted transactions")
+                .register(meterRegistry);
+        this.ingestBatchSize = DistributionSummary.builder(INGEST_BATCH_SIZE)
+                .description("Transactions per written micro-batch")
+                .register(meterRegistry);
+        this.encodingHitCounter = Counter.builder(ENCODING_CACHE)
+                .description("Reward summary responses written from pre-encoded bytes or encoded again")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.encodingMissCounter = Counter.builder(ENCODING_CACHE)
+                .description("Reward summary responses written from pre-encoded bytes or encoded again")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder(COALESCING)
+                .description("Per-customer reward lookups computed or served by a concurrent identical lookup")
+                .tag("result", "coalesced")
+                .register(meterRegistry);
+        this.computedCounter = Counter.builder(COALESCING)
+                .description("Per-customer reward lookups computed or served by a concurrent identical lookup")
+                .tag("result", "computed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records one scoring pass.
+     *
+     * @param elapsedNanos the time spent scoring, in nanoseconds
+     * @param scanned      the number of transactions scored
+     * @param scored       the number of those that earned points
+     */
+    public void recordScoring(long elapsedNanos, int scanned, int scored) {
+        scoringTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        recordTransactions(scanned, scored);
+    }
+
+    /**
+     * Counts scanned and scored transactions without timing, for scoring that is interleaved with I/O.
+     *
+     * @param scanned the number of transactions scored
+     * @param scored  the number of those that earned points
+     */
+    public void recordTransactions(long scanned, long scored) {
+        scannedCounter.increment(scanned);
+        scoredCounter.increment(scored);
+    }
+
+    /**
+     * Records one written micro-batch of submitted transactions.
+     *
+     * @param elapsedNanos the time spent writing, in nanoseconds
+     * @param size         the number of transactions written
+     */
+    public void recordIngestBatch(long elapsedNanos, int size) {
+        ingestFlushTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        ingestBatchSize.record(size);
+    }
+
+    /**
+     * Records one reward summary written with pre-encoding.
+     *
+     * @param hit {@code true} if the pre-encoded bytes of the unchanged summary were reused
+     */
+    public void recordEncoding(boolean hit) {
+        (hit ? encodingHitCounter : encodingMissCounter).increment();
+    }
+
+    /**
+     * Records one per-customer reward lookup going through request coalescing.
+     *
+     * @param coalesced {@code true} if the lookup waited for a concurrent identical lookup instead of computing
+     */
+    public void recordCoalescing(boolean coalesced) {
+        (coalesced ? coalescedCounter : computedCounter).increment();
+    }
+
+    /**
+     * Reports the size of the in-memory transaction index.
+     *
+     * @param transactionIndexService the index
+     */
+    public void registerIndexFootprint(TransactionIndexService transactionIndexService) {
+        Gauge.builder(INDEX_TRANSACTIONS, transactionIndexService, index -> index.footprint().transactions())
+                .description("Transactions held by the in-memory transaction index")
+                .register(meterRegistry);
+        Gauge.builder(INDEX_BYTES, transactionIndexService, index -> index.footprint().bytes())
+                .description("Memory held by the in-memory transaction index, including an estimate for its customer map")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,125 @@
+package com.customer.rewards.service;
+
+import com.customer.rewards.exception.CustomerNotFoundException;
+import com.customer.rewards.exception.RewardComputationTimeoutException;
+import com.customer.rewards.model.RewardSummary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Service class sharing one computation of a customer's reward summary among the concurrent
+ * callers asking for it (single-flight).
+ * <p>
+ * The first caller for a customer and window computes the summary on its own thread; callers
+ * arriving while it runs wait for its result instead of reading the same transactions again, and
+ * get the same summary or the same exception, such as {@link CustomerNotFoundException}. Windows
+ * ending now are matched by their last day, since a caller joining a running computation is served
+ * as of the moment it started, just like a caller served from the summary cache. A waiting caller
+ * gives up after {@code rewards.coalescing.timeout} with a {@link RewardComputationTimeoutException},
+ * leaving the computation to finish for the others. Once a customer's transactions change, later
+ * callers start a new computation rather than joining one that may have missed the change.
+ */
+@Service
+public class RewardRequestCoalescer {
+
+    private record Key(String customerId, LocalDateTime start, LocalDate endDay) {
+    }
+
+    private final ConcurrentMap<Key, CompletableFuture<RewardSummary>> inFlight = new ConcurrentHashMap<>();
+    private final RewardMetrics rewardMetrics;
+    private final boolean enabled;
+    private final Duration timeout;
+
+    public RewardRequestCoalescer(RewardMetrics rewardMetrics,
+                                  @Value("${rewards.coalescing.enabled:true}") boolean enabled,
+                                  @Value("${rewards.coalescing.timeout:30s}") Duration timeout) {
+        this.rewardMetrics = rewardMetrics;
+        this.enabled = enabled;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Returns a customer's reward summary, computed by this caller or by a concurrent one.
+     *
+     * @param customerId  the ID of the customer
+     * @param window      the reward window
+     * @param computation computes the summary; run at most once for concurrent callers
+     * @return the reward summary
+     * @throws CustomerNotFoundException         if the computation found no transactions for the customer
+     * @throws RewardComputationTimeoutException if the summary computed by another caller is not ready within the timeout
+     */
+    public RewardSummary getRewardsByCustomer(String customerId, RewardWindow window, Supplier<RewardSummary> computation) {
+        if (!enabled) {
+            return computation.get();
+        }
+
+        Key key = new Key(customerId, window.start(), window.end().toLocalDate());
+        CompletableFuture<RewardSummary> future = new CompletableFuture<>();
+        CompletableFuture<RewardSummary> running = inFlight.putIfAbsent(key, future);
+        rewardMetrics.recordCoalescing(running != null);
+        if (running != null) {
+            return await(customerId, running);
+        }
+
+        // Removed before completing, so that no caller joins a computation that has already finished
+        RewardSummary summary;
+        try {
+            summary = computation.get();
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+        inFlight.remove(key, future);
+        future.complete(summary);
+        return summary;
+    }
+
+    /**
+     * Makes later callers for a customer start a new computation, after its transactions changed.
+     *
+     * @param customerId the ID of the customer
+     */
+    public void forget(String customerId) {
+        inFlight.keySet().removeIf(key -> key.customerId().equals(customerId));
+    }
+
+    /**
+     * Makes every later caller start a new computation, after changes to unknown customers.
+     */
+    public void forgetAll() {
+        inFlight.clear();
+    }
+
+    private RewardSummary await(String customerId, CompletableFuture<RewardSummary> running) {
+        try {
+            return running.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new RewardComputationTimeoutException("Rewards for customer " + customerId
+                    + " were not computed within " + timeout.toMillis() + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for the rewards of customer " + customerId);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Failed to compute the rewards of customer " + customerId, e.getCause());
+        }
+    }
+}
@@ -1,20 +1,38 @@
 package com.customer.rewards.service;
 
 import com.customer.rewards.exception.CustomerNotFoundException;
+import com.customer.rewards.exception.InvalidPageTokenException;
+import com.customer.rewards.exception.InvalidRewardWindowException;
+import com.customer.rewards.exception.RewardComputationTimeoutException;
+import com.customer.rewards.model.BatchRewardsResponse;
 import com.customer.rewards.model.RewardSummary;
+import com.customer.rewards.model.RewardSummaryPage;
 import com.customer.rewards.model.Transaction;
 import com.customer.rewards.repository.TransactionRepository;
-import com.customer.rewards.util.Constants;
+import com.customer.rewards.rules.RewardRuleEngine;
+import com.customer.rewards.rules.RewardRules;
+import com.customer.rewards.util.MonthlyPoints;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.Month;
-import java.time.temporal.TemporalAdjusters;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Service class responsible for calculating reward points for customers based on their transactions.
@@ -24,95 +42,357 @@ import java.util.stream.Collectors;
 public class RewardService {
 
     private final TransactionRepository transactionRepository;
+    private final RewardLedgerService rewardLedgerService;
+    private final TransactionIndexService transactionIndexService;
+    private final RewardSnapshotService rewardSnapshotService;
+    private final RewardRequestCoalescer rewardRequestCoalescer;
+    private final ParallelRewardAggregator parallelRewardAggregator;
+    private final PartitionedRewardAggregator partitionedRewardAggregator;
+    private final RewardRuleEngine rewardRuleEngine;
+    private final RewardMetrics rewardMetrics;
+    private final Clock clock;
+    private final boolean ledgerServesReads;
+    private final boolean parallelAllCustomers;
+    private final boolean scanAllCustomers;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int defaultWindowMonths;
+    private final int maxWindowMonths;
 
-    public RewardService(TransactionRepository transactionRepository) {
+    public RewardService(TransactionRepository transactionRepository,
+                         RewardLedgerService rewardLedgerService,
+                         TransactionIndexService transactionIndexService,
+                         RewardSnapshotService rewardSnapshotService,
+                         RewardRequestCoalescer rewardRequestCoalescer,
+                         ParallelRewardAggregator parallelRewardAggregator,
+                         PartitionedRewardAggregator partitionedRewardAggregator,
+                         RewardRuleEngine rewardRuleEngine,
+                         RewardMetrics rewardMetrics,
+                         Clock clock,
+                         @Value("${rewards.ledger.serve-reads:false}") boolean ledgerServesReads,
+                         @Value("${rewards.all-customers.parallel.enabled:false}") boolean parallelAllCustomers,
+                         @Value("${rewards.all-customers.cursor-scan.enabled:false}") boolean scanAllCustomers,
+                         @Value("${rewards.page.default-size:100}") int defaultPageSize,
+                         @Value("${rewards.page.max-size:1000}") int maxPageSize,
+                         @Value("${rewards.window.default-months:3}") int defaultWindowMonths,
+                         @Value("${rewards.window.max-months:24}") int maxWindowMonths) {
         this.transactionRepository = transactionRepository;
+        this.rewardLedgerService = rewardLedgerService;
+        this.transactionIndexService = transactionIndexService;
+        this.rewardSnapshotService = rewardSnapshotService;
+        this.rewardRequestCoalescer = rewardRequestCoalescer;
+        this.parallelRewardAggregator = parallelRewardAggregator;
+        this.partitionedRewardAggregator = partitionedRewardAggregator;
+        this.rewardRuleEngine = rewardRuleEngine;
+        this.rewardMetrics = rewardMetrics;
+        this.clock = clock;
+        this.ledgerServesReads = ledgerServesReads;
+        this.parallelAllCustomers = parallelAllCustomers;
+        this.scanAllCustomers = scanAllCustomers;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.defaultWindowMonths = defaultWindowMonths;
+        this.maxWindowMonths = maxWindowMonths;
     }
 
     /**
-     * Retrieves the reward summary for a specific customer.
+     * Resolves the reward window of a request. Without parameters this is the default window:
+     * from the first day of the month {@code rewards.window.default-months} months ago up to now.
+     * <ul>
+     *   <li>{@code months} counts the whole months before the month of {@code to} (or of today) that are included</li>
+     *   <li>{@code from} and {@code to} are inclusive calendar dates; {@code to} defaults to today</li>
+     * </ul>
+     * The window never extends past the current time, so future-dated transactions are not counted.
+     * The clock is read once, so every part of a request sees the same "now".
+     *
+     * @param from   the first day of the window, or {@code null}
+     * @param to     the last day of the window, or {@code null} for today
+     * @param months the number of whole months before the last month, or {@code null}; cannot be combined with {@code from}
+     * @return the resolved window
+     * @throws InvalidRewardWindowException if the parameters are inconsistent or the window exceeds
+     *                                      {@code rewards.window.max-months}
+     */
+    public RewardWindow rewardWindow(LocalDate from, LocalDate to, Integer months) {
+        if (from != null && months != null) {
+            throw new InvalidRewardWindowException("Specify either from or months, not both");
+        }
+        if (months != null && (months < 0 || months > maxWindowMonths)) {
+            throw new InvalidRewardWindowException("months must be between 0 and " + maxWindowMonths);
+        }
+
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime end = to == null || !to.atTime(LocalTime.MAX).isBefore(now) ? now : to.atTime(LocalTime.MAX);
+        LocalDateTime start = from != null
+                ? from.atStartOfDay()
+                : YearMonth.from(end).minusMonths(months != null ? months : defaultWindowMonths).atDay(1).atStartOfDay();
+
+        if (start.isAfter(end)) {
+            throw new InvalidRewardWindowException("The reward window starts after it ends: " + start.toLocalDate() + " > " + end.toLocalDate());
+        }
+        if (YearMonth.from(start).plusMonths(maxWindowMonths).isBefore(YearMonth.from(end))) {
+            throw new InvalidRewardWindowException("The reward window cannot span more than " + maxWindowMonths + " months before its last month");
+        }
+        return new RewardWindow(start, end);
+    }
+
+    /**
+     * Retrieves the reward summary for a specific customer over the default reward window,
+     * scored with the reward rules in effect.
+     * <p>
+     * Summaries are cached per customer; see {@link RewardSummaryCache} for how entries are invalidated.
+     * Concurrent misses for one customer compute the summary once, and an eviction arriving meanwhile
+     * waits for that computation, so a summary computed before the eviction is never cached after it.
      *
      * @param customerId the ID of the customer
      * @return the reward summary containing monthly and total reward points
      * @throws CustomerNotFoundException if no transactions are found for the customer
      */
+    @Cacheable(cacheNames = RewardSummaryCache.CACHE_NAME, key = "#customerId", sync = true)
     public RewardSummary getRewardsByCustomer(String customerId) {
-        List<Transaction> transactions = transactionRepository.findByCustomerId(customerId);
+        return getRewardsByCustomer(customerId, defaultWindow());
+    }
+
+    /**
+     * Retrieves the reward summary for a specific customer over the given window, without caching.
+     * Only transactions dated within the window are read from the database; a customer with
+     * transactions outside the window only gets an empty summary.
+     * <p>
+     * When {@code rewards.ledger.serve-reads} is enabled, the summary is read from the reward ledger
+     * instead of rescoring the transaction history, but only when the ledger's whole calendar months
+     * hold exactly the window's transactions (see {@link #countsWholeMonthsUpToNow}); other windows,
+     * such as ones starting or ending mid-month, are scored from the transactions. Otherwise, when
+     * {@code rewards.snapshot.enabled} is set, the summary is read from the {@link RewardSnapshotService}
+     * whenever a snapshot is in use that covers the window and knows the customer, also counting whole
+     * calendar months and so under the same condition as the ledger. Otherwise, when {@code rewards.index.enabled} is set, the transactions are
+     * scored from the in-memory {@link TransactionIndexService} whenever it covers the window and
+     * knows the customer.
+     * <p>
+     * Concurrent lookups of the same customer and window that read the database share one
+     * computation through the {@link RewardRequestCoalescer}.
+     *
+     * @param customerId the ID of the customer
+     * @param window     the reward window
+     * @return the reward summary containing monthly and total reward points
+     * @throws CustomerNotFoundException if no transactions are found for the customer
+     * @throws RewardComputationTimeoutException if a concurrent lookup's summary is not ready within
+     *                                           {@code rewards.coalescing.timeout}
+     */
+    public RewardSummary getRewardsByCustomer(String customerId, RewardWindow window) {
+        if (ledgerServesReads && countsWholeMonthsUpToNow(customerId, window)) {
+            return rewardLedgerService.getRewardsByCustomer(customerId, window.firstMonth(), window.lastMonth());
+        }
+        if (rewardSnapshotService != null && rewardSnapshotService.isRestored() && countsWholeMonthsUpToNow(customerId, window)) {
+            RewardSummary snapshotted = rewardSnapshotService.getRewardsByCustomer(customerId, window);
+            if (snapshotted != null) {
+                return snapshotted;
+            }
+        }
+        if (transactionIndexService != null && transactionIndexService.isEnabled()) {
+            RewardSummary indexed = transactionIndexService.getRewardsByCustomer(customerId, window);
+            if (indexed != null) {
+                return indexed;
+            }
+        }
+
+        if (rewardRequestCoalescer != null) {
+            return rewardRequestCoalescer.getRewardsByCustomer(customerId, window, () -> computeRewardsByCustomer(customerId, window));
+        }
+        return computeRewardsByCustomer(customerId, window);
+    }
 
-        if (transactions == null || transactions.isEmpty()) {
+    /**
+     * Checks whether the whole calendar months of a window hold exactly its transactions, so that
+     * it can be answered from the monthly totals of the ledger or a snapshot: the window starts at the beginning of a month, ends
+     * now rather than on an earlier day, and the customer has no transaction dated later in the
+     * current month, which the window excludes.
+     */
+    private boolean countsWholeMonthsUpToNow(String customerId, RewardWindow window) {
+        return window.start().equals(window.firstMonth().atDay(1).atStartOfDay())
+                && !window.end().toLocalDate().isBefore(LocalDate.now(clock))
+                && !transactionRepository.existsByCustomerIdAndDateAfter(customerId, window.end(),
+                        window.lastMonth().atEndOfMonth().atTime(LocalTime.MAX));
+    }
+
+    private RewardSummary computeRewardsByCustomer(String customerId, RewardWindow window) {
+        List<Transaction> transactions = transactionRepository.findByCustomerIdAndDateBetween(customerId, window.start(), window.end());
+
+        if (transactions.isEmpty() && !transactionRepository.existsByCustomerId(customerId)) {
             throw new CustomerNotFoundException("No transactions found for customer: " + customerId);
         }
 
-        LocalDateTime threeMonthsAgo = LocalDateTime.now().minusMonths(3).with(TemporalAdjusters.firstDayOfMonth());
+        long scoringStart = System.nanoTime();
+        RewardRules rules = rewardRuleEngine.current();
 
-        Map<Month, Integer> monthlyPoints = new HashMap<>();
-        int totalPoints = 0;
+        MonthlyPoints monthlyPoints = new MonthlyPoints(window.firstMonth(), window.lastMonth());
+        int scored = 0;
 
         for (Transaction transaction : transactions) {
-            if (transaction.getDate().isAfter(LocalDateTime.now()) || transaction.getDate().isBefore(threeMonthsAgo)) {
-                continue; // Skip future transactions and transactions older than 3 months
-            }
-            int points = calculateRewardPoints(transaction.getAmount());
+            int points = rules.points(transaction);
             if (points > 0) { // Only add points if they are greater than 0
-                Month month = transaction.getDate().getMonth();
-                monthlyPoints.merge(month, points, Integer::sum);
-                totalPoints += points;
+                monthlyPoints.add(transaction.getDate(), points);
+                scored++;
             }
         }
-
-
+        rewardMetrics.recordScoring(System.nanoTime() - scoringStart, transactions.size(), scored);
 
         return RewardSummary.builder()
                 .customerId(customerId)
-                .monthlyPoints(monthlyPoints)
-                .totalPoints(totalPoints)
+                .monthlyPoints(monthlyPoints.toMap())
+                .totalPoints(monthlyPoints.totalPoints())
                 .build();
     }
 
-
+    /**
+     * Retrieves the reward summaries for all customers over the default reward window.
+     *
+     * @return a list of reward summaries for all customers
+     */
+    public List<RewardSummary> getAllCustomerRewards() {
+        return getAllCustomerRewards(defaultWindow());
+    }
 
     /**
-     * Calculates reward points based on the transaction amount using predefined thresholds.
+     * Retrieves the reward summaries for all customers over the given window.
+     * <p>
+     * The summaries are computed by a single server-side aggregation instead of one query per
+     * customer, and match what {@link #getRewardsByCustomer(String)} returns for each customer.
+     * When the {@link PartitionedRewardAggregator} is given transactions spread over several
+     * databases, the partitions are aggregated concurrently; the application itself serves a single
+     * partition (see {@code TransactionPartitionConfig}). Otherwise,
+     * when {@code rewards.all-customers.parallel.enabled} is set, chunks of customers are instead
+     * aggregated concurrently by the {@link ParallelRewardAggregator}; otherwise, when
+     * {@code rewards.all-customers.cursor-scan.enabled} is set, they are folded from a single
+     * sorted cursor over the transactions (see {@link #streamAllCustomerRewards()}).
      *
-     * @param amount the transaction amount
-     * @return the calculated reward points
+     * @param window the reward window
+     * @return a list of reward summaries for all customers
      */
-    private int calculateRewardPoints(double amount) {
-        if (amount < 0) {
-            return 0; // No points for negative amounts
+    public List<RewardSummary> getAllCustomerRewards(RewardWindow window) {
+        List<RewardSummary> summaries;
+        if (partitionedRewardAggregator != null && partitionedRewardAggregator.isPartitioned()) {
+            summaries = partitionedRewardAggregator.aggregate(window.start(), window.end());
+        } else if (parallelAllCustomers) {
+            summaries = parallelRewardAggregator.aggregate(window.start(), window.end());
+        } else if (scanAllCustomers) {
+            try (Stream<RewardSummary> scanned = transactionRepository.scanRewardSummaries(window.start(), window.end())) {
+                summaries = scanned.toList();
+            }
+        } else {
+            summaries = transactionRepository.aggregateRewardSummaries(window.start(), window.end());
         }
 
-        int points = 0;
+        log.debug("Computed rewards for {} customers", summaries.size());
+        return summaries;
+    }
+
+    /**
+     * Retrieves the reward summaries of the given customers over a window with a single database query.
+     * Customers without any transaction are absent from the result.
+     *
+     * @param customerIds the IDs of the customers
+     * @param window      the reward window
+     * @return the reward summaries, ordered by customer ID
+     */
+    public List<RewardSummary> getCustomerRewards(Collection<String> customerIds, RewardWindow window) {
+        return transactionRepository.aggregateRewardSummaries(customerIds, window.start(), window.end());
+    }
+
+    /**
+     * Retrieves the reward summaries of many customers with a single database query.
+     * Unknown customers are reported in the response instead of failing the whole batch.
+     *
+     * @param customerIds the IDs of the customers; duplicates are ignored
+     * @return the summaries keyed by customer ID in request order, and the IDs without transactions
+     */
+    public BatchRewardsResponse getRewardsByCustomers(List<String> customerIds) {
+        Set<String> uniqueIds = new LinkedHashSet<>(customerIds);
 
-        if (amount > Constants.UPPER_THRESHOLD) {
-            points += (int) ((amount - Constants.UPPER_THRESHOLD) * Constants.TWO_POINTS);
-            points += (int) ((Constants.UPPER_THRESHOLD - Constants.LOWER_THRESHOLD) * Constants.ONE_POINT);
-        } else if (amount > Constants.LOWER_THRESHOLD) {
-            points += (int) ((amount - Constants.LOWER_THRESHOLD) * Constants.ONE_POINT);
+        RewardWindow window = defaultWindow();
+        Map<String, RewardSummary> summariesById = new HashMap<>();
+        for (RewardSummary summary : transactionRepository.aggregateRewardSummaries(uniqueIds, window.start(), window.end())) {
+            summariesById.put(summary.getCustomerId(), summary);
         }
 
+        Map<String, RewardSummary> rewards = new LinkedHashMap<>();
+        List<String> notFound = new ArrayList<>();
+        for (String customerId : uniqueIds) {
+            RewardSummary summary = summariesById.get(customerId);
+            if (summary != null) {
+                rewards.put(customerId, summary);
+            } else {
+                notFound.add(customerId);
+            }
+        }
 
-        return points;
+        return BatchRewardsResponse.builder()
+                .rewards(rewards)
+                .notFound(notFound)
+                .build();
     }
 
+    /**
+     * Retrieves one page of reward summaries, ordered by customer ID.
+     * <p>
+     * Pages are keyed by the last customer ID of the previous page rather than by an offset, so
+     * earlier pages are never read again. Finding a page's customers still reads one index key per
+     * customer after the token, not per transaction; only the page's own summaries are computed.
+     *
+     * @param pageToken the continuation token returned with the previous page, or {@code null} for the first page
+     * @param pageSize  the requested number of customers, or {@code null} for the configured default;
+     *                  values are clamped to the configured maximum
+     * @return the page of reward summaries and the token for the next page
+     * @throws InvalidPageTokenException if the page token cannot be decoded
+     */
+    public RewardSummaryPage getCustomerRewardsPage(String pageToken, Integer pageSize) {
+        int size = Math.max(1, Math.min(pageSize != null ? pageSize : defaultPageSize, maxPageSize));
+        String afterCustomerId = pageToken != null && !pageToken.isBlank() ? decodePageToken(pageToken) : null;
+
+        // Fetch one extra ID to find out whether another page follows
+        List<String> customerIds = transactionRepository.findCustomerIdsAfter(afterCustomerId, size + 1);
+        boolean hasNext = customerIds.size() > size;
+        List<String> pageCustomerIds = hasNext ? customerIds.subList(0, size) : customerIds;
 
+        RewardWindow window = defaultWindow();
+        List<RewardSummary> summaries = transactionRepository.aggregateRewardSummaries(pageCustomerIds, window.start(), window.end());
+
+        return RewardSummaryPage.builder()
+                .summaries(summaries)
+                .nextPageToken(hasNext ? encodePageToken(pageCustomerIds.get(size - 1)) : null)
+                .build();
+    }
 
     /**
-     * Retrieves the reward summaries for all customers.
+     * Streams the reward summaries of all customers, ordered by customer ID, from a single database cursor.
+     * The returned stream must be closed to release the cursor.
+     * <p>
+     * When {@code rewards.all-customers.cursor-scan.enabled} is set, the cursor reads the raw
+     * transactions in customer/date index order and each summary is emitted as soon as its
+     * customer's last transaction is read, so memory use does not depend on the number of customers
+     * on either the application or the database side. Otherwise the database groups the transactions
+     * by customer and month first.
      *
-     * @return a list of reward summaries for all customers
+     * @return a stream of reward summaries for all customers
      */
-    public List<RewardSummary> getAllCustomerRewards() {
-        List<Transaction> transactions = transactionRepository.findAllCustomerIds();
+    public Stream<RewardSummary> streamAllCustomerRewards() {
+        RewardWindow window = defaultWindow();
+        return scanAllCustomers
+                ? transactionRepository.scanRewardSummaries(window.start(), window.end())
+                : transactionRepository.streamRewardSummaries(window.start(), window.end());
+    }
 
-        List<String> customerIds = transactions.stream()
-                .map(Transaction::getCustomerId)
-                .distinct()
-                .toList();
+    private RewardWindow defaultWindow() {
+        return rewardWindow(null, null, null);
+    }
+
+    private static String encodePageToken(String lastCustomerId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(lastCustomerId.getBytes(StandardCharsets.UTF_8));
+    }
 
-        log.info("Getting Customers: {}", customerIds);
-        return customerIds.stream()
-                .map(this::getRewardsByCustomer)
-                .collect(Collectors.toList());
+    private static String decodePageToken(String pageToken) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(pageToken), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPageTokenException("Invalid page token: " + pageToken, e);
+        }
     }
 }
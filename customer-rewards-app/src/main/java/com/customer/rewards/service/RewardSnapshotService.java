@@ -0,0 +1,387 @@
+package com.customer.rewards.service;
+
+import com.customer.rewards.model.RewardSummary;
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.repository.TransactionRepository;
+import com.customer.rewards.rules.RewardRuleEngine;
+import com.customer.rewards.rules.RewardRules;
+import com.customer.rewards.util.MonthlyPoints;
+import com.customer.rewards.util.RewardSnapshotFile;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Service class writing binary snapshots of every customer's monthly reward points to local disk,
+ * and serving per-customer reads from the last snapshot after a restart, when
+ * {@code rewards.snapshot.enabled} is set.
+ * <p>
+ * Every {@code rewards.snapshot.interval}, and on shutdown, the points of the months of the longest
+ * reward window ({@code rewards.window.max-months}) are written to {@code rewards.snapshot.path}
+ * (see {@link RewardSnapshotFile}). A snapshot counts the transactions up to a high-water mark: the
+ * largest ObjectId of transactions written {@code rewards.snapshot.high-water-mark-lag} before it was
+ * taken, which leaves time for buffered writes to commit. On startup the snapshot is memory-mapped
+ * and serves reads at once, provided the database still holds the transactions it counted (in
+ * which case the startup data load is skipped); once the application is ready it catches up with
+ * the transactions written after the mark. Transactions saved afterwards are added as they are
+ * written, and every new snapshot replaces the one in use after catching up the same way.
+ * <p>
+ * Like the reward ledger, a snapshot counts whole calendar months, up to the month it was taken in;
+ * after a month rollover it only serves reads again from the next snapshot, so transactions dated
+ * after that month, which it does not count, never need to be caught up. Deletes, bulk loads and reward
+ * rule changes make it stale, so it is discarded and deleted until the next one is written.
+ * Catching up relies on the ObjectIds the application assigns to transactions; transactions saved
+ * with other IDs between a snapshot and a restart are only counted from the next snapshot.
+ */
+@Service
+@Slf4j
+public class RewardSnapshotService {
+
+    /** A mapped snapshot and the points of the transactions written after its high-water mark. */
+    private static final class Restored {
+        final RewardSnapshotFile file;
+        final Map<String, Map<YearMonth, Integer>> pointsAfterMark = new HashMap<>();
+        /** IDs of the transactions added after the mark, so that catching up does not count a saved transaction twice. */
+        final Set<String> addedIds = new HashSet<>();
+
+        Restored(RewardSnapshotFile file) {
+            this.file = file;
+        }
+
+        ObjectId highWaterMark() {
+            return new ObjectId(file.metadata().highWaterMark());
+        }
+    }
+
+    private final TransactionRepository transactionRepository;
+    private final RewardRuleEngine rewardRuleEngine;
+    private final Clock clock;
+    private final boolean enabled;
+    private final Path path;
+    private final Duration highWaterMarkLag;
+    private final int maxWindowMonths;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile Restored current;
+    private volatile Restored pending;
+    /** Incremented whenever snapshots become stale, so that a snapshot written meanwhile is not used. */
+    private volatile long generation;
+
+    public RewardSnapshotService(TransactionRepository transactionRepository,
+                                 RewardRuleEngine rewardRuleEngine,
+                                 Clock clock,
+                                 @Value("${rewards.snapshot.enabled:false}") boolean enabled,
+                                 @Value("${rewards.snapshot.path:data/reward-snapshot.bin}") Path path,
+                                 @Value("${rewards.snapshot.high-water-mark-lag:1m}") Duration highWaterMarkLag,
+                                 @Value("${rewards.window.max-months:24}") int maxWindowMonths) {
+        this.transactionRepository = transactionRepository;
+        this.rewardRuleEngine = rewardRuleEngine;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.path = path;
+        this.highWaterMarkLag = highWaterMarkLag;
+        this.maxWindowMonths = maxWindowMonths;
+    }
+
+    /**
+     * Maps the last snapshot, if there is one and the database still holds the transactions it counted.
+     */
+    @PostConstruct
+    void restore() {
+        if (!enabled || !Files.exists(path)) {
+            return;
+        }
+
+        long started = System.nanoTime();
+        RewardSnapshotFile file;
+        try {
+            file = RewardSnapshotFile.open(path);
+        } catch (IOException e) {
+            log.warn("Ignoring reward snapshot: {}", e.getMessage());
+            return;
+        }
+
+        RewardSnapshotFile.Metadata metadata = file.metadata();
+        long count = transactionRepository.countTransactionsUpTo(new ObjectId(metadata.highWaterMark()));
+        if (count != metadata.transactionCount()) {
+            log.warn("Ignoring reward snapshot: it counted {} transactions, but the database holds {} up to its high-water mark",
+                    metadata.transactionCount(), count);
+            return;
+        }
+
+        current = new Restored(file);
+        log.info("Restored the reward snapshot of {} customers from {} in {} ms", file.customerCount(),
+                Instant.ofEpochMilli(metadata.createdAtMilli()), Duration.ofNanos(System.nanoTime() - started).toMillis());
+    }
+
+    /**
+     * @return {@code true} if a snapshot was restored and is still in use
+     */
+    public boolean isRestored() {
+        return current != null;
+    }
+
+    /**
+     * Catches up with the transactions written after the restored snapshot, once the application
+     * is ready and the reward rules are loaded.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void catchUpOnStartup() {
+        Restored restored = current;
+        if (restored == null) {
+            return;
+        }
+        if (restored.file.metadata().rulesRevision() != rewardRuleEngine.current().getRevision()) {
+            discard("it was scored with reward rules revision " + restored.file.metadata().rulesRevision());
+            return;
+        }
+        catchUp(restored);
+    }
+
+    /**
+     * Computes a customer's reward summary from the snapshot in use, counting whole calendar months.
+     * This matches the window only if it starts on the first of a month and ends now, and the
+     * customer has no transaction dated later in the month, which {@link RewardService} checks first.
+     *
+     * @param customerId the ID of the customer
+     * @param window     the reward window
+     * @return the reward summary, or {@code null} if no snapshot is in use, the window starts
+     *         before or ends after the snapshot's months, or the customer is unknown to it
+     */
+    public RewardSummary getRewardsByCustomer(String customerId, RewardWindow window) {
+        Restored restored = current;
+        if (restored == null || window.firstMonth().isBefore(restored.file.metadata().firstMonth())
+                || window.lastMonth().isAfter(restored.file.metadata().lastMonth())) {
+            return null;
+        }
+
+        MonthlyPoints monthlyPoints = new MonthlyPoints(window.firstMonth(), window.lastMonth());
+        boolean known = restored.file.addPoints(customerId, monthlyPoints, window.firstMonth(), window.lastMonth());
+
+        lock.readLock().lock();
+        try {
+            Map<YearMonth, Integer> pointsAfterMark = restored.pointsAfterMark.get(customerId);
+            if (pointsAfterMark != null) {
+                known = true;
+                pointsAfterMark.forEach((month, points) -> {
+                    if (!month.isBefore(window.firstMonth()) && !month.isAfter(window.lastMonth())) {
+                        monthlyPoints.add(month.getYear(), month.getMonthValue(), points);
+                    }
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (!known) {
+            return null;
+        }
+        return RewardSummary.builder()
+                .customerId(customerId)
+                .monthlyPoints(monthlyPoints.toMap())
+                .totalPoints(monthlyPoints.totalPoints())
+                .build();
+    }
+
+    /**
+     * Adds newly written transactions to the snapshot in use and to one that is catching up.
+     *
+     * @param transactions the transactions that were written
+     */
+    public void recordAll(Collection<Transaction> transactions) {
+        if (current == null && pending == null) {
+            return;
+        }
+        RewardRules rules = rewardRuleEngine.current();
+        lock.writeLock().lock();
+        try {
+            for (Transaction transaction : transactions) {
+                add(current, transaction, rules);
+                add(pending, transaction, rules);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Discards the snapshots scored with other reward rules.
+     *
+     * @param rules the rules now in effect
+     */
+    public void rulesChanged(RewardRules rules) {
+        Restored restored = current != null ? current : pending;
+        if (restored != null && restored.file.metadata().rulesRevision() != rules.getRevision()) {
+            discard("the reward rules changed to revision " + rules.getRevision());
+        }
+    }
+
+    /**
+     * Stops serving from snapshots and deletes the snapshot file, because it no longer matches
+     * the transactions.
+     *
+     * @param reason why the snapshot is stale, for the log
+     */
+    public void discard(String reason) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            generation++;
+            current = null;
+            pending = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            if (Files.deleteIfExists(path)) {
+                log.info("Discarded the reward snapshot: {}", reason);
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete the stale reward snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Periodically writes a snapshot. Disabled unless {@code rewards.snapshot.enabled} is set.
+     */
+    @Scheduled(fixedDelayString = "${rewards.snapshot.interval:600000}", initialDelayString = "${rewards.snapshot.interval:600000}")
+    public void scheduledWrite() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            write();
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to write the reward snapshot", e);
+        }
+    }
+
+    @PreDestroy
+    void writeOnShutdown() {
+        scheduledWrite();
+    }
+
+    /**
+     * Writes a snapshot of every customer's monthly points up to a high-water mark
+     * {@code rewards.snapshot.high-water-mark-lag} in the past, then serves from it after
+     * catching up with the transactions written since the mark.
+     *
+     * @return what the snapshot was computed from
+     * @throws IOException if the snapshot cannot be written
+     */
+    public synchronized RewardSnapshotFile.Metadata write() throws IOException {
+        long started = System.nanoTime();
+        long startGeneration = generation;
+        RewardRules rules = rewardRuleEngine.current();
+        ObjectId highWaterMark = lastObjectIdOf(clock.instant().minus(highWaterMarkLag).getEpochSecond());
+        YearMonth lastMonth = YearMonth.now(clock);
+        YearMonth firstMonth = lastMonth.minusMonths(maxWindowMonths);
+
+        RewardSnapshotFile.Metadata metadata = new RewardSnapshotFile.Metadata(clock.millis(), highWaterMark.toByteArray(),
+                rules.getRevision(), transactionRepository.countTransactionsUpTo(highWaterMark), firstMonth, maxWindowMonths + 1);
+        int customers;
+        try (Stream<RewardSummary> summaries = transactionRepository.streamRewardSummariesUpTo(highWaterMark,
+                firstMonth.atDay(1).atStartOfDay(), lastMonth.atEndOfMonth().atTime(LocalTime.MAX))) {
+            customers = RewardSnapshotFile.write(path, metadata, summaries.iterator());
+        }
+
+        if (generation != startGeneration || rules.getRevision() != rewardRuleEngine.current().getRevision()) {
+            discard("the transactions or reward rules changed while it was written");
+            return metadata;
+        }
+        log.info("Wrote the reward snapshot of {} customers to {} in {} ms", customers, path,
+                Duration.ofNanos(System.nanoTime() - started).toMillis());
+
+        Restored written = new Restored(RewardSnapshotFile.open(path));
+        lock.writeLock().lock();
+        try {
+            if (generation != startGeneration) {
+                return metadata;
+            }
+            pending = written;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        catchUp(written);
+        lock.writeLock().lock();
+        try {
+            if (pending == written) {
+                current = written;
+                pending = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return metadata;
+    }
+
+    /**
+     * Adds the transactions a snapshot does not count.
+     */
+    private void catchUp(Restored restored) {
+        long started = System.nanoTime();
+        RewardRules rules = rewardRuleEngine.current();
+        int[] count = new int[1];
+        try (Stream<Transaction> transactions = transactionRepository.streamTransactionsAfter(restored.highWaterMark())) {
+            transactions.forEach(transaction -> {
+                lock.writeLock().lock();
+                try {
+                    add(restored, transaction, rules);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                count[0]++;
+            });
+        }
+        log.info("Caught up the reward snapshot with {} transactions in {} ms", count[0],
+                Duration.ofNanos(System.nanoTime() - started).toMillis());
+    }
+
+    /**
+     * Adds a transaction to a snapshot's points after its mark, unless it was already added.
+     * Transactions dated before the snapshot only make their customer known.
+     */
+    private static void add(Restored restored, Transaction transaction, RewardRules rules) {
+        if (restored == null || (transaction.getId() != null && !restored.addedIds.add(transaction.getId()))) {
+            return;
+        }
+        Map<YearMonth, Integer> pointsAfterMark = restored.pointsAfterMark.computeIfAbsent(transaction.getCustomerId(), id -> new HashMap<>());
+        YearMonth month = YearMonth.from(transaction.getDate());
+        int points = rules.points(transaction);
+        if (points > 0 && !month.isBefore(restored.file.metadata().firstMonth())) {
+            pointsAfterMark.merge(month, points, Integer::sum);
+        }
+    }
+
+    /**
+     * Returns the largest ObjectId that can be generated in the given second.
+     */
+    private static ObjectId lastObjectIdOf(long epochSecond) {
+        return new ObjectId(ByteBuffer.allocate(12).putInt((int) epochSecond).putLong(-1L).array());
+    }
+}
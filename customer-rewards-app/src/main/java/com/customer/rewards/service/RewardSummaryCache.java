@@ -0,0 +1,59 @@
+package com.customer.rewards.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Invalidation entry point for the cache of per-customer reward summaries
+ * populated by {@link RewardService#getRewardsByCustomer(String)}.
+ * <p>
+ * Size, TTL and statistics are configured through {@code spring.cache.caffeine.spec};
+ * hit, miss and eviction counters are published as {@code cache.*} metrics.
+ */
+@Component
+@Slf4j
+public class RewardSummaryCache {
+
+    /** Name of the cache holding reward summaries keyed by customer ID. */
+    public static final String CACHE_NAME = "rewardSummaries";
+
+    private final CacheManager cacheManager;
+
+    public RewardSummaryCache(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Evicts the cached summary of one customer.
+     *
+     * @param customerId the ID of the customer whose transactions changed
+     */
+    public void evict(String customerId) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache != null && customerId != null) {
+            cache.evict(customerId);
+        }
+    }
+
+    /**
+     * Evicts every cached summary.
+     */
+    public void evictAll() {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Evicts every cached summary when a new month starts, because the reward window shifts with it.
+     */
+    @Scheduled(cron = "0 0 0 1 * *")
+    public void evictOnMonthRollover() {
+        log.info("Month rolled over; evicting all cached reward summaries");
+        evictAll();
+    }
+}
@@ -0,0 +1,214 @@
+package com.customer.rewards.service;
+
+import com.customer.rewards.configuration.JacksonConfig;
+import com.customer.rewards.model.RewardSummary;
+import com.customer.rewards.util.RewardSummaryProtobuf;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORConstants;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileConstants;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Service class encoding {@link RewardSummary} responses in each supported {@link Format}, from
+ * per-summary bytes that are cached when {@code rewards.encoding.pre-encoded.enabled} is set.
+ * <p>
+ * Every summary is encoded on its own and the containers are framed around it: a JSON array, an
+ * indefinite-length CBOR array, a Smile array (written without shared-name back-references, so
+ * that summaries can be concatenated) or a Protobuf {@code RewardSummaryList}. The JSON bytes are
+ * those of the application's {@link ObjectMapper}. With pre-encoding, the bytes of the last
+ * summary encoded per customer and format are kept, up to {@code rewards.encoding.pre-encoded.max-size}
+ * entries, and written again as long as the summary is unchanged, so repeated reads of unchanged
+ * summaries skip serialization.
+ */
+@Service
+public class RewardSummaryEncoder {
+
+    /** A response format of reward summaries. */
+    public enum Format {
+        JSON(MediaType.APPLICATION_JSON),
+        CBOR(MediaType.APPLICATION_CBOR),
+        SMILE(new MediaType("application", "x-jackson-smile")),
+        PROTOBUF(new MediaType("application", "x-protobuf"));
+
+        private final MediaType mediaType;
+
+        Format(MediaType mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        /**
+         * @return the media type of the format
+         */
+        public MediaType mediaType() {
+            return mediaType;
+        }
+
+        /**
+         * Returns the format of a media type.
+         *
+         * @param mediaType the media type, or {@code null}
+         * @return the format, defaulting to {@link #JSON} for a missing or unknown type
+         */
+        public static Format of(MediaType mediaType) {
+            if (mediaType != null) {
+                for (Format format : values()) {
+                    if (format.mediaType.equalsTypeAndSubtype(mediaType)) {
+                        return format;
+                    }
+                }
+            }
+            return JSON;
+        }
+    }
+
+    /** The encoded bytes of a summary, kept with the summary to recognize it unchanged. */
+    private record Encoded(RewardSummary summary, byte[] bytes) {
+    }
+
+    private record Key(Format format, String customerId) {
+    }
+
+    private static final byte[] SMILE_HEADER = {SmileConstants.HEADER_BYTE_1, SmileConstants.HEADER_BYTE_2,
+            SmileConstants.HEADER_BYTE_3, SmileConstants.HEADER_BYTE_4};
+
+    private final ObjectWriter jsonWriter;
+    private final ObjectWriter cborWriter;
+    private final ObjectWriter smileWriter;
+    private final RewardMetrics rewardMetrics;
+    private final Cache<Key, Encoded> cache;
+
+    public RewardSummaryEncoder(ObjectMapper objectMapper,
+                                RewardMetrics rewardMetrics,
+                                @Value("${rewards.encoding.pre-encoded.enabled:false}") boolean preEncoded,
+                                @Value("${rewards.encoding.pre-encoded.max-size:100000}") long maxSize) {
+        this.jsonWriter = objectMapper.writerFor(RewardSummary.class);
+        this.cborWriter = JacksonConfig.configure(new CBORMapper()).writerFor(RewardSummary.class);
+        this.smileWriter = JacksonConfig.configure(new SmileMapper(SmileFactory.builder()
+                        .disable(SmileGenerator.Feature.WRITE_HEADER)
+                        .disable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+                        .build()))
+                .writerFor(RewardSummary.class);
+        this.rewardMetrics = rewardMetrics;
+        this.cache = preEncoded ? Caffeine.newBuilder().maximumSize(maxSize).build() : null;
+    }
+
+    /**
+     * @return {@code true} if the bytes of unchanged summaries are reused
+     */
+    public boolean isPreEncoded() {
+        return cache != null;
+    }
+
+    /**
+     * Returns the bytes of one summary, without the container of a list or a Smile header.
+     *
+     * @param format  the format to encode in
+     * @param summary the summary
+     * @return the encoded summary; not to be modified
+     */
+    public byte[] encode(Format format, RewardSummary summary) {
+        if (cache == null) {
+            return encodeSummary(format, summary);
+        }
+
+        Key key = new Key(format, summary.getCustomerId());
+        Encoded encoded = cache.getIfPresent(key);
+        boolean hit = encoded != null && encoded.summary().equals(summary);
+        rewardMetrics.recordEncoding(hit);
+        if (!hit) {
+            // Copied, so that the bytes stay valid however the caller's summary is used afterwards
+            RewardSummary copy = new RewardSummary(summary.getCustomerId(),
+                    summary.getMonthlyPoints() != null ? new LinkedHashMap<>(summary.getMonthlyPoints()) : null,
+                    summary.getTotalPoints());
+            encoded = new Encoded(copy, encodeSummary(format, copy));
+            cache.put(key, encoded);
+        }
+        return encoded.bytes();
+    }
+
+    /**
+     * Writes a summary as a complete document of the format.
+     *
+     * @param format       the format to write
+     * @param summary      the summary
+     * @param outputStream the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public void write(Format format, RewardSummary summary, OutputStream outputStream) throws IOException {
+        if (format == Format.SMILE) {
+            outputStream.write(SMILE_HEADER);
+        }
+        outputStream.write(encode(format, summary));
+    }
+
+    /**
+     * Writes a list of summaries as a complete document of the format.
+     *
+     * @param format       the format to write
+     * @param summaries    the summaries
+     * @param outputStream the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeAll(Format format, List<RewardSummary> summaries, OutputStream outputStream) throws IOException {
+        switch (format) {
+            case JSON -> outputStream.write('[');
+            case CBOR -> outputStream.write(CBORConstants.BYTE_ARRAY_INDEFINITE);
+            case SMILE -> {
+                outputStream.write(SMILE_HEADER);
+                outputStream.write(SmileConstants.TOKEN_LITERAL_START_ARRAY);
+            }
+            case PROTOBUF -> {
+            }
+        }
+
+        boolean first = true;
+        for (RewardSummary summary : summaries) {
+            byte[] bytes = encode(format, summary);
+            if (format == Format.PROTOBUF) {
+                RewardSummaryProtobuf.writeListElement(bytes, outputStream);
+                continue;
+            }
+            if (format == Format.JSON && !first) {
+                outputStream.write(',');
+            }
+            outputStream.write(bytes);
+            first = false;
+        }
+
+        switch (format) {
+            case JSON -> outputStream.write(']');
+            case CBOR -> outputStream.write(CBORConstants.BYTE_BREAK);
+            case SMILE -> outputStream.write(SmileConstants.TOKEN_LITERAL_END_ARRAY);
+            case PROTOBUF -> {
+            }
+        }
+    }
+
+    private byte[] encodeSummary(Format format, RewardSummary summary) {
+        try {
+            return switch (format) {
+                case JSON -> jsonWriter.writeValueAsBytes(summary);
+                case CBOR -> cborWriter.writeValueAsBytes(summary);
+                case SMILE -> smileWriter.writeValueAsBytes(summary);
+                case PROTOBUF -> RewardSummaryProtobuf.encode(summary);
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode the reward summary of " + summary.getCustomerId(), e);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.customer.rewards.service;
+
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.rules.RewardRuleEngine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Service class versioning reward summaries without computing them, for conditional requests
+ * and delta responses.
+ * <p>
+ * Every written transaction takes the next number of a change sequence, which becomes the version
+ * of its customer; the last {@code rewards.versions.change-log-size} changes are kept to list the
+ * customers changed since an earlier version. A version also holds the reward rules revision, the
+ * reward window and the period of {@code rewards.versions.max-age} it was taken in, which bounds how
+ * long transactions dated in the future can go unnoticed once they fall within the window, like
+ * the expiry of the summary cache. Deletes and bulk loads do not say which customers they touch,
+ * so they start a new epoch, which changes every version.
+ * <p>
+ * The sequences of at most {@code rewards.versions.max-customers} customers are kept, dropping the
+ * customer changed least recently. A customer without a kept sequence is versioned with the
+ * highest sequence dropped so far, which may change its version without a change of its own, but
+ * never keeps a version across one.
+ * <p>
+ * Like the summary cache, versions follow the writes of this application instance.
+ */
+@Service
+public class RewardVersionService {
+
+    /** The sequence number of a written transaction and its customer. */
+    private record Change(long sequence, String customerId) {
+    }
+
+    /** The parts of a version token that must match for a delta to be computed from it. */
+    private record Version(long epoch, long sequence, long rulesRevision, long windowStartDay, long windowEndDay, long period) {
+
+        @Override
+        public String toString() {
+            return String.join(".", Long.toString(epoch, 36), Long.toString(sequence, 36), Long.toString(rulesRevision, 36),
+                    Long.toString(windowStartDay, 36), Long.toString(windowEndDay, 36), Long.toString(period, 36));
+        }
+
+        boolean sameBase(Version other) {
+            return epoch == other.epoch && rulesRevision == other.rulesRevision && windowStartDay == other.windowStartDay
+                    && windowEndDay == other.windowEndDay && period == other.period;
+        }
+
+        static Version parse(String token) {
+            String[] parts = token.split("\\.");
+            if (parts.length != 6) {
+                return null;
+            }
+            try {
+                return new Version(Long.parseLong(parts[0], 36), Long.parseLong(parts[1], 36), Long.parseLong(parts[2], 36),
+                        Long.parseLong(parts[3], 36), Long.parseLong(parts[4], 36), Long.parseLong(parts[5], 36));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    private final RewardRuleEngine rewardRuleEngine;
+    private final Clock clock;
+    private final long maxAgeMillis;
+    private final int changeLogSize;
+    private final Map<String, Long> customerSequences;
+    private final Deque<Change> changes = new ArrayDeque<>();
+    private long epoch;
+    private long sequence;
+    private long droppedSequence;
+
+    public RewardVersionService(RewardRuleEngine rewardRuleEngine,
+                                Clock clock,
+                                @Value("${rewards.versions.max-age:10m}") Duration maxAge,
+                                @Value("${rewards.versions.change-log-size:100000}") int changeLogSize,
+                                @Value("${rewards.versions.max-customers:100000}") int maxCustomers) {
+        this.rewardRuleEngine = rewardRuleEngine;
+        this.clock = clock;
+        this.maxAgeMillis = Math.max(1, maxAge.toMillis());
+        this.changeLogSize = changeLogSize;
+        this.epoch = clock.millis();
+        // Insertion order, with customers removed before they are put again: the eldest changed least recently
+        this.customerSequences = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                if (size() <= maxCustomers) {
+                    return false;
+                }
+                droppedSequence = Math.max(droppedSequence, eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Returns the version of a customer's reward summary over a window.
+     *
+     * @param customerId the ID of the customer
+     * @param window     the reward window
+     * @return a version that changes whenever the summary may have changed
+     */
+    public synchronized String customerVersion(String customerId, RewardWindow window) {
+        return version(customerSequences.getOrDefault(customerId, droppedSequence), window).toString();
+    }
+
+    /**
+     * Returns the version of the reward summaries of all customers over a window.
+     *
+     * @param window the reward window
+     * @return a version that changes whenever any summary may have changed
+     */
+    public synchronized String currentVersion(RewardWindow window) {
+        return version(sequence, window).toString();
+    }
+
+    /**
+     * Returns the ETag of a version for the media types a request accepts, since every negotiated
+     * format is a different representation of the same summaries.
+     *
+     * @param version a version returned by {@link #customerVersion} or {@link #currentVersion}
+     * @param accept  the {@code Accept} header of the request, or {@code null}
+     * @return the entity tag, without quotes
+     */
+    public static String etag(String version, String accept) {
+        String mediaTypes = accept == null || accept.isBlank() ? "*/*" : accept.replaceAll("\\s", "").toLowerCase();
+        return version + "." + Integer.toString(mediaTypes.hashCode() & Integer.MAX_VALUE, 36);
+    }
+
+    /**
+     * Lists the customers whose summaries may have changed since an earlier version of all summaries.
+     *
+     * @param since  a version returned by {@link #currentVersion}
+     * @param window the reward window
+     * @return the IDs of the changed customers, or {@code null} if every summary has to be sent
+     *         again: the version is malformed, was taken with other rules, another window or in
+     *         another epoch or period, or predates the changes still kept
+     */
+    public synchronized Set<String> customersChangedSince(String since, RewardWindow window) {
+        Version previous = since != null ? Version.parse(since) : null;
+        if (previous == null || !previous.sameBase(version(sequence, window)) || previous.sequence() > sequence) {
+            return null;
+        }
+        if (previous.sequence() < sequence && (changes.isEmpty() || changes.peekFirst().sequence() > previous.sequence() + 1)) {
+            return null; // Changes after the version were dropped from the log
+        }
+
+        Set<String> customerIds = new LinkedHashSet<>();
+        for (Iterator<Change> iterator = changes.descendingIterator(); iterator.hasNext(); ) {
+            Change change = iterator.next();
+            if (change.sequence() <= previous.sequence()) {
+                break;
+            }
+            customerIds.add(change.customerId());
+        }
+        return customerIds;
+    }
+
+    /**
+     * Records newly written transactions.
+     *
+     * @param transactions the transactions that were written
+     */
+    public synchronized void recordAll(Collection<Transaction> transactions) {
+        for (Transaction transaction : transactions) {
+            long next = ++sequence;
+            customerSequences.remove(transaction.getCustomerId());
+            customerSequences.put(transaction.getCustomerId(), next);
+            changes.addLast(new Change(next, transaction.getCustomerId()));
+            if (changes.size() > changeLogSize) {
+                changes.removeFirst();
+            }
+        }
+    }
+
+    /**
+     * Starts a new epoch, changing every version, after changes to unknown customers.
+     */
+    public synchronized void invalidateAll() {
+        epoch = Math.max(epoch + 1, clock.millis());
+        sequence = 0;
+        droppedSequence = 0;
+        customerSequences.clear();
+        changes.clear();
+    }
+
+    private Version version(long sequence, RewardWindow window) {
+        return new Version(epoch, sequence, rewardRuleEngine.current().getRevision(),
+                window.start().toLocalDate().toEpochDay(), window.end().toLocalDate().toEpochDay(), clock.millis() / maxAgeMillis);
+    }
+}
@@ -0,0 +1,27 @@
+package com.customer.rewards.service;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+/**
+ * The inclusive date range whose transactions count towards a reward summary.
+ *
+ * @param start the inclusive start of the window
+ * @param end   the inclusive end of the window
+ */
+public record RewardWindow(LocalDateTime start, LocalDateTime end) {
+
+    /**
+     * @return the calendar month the window starts in
+     */
+    public YearMonth firstMonth() {
+        return YearMonth.from(start);
+    }
+
+    /**
+     * @return the calendar month the window ends in
+     */
+    public YearMonth lastMonth() {
+        return YearMonth.from(end);
+    }
+}
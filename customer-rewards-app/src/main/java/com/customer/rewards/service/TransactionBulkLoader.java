@@ -0,0 +1,259 @@
+package com.customer.rewards.service;
+
+import com.customer.rewards.configuration.MongoIndexInitializer;
+import com.customer.rewards.model.LoadCheckpoint;
+import com.customer.rewards.model.LoadReport;
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.repository.LoadCheckpointRepository;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.RenameCollectionOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service class replacing the transactions collection with the contents of a large JSON export.
+ * <p>
+ * The export is read token by token and inserted in unordered bulk batches into a staging
+ * collection, so memory use does not depend on its size. Once complete, the staging collection
+ * is indexed and atomically renamed over the transactions collection, which therefore never
+ * appears empty or half-loaded to readers.
+ * <p>
+ * After every batch the number of stored records is checkpointed. A load that fails part way
+ * resumes from the checkpoint the next time the same source is loaded. Records without an ID
+ * get one derived from the load and their position in the source, so batches that are
+ * re-inserted after an interruption do not create duplicates.
+ */
+@Service
+@Slf4j
+public class TransactionBulkLoader {
+
+    /** Suffix of the collection that a load is written to before it replaces the live collection. */
+    static final String STAGING_SUFFIX = "_staging";
+
+    private static final int DUPLICATE_KEY_ERROR = 11000;
+    private static final long PROGRESS_LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final LoadCheckpointRepository loadCheckpointRepository;
+    private final MongoIndexInitializer mongoIndexInitializer;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+
+    public TransactionBulkLoader(MongoTemplate mongoTemplate,
+                                 ObjectMapper objectMapper,
+                                 LoadCheckpointRepository loadCheckpointRepository,
+                                 MongoIndexInitializer mongoIndexInitializer,
+                                 ApplicationEventPublisher eventPublisher,
+                                 @Value("${rewards.loader.batch-size:1000}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.loadCheckpointRepository = loadCheckpointRepository;
+        this.mongoIndexInitializer = mongoIndexInitializer;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Replaces all transactions with those of a JSON array, resuming an interrupted load of
+     * the same source if there is one.
+     *
+     * @param source a stable name of the source, used as the checkpoint key
+     * @param json   the JSON array of transactions
+     * @return the load report
+     * @throws IOException if the source cannot be read or is not a JSON array of transactions
+     */
+    public LoadReport load(String source, InputStream json) throws IOException {
+        LoadCheckpoint checkpoint = startOrResume(source);
+        MongoCollection<Document> staging = mongoTemplate.getCollection(stagingCollectionName());
+
+        long resumeOffset = checkpoint.getOffset();
+        long offset = 0;
+        long startNanos = System.nanoTime();
+        long lastLogNanos = startNanos;
+        List<Document> batch = new ArrayList<>(batchSize);
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected a JSON array of transactions");
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                if (offset < resumeOffset) {
+                    parser.skipChildren(); // Stored by the interrupted run
+                    offset++;
+                    continue;
+                }
+
+                batch.add(toDocument(objectMapper.readValue(parser, Transaction.class), checkpoint.getLoadEpochSecond(), offset));
+                offset++;
+                if (batch.size() == batchSize) {
+                    insertBatch(staging, batch, checkpoint, offset);
+                    if (System.nanoTime() - lastLogNanos >= PROGRESS_LOG_INTERVAL_NANOS) {
+                        lastLogNanos = System.nanoTime();
+                        log.info("Loading {}: {} records stored ({} records/sec)", source, offset,
+                                Math.round(recordsPerSecond(offset - resumeOffset, lastLogNanos - startNanos)));
+                    }
+                }
+            }
+            if (parser.currentToken() != JsonToken.END_ARRAY) {
+                throw new JsonParseException(parser, "Expected a transaction object");
+            }
+        }
+        if (!batch.isEmpty()) {
+            insertBatch(staging, batch, checkpoint, offset);
+        }
+        if (offset < resumeOffset) {
+            throw new IllegalStateException("Source " + source + " has " + offset + " records, but its checkpoint is at "
+                    + resumeOffset + "; delete the checkpoint to load it from the start");
+        }
+
+        replaceWithStaging(source);
+
+        long elapsedNanos = System.nanoTime() - startNanos;
+        LoadReport report = LoadReport.builder()
+                .source(source)
+                .loadedRecords(offset - resumeOffset)
+                .resumedFromOffset(resumeOffset)
+                .durationMillis(TimeUnit.NANOSECONDS.toMillis(elapsedNanos))
+                .recordsPerSecond(recordsPerSecond(offset - resumeOffset, elapsedNanos))
+                .build();
+        log.info("Loaded {} records from {} in {} ms ({} records/sec)", offset, source, report.getDurationMillis(),
+                Math.round(report.getRecordsPerSecond()));
+        return report;
+    }
+
+    /**
+     * Returns the checkpoint of an interrupted load of the source, or starts a new load with an
+     * empty staging collection.
+     */
+    private LoadCheckpoint startOrResume(String source) {
+        LoadCheckpoint checkpoint = loadCheckpointRepository.findById(source).orElse(null);
+        if (checkpoint != null && mongoTemplate.collectionExists(stagingCollectionName())) {
+            log.info("Resuming load of {} after {} records", source, checkpoint.getOffset());
+            return checkpoint;
+        }
+
+        resetStaging();
+        return loadCheckpointRepository.save(LoadCheckpoint.builder()
+                .source(source)
+                .loadEpochSecond((int) Instant.now().getEpochSecond())
+                .offset(0)
+                .updatedAt(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Returns the name of the collection that loads are written to.
+     *
+     * @return the staging collection name
+     */
+    String stagingCollectionName() {
+        return mongoTemplate.getCollectionName(Transaction.class) + STAGING_SUFFIX;
+    }
+
+    /**
+     * Starts a new load with an empty staging collection. The staging collection is shared,
+     * so this invalidates every checkpoint.
+     */
+    void resetStaging() {
+        loadCheckpointRepository.deleteAll();
+        mongoTemplate.dropCollection(stagingCollectionName());
+        mongoTemplate.createCollection(stagingCollectionName());
+    }
+
+    /**
+     * Indexes the staging collection and atomically renames it over the transactions collection.
+     *
+     * @param source the name of the source that was loaded
+     */
+    void replaceWithStaging(String source) {
+        String stagingName = stagingCollectionName();
+        mongoIndexInitializer.ensureIndexes(Transaction.class, stagingName);
+        mongoTemplate.getCollection(stagingName).renameCollection(
+                new MongoNamespace(mongoTemplate.getDb().getName(), mongoTemplate.getCollectionName(Transaction.class)),
+                new RenameCollectionOptions().dropTarget(true));
+        loadCheckpointRepository.deleteById(source);
+        eventPublisher.publishEvent(new TransactionsReplacedEvent(source));
+    }
+
+    /**
+     * Inserts documents without stopping at the first failure. Duplicate key errors mean the
+     * record was already stored and are ignored.
+     *
+     * @param collection the collection to insert into
+     * @param documents  the documents
+     */
+    static void insertUnordered(MongoCollection<Document> collection, List<Document> documents) {
+        try {
+            collection.insertMany(documents, new InsertManyOptions().ordered(false));
+        } catch (MongoBulkWriteException e) {
+            if (e.getWriteErrors().stream().anyMatch(error -> error.getCode() != DUPLICATE_KEY_ERROR)) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Converts a transaction into the document stored for it.
+     *
+     * @param transaction the transaction
+     * @return the document; without an {@code _id} if the transaction has no ID
+     */
+    Document toDocument(Transaction transaction) {
+        Document document = new Document();
+        mongoTemplate.getConverter().write(transaction, document);
+        return document;
+    }
+
+    /**
+     * Inserts a batch, then checkpoints it.
+     */
+    private void insertBatch(MongoCollection<Document> staging, List<Document> batch, LoadCheckpoint checkpoint, long offset) {
+        insertUnordered(staging, batch);
+        batch.clear();
+
+        checkpoint.setOffset(offset);
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        loadCheckpointRepository.save(checkpoint);
+    }
+
+    private Document toDocument(Transaction transaction, int loadEpochSecond, long offset) {
+        Document document = toDocument(transaction);
+        if (document.get("_id") == null) {
+            document.put("_id", recordId(loadEpochSecond, offset));
+        }
+        return document;
+    }
+
+    /**
+     * Derives a stable ObjectId from the start of the load and the record's position in the source.
+     */
+    private static ObjectId recordId(int loadEpochSecond, long offset) {
+        return new ObjectId(ByteBuffer.allocate(12).putInt(loadEpochSecond).putLong(offset).array());
+    }
+
+    static double recordsPerSecond(long records, long elapsedNanos) {
+        return elapsedNanos > 0 ? records * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos : 0;
+    }
+}
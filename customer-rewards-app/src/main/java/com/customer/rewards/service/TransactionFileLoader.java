@@ -0,0 +1,397 @@
+package com.customer.rewards.service;
+
+import com.customer.rewards.model.LoadReport;
+import com.customer.rewards.model.Transaction;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.MongoCollection;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Service class replacing the transactions collection with the contents of a directory of
+ * NDJSON ({@code .ndjson}, {@code .jsonl}) and CSV ({@code .csv}) transaction files.
+ * <p>
+ * Files are memory-mapped and cut into splits of about {@code rewards.loader.split-size} bytes
+ * at line boundaries. The splits are parsed in parallel on {@code rewards.loader.parser-threads}
+ * threads, which hand batches of documents through a bounded queue to
+ * {@code rewards.loader.writer-threads} bulk writers. Parsers block when the writers fall
+ * behind, so memory use stays bounded. Like {@link TransactionBulkLoader}, the data is written
+ * to the staging collection and swapped in only once every file was loaded.
+ * <p>
+ * CSV files need a header row naming the {@link Transaction} fields of the columns, e.g.
+ * {@code customerId,amount,date,category}; quoted fields are not supported. Every record is checked
+ * against the same constraints as transactions posted to the write API, so a record without a
+ * customer ID, amount or date is malformed and fails the load.
+ */
+@Service
+@Slf4j
+public class TransactionFileLoader {
+
+    private static final List<Document> END_OF_INPUT = List.of();
+    private static final long PROGRESS_LOG_INTERVAL_SECONDS = 5;
+
+    private final TransactionBulkLoader transactionBulkLoader;
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int batchSize;
+    private final int parserThreads;
+    private final int writerThreads;
+    private final long splitSize;
+
+    public TransactionFileLoader(TransactionBulkLoader transactionBulkLoader,
+                                 MongoTemplate mongoTemplate,
+                                 ObjectMapper objectMapper,
+                                 Validator validator,
+                                 @Value("${rewards.loader.batch-size:1000}") int batchSize,
+                                 @Value("${rewards.loader.parser-threads:0}") int parserThreads,
+                                 @Value("${rewards.loader.writer-threads:4}") int writerThreads,
+                                 @Value("${rewards.loader.split-size:64MB}") DataSize splitSize) {
+        this.transactionBulkLoader = transactionBulkLoader;
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.batchSize = batchSize;
+        this.parserThreads = parserThreads > 0 ? parserThreads : Runtime.getRuntime().availableProcessors();
+        this.writerThreads = writerThreads;
+        this.splitSize = Math.min(splitSize.toBytes(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Replaces all transactions with those of the transaction files in a directory.
+     *
+     * @param directory the directory holding the files
+     * @return the load report
+     * @throws IOException if a file cannot be read or contains a malformed record
+     */
+    public LoadReport loadDirectory(Path directory) throws IOException {
+        List<Path> files;
+        try (Stream<Path> entries = Files.list(directory)) {
+            files = entries.filter(file -> Files.isRegularFile(file) && formatOf(file) != null).sorted().toList();
+        }
+
+        List<FileChannel> channels = new ArrayList<>();
+        ExecutorService parsers = Executors.newFixedThreadPool(parserThreads, new CustomizableThreadFactory("ingest-parser-"));
+        ExecutorService writers = Executors.newFixedThreadPool(writerThreads, new CustomizableThreadFactory("ingest-writer-"));
+        try {
+            List<Split> splits = new ArrayList<>();
+            for (Path file : files) {
+                FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                channels.add(channel);
+                splits.addAll(split(file, channel));
+            }
+            log.info("Loading {} files from {} in {} splits on {} parser threads", files.size(), directory, splits.size(), parserThreads);
+
+            long startNanos = System.nanoTime();
+            transactionBulkLoader.resetStaging();
+            long records = load(directory, splits, parsers, writers, startNanos);
+            transactionBulkLoader.replaceWithStaging(directory.toString());
+
+            long elapsedNanos = System.nanoTime() - startNanos;
+            LoadReport report = LoadReport.builder()
+                    .source(directory.toString())
+                    .loadedRecords(records)
+                    .durationMillis(TimeUnit.NANOSECONDS.toMillis(elapsedNanos))
+                    .recordsPerSecond(TransactionBulkLoader.recordsPerSecond(records, elapsedNanos))
+                    .build();
+            log.info("Loaded {} records from {} in {} ms ({} records/sec)", records, directory, report.getDurationMillis(),
+                    Math.round(report.getRecordsPerSecond()));
+            return report;
+        } finally {
+            parsers.shutdownNow();
+            writers.shutdownNow();
+            for (FileChannel channel : channels) {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Parses the splits in parallel and writes their records to the staging collection.
+     * The first failure stops all parsers; writers keep draining the queue so that no parser
+     * stays blocked on it.
+     *
+     * @return the number of records written
+     */
+    private long load(Path directory, List<Split> splits, ExecutorService parsers, ExecutorService writers, long startNanos)
+            throws IOException {
+        MongoCollection<Document> staging = mongoTemplate.getCollection(transactionBulkLoader.stagingCollectionName());
+        BlockingQueue<List<Document>> queue = new ArrayBlockingQueue<>(writerThreads * 2);
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        AtomicLong written = new AtomicLong();
+
+        List<Future<?>> writerFutures = new ArrayList<>();
+        for (int i = 0; i < writerThreads; i++) {
+            writerFutures.add(writers.submit(() -> {
+                List<Document> batch;
+                while ((batch = queue.take()) != END_OF_INPUT) {
+                    if (failure.get() == null) {
+                        try {
+                            TransactionBulkLoader.insertUnordered(staging, batch);
+                            written.addAndGet(batch.size());
+                        } catch (RuntimeException e) {
+                            failure.compareAndSet(null, e);
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+
+        List<Future<?>> parserFutures = new ArrayList<>();
+        for (Split split : splits) {
+            parserFutures.add(parsers.submit(() -> {
+                try {
+                    parse(split, queue, failure);
+                } catch (Exception e) {
+                    failure.compareAndSet(null, e);
+                }
+                return null;
+            }));
+        }
+
+        try {
+            for (Future<?> parser : parserFutures) {
+                awaitWithProgress(parser, directory, written, startNanos);
+            }
+            for (int i = 0; i < writerThreads; i++) {
+                queue.put(END_OF_INPUT);
+            }
+            for (Future<?> writer : writerFutures) {
+                awaitWithProgress(writer, directory, written, startNanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while loading " + directory);
+        }
+
+        Exception error = failure.get();
+        if (error instanceof IOException ioException) {
+            throw ioException;
+        }
+        if (error != null) {
+            throw new IOException("Failed to load " + directory, error);
+        }
+        return written.get();
+    }
+
+    private void awaitWithProgress(Future<?> task, Path directory, AtomicLong written, long startNanos) throws InterruptedException {
+        while (true) {
+            try {
+                task.get(PROGRESS_LOG_INTERVAL_SECONDS, TimeUnit.SECONDS);
+                return;
+            } catch (TimeoutException e) {
+                log.info("Loading {}: {} records stored ({} records/sec)", directory, written.get(),
+                        Math.round(TransactionBulkLoader.recordsPerSecond(written.get(), System.nanoTime() - startNanos)));
+            } catch (ExecutionException e) {
+                return; // Tasks record their own failures
+            }
+        }
+    }
+
+    /**
+     * Parses the lines of a split into batches of documents and queues them for the writers.
+     */
+    private void parse(Split split, BlockingQueue<List<Document>> queue, AtomicReference<Exception> failure)
+            throws IOException, InterruptedException {
+        ByteBuffer buffer = split.buffer();
+        byte[] line = new byte[256];
+        List<Document> batch = new ArrayList<>(batchSize);
+
+        while (buffer.hasRemaining() && failure.get() == null) {
+            int lineStart = buffer.position();
+            int length = 0;
+            while (buffer.hasRemaining()) {
+                byte b = buffer.get();
+                if (b == '\n') {
+                    break;
+                }
+                if (length == line.length) {
+                    line = Arrays.copyOf(line, length * 2);
+                }
+                line[length++] = b;
+            }
+            if (length > 0 && line[length - 1] == '\r') {
+                length--;
+            }
+            if (isBlank(line, length)) {
+                continue;
+            }
+
+            Transaction transaction;
+            try {
+                transaction = split.format() == Format.NDJSON
+                        ? objectMapper.readValue(line, 0, length, Transaction.class)
+                        : parseCsv(split.csvHeader(), new String(line, 0, length, StandardCharsets.UTF_8));
+                validate(transaction);
+            } catch (IOException | RuntimeException e) {
+                throw new IOException("Malformed record in " + split.file() + " at byte " + (split.start() + lineStart)
+                        + ": " + e.getMessage(), e);
+            }
+
+            batch.add(transactionBulkLoader.toDocument(transaction));
+            if (batch.size() == batchSize) {
+                queue.put(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            queue.put(batch);
+        }
+    }
+
+    /**
+     * Applies the constraints declared on {@link Transaction}, reporting violations as the write API does.
+     */
+    private void validate(Transaction transaction) {
+        Set<ConstraintViolation<Transaction>> violations = validator.validate(transaction);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+
+    private static Transaction parseCsv(String[] header, String line) {
+        String[] fields = line.split(",", -1);
+        if (fields.length != header.length) {
+            throw new IllegalArgumentException("expected " + header.length + " fields but found " + fields.length);
+        }
+
+        Transaction.TransactionBuilder transaction = Transaction.builder();
+        for (int i = 0; i < header.length; i++) {
+            String value = fields[i].trim();
+            if (value.isEmpty()) {
+                continue;
+            }
+            switch (header[i]) {
+                case "id" -> transaction.id(value);
+                case "customerId" -> transaction.customerId(value);
+                case "amount" -> transaction.amount(Double.parseDouble(value));
+                case "date" -> transaction.date(LocalDateTime.parse(value));
+                case "category" -> transaction.category(value);
+                default -> {
+                    // Unknown columns are ignored
+                }
+            }
+        }
+        return transaction.build();
+    }
+
+    /**
+     * Cuts a file into memory-mapped splits of about {@code splitSize} bytes that end on line
+     * boundaries. The header row of a CSV file is read here and excluded from the splits.
+     */
+    private List<Split> split(Path file, FileChannel channel) throws IOException {
+        Format format = formatOf(file);
+        long size = channel.size();
+        long position = 0;
+
+        String[] csvHeader = null;
+        if (format == Format.CSV) {
+            position = nextLineStart(channel, 0, size);
+            ByteBuffer headerBytes = ByteBuffer.allocate((int) position);
+            channel.read(headerBytes, 0);
+            csvHeader = Arrays.stream(new String(headerBytes.array(), StandardCharsets.UTF_8).strip().split(","))
+                    .map(String::trim)
+                    .toArray(String[]::new);
+            if (!Arrays.asList(csvHeader).containsAll(List.of("customerId", "amount", "date"))) {
+                throw new IOException("CSV file " + file + " needs a header row with customerId, amount and date columns");
+            }
+        }
+
+        List<Split> splits = new ArrayList<>();
+        while (position < size) {
+            long end = size - position <= splitSize ? size : nextLineStart(channel, position + splitSize, size);
+            splits.add(new Split(file, format, csvHeader, position, channel.map(FileChannel.MapMode.READ_ONLY, position, end - position)));
+            position = end;
+        }
+        return splits;
+    }
+
+    /**
+     * Returns the position just after the first line break at or after {@code from}, or the file size if there is none.
+     */
+    private static long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(8192);
+        long position = from;
+        while (position < size) {
+            chunk.clear();
+            int read = channel.read(chunk, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (chunk.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static boolean isBlank(byte[] line, int length) {
+        for (int i = 0; i < length; i++) {
+            if (line[i] != ' ' && line[i] != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Format formatOf(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return Format.NDJSON;
+        }
+        if (name.endsWith(".csv")) {
+            return Format.CSV;
+        }
+        return null;
+    }
+
+    private enum Format { NDJSON, CSV }
+
+    /**
+     * A memory-mapped range of a file holding whole lines, starting at byte {@code start}.
+     */
+    private record Split(Path file, Format format, String[] csvHeader, long start, MappedByteBuffer buffer) {
+    }
+}
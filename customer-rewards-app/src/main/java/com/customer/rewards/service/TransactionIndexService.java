@@ -0,0 +1,356 @@
+package com.customer.rewards.service;
+
+import com.customer.rewards.model.RewardSummary;
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.repository.TransactionRepository;
+import com.customer.rewards.rules.RewardRuleEngine;
+import com.customer.rewards.rules.RewardRules;
+import com.customer.rewards.util.MonthlyPoints;
+import com.customer.rewards.util.RewardPoints;
+import com.customer.rewards.util.TransactionColumns;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Service class keeping an in-memory columnar index of recent transactions, from which
+ * {@link RewardService} answers per-customer reads without querying MongoDB when
+ * {@code rewards.index.enabled} is set.
+ * <p>
+ * The index holds every transaction dated from the start of the longest reward window a request
+ * may ask for ({@code rewards.window.max-months}) in {@link TransactionColumns}, on or off the heap
+ * ({@code rewards.index.off-heap}). It is built from a single covered scan when the application
+ * starts, and built again after changes that cannot be applied incrementally: deletes, bulk loads
+ * and the start of a new month, which drops the month that aged out. Builds run one at a time on a
+ * background thread, never on a request thread: after a delete or bulk load the index is discarded
+ * at once, and reads are left to MongoDB until the new one is swapped in; an index built in an
+ * earlier month still covers every window and keeps serving reads while its successor is built.
+ * Reward rule changes need no rebuild, since amounts are scored when read. Like the reward ledger,
+ * the index treats every save as a new transaction. Transactions saved while the index is being
+ * built are buffered and added to the new index before it is swapped in; one that the build's scan
+ * also read counts twice until the next build, and {@code rewards.index.rebuild-cron} schedules
+ * periodic rebuilds to bound that drift.
+ * <p>
+ * Reads for windows starting before the index, and for customers the index does not know, are
+ * left to MongoDB.
+ */
+@Service
+@Slf4j
+public class TransactionIndexService {
+
+    /** The columns of one build and the earliest date they hold. */
+    private record Index(LocalDateTime start, long startMilli, TransactionColumns columns) {
+    }
+
+    private final TransactionRepository transactionRepository;
+    private final RewardRuleEngine rewardRuleEngine;
+    private final RewardMetrics rewardMetrics;
+    private final Clock clock;
+    private final boolean enabled;
+    private final boolean offHeap;
+    private final int maxWindowMonths;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("rewards-index-"));
+    private volatile Index index;
+
+    // Guarded by this: the build queued but not started, whether one is running, the transactions
+    // written while it runs, and a count of invalidations, so that a build which started before one
+    // is not swapped in
+    private CompletableFuture<Void> queuedBuild;
+    private boolean building;
+    private List<Transaction> pending;
+    private long generation;
+
+    public TransactionIndexService(TransactionRepository transactionRepository,
+                                   RewardRuleEngine rewardRuleEngine,
+                                   RewardMetrics rewardMetrics,
+                                   Clock clock,
+                                   @Value("${rewards.index.enabled:false}") boolean enabled,
+                                   @Value("${rewards.index.off-heap:false}") boolean offHeap,
+                                   @Value("${rewards.window.max-months:24}") int maxWindowMonths) {
+        this.transactionRepository = transactionRepository;
+        this.rewardRuleEngine = rewardRuleEngine;
+        this.rewardMetrics = rewardMetrics;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.offHeap = offHeap;
+        this.maxWindowMonths = maxWindowMonths;
+        if (enabled) {
+            rewardMetrics.registerIndexFootprint(this);
+        }
+    }
+
+    /**
+     * @return {@code true} if reads are served from the index
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Computes a customer's reward summary from the index, scored with the reward rules in effect.
+     *
+     * @param customerId the ID of the customer
+     * @param window     the reward window
+     * @return the reward summary, or {@code null} if the index is disabled, not built yet, starts
+     *         after the window, or does not know the customer
+     */
+    public RewardSummary getRewardsByCustomer(String customerId, RewardWindow window) {
+        if (!enabled) {
+            return null;
+        }
+        Index current = index;
+        if (current == null || !current.start().equals(indexStart())) {
+            buildIfIdle();
+        }
+        if (current == null || window.start().isBefore(current.start())) {
+            return null;
+        }
+
+        long scoringStart = System.nanoTime();
+        RewardRules rules = rewardRuleEngine.current();
+        YearMonth[] months = months(window);
+        long[] monthStarts = monthStartMillis(months);
+        MonthlyPoints monthlyPoints = new MonthlyPoints(window.firstMonth(), window.lastMonth());
+        int[] counts = new int[2]; // Scanned, scored
+
+        boolean known;
+        lock.readLock().lock();
+        try {
+            known = current.columns().forEach(customerId, RewardRules.epochMilli(window.start()), RewardRules.epochMilli(window.end()),
+                    (epochMilli, cents, category) -> {
+                        counts[0]++;
+                        int points = rules.points(cents, epochMilli, category);
+                        if (points > 0) {
+                            YearMonth month = months[monthOffset(monthStarts, epochMilli)];
+                            monthlyPoints.add(month.getYear(), month.getMonthValue(), points);
+                            counts[1]++;
+                        }
+                    });
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (!known) {
+            return null;
+        }
+        rewardMetrics.recordScoring(System.nanoTime() - scoringStart, counts[0], counts[1]);
+
+        return RewardSummary.builder()
+                .customerId(customerId)
+                .monthlyPoints(monthlyPoints.toMap())
+                .totalPoints(monthlyPoints.totalPoints())
+                .build();
+    }
+
+    /**
+     * Adds newly written transactions to the index. Transactions dated before the index are
+     * skipped. Buffered for the new index while one is being built, and otherwise ignored until
+     * the index is built.
+     *
+     * @param transactions the transactions that were written
+     */
+    public void recordAll(Collection<Transaction> transactions) {
+        Index current;
+        synchronized (this) {
+            if (building) {
+                pending.addAll(transactions);
+            }
+            current = index;
+        }
+        if (current == null) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (Transaction transaction : transactions) {
+                add(current, transaction);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Discards the index and builds it again in the background, if it is enabled. Reads are left to
+     * MongoDB until the new index is built.
+     */
+    public void invalidate() {
+        synchronized (this) {
+            generation++;
+            index = null;
+        }
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Builds the index in the background, unless a build that has not started yet is queued. The
+     * current index keeps serving reads until the new one is swapped in.
+     *
+     * @return completes once the queued build has finished
+     */
+    public synchronized CompletableFuture<Void> rebuild() {
+        if (queuedBuild == null) {
+            queuedBuild = CompletableFuture.runAsync(this::build, builder);
+        }
+        return queuedBuild;
+    }
+
+    /**
+     * Builds the index once the startup data load has finished, if it is enabled.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (enabled) {
+            buildIfIdle();
+        }
+    }
+
+    /**
+     * Periodically rebuilds the index, if it is in use. Disabled unless
+     * {@code rewards.index.rebuild-cron} is set.
+     */
+    @Scheduled(cron = "${rewards.index.rebuild-cron:-}")
+    public void scheduledRebuild() {
+        if (index != null) {
+            rebuild();
+        }
+    }
+
+    /**
+     * @return the memory held by the index, or an empty footprint if it is not built
+     */
+    public TransactionColumns.Footprint footprint() {
+        Index current = index;
+        if (current == null) {
+            return new TransactionColumns.Footprint(0, 0, 0);
+        }
+        lock.readLock().lock();
+        try {
+            return current.columns().footprint();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        builder.shutdownNow();
+    }
+
+    /**
+     * Starts a build unless one is queued or running, which then builds the missing or outdated index.
+     */
+    private synchronized void buildIfIdle() {
+        if (!building) {
+            rebuild();
+        }
+    }
+
+    private void build() {
+        long buildGeneration;
+        synchronized (this) {
+            queuedBuild = null;
+            building = true;
+            pending = new ArrayList<>();
+            buildGeneration = generation;
+        }
+
+        Index rebuilt;
+        try {
+            LocalDateTime start = indexStart();
+            rebuilt = new Index(start, RewardRules.epochMilli(start), new TransactionColumns(offHeap));
+            try (Stream<Transaction> transactions = transactionRepository.streamByDateGreaterThanEqual(start)) {
+                transactions.forEach(transaction -> add(rebuilt, transaction));
+            }
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                building = false;
+                pending = null;
+            }
+            log.error("Failed to build the transaction index; reads are served by MongoDB until the next build", e);
+            throw e;
+        }
+
+        synchronized (this) {
+            building = false;
+            List<Transaction> written = pending;
+            pending = null;
+            if (generation != buildGeneration) {
+                return; // Invalidated while building; the queued build replaces it
+            }
+            written.forEach(transaction -> add(rebuilt, transaction));
+            index = rebuilt;
+        }
+        TransactionColumns.Footprint footprint = rebuilt.columns().footprint();
+        log.info("Built the transaction index with {} transactions of {} customers from {}: {} bytes ({} bytes per transaction, {})",
+                footprint.transactions(), footprint.customers(), rebuilt.start(), footprint.bytes(),
+                String.format("%.1f", footprint.bytesPerTransaction()), offHeap ? "off-heap" : "on-heap");
+    }
+
+    /**
+     * The start of the longest window a request may ask for, which ends in the current month.
+     */
+    private LocalDateTime indexStart() {
+        return YearMonth.now(clock).minusMonths(maxWindowMonths).atDay(1).atStartOfDay();
+    }
+
+    private static void add(Index index, Transaction transaction) {
+        long epochMilli = RewardRules.epochMilli(transaction.getDate());
+        if (epochMilli >= index.startMilli()) {
+            index.columns().add(transaction.getCustomerId(), epochMilli, RewardPoints.toCents(transaction.getAmount()),
+                    transaction.getCategory());
+        }
+    }
+
+    private static YearMonth[] months(RewardWindow window) {
+        YearMonth[] months = new YearMonth[(int) window.firstMonth().until(window.lastMonth(), ChronoUnit.MONTHS) + 1];
+        for (int i = 0; i < months.length; i++) {
+            months[i] = window.firstMonth().plusMonths(i);
+        }
+        return months;
+    }
+
+    /**
+     * Returns the start of every month after the first, as epoch milliseconds.
+     */
+    private static long[] monthStartMillis(YearMonth[] months) {
+        long[] starts = new long[months.length - 1];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = RewardRules.epochMilli(months[i + 1].atDay(1).atStartOfDay());
+        }
+        return starts;
+    }
+
+    /**
+     * Returns the offset from the first month of the month holding a date.
+     */
+    private static int monthOffset(long[] monthStarts, long epochMilli) {
+        int offset = 0;
+        while (offset < monthStarts.length && epochMilli >= monthStarts[offset]) {
+            offset++;
+        }
+        return offset;
+    }
+}
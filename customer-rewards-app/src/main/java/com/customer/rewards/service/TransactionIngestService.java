@@ -0,0 +1,284 @@
+package com.customer.rewards.service;
+
+import com.customer.rewards.exception.TransactionBufferFullException;
+import com.customer.rewards.model.Transaction;
+import com.mongodb.WriteConcern;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service class accepting new transactions and writing them in micro-batches.
+ * <p>
+ * Submitted transactions wait in a bounded ring buffer ({@link ArrayBlockingQueue}) that a single
+ * writer thread drains: a batch is flushed as one unordered bulk insert as soon as it holds
+ * {@code rewards.ingest.batch-size} transactions or its first transaction has waited
+ * {@code rewards.ingest.flush-interval}, whichever comes first. Callers are acknowledged when the
+ * batch holding their transactions has been committed with the {@code rewards.ingest.write-concern}.
+ * <p>
+ * Transactions are given their ID before they are queued, so a caller that did not receive an
+ * acknowledgement can resubmit them with those IDs: transactions that were already stored with the
+ * same content are reported as duplicates rather than stored twice, and transactions reusing the
+ * ID of another one are reported as conflicts, leaving the stored one unchanged. Instead of one
+ * save event per document, a {@link TransactionsWrittenEvent} is published per batch with the
+ * newly stored transactions, so the reward ledger, summary cache and leaderboard are updated once
+ * per batch too.
+ */
+@Service
+@Slf4j
+public class TransactionIngestService {
+
+    private static final int DUPLICATE_KEY_ERROR = 11000;
+
+    /**
+     * The outcome of one submission.
+     *
+     * @param written    the transactions stored by the submission, in submission order
+     * @param duplicates the IDs of transactions that were already stored with the same content
+     * @param conflicts  the IDs of transactions that were already stored with other content, which was kept
+     */
+    public record Acknowledgement(List<Transaction> written, List<String> duplicates, List<String> conflicts) {
+    }
+
+    /** The transactions of one submission and the future completing when they are committed. */
+    private record PendingWrite(List<Transaction> transactions, CompletableFuture<Acknowledgement> committed) {
+    }
+
+    private final MongoTemplate ingestTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RewardMetrics rewardMetrics;
+    private final BlockingQueue<PendingWrite> buffer;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public TransactionIngestService(MongoTemplate mongoTemplate,
+                                    ApplicationEventPublisher eventPublisher,
+                                    RewardMetrics rewardMetrics,
+                                    @Value("${rewards.ingest.buffer-capacity:65536}") int bufferCapacity,
+                                    @Value("${rewards.ingest.batch-size:1000}") int batchSize,
+                                    @Value("${rewards.ingest.flush-interval:5ms}") Duration flushInterval,
+                                    @Value("${rewards.ingest.write-concern:MAJORITY}") String writeConcern) {
+        WriteConcern concern = WriteConcern.valueOf(writeConcern);
+        if (concern == null) {
+            throw new IllegalArgumentException("Unknown write concern: " + writeConcern);
+        }
+
+        // Shares the connection pool and mapping of the main template, but commits with its own
+        // write concern and without per-document events
+        this.ingestTemplate = new MongoTemplate(mongoTemplate.getMongoDatabaseFactory(), mongoTemplate.getConverter());
+        this.ingestTemplate.setWriteConcern(concern);
+        this.eventPublisher = eventPublisher;
+        this.rewardMetrics = rewardMetrics;
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.writer = new CustomizableThreadFactory("rewards-ingest-").newThread(this::drain);
+    }
+
+    @PostConstruct
+    void start() {
+        writer.start();
+    }
+
+    /**
+     * Queues transactions to be written in the next batch. Transactions without an ID are given one.
+     *
+     * @param transactions the transactions to write
+     * @return a future completing with the outcome of the submission once its transactions are committed
+     * @throws TransactionBufferFullException if the write buffer is full
+     */
+    public CompletableFuture<Acknowledgement> submit(List<Transaction> transactions) {
+        for (Transaction transaction : transactions) {
+            if (transaction.getId() == null) {
+                transaction.setId(new ObjectId().toHexString());
+            }
+        }
+
+        PendingWrite write = new PendingWrite(List.copyOf(transactions), new CompletableFuture<>());
+        if (!running || !buffer.offer(write)) {
+            throw new TransactionBufferFullException("Transaction write buffer is full; retry later");
+        }
+        return write.committed();
+    }
+
+    /**
+     * Stops accepting transactions and writes the ones already queued.
+     */
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    /**
+     * Writer loop: waits for the first pending write, then collects more until the batch is full
+     * or the flush interval has passed, and flushes them together.
+     */
+    private void drain() {
+        List<PendingWrite> batch = new ArrayList<>();
+        while (running || !buffer.isEmpty()) {
+            try {
+                PendingWrite first = buffer.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                int size = first.transactions().size();
+                long flushAt = System.nanoTime() + flushInterval.toNanos();
+
+                while (size < batchSize) {
+                    PendingWrite next = buffer.poll(Math.max(0, flushAt - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    size += next.transactions().size();
+                }
+
+                flush(batch, size);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+                buffer.drainTo(batch);
+                fail(batch, new CancellationException("Transaction writer was interrupted"));
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+        log.info("Transaction writer stopped");
+    }
+
+    /**
+     * Writes a batch with one unordered bulk insert and completes its pending writes.
+     */
+    private void flush(List<PendingWrite> batch, int size) {
+        List<Transaction> transactions = new ArrayList<>(size);
+        batch.forEach(write -> transactions.addAll(write.transactions()));
+
+        long started = System.nanoTime();
+        Set<Integer> duplicates = Set.of();
+        try {
+            ingestTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Transaction.class)
+                    .insert(transactions)
+                    .execute();
+        } catch (BulkOperationException e) {
+            // Duplicate keys are transactions resubmitted after a lost acknowledgement, or IDs reused for other transactions
+            if (e.getErrors().stream().anyMatch(error -> error.getCode() != DUPLICATE_KEY_ERROR)) {
+                fail(batch, e);
+                return;
+            }
+            duplicates = duplicateIndexes(e);
+        } catch (RuntimeException e) {
+            fail(batch, e);
+            return;
+        }
+        rewardMetrics.recordIngestBatch(System.nanoTime() - started, size);
+
+        List<Transaction> inserted = new ArrayList<>(transactions.size() - duplicates.size());
+        for (int i = 0; i < transactions.size(); i++) {
+            if (!duplicates.contains(i)) {
+                inserted.add(transactions.get(i));
+            }
+        }
+        try {
+            eventPublisher.publishEvent(new TransactionsWrittenEvent(inserted));
+        } catch (RuntimeException e) {
+            // The transactions are stored; derived data is repaired by ledger reconciliation
+            log.error("Failed to apply a batch of {} written transactions", inserted.size(), e);
+        }
+
+        Map<String, Transaction> stored;
+        try {
+            stored = storedTransactions(transactions, duplicates);
+        } catch (RuntimeException e) {
+            // Resubmitting is safe: stored transactions are not written twice
+            fail(batch, e);
+            return;
+        }
+        int index = 0;
+        for (PendingWrite write : batch) {
+            List<Transaction> written = new ArrayList<>(write.transactions().size());
+            List<String> duplicateIds = new ArrayList<>();
+            List<String> conflictIds = new ArrayList<>();
+            for (Transaction transaction : write.transactions()) {
+                if (!duplicates.contains(index++)) {
+                    written.add(transaction);
+                } else if (sameContent(transaction, stored.get(transaction.getId()))) {
+                    duplicateIds.add(transaction.getId());
+                } else {
+                    conflictIds.add(transaction.getId());
+                }
+            }
+            write.committed().complete(new Acknowledgement(written, duplicateIds, conflictIds));
+        }
+    }
+
+    private static Set<Integer> duplicateIndexes(BulkOperationException e) {
+        Set<Integer> duplicates = new HashSet<>();
+        e.getErrors().forEach(error -> duplicates.add(error.getIndex()));
+        return duplicates;
+    }
+
+    /**
+     * Reads the stored transactions whose IDs the transactions at the given positions reused.
+     */
+    private Map<String, Transaction> storedTransactions(List<Transaction> transactions, Set<Integer> duplicates) {
+        if (duplicates.isEmpty()) {
+            return Map.of();
+        }
+        Set<String> ids = new HashSet<>();
+        duplicates.forEach(index -> ids.add(transactions.get(index).getId()));
+        return ingestTemplate.find(Query.query(Criteria.where("_id").in(ids)), Transaction.class).stream()
+                .collect(Collectors.toMap(Transaction::getId, Function.identity()));
+    }
+
+    /**
+     * Compares a resubmitted transaction with the stored one, to the millisecond MongoDB keeps of dates.
+     */
+    private static boolean sameContent(Transaction submitted, Transaction stored) {
+        return stored != null
+                && Objects.equals(submitted.getCustomerId(), stored.getCustomerId())
+                && Objects.equals(submitted.getAmount(), stored.getAmount())
+                && Objects.equals(toMillis(submitted.getDate()), toMillis(stored.getDate()))
+                && Objects.equals(submitted.getCategory(), stored.getCategory());
+    }
+
+    private static LocalDateTime toMillis(LocalDateTime date) {
+        return date != null ? date.truncatedTo(ChronoUnit.MILLIS) : null;
+    }
+
+    private static void fail(List<PendingWrite> batch, RuntimeException e) {
+        log.error("Failed to write a batch of {} submissions", batch.size(), e);
+        batch.forEach(write -> write.committed().completeExceptionally(e));
+    }
+}
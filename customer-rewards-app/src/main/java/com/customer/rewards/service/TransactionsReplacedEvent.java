@@ -0,0 +1,10 @@
+package com.customer.rewards.service;
+
+/**
+ * Published after the transactions collection was replaced as a whole by a bulk load,
+ * which bypasses the per-document MongoDB lifecycle events.
+ *
+ * @param source the name of the source that was loaded
+ */
+public record TransactionsReplacedEvent(String source) {
+}
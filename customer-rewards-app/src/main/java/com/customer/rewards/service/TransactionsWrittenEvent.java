@@ -0,0 +1,15 @@
+package com.customer.rewards.service;
+
+import com.customer.rewards.model.Transaction;
+
+import java.util.List;
+
+/**
+ * Published after a micro-batch of submitted transactions was committed. The batch is written
+ * with a bulk insert, which does not publish per-document MongoDB lifecycle events, so that
+ * listeners can apply the whole batch at once.
+ *
+ * @param transactions the newly stored transactions
+ */
+public record TransactionsWrittenEvent(List<Transaction> transactions) {
+}
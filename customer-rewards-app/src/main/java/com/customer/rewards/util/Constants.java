@@ -16,9 +16,18 @@ public final class Constants {
     /** Upper threshold for earning double reward points. */
     public static final double UPPER_THRESHOLD = 100.0;
 
+    /** Number of minor units (cents) in one dollar. */
+    public static final long CENTS_PER_DOLLAR = 100L;
+
     /** Number of points awarded per dollar between LOWER and UPPER thresholds. */
     public static final int ONE_POINT = 1;
 
     /** Number of points awarded per dollar above the UPPER threshold. */
     public static final int TWO_POINTS = 2;
+
+    /** Maximum number of customer IDs accepted by a single batch rewards request. */
+    public static final int MAX_BATCH_SIZE = 5000;
+
+    /** Profile that serves the rewards API from the reactive stack (WebFlux and reactive MongoDB) instead of the servlet stack. */
+    public static final String REACTIVE_PROFILE = "reactive";
 }
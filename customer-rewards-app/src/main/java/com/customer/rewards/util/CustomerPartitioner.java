@@ -0,0 +1,49 @@
+package com.customer.rewards.util;
+
+/**
+ * Assigns customers to one of a fixed number of partitions by a hash of their ID.
+ * <p>
+ * The hash is {@link String#hashCode()}, which is specified by the JDK and therefore stable
+ * across JVMs and restarts, passed through the MurmurHash3 finalizer so that sequential IDs
+ * such as {@code cust1, cust2, ...} spread evenly.
+ */
+public final class CustomerPartitioner {
+
+    private final int partitions;
+
+    /**
+     * Creates a partitioner.
+     *
+     * @param partitions the number of partitions
+     * @throws IllegalArgumentException if {@code partitions} is less than 1
+     */
+    public CustomerPartitioner(int partitions) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("Number of partitions must be at least 1: " + partitions);
+        }
+        this.partitions = partitions;
+    }
+
+    /**
+     * @return the number of partitions
+     */
+    public int partitions() {
+        return partitions;
+    }
+
+    /**
+     * Returns the partition of a customer.
+     *
+     * @param customerId the ID of the customer
+     * @return the partition, from {@code 0} to {@code partitions() - 1}
+     */
+    public int partitionOf(String customerId) {
+        int hash = customerId.hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, partitions);
+    }
+}
@@ -0,0 +1,38 @@
+package com.customer.rewards.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides which occurrences of a frequent log statement are written: one in every {@code rate}.
+ * <p>
+ * Guard per-request log statements with {@code log.isDebugEnabled() && sampler.sample()}, so that
+ * with debug logging off they cost a level check, and with it on only a fraction of requests
+ * pay for formatting and writing a log line.
+ */
+public final class LogSampler {
+
+    private final int rate;
+    private final AtomicLong occurrences = new AtomicLong();
+
+    /**
+     * Creates a sampler.
+     *
+     * @param rate one in this many occurrences is sampled; {@code 1} samples every occurrence
+     * @throws IllegalArgumentException if {@code rate} is less than 1
+     */
+    public LogSampler(int rate) {
+        if (rate < 1) {
+            throw new IllegalArgumentException("Sample rate must be at least 1: " + rate);
+        }
+        this.rate = rate;
+    }
+
+    /**
+     * Counts an occurrence and tells whether it should be logged.
+     *
+     * @return {@code true} for the first occurrence and every {@code rate}-th one after it
+     */
+    public boolean sample() {
+        return rate == 1 || occurrences.getAndIncrement() % rate == 0;
+    }
+}
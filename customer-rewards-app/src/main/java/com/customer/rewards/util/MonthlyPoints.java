@@ -0,0 +1,101 @@
+package com.customer.rewards.util;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Accumulates reward points per calendar month of a reward window.
+ * <p>
+ * Points are summed into an {@code int[]} indexed by the month's offset from the first month of
+ * the window, so adding points neither boxes nor hashes, and months of different years never
+ * share a slot. {@link #toMap()} converts the result once, in chronological order.
+ */
+public final class MonthlyPoints {
+
+    private final YearMonth firstMonth;
+    private final int firstMonthIndex;
+    private final int[] points;
+    private int totalPoints;
+
+    /**
+     * Creates an accumulator for the months from {@code firstMonth} to {@code lastMonth}, inclusive.
+     *
+     * @param firstMonth the first month of the window
+     * @param lastMonth  the last month of the window
+     * @throws IllegalArgumentException if {@code lastMonth} is before {@code firstMonth}
+     */
+    public MonthlyPoints(YearMonth firstMonth, YearMonth lastMonth) {
+        if (lastMonth.isBefore(firstMonth)) {
+            throw new IllegalArgumentException("Window ends (" + lastMonth + ") before it starts (" + firstMonth + ")");
+        }
+        this.firstMonth = firstMonth;
+        this.firstMonthIndex = monthIndex(firstMonth.getYear(), firstMonth.getMonthValue());
+        this.points = new int[monthIndex(lastMonth.getYear(), lastMonth.getMonthValue()) - firstMonthIndex + 1];
+    }
+
+    /**
+     * Adds points to the month of a date.
+     *
+     * @param date   a date within the window
+     * @param points the points to add
+     * @throws IllegalArgumentException if the date is outside the window
+     */
+    public void add(LocalDateTime date, int points) {
+        add(date.getYear(), date.getMonthValue(), points);
+    }
+
+    /**
+     * Adds points to a month.
+     *
+     * @param year   the year
+     * @param month  the month of the year, from 1 to 12
+     * @param points the points to add
+     * @throws IllegalArgumentException if the month is outside the window
+     */
+    public void add(int year, int month, int points) {
+        int offset = monthIndex(year, month) - firstMonthIndex;
+        if (offset < 0 || offset >= this.points.length) {
+            throw new IllegalArgumentException("Month " + YearMonth.of(year, month) + " is outside the reward window");
+        }
+        this.points[offset] += points;
+        totalPoints += points;
+    }
+
+    /**
+     * @return the sum of the points added so far
+     */
+    public int totalPoints() {
+        return totalPoints;
+    }
+
+    /**
+     * Returns the months that earned points, in chronological order.
+     *
+     * @return an unmodifiable map from month to points, without months that earned nothing
+     */
+    public Map<YearMonth, Integer> toMap() {
+        Map<YearMonth, Integer> monthlyPoints = new LinkedHashMap<>();
+        for (int offset = 0; offset < points.length; offset++) {
+            if (points[offset] != 0) {
+                monthlyPoints.put(firstMonth.plusMonths(offset), points[offset]);
+            }
+        }
+        return Collections.unmodifiableMap(monthlyPoints);
+    }
+
+    /**
+     * Clears all points so the accumulator can be reused for another customer over the same window.
+     */
+    public void clear() {
+        Arrays.fill(points, 0);
+        totalPoints = 0;
+    }
+
+    private static int monthIndex(int year, int month) {
+        return year * 12 + month - 1;
+    }
+}
@@ -0,0 +1,202 @@
+package com.customer.rewards.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Keeps customers ordered by their points, highest first, to answer top-N and rank queries
+ * without sorting.
+ * <p>
+ * Customers are held in a treap (a randomized balanced search tree) ordered by points descending
+ * and customer ID ascending, whose nodes also count the nodes below them. Updating a customer,
+ * finding a customer's rank and locating the N-th customer therefore take O(log N) expected time,
+ * and listing the top N takes O(log N + N). Customers with equal points share a rank
+ * ("1, 2, 2, 4" ranking). Instances are not thread-safe.
+ */
+public final class RankedScores {
+
+    /**
+     * A customer's points and rank.
+     *
+     * @param rank       one plus the number of customers with more points
+     * @param customerId the ID of the customer
+     * @param points     the customer's points
+     */
+    public record Ranking(int rank, String customerId, int points) {
+    }
+
+    private static final class Node {
+        final String customerId;
+        final int points;
+        final int priority = ThreadLocalRandom.current().nextInt();
+        Node left;
+        Node right;
+        int size = 1;
+
+        Node(String customerId, int points) {
+            this.customerId = customerId;
+            this.points = points;
+        }
+    }
+
+    private final Map<String, Integer> pointsByCustomer = new HashMap<>();
+    private Node root;
+
+    /**
+     * Adds points to a customer, adding the customer first if needed. Adding zero points
+     * registers a customer without changing the points of an existing one.
+     *
+     * @param customerId the ID of the customer
+     * @param points     the points to add; may be negative
+     */
+    public void add(String customerId, int points) {
+        Integer current = pointsByCustomer.get(customerId);
+        if (current == null) {
+            pointsByCustomer.put(customerId, points);
+            root = insert(root, new Node(customerId, points));
+        } else if (points != 0) {
+            pointsByCustomer.put(customerId, current + points);
+            root = remove(root, customerId, current);
+            root = insert(root, new Node(customerId, current + points));
+        }
+    }
+
+    /**
+     * @return the number of customers
+     */
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * Looks up a customer's rank.
+     *
+     * @param customerId the ID of the customer
+     * @return the customer's ranking, or {@code null} if the customer is unknown
+     */
+    public Ranking rank(String customerId) {
+        Integer points = pointsByCustomer.get(customerId);
+        return points != null ? new Ranking(countAbove(points) + 1, customerId, points) : null;
+    }
+
+    /**
+     * Lists the customers with the most points. Customers with equal points are listed by ID.
+     *
+     * @param limit the maximum number of customers to list
+     * @return at most {@code limit} rankings, highest points first
+     */
+    public List<Ranking> top(int limit) {
+        List<Ranking> rankings = new ArrayList<>(Math.min(Math.max(limit, 0), size()));
+        collect(root, limit, rankings);
+        return rankings;
+    }
+
+    private void collect(Node node, int limit, List<Ranking> rankings) {
+        if (node == null || rankings.size() >= limit) {
+            return;
+        }
+        collect(node.left, limit, rankings);
+        if (rankings.size() < limit) {
+            Ranking previous = rankings.isEmpty() ? null : rankings.get(rankings.size() - 1);
+            int rank = previous != null && previous.points() == node.points ? previous.rank() : rankings.size() + 1;
+            rankings.add(new Ranking(rank, node.customerId, node.points));
+            collect(node.right, limit, rankings);
+        }
+    }
+
+    /**
+     * Counts the customers with more than the given points, which all precede it in the tree.
+     */
+    private int countAbove(int points) {
+        int count = 0;
+        Node node = root;
+        while (node != null) {
+            if (node.points > points) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    private static int compare(int points, String customerId, Node node) {
+        int order = Integer.compare(node.points, points); // Higher points first
+        return order != 0 ? order : customerId.compareTo(node.customerId);
+    }
+
+    private static Node insert(Node node, Node inserted) {
+        if (node == null) {
+            return inserted;
+        }
+        if (compare(inserted.points, inserted.customerId, node) < 0) {
+            node.left = insert(node.left, inserted);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, inserted);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        return update(node);
+    }
+
+    private static Node remove(Node node, String customerId, int points) {
+        if (node == null) {
+            return null;
+        }
+        int order = compare(points, customerId, node);
+        if (order < 0) {
+            node.left = remove(node.left, customerId, points);
+        } else if (order > 0) {
+            node.right = remove(node.right, customerId, points);
+        } else {
+            return merge(node.left, node.right);
+        }
+        return update(node);
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return update(left);
+        }
+        right.left = merge(left, right.left);
+        return update(right);
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = update(node);
+        return update(left);
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = update(node);
+        return update(right);
+    }
+
+    private static Node update(Node node) {
+        node.size = size(node.left) + size(node.right) + 1;
+        return node;
+    }
+
+    private static int size(Node node) {
+        return node != null ? node.size : 0;
+    }
+}
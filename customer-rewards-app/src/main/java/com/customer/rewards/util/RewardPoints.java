@@ -0,0 +1,29 @@
+package com.customer.rewards.util;
+
+/**
+ * Fixed-point reward arithmetic.
+ * <p>
+ * Amounts are converted once to {@code long} cents so that {@link com.customer.rewards.rules.RewardRules}
+ * can do all tier arithmetic in integers, exact at every threshold (for example {@code 100.01}
+ * earns {@code 50} points, never {@code 49} or {@code 51}).
+ */
+public final class RewardPoints {
+
+    /** Private constructor to prevent instantiation. */
+    private RewardPoints() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    /**
+     * Converts a dollar amount to cents, rounding to the nearest cent.
+     * <p>
+     * This is exact for every amount written with at most two decimals, which covers all amounts
+     * stored by the application.
+     *
+     * @param amount the amount in dollars
+     * @return the amount in cents
+     */
+    public static long toCents(double amount) {
+        return Math.round(amount * Constants.CENTS_PER_DOLLAR);
+    }
+}
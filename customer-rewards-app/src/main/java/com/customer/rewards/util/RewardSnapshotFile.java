@@ -0,0 +1,298 @@
+package com.customer.rewards.util;
+
+import com.customer.rewards.model.RewardSummary;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * A binary file holding the reward points of every customer per calendar month, read through a
+ * memory mapping so that it can serve lookups as soon as it is opened.
+ * <p>
+ * Layout (big-endian):
+ * <pre>
+ * header   magic "RWSN", version, created-at epoch millisecond, high-water mark (12-byte ObjectId),
+ *          reward rules revision, transaction count, first month, month count, customer count,
+ *          directory offset, CRC32C of the records, the directory and the rest of the header
+ * records  per customer, in ascending UTF-8 byte order of the ID: ID length, ID bytes, one int per month
+ * directory one long record offset per customer, in record order
+ * </pre>
+ * A customer is found by binary search over the directory, comparing the UTF-8 bytes of IDs in
+ * place. Files are written to a temporary file and moved into place, so readers never see a
+ * partial file; a file with another version or a wrong checksum is rejected.
+ */
+public final class RewardSnapshotFile {
+
+    private static final int MAGIC = 0x5257534E; // "RWSN"
+    private static final int VERSION = 1;
+    private static final int HIGH_WATER_MARK_BYTES = 12;
+    private static final int CHECKSUM_OFFSET = 4 + 4 + 8 + HIGH_WATER_MARK_BYTES + 8 + 8 + 4 + 4 + 4 + 8;
+    private static final int HEADER_BYTES = CHECKSUM_OFFSET + 8;
+
+    /**
+     * What a snapshot was computed from.
+     *
+     * @param createdAtMilli    when the snapshot was taken, as an epoch millisecond
+     * @param highWaterMark     the ID of the last transaction the snapshot counts, as 12 ObjectId bytes
+     * @param rulesRevision     the revision of the reward rules the points were scored with
+     * @param transactionCount  the number of transactions up to the high-water mark
+     * @param firstMonth        the first month held
+     * @param monthCount        the number of months held per customer
+     */
+    public record Metadata(long createdAtMilli, byte[] highWaterMark, long rulesRevision, long transactionCount,
+                           YearMonth firstMonth, int monthCount) {
+
+        /**
+         * @return the last month held
+         */
+        public YearMonth lastMonth() {
+            return firstMonth.plusMonths(monthCount - 1L);
+        }
+    }
+
+    private final Metadata metadata;
+    private final MappedByteBuffer buffer;
+    private final int customerCount;
+    private final long directoryOffset;
+
+    private RewardSnapshotFile(Metadata metadata, MappedByteBuffer buffer, int customerCount, long directoryOffset) {
+        this.metadata = metadata;
+        this.buffer = buffer;
+        this.customerCount = customerCount;
+        this.directoryOffset = directoryOffset;
+    }
+
+    /**
+     * Writes a snapshot, replacing the file atomically.
+     *
+     * @param path      the file to write
+     * @param metadata  what the snapshot was computed from
+     * @param summaries the summaries of all customers, in ascending order of customer ID
+     * @return the number of customers written
+     * @throws IOException           if the file cannot be written
+     * @throws IllegalStateException if the summaries are not in ascending UTF-8 byte order of customer ID
+     */
+    public static int write(Path path, Metadata metadata, Iterator<RewardSummary> summaries) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.createDirectories(path.toAbsolutePath().getParent());
+
+        CRC32C checksum = new CRC32C();
+        long[] offsets = new long[1024];
+        int count = 0;
+        long position = HEADER_BYTES;
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.position(HEADER_BYTES);
+            // Not closed: the header is written through the channel once the records are flushed
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new CheckedOutputStream(Channels.newOutputStream(channel), checksum), 1 << 16));
+
+            byte[] previous = null;
+            int[] points = new int[metadata.monthCount()];
+            while (summaries.hasNext()) {
+                RewardSummary summary = summaries.next();
+                byte[] id = summary.getCustomerId().getBytes(StandardCharsets.UTF_8);
+                if (previous != null && Arrays.compareUnsigned(previous, id) >= 0) {
+                    throw new IllegalStateException("Customer " + summary.getCustomerId() + " is out of order");
+                }
+                previous = id;
+
+                Arrays.fill(points, 0);
+                for (Map.Entry<YearMonth, Integer> month : summary.getMonthlyPoints().entrySet()) {
+                    long offset = metadata.firstMonth().until(month.getKey(), ChronoUnit.MONTHS);
+                    if (offset >= 0 && offset < points.length) {
+                        points[(int) offset] += month.getValue();
+                    }
+                }
+
+                if (count == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, count * 2);
+                }
+                offsets[count++] = position;
+                out.writeInt(id.length);
+                out.write(id);
+                for (int monthPoints : points) {
+                    out.writeInt(monthPoints);
+                }
+                position += Integer.BYTES + id.length + (long) points.length * Integer.BYTES;
+            }
+
+            long directoryOffset = position;
+            for (int i = 0; i < count; i++) {
+                out.writeLong(offsets[i]);
+            }
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                    .putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putLong(metadata.createdAtMilli())
+                    .put(metadata.highWaterMark())
+                    .putLong(metadata.rulesRevision())
+                    .putLong(metadata.transactionCount())
+                    .putInt(monthIndex(metadata.firstMonth()))
+                    .putInt(metadata.monthCount())
+                    .putInt(count)
+                    .putLong(directoryOffset);
+            checksum.update(header.array(), 0, CHECKSUM_OFFSET);
+            header.putLong(checksum.getValue()).flip();
+            channel.write(header, 0);
+            channel.force(true);
+        }
+
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return count;
+    }
+
+    /**
+     * Maps a snapshot and verifies its version and checksum.
+     *
+     * @param path the file to open
+     * @return the mapped snapshot
+     * @throws IOException if the file cannot be read, has another version or is corrupt
+     */
+    public static RewardSnapshotFile open(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot " + path + " has an invalid size of " + channel.size() + " bytes");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException(path + " is not a reward snapshot");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Snapshot " + path + " has unsupported version " + buffer.getInt(4));
+        }
+
+        byte[] highWaterMark = new byte[HIGH_WATER_MARK_BYTES];
+        buffer.get(16, highWaterMark);
+        int position = 16 + HIGH_WATER_MARK_BYTES;
+        long rulesRevision = buffer.getLong(position);
+        long transactionCount = buffer.getLong(position + 8);
+        int firstMonthIndex = buffer.getInt(position + 16);
+        int monthCount = buffer.getInt(position + 20);
+        int customerCount = buffer.getInt(position + 24);
+        long directoryOffset = buffer.getLong(position + 28);
+        long expectedChecksum = buffer.getLong(CHECKSUM_OFFSET);
+
+        if (monthCount < 1 || customerCount < 0 || directoryOffset < HEADER_BYTES
+                || directoryOffset + (long) customerCount * Long.BYTES != buffer.capacity()) {
+            throw new IOException("Snapshot " + path + " is truncated or has an inconsistent header");
+        }
+        CRC32C checksum = new CRC32C();
+        checksum.update(buffer.slice(HEADER_BYTES, buffer.capacity() - HEADER_BYTES));
+        checksum.update(buffer.slice(0, CHECKSUM_OFFSET));
+        if (checksum.getValue() != expectedChecksum) {
+            throw new IOException("Snapshot " + path + " failed its checksum");
+        }
+
+        Metadata metadata = new Metadata(buffer.getLong(8), highWaterMark, rulesRevision, transactionCount,
+                YearMonth.of(Math.floorDiv(firstMonthIndex, 12), Math.floorMod(firstMonthIndex, 12) + 1), monthCount);
+        return new RewardSnapshotFile(metadata, buffer, customerCount, directoryOffset);
+    }
+
+    /**
+     * @return what the snapshot was computed from
+     */
+    public Metadata metadata() {
+        return metadata;
+    }
+
+    /**
+     * @return the number of customers held
+     */
+    public int customerCount() {
+        return customerCount;
+    }
+
+    /**
+     * Adds a customer's points for the months of a range that the snapshot holds.
+     *
+     * @param customerId    the ID of the customer
+     * @param monthlyPoints the accumulator to add to; must cover {@code fromMonth} to {@code toMonth}
+     * @param fromMonth     the first month to add
+     * @param toMonth       the last month to add
+     * @return {@code false} if the snapshot does not hold the customer
+     */
+    public boolean addPoints(String customerId, MonthlyPoints monthlyPoints, YearMonth fromMonth, YearMonth toMonth) {
+        long record = find(customerId.getBytes(StandardCharsets.UTF_8));
+        if (record < 0) {
+            return false;
+        }
+
+        int pointsOffset = (int) record + Integer.BYTES + buffer.getInt((int) record);
+        int first = (int) Math.max(0, metadata.firstMonth().until(fromMonth, ChronoUnit.MONTHS));
+        int last = (int) Math.min(metadata.monthCount() - 1, metadata.firstMonth().until(toMonth, ChronoUnit.MONTHS));
+        for (int month = first; month <= last; month++) {
+            int points = buffer.getInt(pointsOffset + month * Integer.BYTES);
+            if (points != 0) {
+                YearMonth yearMonth = metadata.firstMonth().plusMonths(month);
+                monthlyPoints.add(yearMonth.getYear(), yearMonth.getMonthValue(), points);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Binary searches the directory for a customer ID.
+     *
+     * @return the offset of the customer's record, or {@code -1}
+     */
+    private long find(byte[] id) {
+        int low = 0;
+        int high = customerCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int record = (int) buffer.getLong((int) directoryOffset + middle * Long.BYTES);
+            int order = compare(record, id);
+            if (order < 0) {
+                low = middle + 1;
+            } else if (order > 0) {
+                high = middle - 1;
+            } else {
+                return record;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Compares the ID of a record with the given ID bytes, as unsigned bytes, without copying it.
+     */
+    private int compare(int record, byte[] id) {
+        int length = buffer.getInt(record);
+        int common = Math.min(length, id.length);
+        for (int i = 0; i < common; i++) {
+            int order = Byte.compareUnsigned(buffer.get(record + Integer.BYTES + i), id[i]);
+            if (order != 0) {
+                return order;
+            }
+        }
+        return Integer.compare(length, id.length);
+    }
+
+    private static int monthIndex(YearMonth month) {
+        return month.getYear() * 12 + month.getMonthValue() - 1;
+    }
+}
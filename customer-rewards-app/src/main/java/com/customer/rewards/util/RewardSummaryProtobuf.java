@@ -0,0 +1,163 @@
+package com.customer.rewards.util;
+
+import com.customer.rewards.model.RewardSummary;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes {@link RewardSummary} in the Protobuf wire format of {@code proto/reward_summary.proto},
+ * written field by field so that no classes have to be generated from the schema.
+ * <p>
+ * As in proto3, fields holding their default value (an empty string or zero) are not written.
+ * A {@code RewardSummaryList} is the concatenation of its summaries, each written as field 1.
+ */
+public final class RewardSummaryProtobuf {
+
+    private static final int SUMMARY_CUSTOMER_ID = 1;
+    private static final int SUMMARY_MONTHLY_POINTS = 2;
+    private static final int SUMMARY_TOTAL_POINTS = 3;
+    private static final int MONTH_YEAR = 1;
+    private static final int MONTH_MONTH = 2;
+    private static final int MONTH_POINTS = 3;
+    private static final int LIST_SUMMARIES = 1;
+
+    private RewardSummaryProtobuf() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    /**
+     * Encodes a {@code RewardSummary} message.
+     *
+     * @param summary the summary to encode
+     * @return the encoded message
+     */
+    public static byte[] encode(RewardSummary summary) {
+        int size = 0;
+        if (summary.getCustomerId() != null && !summary.getCustomerId().isEmpty()) {
+            size += CodedOutputStream.computeStringSize(SUMMARY_CUSTOMER_ID, summary.getCustomerId());
+        }
+        Map<YearMonth, Integer> monthlyPoints = summary.getMonthlyPoints() != null ? summary.getMonthlyPoints() : Map.of();
+        for (Map.Entry<YearMonth, Integer> month : monthlyPoints.entrySet()) {
+            int monthSize = monthSize(month.getKey(), month.getValue());
+            size += CodedOutputStream.computeTagSize(SUMMARY_MONTHLY_POINTS) + CodedOutputStream.computeUInt32SizeNoTag(monthSize) + monthSize;
+        }
+        if (summary.getTotalPoints() != 0) {
+            size += CodedOutputStream.computeInt32Size(SUMMARY_TOTAL_POINTS, summary.getTotalPoints());
+        }
+
+        byte[] bytes = new byte[size];
+        CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+        try {
+            if (summary.getCustomerId() != null && !summary.getCustomerId().isEmpty()) {
+                output.writeString(SUMMARY_CUSTOMER_ID, summary.getCustomerId());
+            }
+            for (Map.Entry<YearMonth, Integer> month : monthlyPoints.entrySet()) {
+                output.writeTag(SUMMARY_MONTHLY_POINTS, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+                output.writeUInt32NoTag(monthSize(month.getKey(), month.getValue()));
+                output.writeInt32(MONTH_YEAR, month.getKey().getYear());
+                output.writeInt32(MONTH_MONTH, month.getKey().getMonthValue());
+                if (month.getValue() != 0) {
+                    output.writeInt32(MONTH_POINTS, month.getValue());
+                }
+            }
+            if (summary.getTotalPoints() != 0) {
+                output.writeInt32(SUMMARY_TOTAL_POINTS, summary.getTotalPoints());
+            }
+            output.checkNoSpaceLeft();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode the reward summary of " + summary.getCustomerId(), e);
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes an encoded {@code RewardSummary} as one element of a {@code RewardSummaryList}.
+     *
+     * @param encodedSummary the summary, as returned by {@link #encode}
+     * @param outputStream   the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public static void writeListElement(byte[] encodedSummary, OutputStream outputStream) throws IOException {
+        CodedOutputStream output = CodedOutputStream.newInstance(outputStream, 16);
+        output.writeTag(LIST_SUMMARIES, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+        output.writeUInt32NoTag(encodedSummary.length);
+        output.flush();
+        outputStream.write(encodedSummary);
+    }
+
+    /**
+     * Decodes a {@code RewardSummary} message.
+     *
+     * @param bytes the encoded message
+     * @return the summary
+     * @throws IOException if the message is malformed
+     */
+    public static RewardSummary decode(byte[] bytes) throws IOException {
+        return decode(CodedInputStream.newInstance(bytes));
+    }
+
+    /**
+     * Decodes a {@code RewardSummaryList} message.
+     *
+     * @param bytes the encoded message
+     * @return the summaries, in order
+     * @throws IOException if the message is malformed
+     */
+    public static List<RewardSummary> decodeList(byte[] bytes) throws IOException {
+        CodedInputStream input = CodedInputStream.newInstance(bytes);
+        List<RewardSummary> summaries = new ArrayList<>();
+        for (int tag = input.readTag(); tag != 0; tag = input.readTag()) {
+            if (WireFormat.getTagFieldNumber(tag) == LIST_SUMMARIES) {
+                int limit = input.pushLimit(input.readRawVarint32());
+                summaries.add(decode(input));
+                input.popLimit(limit);
+            } else {
+                input.skipField(tag);
+            }
+        }
+        return summaries;
+    }
+
+    private static RewardSummary decode(CodedInputStream input) throws IOException {
+        RewardSummary summary = new RewardSummary("", new LinkedHashMap<>(), 0);
+        for (int tag = input.readTag(); tag != 0; tag = input.readTag()) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case SUMMARY_CUSTOMER_ID -> summary.setCustomerId(input.readString());
+                case SUMMARY_MONTHLY_POINTS -> {
+                    int limit = input.pushLimit(input.readRawVarint32());
+                    int year = 0;
+                    int month = 0;
+                    int points = 0;
+                    for (int monthTag = input.readTag(); monthTag != 0; monthTag = input.readTag()) {
+                        switch (WireFormat.getTagFieldNumber(monthTag)) {
+                            case MONTH_YEAR -> year = input.readInt32();
+                            case MONTH_MONTH -> month = input.readInt32();
+                            case MONTH_POINTS -> points = input.readInt32();
+                            default -> input.skipField(monthTag);
+                        }
+                    }
+                    input.popLimit(limit);
+                    summary.getMonthlyPoints().put(YearMonth.of(year, month), points);
+                }
+                case SUMMARY_TOTAL_POINTS -> summary.setTotalPoints(input.readInt32());
+                default -> input.skipField(tag);
+            }
+        }
+        return summary;
+    }
+
+    private static int monthSize(YearMonth month, int points) {
+        return CodedOutputStream.computeInt32Size(MONTH_YEAR, month.getYear())
+                + CodedOutputStream.computeInt32Size(MONTH_MONTH, month.getMonthValue())
+                + (points != 0 ? CodedOutputStream.computeInt32Size(MONTH_POINTS, points) : 0);
+    }
+}
@@ -0,0 +1,232 @@
+package com.customer.rewards.util;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holds transactions as primitive columns, one row per transaction, to answer per-customer reads
+ * without creating a {@code Transaction} per row.
+ * <p>
+ * Each row stores the date as an epoch millisecond ({@code long}), the amount in cents
+ * ({@code long}), the category as a code into a dictionary of category names ({@code int}) and
+ * the row of the customer's next transaction ({@code int}). A customer ID maps to the first and
+ * last row of the customer, so appending a transaction links it behind the customer's last row.
+ * Rows loaded in customer order are linked to the row that follows them, so a customer's rows
+ * are read sequentially. The columns live on the heap or, when created {@code offHeap}, in direct
+ * buffers outside it; they double in size when full, up to the most rows a buffer can address.
+ * Instances are not thread-safe.
+ * <p>
+ * Dates are kept to the millisecond rather than as epoch days: reward windows end at the current
+ * instant, so a day column could not leave out transactions dated later on the last day.
+ */
+public final class TransactionColumns {
+
+    /** Bytes per row: date, cents, category code and next row. */
+    public static final int ROW_BYTES = Long.BYTES + Long.BYTES + Integer.BYTES + Integer.BYTES;
+
+    /**
+     * Estimated bytes per customer besides its ID characters: the hash map entry, its table slot,
+     * the boxed slot number, the ID string and its array headers, and the first and last row.
+     */
+    private static final int CUSTOMER_OVERHEAD_BYTES = 32 + 4 + 16 + 24 + 16 + Integer.BYTES + Integer.BYTES;
+
+    private static final int NO_ROW = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /** The most rows of a heap buffer, and of a direct buffer, whose size in bytes is an {@code int}. */
+    private static final int MAX_HEAP_CAPACITY = Integer.MAX_VALUE - 8;
+    private static final int MAX_OFF_HEAP_CAPACITY = Integer.MAX_VALUE / Long.BYTES;
+
+    /** Receives the rows of one customer. */
+    @FunctionalInterface
+    public interface RowVisitor {
+
+        /**
+         * @param epochMilli the date of the transaction, encoded as an epoch millisecond
+         * @param cents      the amount in cents
+         * @param category   the category, or {@code null}
+         */
+        void visit(long epochMilli, long cents, String category);
+    }
+
+    /**
+     * The memory held by the columns.
+     *
+     * @param customers    the number of customers
+     * @param transactions the number of transactions
+     * @param bytes        the bytes allocated for the columns plus an estimate for the customer map
+     */
+    public record Footprint(int customers, int transactions, long bytes) {
+
+        /**
+         * @return the bytes held per transaction, or {@code 0} if there are none
+         */
+        public double bytesPerTransaction() {
+            return transactions > 0 ? (double) bytes / transactions : 0;
+        }
+    }
+
+    private final boolean offHeap;
+    private LongBuffer dates;
+    private LongBuffer cents;
+    private IntBuffer categories;
+    private IntBuffer nextRows;
+    private int capacity;
+    private int size;
+
+    private final Map<String, Integer> slotsByCustomer = new HashMap<>();
+    private int[] firstRows = new int[INITIAL_CAPACITY];
+    private int[] lastRows = new int[INITIAL_CAPACITY];
+    private long customerIdChars;
+
+    /** Category code 0 stands for no category. */
+    private final List<String> categoryNames = new ArrayList<>(List.of(""));
+    private final Map<String, Integer> categoryCodes = new HashMap<>();
+
+    /**
+     * Creates empty columns.
+     *
+     * @param offHeap whether to allocate the columns in direct buffers outside the heap
+     */
+    public TransactionColumns(boolean offHeap) {
+        this.offHeap = offHeap;
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Appends a transaction to a customer's rows, adding the customer first if needed.
+     *
+     * @param customerId the ID of the customer
+     * @param epochMilli the date of the transaction, encoded as an epoch millisecond
+     * @param cents      the amount in cents
+     * @param category   the category, or {@code null}
+     */
+    public void add(String customerId, long epochMilli, long cents, String category) {
+        if (size == capacity) {
+            allocate(grownCapacity(capacity, offHeap ? MAX_OFF_HEAP_CAPACITY : MAX_HEAP_CAPACITY));
+        }
+
+        int row = size++;
+        dates.put(row, epochMilli);
+        this.cents.put(row, cents);
+        categories.put(row, categoryCode(category));
+        nextRows.put(row, NO_ROW);
+
+        Integer slot = slotsByCustomer.get(customerId);
+        if (slot == null) {
+            slot = slotsByCustomer.size();
+            slotsByCustomer.put(customerId, slot);
+            customerIdChars += customerId.length();
+            if (slot == firstRows.length) {
+                firstRows = Arrays.copyOf(firstRows, grownCapacity(slot, MAX_HEAP_CAPACITY));
+                lastRows = Arrays.copyOf(lastRows, firstRows.length);
+            }
+            firstRows[slot] = row;
+        } else {
+            nextRows.put(lastRows[slot], row);
+        }
+        lastRows[slot] = row;
+    }
+
+    /**
+     * Visits the rows of a customer dated within an inclusive range, in the order they were added.
+     *
+     * @param customerId the ID of the customer
+     * @param fromMilli  the inclusive start of the range, as an epoch millisecond
+     * @param toMilli    the inclusive end of the range, as an epoch millisecond
+     * @param visitor    receives the rows within the range
+     * @return {@code false} if the customer is unknown
+     */
+    public boolean forEach(String customerId, long fromMilli, long toMilli, RowVisitor visitor) {
+        Integer slot = slotsByCustomer.get(customerId);
+        if (slot == null) {
+            return false;
+        }
+        for (int row = firstRows[slot]; row != NO_ROW; row = nextRows.get(row)) {
+            long date = dates.get(row);
+            if (date >= fromMilli && date <= toMilli) {
+                int category = categories.get(row);
+                visitor.visit(date, cents.get(row), category == 0 ? null : categoryNames.get(category));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of transactions
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the memory held by the columns
+     */
+    public Footprint footprint() {
+        int customers = slotsByCustomer.size();
+        long bytes = (long) capacity * ROW_BYTES
+                + (long) customers * CUSTOMER_OVERHEAD_BYTES + customerIdChars
+                + (long) (firstRows.length - customers) * 2 * Integer.BYTES;
+        return new Footprint(customers, size, bytes);
+    }
+
+    private int categoryCode(String category) {
+        if (category == null) {
+            return 0;
+        }
+        Integer code = categoryCodes.get(category);
+        if (code == null) {
+            code = categoryNames.size();
+            categoryNames.add(category);
+            categoryCodes.put(category, code);
+        }
+        return code;
+    }
+
+    /**
+     * Returns twice the capacity, or the maximum capacity if that is smaller.
+     *
+     * @throws IllegalStateException if the capacity already is the maximum
+     */
+    static int grownCapacity(int capacity, int maxCapacity) {
+        if (capacity >= maxCapacity) {
+            throw new IllegalStateException("Transaction columns hold at most " + maxCapacity + " rows");
+        }
+        return (int) Math.min((long) capacity * 2, maxCapacity);
+    }
+
+    /**
+     * Allocates columns of the given capacity and copies the existing rows into them.
+     */
+    private void allocate(int newCapacity) {
+        LongBuffer newDates = allocateLongs(newCapacity);
+        LongBuffer newCents = allocateLongs(newCapacity);
+        IntBuffer newCategories = allocateInts(newCapacity);
+        IntBuffer newNextRows = allocateInts(newCapacity);
+        if (size > 0) {
+            newDates.put(0, dates, 0, size);
+            newCents.put(0, cents, 0, size);
+            newCategories.put(0, categories, 0, size);
+            newNextRows.put(0, nextRows, 0, size);
+        }
+        dates = newDates;
+        cents = newCents;
+        categories = newCategories;
+        nextRows = newNextRows;
+        capacity = newCapacity;
+    }
+
+    private LongBuffer allocateLongs(int length) {
+        return offHeap ? ByteBuffer.allocateDirect(Math.toIntExact((long) length * Long.BYTES)).asLongBuffer() : LongBuffer.allocate(length);
+    }
+
+    private IntBuffer allocateInts(int length) {
+        return offHeap ? ByteBuffer.allocateDirect(Math.toIntExact((long) length * Integer.BYTES)).asIntBuffer() : IntBuffer.allocate(length);
+    }
+}
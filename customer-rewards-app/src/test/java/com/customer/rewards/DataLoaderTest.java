@@ -0,0 +1,43 @@
+package com.customer.rewards;
+
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link DataLoader}, using an embedded MongoDB.
+ */
+@SpringBootTest
+@Import(EmbeddedMongoConfig.class)
+class DataLoaderTest {
+
+    @Autowired
+    private DataLoader dataLoader;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    /**
+     * Should load the sample data into an empty database, and keep transactions written since then on the next run.
+     */
+    @Test
+    void shouldNotReplaceExistingTransactions() throws Exception {
+        transactionRepository.deleteAll();
+        dataLoader.run();
+        long loaded = transactionRepository.count();
+        assertTrue(loaded > 0, "The sample data should be loaded into an empty database");
+
+        Transaction written = transactionRepository.save(new Transaction(null, "api-cust", 120.0, LocalDateTime.now().minusDays(1)));
+        dataLoader.run();
+
+        assertEquals(loaded + 1, transactionRepository.count());
+        assertTrue(transactionRepository.existsById(written.getId()));
+    }
+}
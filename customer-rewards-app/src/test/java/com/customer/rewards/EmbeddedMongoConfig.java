@@ -0,0 +1,53 @@
+package com.customer.rewards;
+
+import com.customer.rewards.util.Constants;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Test configuration that replaces the MongoDB connection with an in-process, in-memory MongoDB server,
+ * so that Spring Boot tests do not need a running database.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class EmbeddedMongoConfig {
+
+    /**
+     * Starts an in-memory MongoDB server on a random local port.
+     *
+     * @return the running server
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public MongoServer mongoServer() {
+        MongoServer server = new MongoServer(new MemoryBackend());
+        server.bind();
+        return server;
+    }
+
+    /**
+     * Provides a {@link MongoClient} connected to the in-memory server.
+     *
+     * @param mongoServer the in-memory server
+     * @return a client for the in-memory server
+     */
+    @Bean(destroyMethod = "close")
+    public MongoClient mongoClient(MongoServer mongoServer) {
+        return MongoClients.create(mongoServer.getConnectionString());
+    }
+
+    /**
+     * Provides a reactive MongoDB client connected to the in-memory server, for the reactive stack.
+     *
+     * @param mongoServer the in-memory server
+     * @return a reactive client for the in-memory server
+     */
+    @Bean(destroyMethod = "close")
+    @Profile(Constants.REACTIVE_PROFILE)
+    public com.mongodb.reactivestreams.client.MongoClient reactiveMongoClient(MongoServer mongoServer) {
+        return com.mongodb.reactivestreams.client.MongoClients.create(mongoServer.getConnectionString());
+    }
+}
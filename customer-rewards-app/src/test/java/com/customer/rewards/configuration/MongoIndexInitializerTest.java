@@ -0,0 +1,59 @@
+package com.customer.rewards.configuration;
+
+import com.customer.rewards.EmbeddedMongoConfig;
+import com.customer.rewards.model.Transaction;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link MongoIndexInitializer} using an embedded MongoDB.
+ */
+@SpringBootTest
+@Import(EmbeddedMongoConfig.class)
+class MongoIndexInitializerTest {
+
+    @Autowired
+    private MongoIndexInitializer mongoIndexInitializer;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Should create the compound customer/date index on startup.
+     */
+    @Test
+    void shouldCreateDeclaredIndexesOnStartup() {
+        List<String> indexNames = mongoTemplate.indexOps(Transaction.class).getIndexInfo().stream()
+                .map(IndexInfo::getName)
+                .toList();
+
+        assertTrue(indexNames.contains(Transaction.CUSTOMER_DATE_INDEX), "Compound index should exist: " + indexNames);
+        assertTrue(mongoIndexInitializer.findMissingIndexes().isEmpty());
+    }
+
+    /**
+     * Should report a dropped index as missing, and recreate it on the next initialization.
+     */
+    @Test
+    void shouldReportMissingIndex() {
+        mongoTemplate.indexOps(Transaction.class).dropIndex(Transaction.CUSTOMER_DATE_INDEX);
+
+        Map<String, List<Document>> missingIndexes = mongoIndexInitializer.findMissingIndexes();
+
+        assertEquals(List.of(new Document("customerId", 1).append("date", 1).append("amount", 1).append("category", 1)),
+                missingIndexes.get("transactions"));
+
+        mongoIndexInitializer.initializeIndexes();
+        assertTrue(mongoIndexInitializer.findMissingIndexes().isEmpty());
+    }
+}
@@ -0,0 +1,24 @@
+package com.customer.rewards.configuration;
+
+import com.customer.rewards.rules.RewardRuleEngine;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link TransactionPartitionConfig}.
+ */
+class TransactionPartitionConfigTest {
+
+    /**
+     * Should refuse partitions that writes and per-customer reads would not use.
+     */
+    @Test
+    void shouldRefuseConfiguredPartitions() {
+        TransactionPartitionConfig config = new TransactionPartitionConfig();
+        assertThrows(IllegalStateException.class, () -> config.transactionPartitions(null, new RewardRuleEngine(null, null),
+                List.of("mongodb://localhost:27017/partition0", "mongodb://localhost:27018/partition1")));
+    }
+}
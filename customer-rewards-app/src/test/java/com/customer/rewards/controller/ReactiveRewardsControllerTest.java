@@ -0,0 +1,224 @@
+package com.customer.rewards.controller;
+
+import com.customer.rewards.EmbeddedMongoConfig;
+import com.customer.rewards.model.RewardSummary;
+import com.customer.rewards.model.RewardSummaryChanges;
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.repository.TransactionRepository;
+import com.customer.rewards.service.RewardService;
+import com.customer.rewards.util.Constants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * End-to-end tests of the reactive serving stack: WebFlux on Netty with reactive repositories,
+ * using an embedded MongoDB.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles(Constants.REACTIVE_PROFILE)
+@Import(EmbeddedMongoConfig.class)
+class ReactiveRewardsControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private RewardService rewardService;
+
+    private final LocalDateTime lastMonth = LocalDateTime.now().minusMonths(1).withDayOfMonth(15);
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAll();
+        transactionRepository.saveAll(List.of(
+                new Transaction(null, "cust1", 120.0, lastMonth),
+                new Transaction(null, "cust1", 80.0, lastMonth),
+                new Transaction(null, "cust2", 45.0, lastMonth),
+                new Transaction(null, "cust3", 200.0, lastMonth.minusYears(2))
+        ));
+    }
+
+    /**
+     * Should serve the reactive controller instead of the servlet one.
+     */
+    @Test
+    void shouldReplaceServletController() {
+        assertTrue(applicationContext.getBeansOfType(RewardsController.class).isEmpty());
+        assertEquals(1, applicationContext.getBeansOfType(ReactiveRewardsController.class).size());
+    }
+
+    /**
+     * Should return the same summary as the servlet stack.
+     */
+    @Test
+    void shouldReturnRewardSummary() {
+        RewardSummary summary = webTestClient.get().uri("/api/rewards/cust1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(RewardSummary.class)
+                .returnResult().getResponseBody();
+
+        assertNotNull(summary);
+        assertEquals(120, summary.getTotalPoints());
+        assertEquals(120, summary.getMonthlyPoints().get(YearMonth.from(lastMonth)));
+        assertEquals(rewardService.getRewardsByCustomer("cust1"), summary);
+    }
+
+    /**
+     * Should return an empty summary for a customer whose transactions all fall outside the window,
+     * and 404 for an unknown customer.
+     */
+    @Test
+    void shouldDistinguishInactiveFromUnknownCustomers() {
+        webTestClient.get().uri("/api/rewards/cust3")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.totalPoints").isEqualTo(0);
+
+        webTestClient.get().uri("/api/rewards/unknown")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.message").isEqualTo("No transactions found for customer: unknown");
+    }
+
+    /**
+     * Should reject malformed and inconsistent window parameters.
+     */
+    @Test
+    void shouldRejectInvalidWindowParameters() {
+        webTestClient.get().uri("/api/rewards/cust1?from=not-a-date")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        webTestClient.get().uri("/api/rewards/cust1?from=2024-01-01&months=2")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    /**
+     * Should stream all customers, as a JSON array and as NDJSON, matching the servlet stack.
+     */
+    @Test
+    void shouldStreamAllCustomerRewards() {
+        List<RewardSummary> expected = rewardService.getAllCustomerRewards();
+
+        List<RewardSummary> array = webTestClient.get().uri("/api/rewards/get-all-customer")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(RewardSummary.class)
+                .returnResult().getResponseBody();
+
+        List<RewardSummary> ndjson = webTestClient.get().uri("/api/rewards/get-all-customer/stream")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(RewardSummary.class)
+                .getResponseBody().collectList().block();
+
+        assertEquals(List.of("cust1", "cust2", "cust3"), expected.stream().map(RewardSummary::getCustomerId).toList());
+        assertEquals(expected, array);
+        assertEquals(expected, ndjson);
+    }
+
+    /**
+     * Should answer a request whose ETag still matches with 304, only for the media types it was tagged for.
+     */
+    @Test
+    void shouldAnswerNotModifiedWhileVersionIsUnchanged() {
+        String etag = webTestClient.get().uri("/api/rewards/cust1")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .returnResult(RewardSummary.class).getResponseHeaders().getETag();
+        assertNotNull(etag, "The response should carry an ETag");
+
+        webTestClient.get().uri("/api/rewards/cust1")
+                .accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+
+        webTestClient.get().uri("/api/rewards/cust1")
+                .accept(MediaType.ALL)
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isOk();
+
+        transactionRepository.save(new Transaction(null, "cust1", 70.0, lastMonth));
+        webTestClient.get().uri("/api/rewards/cust1")
+                .accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.totalPoints").isEqualTo(140);
+    }
+
+    /**
+     * Should list only the customers changed since the version of the previous response.
+     */
+    @Test
+    void shouldReturnChangesSinceVersion() {
+        RewardSummaryChanges all = webTestClient.get().uri("/api/rewards/get-all-customer/changes")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(RewardSummaryChanges.class)
+                .returnResult().getResponseBody();
+        assertNotNull(all);
+        assertFalse(all.isDelta());
+        assertEquals(3, all.getSummaries().size());
+
+        transactionRepository.save(new Transaction(null, "cust2", 70.0, lastMonth));
+        RewardSummaryChanges changes = webTestClient.get().uri("/api/rewards/get-all-customer/changes?since=" + all.getVersion())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(RewardSummaryChanges.class)
+                .returnResult().getResponseBody();
+        assertNotNull(changes);
+        assertTrue(changes.isDelta());
+        assertEquals(List.of("cust2"), changes.getSummaries().stream().map(RewardSummary::getCustomerId).toList());
+    }
+
+    /**
+     * Should serve the leaderboard and ledger endpoints, which block on MongoDB, from the reactive stack.
+     */
+    @Test
+    void shouldServeBlockingEndpointsOffTheEventLoop() {
+        webTestClient.get().uri("/api/rewards/leaderboard?size=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.entries[0].customerId").isEqualTo("cust1")
+                .jsonPath("$.entries.length()").isEqualTo(1);
+
+        webTestClient.get().uri("/api/rewards/leaderboard/unknown")
+                .exchange()
+                .expectStatus().isNotFound();
+
+        webTestClient.post().uri("/api/rewards/ledger/reconcile")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.expectedEntries").isNumber();
+    }
+}
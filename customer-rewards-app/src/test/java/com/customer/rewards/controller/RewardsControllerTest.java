@@ -1,31 +1,66 @@
 package com.customer.rewards.controller;
 
+import com.customer.rewards.EmbeddedMongoConfig;
 import com.customer.rewards.exception.CustomerNotFoundException;
+import com.customer.rewards.model.BatchRewardsRequest;
+import com.customer.rewards.model.BatchRewardsResponse;
 import com.customer.rewards.model.RewardSummary;
+import com.customer.rewards.model.RewardSummaryPage;
 import com.customer.rewards.service.RewardService;
+import com.customer.rewards.service.RewardWindow;
+import com.customer.rewards.util.RewardSummaryProtobuf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.time.Month;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 
 /**
  * Integration-style test for {@link RewardsController} using Spring context.
  */
 @SpringBootTest
+@AutoConfigureMockMvc
+@Import(EmbeddedMongoConfig.class)
 class RewardsControllerTest {
 
     @Autowired
     private RewardsController rewardsController;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MockMvc mockMvc;
+
     @MockBean
     private RewardService rewardService;
 
@@ -36,23 +71,24 @@ class RewardsControllerTest {
     void shouldReturnRewardSummary_WhenCustomerIdIsValid() {
         // Arrange
         String customerId = "CUST123";
-        Map<Month, Integer> monthlyPoints = new HashMap<>();
-        monthlyPoints.put(Month.JANUARY, 120);
-        monthlyPoints.put(Month.FEBRUARY, 50);
+        Map<YearMonth, Integer> monthlyPoints = new HashMap<>();
+        monthlyPoints.put(YearMonth.of(2024, 1), 120);
+        monthlyPoints.put(YearMonth.of(2024, 2), 50);
 
         RewardSummary expectedSummary = new RewardSummary(customerId, monthlyPoints, 170);
+        when(rewardService.rewardWindow(null, null, null)).thenReturn(new RewardWindow(LocalDateTime.now(), LocalDateTime.now()));
         when(rewardService.getRewardsByCustomer(customerId)).thenReturn(expectedSummary);
 
         // Act
-        RewardSummary actualSummary = rewardsController.getRewards(customerId);
+        RewardSummary actualSummary = rewardsController.getRewards(customerId, null, null, null, new ServletWebRequest(new MockHttpServletRequest()), new MockHttpServletResponse());
 
         // Assert
         assertNotNull(actualSummary, "Reward summary should not be null");
         assertEquals(customerId, actualSummary.getCustomerId(), "Customer ID should match");
         assertEquals(170, actualSummary.getTotalPoints(), "Total points should match");
         assertEquals(2, actualSummary.getMonthlyPoints().size(), "Monthly points should contain 2 entries");
-        assertEquals(120, actualSummary.getMonthlyPoints().get(Month.JANUARY));
-        assertEquals(50, actualSummary.getMonthlyPoints().get(Month.FEBRUARY));
+        assertEquals(120, actualSummary.getMonthlyPoints().get(YearMonth.of(2024, 1)));
+        assertEquals(50, actualSummary.getMonthlyPoints().get(YearMonth.of(2024, 2)));
 
         verify(rewardService, times(1)).getRewardsByCustomer(customerId);
     }
@@ -63,21 +99,23 @@ class RewardsControllerTest {
     @Test
     void shouldReturnAllCustomerRewards() {
         // Arrange
-        Map<Month, Integer> monthlyPoints1 = new HashMap<>();
-        monthlyPoints1.put(Month.JANUARY, 120);
-        monthlyPoints1.put(Month.FEBRUARY, 50);
+        Map<YearMonth, Integer> monthlyPoints1 = new HashMap<>();
+        monthlyPoints1.put(YearMonth.of(2024, 1), 120);
+        monthlyPoints1.put(YearMonth.of(2024, 2), 50);
 
-        Map<Month, Integer> monthlyPoints2 = new HashMap<>();
-        monthlyPoints2.put(Month.JANUARY, 80);
-        monthlyPoints2.put(Month.FEBRUARY, 30);
+        Map<YearMonth, Integer> monthlyPoints2 = new HashMap<>();
+        monthlyPoints2.put(YearMonth.of(2024, 1), 80);
+        monthlyPoints2.put(YearMonth.of(2024, 2), 30);
 
         RewardSummary summary1 = new RewardSummary("CUST123", monthlyPoints1, 170);
         RewardSummary summary2 = new RewardSummary("CUST456", monthlyPoints2, 110);
 
-        when(rewardService.getAllCustomerRewards()).thenReturn(List.of(summary1, summary2));
+        RewardWindow window = new RewardWindow(LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 2, 20, 12, 0));
+        when(rewardService.rewardWindow(null, null, null)).thenReturn(window);
+        when(rewardService.getAllCustomerRewards(window)).thenReturn(List.of(summary1, summary2));
 
         // Act
-        List<RewardSummary> actualSummaries = rewardsController.getAllCustomerRewards();
+        List<RewardSummary> actualSummaries = rewardsController.getAllCustomerRewards(null, null, null, new ServletWebRequest(new MockHttpServletRequest()), new MockHttpServletResponse());
 
         // Assert
         assertNotNull(actualSummaries, "Reward summaries should not be null");
@@ -87,7 +125,7 @@ class RewardsControllerTest {
         assertEquals("CUST456", actualSummaries.get(1).getCustomerId(), "Second customer ID should match");
         assertEquals(110, actualSummaries.get(1).getTotalPoints(), "Second total points should match");
 
-        verify(rewardService, times(1)).getAllCustomerRewards();
+        verify(rewardService, times(1)).getAllCustomerRewards(window);
     }
 
     /**
@@ -96,16 +134,39 @@ class RewardsControllerTest {
     @Test
     void shouldHandleNoCustomerRewards() {
         // Arrange
-        when(rewardService.getAllCustomerRewards()).thenReturn(List.of());
+        RewardWindow window = new RewardWindow(LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 2, 20, 12, 0));
+        when(rewardService.rewardWindow(null, null, 1)).thenReturn(window);
+        when(rewardService.getAllCustomerRewards(window)).thenReturn(List.of());
 
         // Act
-        List<RewardSummary> actualSummaries = rewardsController.getAllCustomerRewards();
+        List<RewardSummary> actualSummaries = rewardsController.getAllCustomerRewards(null, null, 1, new ServletWebRequest(new MockHttpServletRequest()), new MockHttpServletResponse());
 
         // Assert
         assertNotNull(actualSummaries, "Reward summaries should not be null");
         assertTrue(actualSummaries.isEmpty(), "Reward summaries should be empty");
 
-        verify(rewardService, times(1)).getAllCustomerRewards();
+        verify(rewardService, times(1)).getAllCustomerRewards(window);
+    }
+
+    /**
+     * Should compute a customer's summary over the requested window, bypassing the cached default.
+     */
+    @Test
+    void shouldReturnRewardSummaryForRequestedWindow() {
+        // Arrange
+        LocalDate from = LocalDate.of(2023, 11, 1);
+        LocalDate to = LocalDate.of(2024, 1, 31);
+        RewardWindow window = new RewardWindow(from.atStartOfDay(), to.atTime(LocalTime.MAX));
+        RewardSummary expectedSummary = new RewardSummary("CUST123", Map.of(YearMonth.of(2023, 12), 40), 40);
+        when(rewardService.rewardWindow(from, to, null)).thenReturn(window);
+        when(rewardService.getRewardsByCustomer("CUST123", window)).thenReturn(expectedSummary);
+
+        // Act
+        RewardSummary actualSummary = rewardsController.getRewards("CUST123", from, to, null, new ServletWebRequest(new MockHttpServletRequest()), new MockHttpServletResponse());
+
+        // Assert
+        assertEquals(expectedSummary, actualSummary);
+        verify(rewardService, never()).getRewardsByCustomer("CUST123");
     }
 
     /**
@@ -115,15 +176,152 @@ class RewardsControllerTest {
     void shouldHandleInvalidCustomerId() {
         // Arrange
         String invalidCustomerId = "INVALID123";
+        when(rewardService.rewardWindow(null, null, null)).thenReturn(new RewardWindow(LocalDateTime.now(), LocalDateTime.now()));
         when(rewardService.getRewardsByCustomer(invalidCustomerId)).thenThrow(new CustomerNotFoundException("No transactions found for customer: " + invalidCustomerId));
 
         // Act & Assert
         CustomerNotFoundException exception = assertThrows(
                 CustomerNotFoundException.class,
-                () -> rewardsController.getRewards(invalidCustomerId)
+                () -> rewardsController.getRewards(invalidCustomerId, null, null, null, new ServletWebRequest(new MockHttpServletRequest()), new MockHttpServletResponse())
         );
 
         assertEquals("No transactions found for customer: " + invalidCustomerId, exception.getMessage());
         verify(rewardService, times(1)).getRewardsByCustomer(invalidCustomerId);
     }
+
+    /**
+     * Should write one JSON summary per line when streaming all customers.
+     */
+    @Test
+    void shouldStreamAllCustomerRewardsAsNdjson() throws Exception {
+        // Arrange
+        RewardSummary summary1 = new RewardSummary("CUST123", Map.of(YearMonth.of(2024, 1), 120), 120);
+        RewardSummary summary2 = new RewardSummary("CUST456", Map.of(), 0);
+        when(rewardService.streamAllCustomerRewards()).thenReturn(Stream.of(summary1, summary2));
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = rewardsController.streamAllCustomerRewards();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        response.getBody().writeTo(output);
+
+        // Assert
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length, "There should be one line per customer");
+        assertTrue(lines[1].startsWith("{"), "Lines after the first should not start with a root value separator");
+        assertTrue(lines[0].contains("\"monthlyPoints\":{\"2024-01\":120}"), "Months should be written as yyyy-MM keys");
+        assertEquals(summary1, objectMapper.readValue(lines[0], RewardSummary.class));
+        assertEquals(summary2, objectMapper.readValue(lines[1], RewardSummary.class));
+    }
+
+    /**
+     * Should return the page produced by the service.
+     */
+    @Test
+    void shouldReturnCustomerRewardsPage() {
+        // Arrange
+        RewardSummaryPage expectedPage = new RewardSummaryPage(List.of(new RewardSummary("CUST123", Map.of(), 0)), "token");
+        when(rewardService.getCustomerRewardsPage("previous", 1)).thenReturn(expectedPage);
+
+        // Act
+        RewardSummaryPage actualPage = rewardsController.getCustomerRewardsPage("previous", 1);
+
+        // Assert
+        assertEquals(expectedPage, actualPage);
+        verify(rewardService, times(1)).getCustomerRewardsPage("previous", 1);
+    }
+
+    /**
+     * Should return the batch response produced by the service.
+     */
+    @Test
+    void shouldReturnBatchRewards() {
+        // Arrange
+        List<String> customerIds = List.of("CUST123", "UNKNOWN");
+        BatchRewardsResponse expectedResponse = new BatchRewardsResponse(
+                Map.of("CUST123", new RewardSummary("CUST123", Map.of(YearMonth.of(2024, 1), 120), 120)), List.of("UNKNOWN"));
+        when(rewardService.getRewardsByCustomers(customerIds)).thenReturn(expectedResponse);
+
+        // Act
+        BatchRewardsResponse actualResponse = rewardsController.getBatchRewards(new BatchRewardsRequest(customerIds));
+
+        // Assert
+        assertEquals(expectedResponse, actualResponse);
+        verify(rewardService, times(1)).getRewardsByCustomers(customerIds);
+    }
+
+    /**
+     * Should answer with the format of the Accept header, and with JSON when any type is accepted.
+     */
+    @Test
+    void shouldNegotiateResponseFormat() throws Exception {
+        // Arrange
+        RewardSummary summary = new RewardSummary("CUST123", Map.of(YearMonth.of(2024, 1), 120), 120);
+        when(rewardService.getRewardsByCustomer("CUST123")).thenReturn(summary);
+        when(rewardService.rewardWindow(null, null, null)).thenReturn(new RewardWindow(LocalDateTime.now(), LocalDateTime.now()));
+        when(rewardService.getAllCustomerRewards(any())).thenReturn(List.of(summary));
+
+        // Act
+        MvcResult json = mockMvc.perform(get("/api/rewards/CUST123").accept(MediaType.ALL)).andReturn();
+        MvcResult cbor = mockMvc.perform(get("/api/rewards/CUST123").accept(MediaType.APPLICATION_CBOR)).andReturn();
+        MvcResult protobuf = mockMvc.perform(get("/api/rewards/get-all-customer").accept("application/x-protobuf")).andReturn();
+
+        // Assert
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, json.getResponse().getContentType());
+        assertEquals(summary, objectMapper.readValue(json.getResponse().getContentAsByteArray(), RewardSummary.class));
+        assertEquals(MediaType.APPLICATION_CBOR_VALUE, cbor.getResponse().getContentType());
+        assertEquals(summary, new CBORMapper().findAndRegisterModules().readValue(cbor.getResponse().getContentAsByteArray(), RewardSummary.class));
+        assertEquals("application/x-protobuf", protobuf.getResponse().getContentType());
+        assertEquals(List.of(summary), RewardSummaryProtobuf.decodeList(protobuf.getResponse().getContentAsByteArray()));
+    }
+
+    /**
+     * Should answer a request whose ETag still matches with 304, without computing the summary again.
+     */
+    @Test
+    void shouldAnswerNotModifiedWhileVersionIsUnchanged() throws Exception {
+        // Arrange
+        RewardSummary summary = new RewardSummary("CUST123", Map.of(YearMonth.of(2024, 1), 120), 120);
+        when(rewardService.getRewardsByCustomer("CUST123")).thenReturn(summary);
+        when(rewardService.rewardWindow(null, null, null)).thenReturn(new RewardWindow(LocalDateTime.now(), LocalDateTime.now()));
+
+        // Act
+        MvcResult first = mockMvc.perform(get("/api/rewards/CUST123")).andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        MvcResult second = mockMvc.perform(get("/api/rewards/CUST123").header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn();
+
+        // Assert
+        assertEquals(200, first.getResponse().getStatus());
+        assertNotNull(etag, "The response should carry an ETag");
+        assertEquals(304, second.getResponse().getStatus());
+        assertEquals(0, second.getResponse().getContentLength());
+        verify(rewardService, times(1)).getRewardsByCustomer("CUST123");
+    }
+
+    /**
+     * Should give each negotiated format its own ETag, so that a 304 is only sent for the format the client holds.
+     */
+    @Test
+    void shouldTagEachFormatSeparately() throws Exception {
+        // Arrange
+        RewardSummary summary = new RewardSummary("CUST123", Map.of(YearMonth.of(2024, 1), 120), 120);
+        when(rewardService.getAllCustomerRewards(any())).thenReturn(List.of(summary));
+        when(rewardService.rewardWindow(null, null, null)).thenReturn(new RewardWindow(LocalDateTime.now(), LocalDateTime.now()));
+
+        // Act
+        MvcResult json = mockMvc.perform(get("/api/rewards/get-all-customer").accept(MediaType.APPLICATION_JSON)).andReturn();
+        String etag = json.getResponse().getHeader(HttpHeaders.ETAG);
+        MvcResult cbor = mockMvc.perform(get("/api/rewards/get-all-customer").accept(MediaType.APPLICATION_CBOR)
+                .header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn();
+        MvcResult unchanged = mockMvc.perform(get("/api/rewards/get-all-customer").accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn();
+
+        // Assert
+        assertEquals(200, cbor.getResponse().getStatus());
+        assertEquals(MediaType.APPLICATION_CBOR_VALUE, cbor.getResponse().getContentType());
+        assertNotEquals(etag, cbor.getResponse().getHeader(HttpHeaders.ETAG));
+        assertEquals(304, unchanged.getResponse().getStatus());
+        assertTrue(json.getResponse().getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT));
+        assertTrue(unchanged.getResponse().getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT));
+    }
 }
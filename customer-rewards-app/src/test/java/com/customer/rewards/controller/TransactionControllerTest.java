@@ -0,0 +1,145 @@
+package com.customer.rewards.controller;
+
+import com.customer.rewards.EmbeddedMongoConfig;
+import com.customer.rewards.exception.TransactionBufferFullException;
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.service.TransactionIngestService;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Integration-style test for {@link TransactionController} using Spring context.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(EmbeddedMongoConfig.class)
+class TransactionControllerTest {
+
+    private static final String TRANSACTION = """
+            { "id": "txn1", "customerId": "CUST123", "amount": 120.0, "date": "2024-01-15T10:00:00" }""";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private TransactionIngestService transactionIngestService;
+
+    /**
+     * Should answer 201 with the transaction once its batch is committed.
+     */
+    @Test
+    void shouldReturnCreatedOnceCommitted() throws Exception {
+        // Arrange
+        Transaction transaction = new Transaction("txn1", "CUST123", 120.0, LocalDateTime.of(2024, 1, 15, 10, 0));
+        when(transactionIngestService.submit(List.of(transaction))).thenReturn(CompletableFuture.completedFuture(
+                new TransactionIngestService.Acknowledgement(List.of(transaction), List.of(), List.of())));
+
+        // Act
+        MvcResult result = postTransaction(TRANSACTION);
+
+        // Assert
+        assertEquals(201, result.getResponse().getStatus());
+        assertEquals(transaction, objectMapper.readValue(result.getResponse().getContentAsByteArray(), Transaction.class));
+    }
+
+    /**
+     * Should answer 409 when another transaction is stored with the same ID.
+     */
+    @Test
+    void shouldReturnConflictWhenIdIsTaken() throws Exception {
+        // Arrange
+        when(transactionIngestService.submit(anyList())).thenReturn(CompletableFuture.completedFuture(
+                new TransactionIngestService.Acknowledgement(List.of(), List.of(), List.of("txn1"))));
+
+        // Act
+        MvcResult result = postTransaction(TRANSACTION);
+
+        // Assert
+        assertEquals(409, result.getResponse().getStatus());
+        assertEquals("Another transaction is stored with ID txn1", message(result));
+    }
+
+    /**
+     * Should answer 503 when the write buffer is full.
+     */
+    @Test
+    void shouldReturnServiceUnavailableWhenBufferIsFull() throws Exception {
+        // Arrange
+        when(transactionIngestService.submit(anyList())).thenThrow(new TransactionBufferFullException("Transaction write buffer is full; retry later"));
+
+        // Act
+        MvcResult result = postTransaction(TRANSACTION);
+
+        // Assert
+        assertEquals(503, result.getResponse().getStatus());
+        assertEquals("Transaction write buffer is full; retry later", message(result));
+    }
+
+    /**
+     * Should answer 400 without submitting a transaction that fails validation.
+     */
+    @Test
+    void shouldRejectInvalidTransaction() throws Exception {
+        // Act
+        MvcResult result = postTransaction("""
+                { "customerId": " ", "amount": 120.0 }""");
+
+        // Assert
+        assertEquals(400, result.getResponse().getStatus());
+        assertTrue(message(result).contains("customerId must not be blank"), "The message should name the invalid field");
+        assertTrue(message(result).contains("date must not be null"), "The message should name the missing field");
+        verifyNoInteractions(transactionIngestService);
+    }
+
+    /**
+     * Should answer 400 for a malformed body and 415 for an unsupported content type, instead of 500.
+     */
+    @Test
+    void shouldRejectUnreadableRequests() throws Exception {
+        // Act
+        MvcResult malformed = postTransaction("{ \"customerId\": ");
+        MvcResult plainText = mockMvc.perform(post("/api/transactions").contentType(MediaType.TEXT_PLAIN).content(TRANSACTION)).andReturn();
+
+        // Assert
+        assertEquals(400, malformed.getResponse().getStatus());
+        assertEquals("Malformed request body", message(malformed));
+        assertEquals(415, plainText.getResponse().getStatus());
+        verifyNoInteractions(transactionIngestService);
+    }
+
+    /**
+     * Posts a transaction and, if the request was acknowledged asynchronously, waits for the outcome.
+     */
+    private MvcResult postTransaction(String body) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/transactions").contentType(MediaType.APPLICATION_JSON).content(body)).andReturn();
+        return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)).andReturn() : result;
+    }
+
+    private String message(MvcResult result) throws Exception {
+        JsonNode error = objectMapper.readTree(result.getResponse().getContentAsByteArray());
+        return error.get("message").asText();
+    }
+}
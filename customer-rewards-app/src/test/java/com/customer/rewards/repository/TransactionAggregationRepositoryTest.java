@@ -0,0 +1,318 @@
+package com.customer.rewards.repository;
+
+import com.customer.rewards.EmbeddedMongoConfig;
+import com.customer.rewards.model.RewardCampaign;
+import com.customer.rewards.model.RewardRuleSet;
+import com.customer.rewards.model.RewardSummary;
+import com.customer.rewards.model.RewardTier;
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.rules.RewardRuleEngine;
+import com.customer.rewards.service.RewardService;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Verifies the aggregation pipeline of {@link TransactionAggregationRepository} against
+ * the per-customer calculation of {@link RewardService}, using an embedded MongoDB.
+ * <p>
+ * The embedded server is mongo-java-server, not a real {@code mongod}: Flapdoodle downloads the
+ * server binaries when the tests start, which offline builds cannot do. That is enough for this
+ * test, because what it checks is the pipeline's arithmetic, not server internals. The pipeline
+ * only uses {@code $match}, {@code $project} with {@code $cond}, {@code $and}, comparison,
+ * arithmetic and {@code $year}/{@code $month} (with a timezone) expressions, {@code $group} with
+ * {@code $sum}/{@code $count} and an explicit {@code $sort}. mongo-java-server evaluates each of
+ * these as the server documents them, on IEEE doubles like the Java scorer, and nothing in the
+ * result depends on indexes, collation or the storage engine.
+ */
+@SpringBootTest
+@Import(EmbeddedMongoConfig.class)
+class TransactionAggregationRepositoryTest {
+
+    private static final double[] BOUNDARY_AMOUNTS = {-50.0, 0.0, 49.99, 50.0, 50.01, 99.99, 100.0, 100.01, 100.07, 100.5, 100.55, 180.59, 1000.0};
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private RewardService rewardService;
+
+    @Autowired
+    private RewardRuleEngine rewardRuleEngine;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void clearTransactions() {
+        transactionRepository.deleteAll();
+    }
+
+    /**
+     * Should produce exactly the same summaries as the per-customer calculation.
+     */
+    @Test
+    void shouldMatchPerCustomerCalculation() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        Random random = new Random(42);
+        List<Transaction> transactions = new ArrayList<>();
+
+        for (int customer = 0; customer < 25; customer++) {
+            for (int i = 0; i < 40; i++) {
+                // Spread dates from six months back to one month ahead, keeping clear of "now" itself
+                LocalDateTime date = now.minusDays(random.nextInt(210) - 30).minusHours(1 + random.nextInt(12));
+                double amount = random.nextInt(4) == 0
+                        ? BOUNDARY_AMOUNTS[random.nextInt(BOUNDARY_AMOUNTS.length)]
+                        : Math.round(random.nextDouble() * 30000) / 100.0;
+                transactions.add(new Transaction(null, "cust" + customer, amount, date));
+            }
+        }
+        // A customer with only old transactions still gets an empty summary
+        transactions.add(new Transaction(null, "dormant", 150.0, now.minusMonths(8)));
+        transactionRepository.saveAll(transactions);
+
+        Map<String, RewardSummary> aggregated = rewardService.getAllCustomerRewards().stream()
+                .collect(Collectors.toMap(RewardSummary::getCustomerId, Function.identity()));
+
+        assertEquals(26, aggregated.size());
+        for (String customerId : aggregated.keySet()) {
+            assertEquals(rewardService.getRewardsByCustomer(customerId), aggregated.get(customerId),
+                    "Aggregated summary should match per-customer summary for " + customerId);
+        }
+        assertEquals(0, aggregated.get("dormant").getTotalPoints());
+        assertTrue(aggregated.get("dormant").getMonthlyPoints().isEmpty());
+    }
+
+    /**
+     * Should follow category tier tables and campaigns exactly like the per-customer calculation.
+     */
+    @Test
+    void shouldMatchPerCustomerCalculationUnderCustomRules() {
+        LocalDate today = LocalDate.now();
+        rewardRuleEngine.update(RewardRuleSet.builder()
+                .tiers(List.of(new RewardTier(25.5, 1), new RewardTier(75, 2), new RewardTier(150, 3)))
+                .categoryTiers(Map.of("grocery", List.of(new RewardTier(0, 2)), "fuel", List.of()))
+                .campaigns(List.of(
+                        new RewardCampaign("double days", 2.0, today.minusDays(20), today.minusDays(5), null),
+                        new RewardCampaign("grocery boost", 1.33, today.minusDays(60), today, "grocery")))
+                .build());
+        try {
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+            Random random = new Random(7);
+            String[] categories = {null, "grocery", "fuel", "travel"};
+            List<Transaction> transactions = new ArrayList<>();
+            for (int customer = 0; customer < 20; customer++) {
+                for (int i = 0; i < 30; i++) {
+                    LocalDateTime date = now.minusDays(random.nextInt(100)).minusHours(1 + random.nextInt(12));
+                    double amount = random.nextInt(4) == 0
+                            ? BOUNDARY_AMOUNTS[random.nextInt(BOUNDARY_AMOUNTS.length)]
+                            : Math.round(random.nextDouble() * 30000) / 100.0;
+                    transactions.add(new Transaction(null, "cust" + customer, amount, date, categories[random.nextInt(categories.length)]));
+                }
+            }
+            transactionRepository.saveAll(transactions);
+
+            for (RewardSummary summary : rewardService.getAllCustomerRewards()) {
+                assertEquals(rewardService.getRewardsByCustomer(summary.getCustomerId()), summary,
+                        "Aggregated summary should match per-customer summary for " + summary.getCustomerId());
+            }
+        } finally {
+            rewardRuleEngine.update(RewardRuleSet.defaults());
+        }
+    }
+
+    /**
+     * Should return summaries ordered by customer ID.
+     */
+    @Test
+    void shouldOrderSummariesByCustomerId() {
+        LocalDateTime date = LocalDateTime.now().minusDays(1);
+        transactionRepository.saveAll(List.of(
+                new Transaction(null, "custB", 120.0, date),
+                new Transaction(null, "custA", 75.0, date),
+                new Transaction(null, "custB", 60.0, date)
+        ));
+
+        List<RewardSummary> summaries = transactionRepository.aggregateRewardSummaries(date.minusMonths(3), LocalDateTime.now());
+
+        assertEquals(List.of("custA", "custB"), summaries.stream().map(RewardSummary::getCustomerId).toList());
+        assertEquals(25, summaries.get(0).getTotalPoints());
+        assertEquals(100, summaries.get(1).getTotalPoints());
+        assertEquals(100, summaries.get(1).getMonthlyPoints().get(YearMonth.from(date)));
+    }
+
+    /**
+     * Should keep the same month of different years apart and list months chronologically
+     * when the window spans a year boundary.
+     */
+    @Test
+    void shouldKeyMonthlyPointsByYearAndMonth() {
+        transactionRepository.saveAll(List.of(
+                new Transaction(null, "cust1", 75.0, LocalDateTime.of(2025, 1, 10, 12, 0)),
+                new Transaction(null, "cust1", 120.0, LocalDateTime.of(2025, 12, 5, 12, 0)),
+                new Transaction(null, "cust1", 60.0, LocalDateTime.of(2026, 1, 20, 12, 0))
+        ));
+
+        List<RewardSummary> summaries = transactionRepository.aggregateRewardSummaries(
+                LocalDateTime.of(2025, 1, 1, 0, 0), LocalDateTime.of(2026, 1, 31, 23, 59));
+
+        assertEquals(1, summaries.size());
+        assertEquals(List.of(YearMonth.of(2025, 1), YearMonth.of(2025, 12), YearMonth.of(2026, 1)),
+                List.copyOf(summaries.get(0).getMonthlyPoints().keySet()));
+        assertEquals(25, summaries.get(0).getMonthlyPoints().get(YearMonth.of(2025, 1)));
+        assertEquals(10, summaries.get(0).getMonthlyPoints().get(YearMonth.of(2026, 1)));
+        assertEquals(125, summaries.get(0).getTotalPoints());
+    }
+
+    /**
+     * Should return no summaries for an empty collection.
+     */
+    @Test
+    void shouldReturnEmptyListWhenNoTransactions() {
+        assertTrue(transactionRepository.aggregateRewardSummaries(LocalDateTime.now().minusMonths(3), LocalDateTime.now()).isEmpty());
+    }
+
+    /**
+     * Should stream the same summaries as the list-based aggregation.
+     */
+    @Test
+    void shouldStreamSameSummariesAsList() {
+        LocalDateTime date = LocalDateTime.now().minusDays(2);
+        transactionRepository.saveAll(List.of(
+                new Transaction(null, "custC", 150.0, date),
+                new Transaction(null, "custA", 75.0, date),
+                new Transaction(null, "custB", 60.0, date.minusMonths(1)),
+                new Transaction(null, "custA", 110.0, date.minusMonths(1))
+        ));
+        LocalDateTime windowStart = date.minusMonths(3);
+        LocalDateTime windowEnd = LocalDateTime.now();
+
+        List<RewardSummary> streamed;
+        try (Stream<RewardSummary> summaries = transactionRepository.streamRewardSummaries(windowStart, windowEnd)) {
+            streamed = summaries.toList();
+        }
+
+        assertEquals(transactionRepository.aggregateRewardSummaries(windowStart, windowEnd), streamed);
+        assertEquals(List.of("custA", "custB", "custC"), streamed.stream().map(RewardSummary::getCustomerId).toList());
+    }
+
+    /**
+     * Should fold a sorted cursor scan of the transactions into the same summaries as the aggregation pipeline.
+     */
+    @Test
+    void shouldScanSameSummariesAsAggregation() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        Random random = new Random(11);
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            LocalDateTime date = now.minusDays(random.nextInt(240) - 20).minusHours(1 + random.nextInt(12));
+            double amount = BOUNDARY_AMOUNTS[random.nextInt(BOUNDARY_AMOUNTS.length)];
+            transactions.add(new Transaction(null, "cust" + random.nextInt(30), amount, date));
+        }
+        transactions.add(new Transaction(null, "dormant", 150.0, now.minusMonths(8)));
+        transactionRepository.saveAll(transactions);
+        LocalDateTime windowStart = YearMonth.from(now).minusMonths(3).atDay(1).atStartOfDay();
+
+        List<RewardSummary> scanned;
+        try (Stream<RewardSummary> summaries = transactionRepository.scanRewardSummaries(windowStart, now)) {
+            scanned = summaries.toList();
+        }
+
+        assertEquals(transactionRepository.aggregateRewardSummaries(windowStart, now), scanned);
+        assertEquals(0, scanned.stream().filter(summary -> summary.getCustomerId().equals("dormant")).findFirst().orElseThrow().getTotalPoints());
+    }
+
+    /**
+     * Should page through distinct customer IDs in ascending order.
+     */
+    @Test
+    void shouldFindCustomerIdsAfterGivenId() {
+        LocalDateTime date = LocalDateTime.now().minusDays(1);
+        transactionRepository.saveAll(List.of(
+                new Transaction(null, "cust3", 80.0, date),
+                new Transaction(null, "cust1", 80.0, date),
+                new Transaction(null, "cust2", 80.0, date),
+                new Transaction(null, "cust1", 90.0, date)
+        ));
+
+        assertEquals(List.of("cust1", "cust2"), transactionRepository.findCustomerIdsAfter(null, 2));
+        assertEquals(List.of("cust3"), transactionRepository.findCustomerIdsAfter("cust2", 2));
+        assertTrue(transactionRepository.findCustomerIdsAfter("cust3", 2).isEmpty());
+    }
+
+    /**
+     * Should sort on the indexed customer ID before grouping, so that the server can read one index
+     * key per customer instead of every transaction.
+     */
+    @Test
+    void shouldSortCustomerIdsBeforeGrouping() {
+        MongoTemplate template = spy(mongoTemplate);
+        new TransactionAggregationRepositoryImpl(template, rewardRuleEngine).findCustomerIdsAfter("cust1", 2);
+
+        ArgumentCaptor<TypedAggregation<Transaction>> aggregation = ArgumentCaptor.captor();
+        verify(template).aggregate(aggregation.capture(), eq(Document.class));
+        List<Document> pipeline = aggregation.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+        assertEquals(List.of("$match", "$sort", "$group", "$sort", "$limit"),
+                pipeline.stream().map(stage -> stage.keySet().iterator().next()).toList());
+        assertEquals(new Document("customerId", 1), pipeline.get(1).get("$sort"));
+    }
+
+    /**
+     * Should stream distinct customer IDs in ascending order.
+     */
+    @Test
+    void shouldStreamDistinctCustomerIds() {
+        LocalDateTime date = LocalDateTime.now().minusDays(1);
+        transactionRepository.saveAll(List.of(
+                new Transaction(null, "cust2", 80.0, date),
+                new Transaction(null, "cust1", 80.0, date),
+                new Transaction(null, "cust2", 90.0, date)
+        ));
+
+        try (Stream<String> customerIds = transactionRepository.streamCustomerIds()) {
+            assertEquals(List.of("cust1", "cust2"), customerIds.toList());
+        }
+    }
+
+    /**
+     * Should compute summaries only for the requested customers.
+     */
+    @Test
+    void shouldAggregateOnlyRequestedCustomers() {
+        LocalDateTime date = LocalDateTime.now().minusDays(1);
+        transactionRepository.saveAll(List.of(
+                new Transaction(null, "cust1", 120.0, date),
+                new Transaction(null, "cust2", 80.0, date),
+                new Transaction(null, "cust3", 200.0, date)
+        ));
+
+        List<RewardSummary> summaries = transactionRepository.aggregateRewardSummaries(
+                List.of("cust1", "cust3", "unknown"), date.minusMonths(3), LocalDateTime.now());
+
+        assertEquals(List.of("cust1", "cust3"), summaries.stream().map(RewardSummary::getCustomerId).toList());
+        assertEquals(90, summaries.get(0).getTotalPoints());
+        assertEquals(250, summaries.get(1).getTotalPoints());
+    }
+}
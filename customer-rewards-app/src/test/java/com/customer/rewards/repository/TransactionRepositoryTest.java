@@ -0,0 +1,63 @@
+package com.customer.rewards.repository;
+
+import com.customer.rewards.EmbeddedMongoConfig;
+import com.customer.rewards.model.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the query methods of {@link TransactionRepository} using an embedded MongoDB.
+ */
+@SpringBootTest
+@Import(EmbeddedMongoConfig.class)
+class TransactionRepositoryTest {
+
+    private static final LocalDateTime WINDOW_START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final LocalDateTime WINDOW_END = LocalDateTime.of(2025, 3, 31, 23, 59);
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAll();
+        transactionRepository.saveAll(List.of(
+                new Transaction(null, "cust1", 120.0, WINDOW_START.minusMinutes(1)),
+                new Transaction(null, "cust1", 80.0, WINDOW_START),
+                new Transaction(null, "cust1", 60.0, LocalDateTime.of(2025, 2, 10, 12, 0)),
+                new Transaction(null, "cust1", 200.0, WINDOW_END),
+                new Transaction(null, "cust1", 90.0, WINDOW_END.plusMinutes(1)),
+                new Transaction(null, "cust2", 75.0, LocalDateTime.of(2025, 2, 10, 12, 0))
+        ));
+    }
+
+    /**
+     * Should return only the customer's transactions within the inclusive range, with only amount and date.
+     */
+    @Test
+    void shouldFindTransactionsWithinDateRange() {
+        List<Transaction> transactions = transactionRepository.findByCustomerIdAndDateBetween("cust1", WINDOW_START, WINDOW_END);
+
+        assertEquals(List.of(60.0, 80.0, 200.0), transactions.stream().map(Transaction::getAmount).sorted().toList());
+        assertTrue(transactions.stream().allMatch(t -> t.getId() == null && t.getCustomerId() == null),
+                "Only amount and date should be projected");
+        assertTrue(transactions.stream().allMatch(t -> t.getDate() != null));
+    }
+
+    /**
+     * Should report whether a customer has any transaction.
+     */
+    @Test
+    void shouldCheckCustomerExistence() {
+        assertTrue(transactionRepository.existsByCustomerId("cust2"));
+        assertFalse(transactionRepository.existsByCustomerId("unknown"));
+    }
+}
@@ -0,0 +1,136 @@
+package com.customer.rewards.rules;
+
+import com.customer.rewards.EmbeddedMongoConfig;
+import com.customer.rewards.exception.InvalidRewardRulesException;
+import com.customer.rewards.model.RewardLedgerEntry;
+import com.customer.rewards.model.RewardRuleSet;
+import com.customer.rewards.model.RewardTier;
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.repository.RewardLedgerRepository;
+import com.customer.rewards.repository.RewardRuleSetRepository;
+import com.customer.rewards.repository.TransactionRepository;
+import com.customer.rewards.service.RewardLedgerService;
+import com.customer.rewards.service.RewardService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for swapping reward rules at runtime with {@link RewardRuleEngine}, using an embedded MongoDB.
+ */
+@SpringBootTest
+@Import(EmbeddedMongoConfig.class)
+class RewardRuleEngineTest {
+
+    @Autowired
+    private RewardRuleEngine rewardRuleEngine;
+
+    @Autowired
+    private RewardRuleSetRepository rewardRuleSetRepository;
+
+    @Autowired
+    private RewardService rewardService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private RewardLedgerRepository rewardLedgerRepository;
+
+    @Autowired
+    private RewardLedgerService rewardLedgerService;
+
+    private final LocalDateTime lastMonth = LocalDateTime.now().minusMonths(1).withDayOfMonth(15);
+
+    private static RewardRuleSet flatRate(int pointsPerDollar) {
+        return RewardRuleSet.builder().tiers(List.of(new RewardTier(0, pointsPerDollar))).build();
+    }
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAll();
+        transactionRepository.save(new Transaction(null, "cust1", 120.0, lastMonth));
+    }
+
+    @AfterEach
+    void restoreDefaultRules() {
+        rewardRuleEngine.update(RewardRuleSet.defaults());
+        rewardRuleSetRepository.deleteAll();
+        rewardLedgerService.reconcileInBackground().join();
+    }
+
+    /**
+     * Should apply updated rules immediately, replacing cached summaries, and rescore the ledger in the background.
+     */
+    @Test
+    void shouldApplyUpdatedRules() {
+        assertEquals(90, rewardService.getRewardsByCustomer("cust1").getTotalPoints());
+        long revision = rewardRuleEngine.current().getRevision();
+
+        rewardRuleEngine.update(flatRate(1));
+
+        assertEquals(revision + 1, rewardRuleEngine.current().getRevision());
+        assertEquals(revision + 1, rewardRuleSetRepository.findById(RewardRuleSet.ACTIVE_ID).orElseThrow().getRevision());
+        assertEquals(120, rewardService.getRewardsByCustomer("cust1").getTotalPoints());
+        rewardLedgerService.reconcileInBackground().join();
+        assertEquals(120, rewardLedgerRepository.findById(RewardLedgerEntry.idOf("cust1", YearMonth.from(lastMonth)))
+                .orElseThrow().getPoints());
+    }
+
+    /**
+     * Should reject invalid rules and keep the rules in effect.
+     */
+    @Test
+    void shouldKeepRulesWhenUpdateIsInvalid() {
+        RewardRules before = rewardRuleEngine.current();
+        RewardRuleSet invalid = RewardRuleSet.builder().tiers(List.of(new RewardTier(-5, 1))).build();
+
+        assertThrows(InvalidRewardRulesException.class, () -> rewardRuleEngine.update(invalid));
+
+        assertSame(before, rewardRuleEngine.current());
+        assertEquals(90, rewardService.getRewardsByCustomer("cust1").getTotalPoints());
+    }
+
+    /**
+     * Should pick up a rule set changed directly in the database.
+     */
+    @Test
+    void shouldRefreshFromStoredRules() {
+        RewardRuleSet stored = flatRate(2);
+        stored.setId(RewardRuleSet.ACTIVE_ID);
+        stored.setRevision(rewardRuleEngine.current().getRevision() + 10);
+        rewardRuleSetRepository.save(stored);
+
+        rewardRuleEngine.refresh();
+
+        assertEquals(stored.getRevision(), rewardRuleEngine.current().getRevision());
+        assertEquals(240, rewardService.getRewardsByCustomer("cust1").getTotalPoints());
+    }
+
+    /**
+     * Should ignore a stored rule set that does not compile.
+     */
+    @Test
+    void shouldIgnoreInvalidStoredRules() {
+        RewardRules before = rewardRuleEngine.current();
+        RewardRuleSet stored = RewardRuleSet.builder()
+                .id(RewardRuleSet.ACTIVE_ID)
+                .revision(before.getRevision() + 10)
+                .tiers(List.of(new RewardTier(10, 1), new RewardTier(10, 2)))
+                .build();
+        rewardRuleSetRepository.save(stored);
+
+        rewardRuleEngine.refresh();
+
+        assertSame(before, rewardRuleEngine.current());
+    }
+}
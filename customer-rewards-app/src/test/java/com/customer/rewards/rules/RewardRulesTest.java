@@ -0,0 +1,163 @@
+package com.customer.rewards.rules;
+
+import com.customer.rewards.exception.InvalidRewardRulesException;
+import com.customer.rewards.model.RewardCampaign;
+import com.customer.rewards.model.RewardRuleSet;
+import com.customer.rewards.model.RewardTier;
+import com.customer.rewards.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for compiling and evaluating {@link RewardRules}.
+ */
+class RewardRulesTest {
+
+    private static final LocalDateTime DATE = LocalDateTime.of(2024, 3, 15, 12, 0);
+
+    private static RewardRuleSet ruleSet(List<RewardCampaign> campaigns) {
+        return RewardRuleSet.builder()
+                .tiers(List.of(new RewardTier(100, 2), new RewardTier(50, 1)))
+                .categoryTiers(Map.of("grocery", List.of(new RewardTier(0, 3))))
+                .campaigns(campaigns)
+                .build();
+    }
+
+    /**
+     * The default reward rules as stated, in exact decimal arithmetic: one point per dollar between
+     * $50 and $100, two points per dollar above $100, fractions of a point truncated.
+     */
+    private static int expectedDefaultPoints(BigDecimal amount) {
+        BigDecimal lower = BigDecimal.valueOf(50);
+        BigDecimal upper = BigDecimal.valueOf(100);
+        if (amount.compareTo(upper) > 0) {
+            return amount.subtract(upper).multiply(BigDecimal.valueOf(2)).setScale(0, RoundingMode.DOWN).intValueExact() + 50;
+        }
+        if (amount.compareTo(lower) > 0) {
+            return amount.subtract(lower).setScale(0, RoundingMode.DOWN).intValueExact();
+        }
+        return 0;
+    }
+
+    /**
+     * The default rules should score every amount from -$10.00 to $1,000.00, cent by cent, exactly
+     * as stated, whether the amount is given in cents or as the double of a transaction.
+     */
+    @Test
+    void shouldMatchStatedRulesForEveryCentWithDefaultRules() {
+        RewardRules rules = RewardRules.compile(RewardRuleSet.defaults());
+
+        for (long cents = -1_000; cents <= 100_000; cents++) {
+            BigDecimal amount = BigDecimal.valueOf(cents, 2);
+            int expected = expectedDefaultPoints(amount);
+
+            assertEquals(expected, rules.points(cents, DATE, null), "cents " + cents);
+            assertEquals(expected, rules.points(new Transaction(null, "cust1", amount.doubleValue(), DATE)), "amount " + amount);
+        }
+    }
+
+    /**
+     * The default rules should score random amounts up to $10,000,000.00 exactly as stated.
+     */
+    @Test
+    void shouldMatchStatedRulesForRandomAmountsWithDefaultRules() {
+        RewardRules rules = RewardRules.compile(RewardRuleSet.defaults());
+        SplittableRandom random = new SplittableRandom(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            BigDecimal amount = BigDecimal.valueOf(random.nextLong(1_000_000_000L), 2);
+            assertEquals(expectedDefaultPoints(amount), rules.points(new Transaction(null, "cust1", amount.doubleValue(), DATE)), "amount " + amount);
+        }
+    }
+
+    /**
+     * The default rules should award exact points just above each threshold, where double arithmetic is prone to error.
+     */
+    @Test
+    void shouldBeExactAtThresholdsWithDefaultRules() {
+        RewardRules rules = RewardRules.compile(RewardRuleSet.defaults());
+
+        assertEquals(0, rules.points(new Transaction(null, "cust1", 50.0, DATE)));
+        assertEquals(0, rules.points(new Transaction(null, "cust1", 50.99, DATE)));
+        assertEquals(1, rules.points(new Transaction(null, "cust1", 51.0, DATE)));
+        assertEquals(49, rules.points(new Transaction(null, "cust1", 99.99, DATE)));
+        assertEquals(50, rules.points(new Transaction(null, "cust1", 100.0, DATE)));
+        assertEquals(50, rules.points(new Transaction(null, "cust1", 100.01, DATE)));
+        assertEquals(51, rules.points(new Transaction(null, "cust1", 100.5, DATE)));
+        assertEquals(90, rules.points(new Transaction(null, "cust1", 120.0, DATE)));
+    }
+
+    /**
+     * Should score with the tier table of the transaction's category, falling back to the default table.
+     */
+    @Test
+    void shouldUseCategoryTierTable() {
+        RewardRules rules = RewardRules.compile(ruleSet(List.of()));
+
+        assertEquals(90, rules.points(12_000, DATE, null));
+        assertEquals(90, rules.points(12_000, DATE, "fuel"));
+        assertEquals(360, rules.points(12_000, DATE, "grocery"));
+        assertEquals(1, rules.points(34, DATE, "grocery"));
+    }
+
+    /**
+     * Should apply the largest multiplier among the campaigns in effect, including their last day.
+     */
+    @Test
+    void shouldApplyLargestMultiplierOfCampaignsInEffect() {
+        RewardRules rules = RewardRules.compile(ruleSet(List.of(
+                new RewardCampaign("spring", 1.5, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31), null),
+                new RewardCampaign("grocery week", 3.0, LocalDate.of(2024, 3, 10), LocalDate.of(2024, 3, 16), "grocery"))));
+
+        assertEquals(135, rules.points(12_000, DATE, null));
+        assertEquals(1080, rules.points(12_000, DATE, "grocery"));
+        assertEquals(540, rules.points(12_000, DATE.plusDays(2), "grocery"));
+        assertEquals(135, rules.points(12_000, LocalDateTime.of(2024, 3, 31, 23, 59), null));
+        assertEquals(90, rules.points(12_000, LocalDateTime.of(2024, 4, 1, 0, 0), null));
+        assertEquals(1, rules.points(5_100, DATE, null), "Fractions of a point are truncated");
+
+        // Dates encoded as epoch milliseconds select the same campaigns
+        assertEquals(1080, rules.points(12_000, RewardRules.epochMilli(DATE), "grocery"));
+        assertEquals(135, rules.points(12_000, RewardRules.epochMilli(LocalDateTime.of(2024, 3, 31, 23, 59)), null));
+        assertEquals(90, rules.points(12_000, RewardRules.epochMilli(LocalDateTime.of(2024, 4, 1, 0, 0)), null));
+    }
+
+    /**
+     * Should order tiers by threshold and campaigns by decreasing multiplier.
+     */
+    @Test
+    void shouldNormalizeDefinition() {
+        RewardRules rules = RewardRules.compile(ruleSet(List.of(
+                new RewardCampaign("a", 1.5, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31), null),
+                new RewardCampaign("b", 2.0, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31), null))));
+
+        assertEquals(List.of(50.0, 100.0), rules.getDefinition().getTiers().stream().map(RewardTier::getThreshold).toList());
+        assertEquals(List.of("b", "a"), rules.getDefinition().getCampaigns().stream().map(RewardCampaign::getName).toList());
+    }
+
+    /**
+     * Should reject inconsistent rule sets.
+     */
+    @Test
+    void shouldRejectInvalidRules() {
+        assertThrows(InvalidRewardRulesException.class, () -> RewardRules.compile(RewardRuleSet.builder()
+                .tiers(List.of(new RewardTier(50, 1), new RewardTier(50.001, 2))).build()));
+        assertThrows(InvalidRewardRulesException.class, () -> RewardRules.compile(RewardRuleSet.builder()
+                .tiers(List.of(new RewardTier(-1, 1))).build()));
+        assertThrows(InvalidRewardRulesException.class, () -> RewardRules.compile(RewardRuleSet.builder()
+                .tiers(List.of(new RewardTier(50, -1))).build()));
+        assertThrows(InvalidRewardRulesException.class, () -> RewardRules.compile(ruleSet(List.of(
+                new RewardCampaign("backwards", 2.0, LocalDate.of(2024, 3, 31), LocalDate.of(2024, 3, 1), null)))));
+        assertThrows(InvalidRewardRulesException.class, () -> RewardRules.compile(ruleSet(List.of(
+                new RewardCampaign("negative", -2.0, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31), null)))));
+    }
+}
@@ -0,0 +1,95 @@
+package com.customer.rewards.service;
+
+import com.customer.rewards.exception.RewardComputationTimeoutException;
+import com.customer.rewards.model.RewardSummary;
+import com.customer.rewards.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link ParallelRewardAggregator} with a mocked repository.
+ */
+class ParallelRewardAggregatorTest {
+
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+
+    private ParallelRewardAggregator aggregator;
+
+    @AfterEach
+    void shutdown() {
+        aggregator.shutdown();
+    }
+
+    /**
+     * Should return all customers in ID order while keeping in-flight queries within the limit.
+     */
+    @Test
+    void shouldPreserveOrderAndBoundConcurrency() {
+        aggregator = new ParallelRewardAggregator(transactionRepository, 8, 4, 3, Duration.ofSeconds(10));
+        List<String> customerIds = IntStream.range(0, 50).mapToObj(i -> String.format("cust%02d", i)).toList();
+        when(transactionRepository.streamCustomerIds()).thenReturn(customerIds.stream());
+
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(transactionRepository.aggregateRewardSummaries(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenAnswer(invocation -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    Thread.sleep(20);
+                    inFlight.decrementAndGet();
+                    Collection<String> chunk = invocation.getArgument(0);
+                    return chunk.stream().map(id -> new RewardSummary(id, Map.of(), 0)).toList();
+                });
+
+        List<RewardSummary> summaries = aggregator.aggregate(LocalDateTime.now().minusMonths(3), LocalDateTime.now());
+
+        assertEquals(customerIds, summaries.stream().map(RewardSummary::getCustomerId).toList());
+        assertTrue(maxInFlight.get() <= 3, "At most 3 chunk queries should be in flight, was " + maxInFlight.get());
+        verify(transactionRepository, times(13)).aggregateRewardSummaries(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class));
+    }
+
+    /**
+     * Should fail with a timeout when the deadline passes.
+     */
+    @Test
+    void shouldThrowTimeoutWhenDeadlineExceeded() {
+        aggregator = new ParallelRewardAggregator(transactionRepository, 2, 1, 2, Duration.ofMillis(100));
+        when(transactionRepository.streamCustomerIds()).thenReturn(Stream.of("cust1", "cust2", "cust3"));
+        when(transactionRepository.aggregateRewardSummaries(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(2000);
+                    return List.of();
+                });
+
+        assertThrows(RewardComputationTimeoutException.class,
+                () -> aggregator.aggregate(LocalDateTime.now().minusMonths(3), LocalDateTime.now()));
+    }
+
+    /**
+     * Should propagate failures of chunk queries.
+     */
+    @Test
+    void shouldPropagateChunkFailure() {
+        aggregator = new ParallelRewardAggregator(transactionRepository, 2, 2, 2, Duration.ofSeconds(10));
+        when(transactionRepository.streamCustomerIds()).thenReturn(Stream.of("cust1", "cust2", "cust3"));
+        when(transactionRepository.aggregateRewardSummaries(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenThrow(new IllegalStateException("connection reset"));
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> aggregator.aggregate(LocalDateTime.now().minusMonths(3), LocalDateTime.now()));
+
+        assertEquals("connection reset", exception.getMessage());
+    }
+}
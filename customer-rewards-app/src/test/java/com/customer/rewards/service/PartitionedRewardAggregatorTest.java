@@ -0,0 +1,123 @@
+package com.customer.rewards.service;
+
+import com.customer.rewards.model.RewardSummary;
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.repository.TransactionPartitions;
+import com.customer.rewards.rules.RewardRuleEngine;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link PartitionedRewardAggregator}, with every partition on its own embedded MongoDB server.
+ */
+class PartitionedRewardAggregatorTest {
+
+    private static final int PARTITIONS = 3;
+
+    private final RewardRuleEngine rewardRuleEngine = new RewardRuleEngine(null, null);
+    private final List<MongoServer> servers = new ArrayList<>();
+    private final List<MongoClient> clients = new ArrayList<>();
+
+    private TransactionPartitions single;
+    private TransactionPartitions partitioned;
+
+    @BeforeEach
+    void startServers() {
+        single = new TransactionPartitions(List.of(template()), rewardRuleEngine);
+        List<MongoTemplate> templates = new ArrayList<>();
+        for (int i = 0; i < PARTITIONS; i++) {
+            templates.add(template());
+        }
+        partitioned = new TransactionPartitions(templates, rewardRuleEngine);
+    }
+
+    @AfterEach
+    void stopServers() {
+        clients.forEach(MongoClient::close);
+        servers.forEach(MongoServer::shutdownNow);
+    }
+
+    /**
+     * Should merge the partitions into the same summaries, in the same order, as one unpartitioned database.
+     */
+    @Test
+    void shouldMatchUnpartitionedAggregation() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        Random random = new Random(5);
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            LocalDateTime date = now.minusDays(random.nextInt(200)).minusHours(1 + random.nextInt(12));
+            transactions.add(new Transaction(null, "cust" + random.nextInt(60), Math.round(random.nextDouble() * 30000) / 100.0, date));
+        }
+        single.insert(transactions);
+        partitioned.insert(transactions.stream().map(t -> new Transaction(null, t.getCustomerId(), t.getAmount(), t.getDate())).toList());
+        LocalDateTime windowStart = YearMonth.from(now).minusMonths(3).atDay(1).atStartOfDay();
+
+        PartitionedRewardAggregator singleAggregator = new PartitionedRewardAggregator(single, 0, Duration.ofSeconds(30));
+        PartitionedRewardAggregator partitionedAggregator = new PartitionedRewardAggregator(partitioned, 0, Duration.ofSeconds(30));
+        try {
+            List<RewardSummary> expected = singleAggregator.aggregate(windowStart, now);
+            List<RewardSummary> merged = partitionedAggregator.aggregate(windowStart, now);
+
+            assertFalse(singleAggregator.isPartitioned());
+            assertTrue(partitionedAggregator.isPartitioned());
+            assertEquals(60, expected.size());
+            assertEquals(expected, merged);
+        } finally {
+            singleAggregator.shutdown();
+            partitionedAggregator.shutdown();
+        }
+    }
+
+    /**
+     * Should store every customer's transactions in that customer's partition only.
+     */
+    @Test
+    void shouldRouteCustomersToTheirPartition() {
+        LocalDateTime date = LocalDateTime.now().minusDays(3);
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            transactions.add(new Transaction(null, "cust" + i, 120.0, date));
+        }
+        partitioned.insert(transactions);
+
+        int customers = 0;
+        for (int partition = 0; partition < PARTITIONS; partition++) {
+            List<RewardSummary> summaries;
+            try (Stream<RewardSummary> stream = partitioned.streamRewardSummaries(partition, date.minusDays(1), LocalDateTime.now())) {
+                summaries = stream.toList();
+            }
+            for (RewardSummary summary : summaries) {
+                assertEquals(partition, partitioned.partitionOf(summary.getCustomerId()));
+            }
+            customers += summaries.size();
+        }
+        assertEquals(30, customers);
+    }
+
+    private MongoTemplate template() {
+        MongoServer server = new MongoServer(new MemoryBackend());
+        server.bind();
+        servers.add(server);
+        MongoClient client = MongoClients.create(server.getConnectionString());
+        clients.add(client);
+        return new MongoTemplate(client, "rewardsdb");
+    }
+}
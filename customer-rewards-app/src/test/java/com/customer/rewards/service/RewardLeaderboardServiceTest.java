@@ -0,0 +1,157 @@
+package com.customer.rewards.service;
+
+import com.customer.rewards.EmbeddedMongoConfig;
+import com.customer.rewards.exception.CustomerNotFoundException;
+import com.customer.rewards.model.Leaderboard;
+import com.customer.rewards.model.LeaderboardEntry;
+import com.customer.rewards.model.RewardSummary;
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for {@link RewardLeaderboardService} and its incremental maintenance, using an embedded MongoDB.
+ */
+@SpringBootTest
+@Import(EmbeddedMongoConfig.class)
+class RewardLeaderboardServiceTest {
+
+    @Autowired
+    private RewardLeaderboardService rewardLeaderboardService;
+
+    @Autowired
+    private RewardService rewardService;
+
+    @SpyBean
+    private TransactionRepository transactionRepository;
+
+    private final LocalDateTime lastMonth = LocalDateTime.now().minusMonths(1).withDayOfMonth(15);
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAll();
+        transactionRepository.saveAll(List.of(
+                new Transaction(null, "cust1", 120.0, lastMonth),  // 90 points
+                new Transaction(null, "cust2", 200.0, lastMonth),  // 250 points
+                new Transaction(null, "cust3", 120.0, lastMonth),  // 90 points
+                new Transaction(null, "cust4", 300.0, lastMonth.minusYears(2))
+        ));
+        clearInvocations(transactionRepository);
+    }
+
+    /**
+     * Should rank customers like sorting the all-customer summaries, including customers without recent points.
+     */
+    @Test
+    void shouldRankCustomersLikeAllCustomerRewards() {
+        Leaderboard leaderboard = rewardLeaderboardService.getTopCustomers(10);
+
+        List<String> expected = rewardService.getAllCustomerRewards().stream()
+                .sorted(Comparator.comparingInt(RewardSummary::getTotalPoints).reversed().thenComparing(RewardSummary::getCustomerId))
+                .map(RewardSummary::getCustomerId)
+                .toList();
+        assertEquals(expected, leaderboard.getEntries().stream().map(LeaderboardEntry::getCustomerId).toList());
+        assertEquals(4, leaderboard.getCustomerCount());
+        assertEquals(new LeaderboardEntry(2, "cust3", 90), rewardLeaderboardService.getCustomerRank("cust3"));
+        assertEquals(new LeaderboardEntry(4, "cust4", 0), rewardLeaderboardService.getCustomerRank("cust4"));
+        assertThrows(CustomerNotFoundException.class, () -> rewardLeaderboardService.getCustomerRank("unknown"));
+    }
+
+    /**
+     * Should apply saved transactions without reading the transactions again.
+     */
+    @Test
+    void shouldUpdateRanksIncrementallyOnSave() {
+        rewardLeaderboardService.getTopCustomers(1);
+
+        transactionRepository.save(new Transaction(null, "cust1", 250.0, lastMonth)); // 350 points
+        transactionRepository.save(new Transaction(null, "cust5", 60.0, lastMonth.minusYears(2))); // Ties with cust4
+
+        assertEquals(new LeaderboardEntry(1, "cust1", 440), rewardLeaderboardService.getCustomerRank("cust1"));
+        assertEquals(new LeaderboardEntry(4, "cust5", 0), rewardLeaderboardService.getCustomerRank("cust5"));
+        assertEquals(List.of(new LeaderboardEntry(1, "cust1", 440), new LeaderboardEntry(2, "cust2", 250)),
+                rewardLeaderboardService.getTopCustomers(2).getEntries());
+        verify(transactionRepository, times(1)).streamRewardSummaries(any(), any());
+    }
+
+    /**
+     * Should rebuild the leaderboard after transactions are deleted.
+     */
+    @Test
+    void shouldRebuildAfterDelete() {
+        rewardLeaderboardService.getTopCustomers(1);
+
+        transactionRepository.deleteAll();
+        transactionRepository.save(new Transaction(null, "cust9", 70.0, lastMonth));
+
+        Leaderboard leaderboard = rewardLeaderboardService.getTopCustomers(null);
+        assertEquals(List.of(new LeaderboardEntry(1, "cust9", 20)), leaderboard.getEntries());
+        verify(transactionRepository, times(2)).streamRewardSummaries(any(), any());
+    }
+
+    /**
+     * Should apply transactions written while the leaderboard is built to the new leaderboard.
+     */
+    @Test
+    void shouldReplayTransactionsRecordedWhileBuilding() throws Exception {
+        CountDownLatch scanning = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            scanning.countDown();
+            release.await();
+            return Stream.of(summary("cust1", 90), summary("cust2", 250));
+        }).when(transactionRepository).streamRewardSummaries(any(), any());
+
+        CompletableFuture<Leaderboard> building = CompletableFuture.supplyAsync(() -> rewardLeaderboardService.getTopCustomers(2));
+        scanning.await();
+        rewardLeaderboardService.record(new Transaction(null, "cust1", 250.0, lastMonth)); // 350 points
+        release.countDown();
+
+        assertEquals(List.of(new LeaderboardEntry(1, "cust1", 440), new LeaderboardEntry(2, "cust2", 250)),
+                building.get().getEntries());
+        assertEquals(new LeaderboardEntry(1, "cust1", 440), rewardLeaderboardService.getCustomerRank("cust1"));
+    }
+
+    /**
+     * Should discard a leaderboard invalidated while it was built, and build it again.
+     */
+    @Test
+    void shouldNotSwapInLeaderboardInvalidatedWhileBuilding() throws Exception {
+        CountDownLatch scanning = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            scanning.countDown();
+            release.await();
+            return Stream.of(summary("cust1", 90));
+        }).doAnswer(invocation -> Stream.of(summary("cust9", 20)))
+                .when(transactionRepository).streamRewardSummaries(any(), any());
+
+        CompletableFuture<Leaderboard> building = CompletableFuture.supplyAsync(() -> rewardLeaderboardService.getTopCustomers(10));
+        scanning.await();
+        rewardLeaderboardService.invalidate();
+        release.countDown();
+
+        assertEquals(List.of(new LeaderboardEntry(1, "cust9", 20)), building.get().getEntries());
+        assertEquals(List.of(new LeaderboardEntry(1, "cust9", 20)), rewardLeaderboardService.getTopCustomers(10).getEntries());
+        verify(transactionRepository, times(2)).streamRewardSummaries(any(), any());
+    }
+
+    private static RewardSummary summary(String customerId, int totalPoints) {
+        return RewardSummary.builder().customerId(customerId).totalPoints(totalPoints).build();
+    }
+}
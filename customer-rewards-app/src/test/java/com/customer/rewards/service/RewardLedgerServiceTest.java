@@ -0,0 +1,177 @@
+package com.customer.rewards.service;
+
+import com.customer.rewards.EmbeddedMongoConfig;
+import com.customer.rewards.exception.CustomerNotFoundException;
+import com.customer.rewards.model.LedgerReconciliationReport;
+import com.customer.rewards.model.RewardLedgerEntry;
+import com.customer.rewards.model.RewardSummary;
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.repository.RewardLedgerRepository;
+import com.customer.rewards.repository.TransactionRepository;
+import com.customer.rewards.rules.RewardRuleEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link RewardLedgerService} and its incremental maintenance, using an embedded MongoDB.
+ */
+@SpringBootTest
+@Import(EmbeddedMongoConfig.class)
+class RewardLedgerServiceTest {
+
+    @Autowired
+    private RewardLedgerService rewardLedgerService;
+
+    @Autowired
+    private RewardService rewardService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private RewardLedgerRepository rewardLedgerRepository;
+
+    @Autowired
+    private RewardRuleEngine rewardRuleEngine;
+
+    @Autowired
+    private RewardMetrics rewardMetrics;
+
+    @Autowired
+    private Clock clock;
+
+    private final LocalDateTime lastMonth = LocalDateTime.now().minusMonths(1).withDayOfMonth(15);
+    private final LocalDateTime twoMonthsAgo = LocalDateTime.now().minusMonths(2).withDayOfMonth(15);
+
+    @BeforeEach
+    void clearTransactions() {
+        transactionRepository.deleteAll();
+    }
+
+    /**
+     * Should update the ledger as transactions are saved.
+     */
+    @Test
+    void shouldUpdateLedgerIncrementallyOnSave() {
+        transactionRepository.save(new Transaction(null, "cust1", 120.0, lastMonth));
+        transactionRepository.saveAll(List.of(
+                new Transaction(null, "cust1", 80.0, lastMonth),
+                new Transaction(null, "cust1", 40.0, lastMonth)
+        ));
+
+        RewardLedgerEntry entry = rewardLedgerRepository.findById(RewardLedgerEntry.idOf("cust1", YearMonth.from(lastMonth))).orElseThrow();
+
+        assertEquals(120, entry.getPoints());
+        assertEquals(3, entry.getTransactionCount());
+    }
+
+    /**
+     * Should clear the ledger when all transactions are deleted.
+     */
+    @Test
+    void shouldClearLedgerWhenAllTransactionsDeleted() {
+        transactionRepository.save(new Transaction(null, "cust1", 120.0, lastMonth));
+
+        transactionRepository.deleteAll();
+
+        assertEquals(0, rewardLedgerRepository.count());
+    }
+
+    /**
+     * Should serve the same summary from the ledger as from the raw transactions.
+     */
+    @Test
+    void shouldMatchTransactionBasedSummary() {
+        transactionRepository.saveAll(List.of(
+                new Transaction(null, "cust1", 120.0, lastMonth),
+                new Transaction(null, "cust1", 75.5, twoMonthsAgo),
+                new Transaction(null, "cust1", 300.0, LocalDateTime.now().minusMonths(6)),
+                new Transaction(null, "cust2", 45.0, lastMonth)
+        ));
+        LocalDateTime now = LocalDateTime.now();
+
+        RewardSummary fromLedger = rewardLedgerService.getRewardsByCustomer("cust1", YearMonth.from(now.minusMonths(3)), YearMonth.from(now));
+
+        assertEquals(rewardService.getRewardsByCustomer("cust1"), fromLedger);
+        assertEquals(115, fromLedger.getTotalPoints());
+        assertEquals(rewardService.getRewardsByCustomer("cust2"),
+                rewardLedgerService.getRewardsByCustomer("cust2", YearMonth.from(now.minusMonths(3)), YearMonth.from(now)));
+    }
+
+    /**
+     * Should serve from the ledger only the windows its whole months answer exactly, giving the
+     * same summaries as the transactions for windows within a month and for customers with
+     * transactions dated later in the current month.
+     */
+    @Test
+    void shouldServeOnlyWholeMonthWindowsFromLedger() {
+        RewardService ledgerReads = new RewardService(transactionRepository, rewardLedgerService, null, null, null, null, null,
+                rewardRuleEngine, rewardMetrics, clock, true, false, false, 100, 1000, 3, 24);
+        transactionRepository.saveAll(List.of(
+                new Transaction(null, "cust1", 120.0, lastMonth),                 // 90 points on the 15th
+                new Transaction(null, "cust1", 200.0, lastMonth.plusDays(5)),     // 250 points on the 20th
+                new Transaction(null, "cust2", 120.0, LocalDateTime.now().minusMinutes(1)),
+                new Transaction(null, "cust2", 200.0, YearMonth.now().atEndOfMonth().atTime(LocalTime.MAX))
+        ));
+        RewardWindow midMonth = rewardService.rewardWindow(lastMonth.plusDays(1).toLocalDate(), lastMonth.plusDays(10).toLocalDate(), null);
+        RewardWindow defaultWindow = rewardService.rewardWindow(null, null, null);
+
+        assertEquals(250, ledgerReads.getRewardsByCustomer("cust1", midMonth).getTotalPoints());
+        assertEquals(rewardService.getRewardsByCustomer("cust1", midMonth), ledgerReads.getRewardsByCustomer("cust1", midMonth));
+        assertEquals(340, ledgerReads.getRewardsByCustomer("cust1", defaultWindow).getTotalPoints());
+        assertEquals(90, ledgerReads.getRewardsByCustomer("cust2", defaultWindow).getTotalPoints());
+        assertEquals(rewardService.getRewardsByCustomer("cust2", defaultWindow), ledgerReads.getRewardsByCustomer("cust2", defaultWindow));
+    }
+
+    /**
+     * Should throw CustomerNotFoundException when the customer has no ledger entry.
+     */
+    @Test
+    void shouldThrowExceptionForUnknownCustomer() {
+        YearMonth now = YearMonth.now();
+
+        assertThrows(CustomerNotFoundException.class,
+                () -> rewardLedgerService.getRewardsByCustomer("unknown", now.minusMonths(3), now));
+    }
+
+    /**
+     * Should report drift and repair it on reconciliation.
+     */
+    @Test
+    void shouldReportAndRepairDrift() {
+        transactionRepository.saveAll(List.of(
+                new Transaction(null, "cust1", 120.0, lastMonth),
+                new Transaction(null, "cust2", 80.0, lastMonth),
+                new Transaction(null, "cust3", 60.0, twoMonthsAgo)
+        ));
+        assertFalse(rewardLedgerService.reconcile(false).hasDrift(), "Incrementally maintained ledger should be consistent");
+
+        String cust1Id = RewardLedgerEntry.idOf("cust1", YearMonth.from(lastMonth));
+        RewardLedgerEntry tampered = rewardLedgerRepository.findById(cust1Id).orElseThrow();
+        tampered.setPoints(1);
+        rewardLedgerRepository.save(tampered);
+        rewardLedgerRepository.deleteById(RewardLedgerEntry.idOf("cust2", YearMonth.from(lastMonth)));
+        rewardLedgerRepository.save(new RewardLedgerEntry("ghost|2020-01", "ghost", "2020-01", 10, 1));
+
+        LedgerReconciliationReport report = rewardLedgerService.reconcile(true);
+
+        assertEquals(3, report.getExpectedEntries());
+        assertEquals(1, report.getMissingEntries());
+        assertEquals(1, report.getUnexpectedEntries());
+        assertEquals(1, report.getMismatchedEntries());
+        assertEquals(3, report.getDriftSamples().size());
+        assertEquals(90, rewardLedgerRepository.findById(cust1Id).orElseThrow().getPoints());
+        assertFalse(rewardLedgerService.reconcile(false).hasDrift(), "Repaired ledger should be consistent");
+    }
+}
@@ -0,0 +1,75 @@
+package com.customer.rewards.service;
+
+import com.customer.rewards.EmbeddedMongoConfig;
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.repository.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the reward scoring metrics, using an embedded MongoDB.
+ */
+@SpringBootTest
+@Import(EmbeddedMongoConfig.class)
+class RewardMetricsTest {
+
+    @Autowired
+    private RewardService rewardService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final LocalDateTime lastWeek = LocalDateTime.now().minusDays(7);
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAll();
+        transactionRepository.saveAll(List.of(
+                new Transaction(null, "cust1", 120.0, lastWeek),
+                new Transaction(null, "cust1", 40.0, lastWeek),
+                new Transaction(null, "cust1", 75.0, lastWeek)
+        ));
+    }
+
+    /**
+     * Should time the scoring pass and count scanned transactions separately from those that earned points.
+     */
+    @Test
+    void shouldRecordScoringTimeAndTransactionCounts() {
+        Timer scoring = meterRegistry.get(RewardMetrics.SCORING).timer();
+        long scoringCount = scoring.count();
+        double scanned = meterRegistry.get(RewardMetrics.TRANSACTIONS_SCANNED).counter().count();
+        double scored = meterRegistry.get(RewardMetrics.TRANSACTIONS_SCORED).counter().count();
+
+        rewardService.getRewardsByCustomer("cust1", rewardService.rewardWindow(null, null, null));
+
+        assertEquals(scoringCount + 1, scoring.count());
+        assertEquals(scanned + 3, meterRegistry.get(RewardMetrics.TRANSACTIONS_SCANNED).counter().count());
+        assertEquals(scored + 2, meterRegistry.get(RewardMetrics.TRANSACTIONS_SCORED).counter().count());
+    }
+
+    /**
+     * Should time repository method invocations.
+     */
+    @Test
+    void shouldTimeRepositoryInvocations() {
+        rewardService.getRewardsByCustomer("cust1", rewardService.rewardWindow(null, null, null));
+
+        assertTrue(meterRegistry.get("spring.data.repository.invocations")
+                .tag("method", "findByCustomerIdAndDateBetween")
+                .timer().count() > 0);
+    }
+}
@@ -0,0 +1,170 @@
+package com.customer.rewards.service;
+
+import com.customer.rewards.EmbeddedMongoConfig;
+import com.customer.rewards.exception.CustomerNotFoundException;
+import com.customer.rewards.exception.RewardComputationTimeoutException;
+import com.customer.rewards.model.RewardSummary;
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.repository.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for {@link RewardRequestCoalescer} sharing one computation among concurrent reward lookups,
+ * using an embedded MongoDB.
+ */
+@SpringBootTest
+@Import(EmbeddedMongoConfig.class)
+class RewardRequestCoalescerTest {
+
+    private static final int CALLERS = 8;
+
+    @Autowired
+    private RewardService rewardService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @SpyBean
+    private TransactionRepository transactionRepository;
+
+    private final LocalDateTime lastWeek = LocalDateTime.now().minusDays(7);
+
+    @BeforeEach
+    void clearTransactions() {
+        transactionRepository.deleteAll();
+        clearInvocations(transactionRepository);
+    }
+
+    /**
+     * Should read the repository once for a burst of identical lookups and give every caller the same summary.
+     */
+    @Test
+    void shouldShareOneComputationPerBurst() throws Exception {
+        Transaction transaction = transactionRepository.save(new Transaction(null, "cust1", 120.0, lastWeek)); // 90 points
+        CountDownLatch release = holdRepositoryReads(List.of(transaction));
+
+        List<RewardSummary> summaries = burst("cust1", release);
+
+        verify(transactionRepository, times(1)).findByCustomerIdAndDateBetween(eq("cust1"), any(), any());
+        assertEquals(CALLERS, summaries.size());
+        summaries.forEach(summary -> assertEquals(90, summary.getTotalPoints()));
+    }
+
+    /**
+     * Should give every caller of a burst the exception of the shared computation.
+     */
+    @Test
+    void shouldPropagateCustomerNotFoundToEveryCaller() throws Exception {
+        CountDownLatch release = holdRepositoryReads(List.of());
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> burst("unknown", release));
+
+        assertInstanceOf(CustomerNotFoundException.class, exception.getCause());
+        verify(transactionRepository, times(1)).findByCustomerIdAndDateBetween(eq("unknown"), any(), any());
+    }
+
+    /**
+     * Should stop waiting for another caller's computation after the timeout, without affecting it.
+     */
+    @Test
+    void shouldTimeOutWaitingCallers() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RewardRequestCoalescer coalescer = new RewardRequestCoalescer(new RewardMetrics(registry), true, Duration.ofMillis(50));
+        RewardWindow window = rewardService.rewardWindow(null, null, null);
+        RewardSummary expected = new RewardSummary("cust1", null, 0);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<RewardSummary> leader = CompletableFuture.supplyAsync(() -> coalescer.getRewardsByCustomer("cust1", window, () -> {
+            started.countDown();
+            await(release);
+            return expected;
+        }));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        assertThrows(RewardComputationTimeoutException.class,
+                () -> coalescer.getRewardsByCustomer("cust1", window, () -> fail("Should not compute again")));
+        release.countDown();
+        assertSame(expected, leader.get(10, TimeUnit.SECONDS));
+        assertEquals(1.0, registry.get(RewardMetrics.COALESCING).tag("result", "coalesced").counter().count());
+    }
+
+    /**
+     * Holds repository reads until the returned latch is released, then answers them with the given transactions.
+     */
+    private CountDownLatch holdRepositoryReads(List<Transaction> transactions) {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            await(release);
+            return transactions;
+        }).when(transactionRepository).findByCustomerIdAndDateBetween(any(), any(), any());
+        return release;
+    }
+
+    /**
+     * Looks up a customer from {@link #CALLERS} threads, releasing the repository once every other caller has joined the first.
+     */
+    private List<RewardSummary> burst(String customerId, CountDownLatch release) throws Exception {
+        RewardWindow window = rewardService.rewardWindow(null, null, null);
+        double coalescedBefore = coalesced();
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<RewardSummary>> futures = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                futures.add(executor.submit(() -> rewardService.getRewardsByCustomer(customerId, window)));
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (coalesced() - coalescedBefore < CALLERS - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(CALLERS - 1, coalesced() - coalescedBefore, "Every other caller should join the first");
+            release.countDown();
+
+            List<RewardSummary> summaries = new ArrayList<>();
+            for (Future<RewardSummary> future : futures) {
+                summaries.add(future.get(10, TimeUnit.SECONDS));
+            }
+            return summaries;
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private double coalesced() {
+        return meterRegistry.get(RewardMetrics.COALESCING).tag("result", "coalesced").counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,20 +1,34 @@
 package com.customer.rewards.service;
 
 
+import com.customer.rewards.EmbeddedMongoConfig;
 import com.customer.rewards.exception.CustomerNotFoundException;
+import com.customer.rewards.exception.InvalidPageTokenException;
+import com.customer.rewards.exception.InvalidRewardWindowException;
+import com.customer.rewards.model.BatchRewardsResponse;
 import com.customer.rewards.model.RewardSummary;
+import com.customer.rewards.model.RewardSummaryPage;
 import com.customer.rewards.model.Transaction;
 import com.customer.rewards.repository.TransactionRepository;
 import com.customer.rewards.util.Constants;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
 
+import java.time.Clock;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.Month;
+import java.time.YearMonth;
+import java.time.ZoneId;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -23,8 +37,23 @@ import static org.mockito.Mockito.*;
  * Unit tests for {@link RewardService} using Spring Boot context and @MockBean.
  */
 @SpringBootTest
+@Import({EmbeddedMongoConfig.class, RewardServiceTest.FixedClockConfig.class})
 class RewardServiceTest {
 
+    /** The pinned current time: the default window runs from 2024-01-01 to this instant. */
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 4, 30, 12, 0);
+    private static final LocalDateTime WINDOW_START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @TestConfiguration
+    static class FixedClockConfig {
+
+        @Bean
+        @Primary
+        Clock fixedClock() {
+            return Clock.fixed(NOW.atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+        }
+    }
+
     @Autowired
     private RewardService rewardService;
 
@@ -43,16 +72,17 @@ class RewardServiceTest {
                 new Transaction("3", customerId, 45.0, LocalDateTime.of(2024, 3, 20, 10, 0)) // Below threshold
         );
 
-        when(transactionRepository.findByCustomerId(customerId)).thenReturn(transactions);
+        when(transactionRepository.findByCustomerIdAndDateBetween(customerId, WINDOW_START, NOW)).thenReturn(transactions);
 
         RewardSummary summary = rewardService.getRewardsByCustomer(customerId);
 
         assertEquals(customerId, summary.getCustomerId());
-        assertEquals(90, summary.getMonthlyPoints().get(Month.JANUARY));
-        assertEquals(30, summary.getMonthlyPoints().get(Month.FEBRUARY));
+        assertEquals(90, summary.getMonthlyPoints().get(YearMonth.of(2024, 1)));
+        assertEquals(30, summary.getMonthlyPoints().get(YearMonth.of(2024, 2)));
         assertEquals(120, summary.getTotalPoints());
 
-        verify(transactionRepository).findByCustomerId(customerId);
+        verify(transactionRepository).findByCustomerIdAndDateBetween(customerId, WINDOW_START, NOW);
+        verify(transactionRepository, never()).findByCustomerId(anyString());
     }
 
 
@@ -63,7 +93,8 @@ class RewardServiceTest {
     void shouldThrowExceptionForNoTransactions() {
         String customerId = "emptyUser";
 
-        when(transactionRepository.findByCustomerId(customerId)).thenReturn(Collections.emptyList());
+        when(transactionRepository.findByCustomerIdAndDateBetween(eq(customerId), any(), any())).thenReturn(Collections.emptyList());
+        when(transactionRepository.existsByCustomerId(customerId)).thenReturn(false);
 
         CustomerNotFoundException exception = assertThrows(
                 CustomerNotFoundException.class,
@@ -71,7 +102,7 @@ class RewardServiceTest {
         );
 
         assertEquals("No transactions found for customer: " + customerId, exception.getMessage());
-        verify(transactionRepository).findByCustomerId(customerId);
+        verify(transactionRepository).existsByCustomerId(customerId);
     }
 
     /**
@@ -81,10 +112,10 @@ class RewardServiceTest {
     void shouldReturnZeroPointsForLowerThresholdTransaction() {
         String customerId = "custLow";
         List<Transaction> transactions = List.of(
-                new Transaction("1", customerId, Constants.LOWER_THRESHOLD, LocalDateTime.now())
+                new Transaction("1", customerId, Constants.LOWER_THRESHOLD, NOW)
         );
 
-        when(transactionRepository.findByCustomerId(customerId)).thenReturn(transactions);
+        when(transactionRepository.findByCustomerIdAndDateBetween(eq(customerId), any(), any())).thenReturn(transactions);
 
         RewardSummary summary = rewardService.getRewardsByCustomer(customerId);
 
@@ -101,12 +132,12 @@ class RewardServiceTest {
                 new Transaction("1", customerId, 75.0, LocalDateTime.of(2024, 4, 1, 12, 0))
         );
 
-        when(transactionRepository.findByCustomerId(customerId)).thenReturn(transactions);
+        when(transactionRepository.findByCustomerIdAndDateBetween(eq(customerId), any(), any())).thenReturn(transactions);
 
         RewardSummary summary = rewardService.getRewardsByCustomer(customerId);
 
         assertEquals(25, summary.getTotalPoints());
-        assertEquals(25, summary.getMonthlyPoints().get(Month.APRIL));
+        assertEquals(25, summary.getMonthlyPoints().get(YearMonth.of(2024, 4)));
     }
 
     /**
@@ -116,10 +147,10 @@ class RewardServiceTest {
     void shouldCalculatePointsForHighValueTransaction() {
         String customerId = "custHigh";
         List<Transaction> transactions = List.of(
-                new Transaction("1", customerId, 200.0, LocalDateTime.of(2024, 5, 1, 12, 0))
+                new Transaction("1", customerId, 200.0, LocalDateTime.of(2024, 4, 15, 12, 0))
         );
 
-        when(transactionRepository.findByCustomerId(customerId)).thenReturn(transactions);
+        when(transactionRepository.findByCustomerIdAndDateBetween(eq(customerId), any(), any())).thenReturn(transactions);
 
         int expectedPoints = (int) ((200 - Constants.UPPER_THRESHOLD) * Constants.TWO_POINTS)
                 + (int) ((Constants.UPPER_THRESHOLD - Constants.LOWER_THRESHOLD) * Constants.ONE_POINT);
@@ -127,7 +158,7 @@ class RewardServiceTest {
         RewardSummary summary = rewardService.getRewardsByCustomer(customerId);
 
         assertEquals(expectedPoints, summary.getTotalPoints());
-        assertEquals(expectedPoints, summary.getMonthlyPoints().get(Month.MAY));
+        assertEquals(expectedPoints, summary.getMonthlyPoints().get(YearMonth.of(2024, 4)));
     }
 
 
@@ -138,7 +169,7 @@ class RewardServiceTest {
     void shouldThrowExceptionForInvalidCustomerId() {
         String invalidCustomerId = "invalidCust";
 
-        when(transactionRepository.findByCustomerId(invalidCustomerId)).thenReturn(Collections.emptyList());
+        when(transactionRepository.existsByCustomerId(invalidCustomerId)).thenReturn(false);
 
         CustomerNotFoundException exception = assertThrows(
                 CustomerNotFoundException.class,
@@ -146,7 +177,7 @@ class RewardServiceTest {
         );
 
         assertEquals("No transactions found for customer: " + invalidCustomerId, exception.getMessage());
-        verify(transactionRepository).findByCustomerId(invalidCustomerId);
+        verify(transactionRepository).findByCustomerIdAndDateBetween(invalidCustomerId, WINDOW_START, NOW);
     }
 
     /**
@@ -156,10 +187,10 @@ class RewardServiceTest {
     void shouldHandleNegativeTransactionAmounts() {
         String customerId = "custNegative";
         List<Transaction> transactions = List.of(
-                new Transaction("1", customerId, -50.0, LocalDateTime.now())
+                new Transaction("1", customerId, -50.0, NOW)
         );
 
-        when(transactionRepository.findByCustomerId(customerId)).thenReturn(transactions);
+        when(transactionRepository.findByCustomerIdAndDateBetween(eq(customerId), any(), any())).thenReturn(transactions);
 
         RewardSummary summary = rewardService.getRewardsByCustomer(customerId);
 
@@ -168,21 +199,66 @@ class RewardServiceTest {
     }
 
     /**
-     * Should handle transactions with future dates.
+     * Should end the queried window at the current time, so future-dated transactions are not read,
+     * and return an empty summary for a customer with no transactions in the window.
      */
     @Test
     void shouldHandleFutureDateTransactions() {
         String customerId = "custFuture";
-        List<Transaction> transactions = List.of(
-                new Transaction("1", customerId, 100.0, LocalDateTime.now().plusDays(1))
-        );
 
-        when(transactionRepository.findByCustomerId(customerId)).thenReturn(transactions);
+        when(transactionRepository.findByCustomerIdAndDateBetween(customerId, WINDOW_START, NOW)).thenReturn(List.of());
+        when(transactionRepository.existsByCustomerId(customerId)).thenReturn(true);
 
         RewardSummary summary = rewardService.getRewardsByCustomer(customerId);
 
         assertEquals(0, summary.getTotalPoints());
         assertTrue(summary.getMonthlyPoints().isEmpty());
+        verify(transactionRepository).findByCustomerIdAndDateBetween(customerId, WINDOW_START, NOW);
+    }
+
+    /**
+     * Should resolve windows from a number of months or from calendar dates, never past the current time.
+     */
+    @Test
+    void shouldResolveRequestedRewardWindows() {
+        assertEquals(new RewardWindow(WINDOW_START, NOW), rewardService.rewardWindow(null, null, null));
+        assertEquals(new RewardWindow(LocalDateTime.of(2024, 4, 1, 0, 0), NOW), rewardService.rewardWindow(null, null, 0));
+        assertEquals(new RewardWindow(LocalDateTime.of(2023, 11, 1, 0, 0), LocalDateTime.of(2024, 1, 31, 23, 59, 59, 999_999_999)),
+                rewardService.rewardWindow(null, LocalDate.of(2024, 1, 31), 2));
+        assertEquals(new RewardWindow(LocalDateTime.of(2023, 12, 24, 0, 0), NOW),
+                rewardService.rewardWindow(LocalDate.of(2023, 12, 24), LocalDate.of(2024, 6, 30), null));
+    }
+
+    /**
+     * Should reject inconsistent or overly long windows.
+     */
+    @Test
+    void shouldRejectInvalidRewardWindows() {
+        assertThrows(InvalidRewardWindowException.class, () -> rewardService.rewardWindow(LocalDate.of(2024, 1, 1), null, 2));
+        assertThrows(InvalidRewardWindowException.class, () -> rewardService.rewardWindow(null, null, -1));
+        assertThrows(InvalidRewardWindowException.class, () -> rewardService.rewardWindow(null, null, 25));
+        assertThrows(InvalidRewardWindowException.class, () -> rewardService.rewardWindow(LocalDate.of(2024, 3, 2), LocalDate.of(2024, 3, 1), null));
+        assertThrows(InvalidRewardWindowException.class, () -> rewardService.rewardWindow(LocalDate.of(2024, 5, 1), null, null));
+        assertThrows(InvalidRewardWindowException.class, () -> rewardService.rewardWindow(LocalDate.of(2021, 1, 1), null, null));
+    }
+
+    /**
+     * Should key monthly points by year so that the same month of two years stays apart.
+     */
+    @Test
+    void shouldSeparateSameMonthOfDifferentYears() {
+        String customerId = "custYears";
+        RewardWindow window = rewardService.rewardWindow(LocalDate.of(2023, 4, 1), null, null);
+        when(transactionRepository.findByCustomerIdAndDateBetween(customerId, window.start(), window.end())).thenReturn(List.of(
+                new Transaction("1", customerId, 120.0, LocalDateTime.of(2023, 4, 10, 9, 0)),
+                new Transaction("2", customerId, 60.0, LocalDateTime.of(2024, 4, 10, 9, 0))
+        ));
+
+        RewardSummary summary = rewardService.getRewardsByCustomer(customerId, window);
+
+        assertEquals(List.of(YearMonth.of(2023, 4), YearMonth.of(2024, 4)), List.copyOf(summary.getMonthlyPoints().keySet()));
+        assertEquals(90, summary.getMonthlyPoints().get(YearMonth.of(2023, 4)));
+        assertEquals(10, summary.getMonthlyPoints().get(YearMonth.of(2024, 4)));
     }
 
     /**
@@ -190,22 +266,10 @@ class RewardServiceTest {
      */
     @Test
     void testGetAllCustomerRewards() {
-        List<Transaction> transactions = List.of(
-                new Transaction("1", "customer1", 120.0, LocalDateTime.now().minusMonths(1)),
-                new Transaction("2", "customer1", 80.0, LocalDateTime.now().minusMonths(2)),
-                new Transaction("3", "customer2", 200.0, LocalDateTime.now().minusMonths(3))
-        );
-
-        when(transactionRepository.findAllCustomerIds()).thenReturn(transactions);
-        when(transactionRepository.findByCustomerId("customer1")).thenReturn(
-                List.of(
-                        new Transaction("1", "customer1", 120.0, LocalDateTime.now().minusMonths(1)),
-                        new Transaction("2", "customer1", 80.0, LocalDateTime.now().minusMonths(2))
-                )
-        );
-        when(transactionRepository.findByCustomerId("customer2")).thenReturn(
+        when(transactionRepository.aggregateRewardSummaries(any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(
                 List.of(
-                        new Transaction("3", "customer2", 200.0, LocalDateTime.now().minusMonths(3))
+                        new RewardSummary("customer1", Map.of(YearMonth.of(2024, 1), 120), 120),
+                        new RewardSummary("customer2", Map.of(), 0)
                 )
         );
 
@@ -215,6 +279,78 @@ class RewardServiceTest {
         assertEquals(2, rewardSummaries.size());
         assertEquals("customer1", rewardSummaries.get(0).getCustomerId());
         assertEquals("customer2", rewardSummaries.get(1).getCustomerId());
+
+        verify(transactionRepository).aggregateRewardSummaries(WINDOW_START, NOW);
+        verify(transactionRepository, never()).findByCustomerId(anyString());
+    }
+
+    /**
+     * Should return a page of summaries with a token that continues after the last customer.
+     */
+    @Test
+    void shouldReturnFirstPageWithNextPageToken() {
+        when(transactionRepository.findCustomerIdsAfter(null, 3)).thenReturn(List.of("customer1", "customer2", "customer3"));
+        when(transactionRepository.aggregateRewardSummaries(eq(List.of("customer1", "customer2")), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(
+                        new RewardSummary("customer1", Map.of(), 0),
+                        new RewardSummary("customer2", Map.of(), 0)
+                ));
+
+        RewardSummaryPage page = rewardService.getCustomerRewardsPage(null, 2);
+
+        assertEquals(2, page.getSummaries().size());
+        assertNotNull(page.getNextPageToken());
+
+        when(transactionRepository.findCustomerIdsAfter("customer2", 3)).thenReturn(List.of("customer3"));
+        when(transactionRepository.aggregateRewardSummaries(eq(List.of("customer3")), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(new RewardSummary("customer3", Map.of(), 0)));
+
+        RewardSummaryPage lastPage = rewardService.getCustomerRewardsPage(page.getNextPageToken(), 2);
+
+        assertEquals("customer3", lastPage.getSummaries().get(0).getCustomerId());
+        assertNull(lastPage.getNextPageToken(), "Last page should not have a next page token");
     }
 
+    /**
+     * Should clamp the requested page size to the configured maximum.
+     */
+    @Test
+    void shouldClampPageSizeToMaximum() {
+        when(transactionRepository.findCustomerIdsAfter(null, 1001)).thenReturn(List.of());
+
+        RewardSummaryPage page = rewardService.getCustomerRewardsPage(null, 1_000_000);
+
+        assertTrue(page.getSummaries().isEmpty());
+        assertNull(page.getNextPageToken());
+        verify(transactionRepository).findCustomerIdsAfter(null, 1001);
+    }
+
+    /**
+     * Should throw InvalidPageTokenException for a malformed page token.
+     */
+    @Test
+    void shouldThrowExceptionForInvalidPageToken() {
+        assertThrows(InvalidPageTokenException.class, () -> rewardService.getCustomerRewardsPage("not base64!", 10));
+    }
+
+    /**
+     * Should look up a batch with one query and report unknown customers inline.
+     */
+    @Test
+    void shouldReturnBatchRewardsAndReportNotFound() {
+        when(transactionRepository.aggregateRewardSummaries(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(
+                        new RewardSummary("customer1", Map.of(YearMonth.of(2024, 1), 90), 90),
+                        new RewardSummary("customer3", Map.of(), 0)
+                ));
+
+        BatchRewardsResponse response = rewardService.getRewardsByCustomers(List.of("customer3", "customer2", "customer1", "customer3"));
+
+        assertEquals(List.of("customer3", "customer1"), List.copyOf(response.getRewards().keySet()));
+        assertEquals(90, response.getRewards().get("customer1").getTotalPoints());
+        assertEquals(List.of("customer2"), response.getNotFound());
+        verify(transactionRepository, times(1)).aggregateRewardSummaries(
+                eq(new LinkedHashSet<>(List.of("customer3", "customer2", "customer1"))), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(transactionRepository, never()).findByCustomerId(anyString());
+    }
 }
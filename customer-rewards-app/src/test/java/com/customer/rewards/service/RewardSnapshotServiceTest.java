@@ -0,0 +1,142 @@
+package com.customer.rewards.service;
+
+import com.customer.rewards.EmbeddedMongoConfig;
+import com.customer.rewards.model.RewardSummary;
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.repository.TransactionRepository;
+import com.customer.rewards.rules.RewardRuleEngine;
+import com.customer.rewards.util.RewardSnapshotFile;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for {@link RewardSnapshotService} writing snapshots and serving from them after a restart,
+ * using an embedded MongoDB.
+ */
+@SpringBootTest(properties = {"rewards.snapshot.enabled=true", "rewards.snapshot.high-water-mark-lag=1h"})
+@Import(EmbeddedMongoConfig.class)
+class RewardSnapshotServiceTest {
+
+    private static Path path;
+
+    @DynamicPropertySource
+    static void snapshotPath(DynamicPropertyRegistry registry) throws IOException {
+        path = Files.createTempDirectory("reward-snapshot").resolve("snapshot.bin");
+        registry.add("rewards.snapshot.path", path::toString);
+    }
+
+    @Autowired
+    private RewardSnapshotService rewardSnapshotService;
+
+    @Autowired
+    private RewardService rewardService;
+
+    @Autowired
+    private RewardRuleEngine rewardRuleEngine;
+
+    @SpyBean
+    private TransactionRepository transactionRepository;
+
+    private final LocalDateTime lastMonth = LocalDateTime.now().minusMonths(1).withDayOfMonth(15);
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAll();
+        transactionRepository.saveAll(List.of(
+                new Transaction(twoHoursAgo(), "cust1", 120.0, lastMonth),                 // 90 points
+                new Transaction(twoHoursAgo(), "cust1", 200.0, lastMonth.minusMonths(1)),  // 250 points
+                new Transaction(twoHoursAgo(), "cust2", 300.0, lastMonth.minusYears(5))
+        ));
+        clearInvocations(transactionRepository);
+    }
+
+    /**
+     * Should serve reads from a written snapshot, and restore it after a restart, catching up with
+     * the transactions written after its high-water mark.
+     */
+    @Test
+    void shouldServeReadsFromRestoredSnapshot() throws IOException {
+        RewardSnapshotFile.Metadata metadata = rewardSnapshotService.write();
+        assertEquals(3, metadata.transactionCount());
+
+        RewardWindow window = rewardService.rewardWindow(null, null, null);
+        assertEquals(340, rewardService.getRewardsByCustomer("cust1", window).getTotalPoints());
+        transactionRepository.save(new Transaction(null, "cust1", 70.0, lastMonth)); // 20 points
+        assertEquals(360, rewardService.getRewardsByCustomer("cust1", window).getTotalPoints());
+        assertEquals(0, rewardService.getRewardsByCustomer("cust2", window).getTotalPoints());
+        verify(transactionRepository, never()).findByCustomerIdAndDateBetween(any(), any(), any());
+
+        RewardSnapshotService restarted = restart();
+        assertTrue(restarted.isRestored());
+        restarted.catchUpOnStartup();
+        assertEquals(360, restarted.getRewardsByCustomer("cust1", window).getTotalPoints());
+        assertNull(restarted.getRewardsByCustomer("unknown", window));
+    }
+
+    /**
+     * Should score windows that do not span whole months from the transactions, giving the same
+     * summary whether a snapshot is in use or not.
+     */
+    @Test
+    void shouldMatchWithoutSnapshotForWindowsWithinMonth() throws IOException {
+        transactionRepository.save(new Transaction(twoHoursAgo(), "cust1", 80.0, lastMonth.plusDays(5))); // 30 points
+        rewardSnapshotService.write();
+        assertTrue(rewardSnapshotService.isRestored());
+        RewardWindow window = rewardService.rewardWindow(lastMonth.plusDays(1).toLocalDate(), lastMonth.plusDays(10).toLocalDate(), null);
+
+        RewardSummary withSnapshot = rewardService.getRewardsByCustomer("cust1", window);
+        rewardSnapshotService.discard("testing reads without a snapshot");
+        RewardSummary withoutSnapshot = rewardService.getRewardsByCustomer("cust1", window);
+
+        assertEquals(30, withSnapshot.getTotalPoints());
+        assertEquals(withoutSnapshot, withSnapshot);
+    }
+
+    /**
+     * Should not restore a snapshot that no longer matches the database, and discard it on delete.
+     */
+    @Test
+    void shouldRejectStaleSnapshots() throws IOException {
+        rewardSnapshotService.write();
+        transactionRepository.save(new Transaction(twoHoursAgo(), "cust3", 60.0, lastMonth));
+        assertFalse(restart().isRestored());
+
+        transactionRepository.deleteAll();
+        assertFalse(rewardSnapshotService.isRestored());
+        assertFalse(Files.exists(path));
+    }
+
+    private RewardSnapshotService restart() {
+        RewardSnapshotService restarted = new RewardSnapshotService(transactionRepository, rewardRuleEngine,
+                Clock.systemDefaultZone(), true, path, Duration.ofHours(1), 24);
+        restarted.restore();
+        return restarted;
+    }
+
+    /**
+     * Returns the ID of a transaction written before the high-water mark.
+     */
+    private static String twoHoursAgo() {
+        return new ObjectId(Date.from(Instant.now().minus(Duration.ofHours(2)))).toHexString();
+    }
+}
@@ -0,0 +1,144 @@
+package com.customer.rewards.service;
+
+import com.customer.rewards.EmbeddedMongoConfig;
+import com.customer.rewards.exception.CustomerNotFoundException;
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.repository.TransactionRepository;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for caching of reward summaries and their invalidation, using an embedded MongoDB.
+ */
+@SpringBootTest
+@Import(EmbeddedMongoConfig.class)
+class RewardSummaryCacheTest {
+
+    @Autowired
+    private RewardService rewardService;
+
+    @Autowired
+    private RewardSummaryCache rewardSummaryCache;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @SpyBean
+    private TransactionRepository transactionRepository;
+
+    private final LocalDateTime lastWeek = LocalDateTime.now().minusDays(7);
+
+    @BeforeEach
+    void clearTransactions() {
+        transactionRepository.deleteAll();
+        clearInvocations(transactionRepository);
+    }
+
+    /**
+     * Should query the repository only once for repeated lookups.
+     */
+    @Test
+    void shouldServeRepeatedLookupsFromCache() {
+        transactionRepository.save(new Transaction(null, "cust1", 120.0, lastWeek));
+        CacheStats before = stats();
+
+        rewardService.getRewardsByCustomer("cust1");
+        rewardService.getRewardsByCustomer("cust1");
+
+        verify(transactionRepository, times(1)).findByCustomerIdAndDateBetween(eq("cust1"), any(), any());
+        assertEquals(1, stats().minus(before).hitCount());
+        assertEquals(1, stats().minus(before).missCount());
+    }
+
+    /**
+     * Should recompute a customer's summary after a transaction for that customer is saved.
+     */
+    @Test
+    void shouldEvictCustomerWhenTransactionSaved() {
+        transactionRepository.save(new Transaction(null, "cust1", 120.0, lastWeek));
+        transactionRepository.save(new Transaction(null, "cust2", 120.0, lastWeek));
+        assertEquals(90, rewardService.getRewardsByCustomer("cust1").getTotalPoints());
+        rewardService.getRewardsByCustomer("cust2");
+
+        transactionRepository.save(new Transaction(null, "cust1", 80.0, lastWeek));
+
+        assertEquals(120, rewardService.getRewardsByCustomer("cust1").getTotalPoints());
+        rewardService.getRewardsByCustomer("cust2");
+        verify(transactionRepository, times(2)).findByCustomerIdAndDateBetween(eq("cust1"), any(), any());
+        verify(transactionRepository, times(1)).findByCustomerIdAndDateBetween(eq("cust2"), any(), any());
+    }
+
+    /**
+     * Should recompute every summary after the month rolls over.
+     */
+    @Test
+    void shouldEvictAllOnMonthRollover() {
+        transactionRepository.save(new Transaction(null, "cust1", 120.0, lastWeek));
+        rewardService.getRewardsByCustomer("cust1");
+
+        rewardSummaryCache.evictOnMonthRollover();
+        rewardService.getRewardsByCustomer("cust1");
+
+        verify(transactionRepository, times(2)).findByCustomerIdAndDateBetween(eq("cust1"), any(), any());
+    }
+
+    /**
+     * Should not cache a summary computed before an eviction that arrived while it was being computed.
+     */
+    @Test
+    void shouldNotCacheSummaryComputedBeforeEviction() throws Exception {
+        transactionRepository.save(new Transaction(null, "cust1", 120.0, lastWeek));
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            reading.countDown();
+            release.await();
+            return List.of(new Transaction(null, "cust1", 120.0, lastWeek));
+        }).doAnswer(invocation -> List.of(new Transaction(null, "cust1", 120.0, lastWeek), new Transaction(null, "cust1", 80.0, lastWeek)))
+                .when(transactionRepository).findByCustomerIdAndDateBetween(eq("cust1"), any(), any());
+
+        CompletableFuture<Integer> stale = CompletableFuture.supplyAsync(() -> rewardService.getRewardsByCustomer("cust1").getTotalPoints());
+        reading.await();
+        Thread evicting = new Thread(() -> rewardSummaryCache.evict("cust1"));
+        evicting.start();
+        while (evicting.getState() == Thread.State.NEW || evicting.getState() == Thread.State.RUNNABLE) {
+            Thread.onSpinWait(); // Until the eviction has finished or waits for the computation
+        }
+        release.countDown();
+        evicting.join();
+
+        assertEquals(90, stale.get());
+        assertEquals(120, rewardService.getRewardsByCustomer("cust1").getTotalPoints());
+        verify(transactionRepository, times(2)).findByCustomerIdAndDateBetween(eq("cust1"), any(), any());
+    }
+
+    /**
+     * Should not cache lookups of unknown customers.
+     */
+    @Test
+    void shouldNotCacheUnknownCustomers() {
+        assertThrows(CustomerNotFoundException.class, () -> rewardService.getRewardsByCustomer("unknown"));
+        transactionRepository.save(new Transaction(null, "unknown", 120.0, lastWeek));
+
+        assertEquals(90, rewardService.getRewardsByCustomer("unknown").getTotalPoints());
+    }
+
+    private CacheStats stats() {
+        return ((CaffeineCache) cacheManager.getCache(RewardSummaryCache.CACHE_NAME)).getNativeCache().stats();
+    }
+}
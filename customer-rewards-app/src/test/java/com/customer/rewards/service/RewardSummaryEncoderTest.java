@@ -0,0 +1,96 @@
+package com.customer.rewards.service;
+
+import com.customer.rewards.configuration.JacksonConfig;
+import com.customer.rewards.model.RewardSummary;
+import com.customer.rewards.util.RewardSummaryProtobuf;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link RewardSummaryEncoder}.
+ */
+class RewardSummaryEncoderTest {
+
+    private final ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RewardSummaryEncoder encoder = new RewardSummaryEncoder(objectMapper, new RewardMetrics(meterRegistry), true, 100);
+
+    private final List<RewardSummary> summaries = List.of(
+            summary("cust1", 90, 250),
+            summary("cust2", 0, 1_000_000),
+            new RewardSummary("cust3", new LinkedHashMap<>(), 0));
+
+    /**
+     * Should write single summaries and lists that each format's reader decodes back, with the
+     * same JSON as the application's ObjectMapper.
+     */
+    @Test
+    void shouldRoundTripEveryFormat() throws IOException {
+        assertArrayEquals(objectMapper.writeValueAsBytes(summaries.get(0)), write(RewardSummaryEncoder.Format.JSON, summaries.get(0)));
+        assertArrayEquals(objectMapper.writeValueAsBytes(summaries), writeAll(RewardSummaryEncoder.Format.JSON, summaries));
+
+        TypeReference<List<RewardSummary>> list = new TypeReference<>() {
+        };
+        for (ObjectMapper mapper : List.of(objectMapper, JacksonConfig.configure(new CBORMapper()), JacksonConfig.configure(new SmileMapper()))) {
+            RewardSummaryEncoder.Format format = mapper instanceof CBORMapper ? RewardSummaryEncoder.Format.CBOR
+                    : mapper instanceof SmileMapper ? RewardSummaryEncoder.Format.SMILE : RewardSummaryEncoder.Format.JSON;
+            assertEquals(summaries.get(0), mapper.readValue(write(format, summaries.get(0)), RewardSummary.class), format.name());
+            assertEquals(summaries, mapper.readValue(writeAll(format, summaries), list), format.name());
+            assertEquals(List.of(), mapper.readValue(writeAll(format, List.of()), list), format.name());
+        }
+
+        assertEquals(summaries.get(1), RewardSummaryProtobuf.decode(write(RewardSummaryEncoder.Format.PROTOBUF, summaries.get(1))));
+        assertEquals(summaries, RewardSummaryProtobuf.decodeList(writeAll(RewardSummaryEncoder.Format.PROTOBUF, summaries)));
+        assertTrue(write(RewardSummaryEncoder.Format.PROTOBUF, summaries.get(0)).length < write(RewardSummaryEncoder.Format.JSON, summaries.get(0)).length);
+    }
+
+    /**
+     * Should reuse the bytes of an unchanged summary and encode a changed one again.
+     */
+    @Test
+    void shouldReusePreEncodedBytesOfUnchangedSummaries() {
+        RewardSummary summary = summary("cust1", 90, 250);
+        byte[] first = encoder.encode(RewardSummaryEncoder.Format.CBOR, summary);
+        assertSame(first, encoder.encode(RewardSummaryEncoder.Format.CBOR, summary("cust1", 90, 250)));
+
+        summary.getMonthlyPoints().put(YearMonth.of(2024, 3), 20);
+        summary.setTotalPoints(360);
+        assertNotSame(first, encoder.encode(RewardSummaryEncoder.Format.CBOR, summary));
+        assertNotSame(first, encoder.encode(RewardSummaryEncoder.Format.SMILE, summary("cust1", 90, 250)));
+
+        assertEquals(1.0, meterRegistry.get(RewardMetrics.ENCODING_CACHE).tag("result", "hit").counter().count());
+        assertEquals(3.0, meterRegistry.get(RewardMetrics.ENCODING_CACHE).tag("result", "miss").counter().count());
+    }
+
+    private byte[] write(RewardSummaryEncoder.Format format, RewardSummary summary) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        encoder.write(format, summary, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private byte[] writeAll(RewardSummaryEncoder.Format format, List<RewardSummary> summaries) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        encoder.writeAll(format, summaries, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private static RewardSummary summary(String customerId, int january, int february) {
+        Map<YearMonth, Integer> monthlyPoints = new LinkedHashMap<>();
+        monthlyPoints.put(YearMonth.of(2024, 1), january);
+        monthlyPoints.put(YearMonth.of(2024, 2), february);
+        return new RewardSummary(customerId, monthlyPoints, january + february);
+    }
+}
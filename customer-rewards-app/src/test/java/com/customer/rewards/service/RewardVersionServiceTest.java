@@ -0,0 +1,108 @@
+package com.customer.rewards.service;
+
+import com.customer.rewards.EmbeddedMongoConfig;
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.repository.TransactionRepository;
+import com.customer.rewards.rules.RewardRuleEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link RewardVersionService} following transaction writes, using an embedded MongoDB.
+ */
+@SpringBootTest
+@Import(EmbeddedMongoConfig.class)
+class RewardVersionServiceTest {
+
+    @Autowired
+    private RewardVersionService rewardVersionService;
+
+    @Autowired
+    private RewardService rewardService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private RewardRuleEngine rewardRuleEngine;
+
+    private final LocalDateTime lastWeek = LocalDateTime.now().minusDays(7);
+
+    @BeforeEach
+    void clearTransactions() {
+        transactionRepository.deleteAll();
+    }
+
+    /**
+     * Should change the version of a customer who gets a transaction, and list only that customer as changed.
+     */
+    @Test
+    void shouldAdvanceVersionOfChangedCustomerOnly() {
+        RewardWindow window = rewardService.rewardWindow(null, null, null);
+        String cust1 = rewardVersionService.customerVersion("cust1", window);
+        String cust2 = rewardVersionService.customerVersion("cust2", window);
+        String all = rewardVersionService.currentVersion(window);
+
+        transactionRepository.save(new Transaction(null, "cust1", 120.0, lastWeek));
+
+        assertNotEquals(cust1, rewardVersionService.customerVersion("cust1", window));
+        assertEquals(cust2, rewardVersionService.customerVersion("cust2", window));
+        assertNotEquals(all, rewardVersionService.currentVersion(window));
+        assertEquals(Set.of("cust1"), rewardVersionService.customersChangedSince(all, window));
+        assertEquals(Set.of(), rewardVersionService.customersChangedSince(rewardVersionService.currentVersion(window), window));
+    }
+
+    /**
+     * Should require a full response after a delete, for another window and for malformed versions.
+     */
+    @Test
+    void shouldRequireFullResponseWhenVersionCannotBeUsed() {
+        RewardWindow window = rewardService.rewardWindow(null, null, null);
+        transactionRepository.save(new Transaction(null, "cust1", 120.0, lastWeek));
+        String cust1 = rewardVersionService.customerVersion("cust1", window);
+        String all = rewardVersionService.currentVersion(window);
+
+        assertNull(rewardVersionService.customersChangedSince(all, rewardService.rewardWindow(null, null, 1)));
+        assertNull(rewardVersionService.customersChangedSince("not-a-version", window));
+        assertNull(rewardVersionService.customersChangedSince(null, window));
+
+        transactionRepository.deleteAll();
+
+        assertNotEquals(cust1, rewardVersionService.customerVersion("cust1", window));
+        assertNull(rewardVersionService.customersChangedSince(all, window));
+    }
+
+    /**
+     * Should keep a bounded number of customer sequences, versioning dropped customers with the highest dropped sequence.
+     */
+    @Test
+    void shouldVersionDroppedCustomersWithHighestDroppedSequence() {
+        RewardVersionService versions = new RewardVersionService(rewardRuleEngine, Clock.systemDefaultZone(), Duration.ofMinutes(10), 100, 2);
+        RewardWindow window = rewardService.rewardWindow(null, null, null);
+        versions.recordAll(List.of(new Transaction(null, "cust1", 120.0, lastWeek)));
+        String cust1 = versions.customerVersion("cust1", window);
+        String unknown = versions.customerVersion("unknown", window);
+
+        versions.recordAll(List.of(new Transaction(null, "cust2", 120.0, lastWeek)));
+        assertEquals(cust1, versions.customerVersion("cust1", window));
+        assertEquals(unknown, versions.customerVersion("unknown", window));
+
+        versions.recordAll(List.of(new Transaction(null, "cust3", 120.0, lastWeek)));
+        assertEquals(cust1, versions.customerVersion("cust1", window), "cust1 is dropped with its own sequence");
+        assertNotEquals(unknown, versions.customerVersion("unknown", window));
+
+        versions.recordAll(List.of(new Transaction(null, "cust1", 50.0, lastWeek)));
+        assertNotEquals(cust1, versions.customerVersion("cust1", window));
+    }
+}
@@ -0,0 +1,155 @@
+package com.customer.rewards.service;
+
+import com.customer.rewards.EmbeddedMongoConfig;
+import com.customer.rewards.configuration.MongoIndexInitializer;
+import com.customer.rewards.model.LoadCheckpoint;
+import com.customer.rewards.model.LoadReport;
+import com.customer.rewards.model.RewardLedgerEntry;
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.repository.LoadCheckpointRepository;
+import com.customer.rewards.repository.RewardLedgerRepository;
+import com.customer.rewards.repository.TransactionRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for streaming bulk loads with {@link TransactionBulkLoader}, using an embedded MongoDB.
+ */
+@SpringBootTest(properties = "rewards.loader.batch-size=4")
+@Import(EmbeddedMongoConfig.class)
+class TransactionBulkLoaderTest {
+
+    private static final String SOURCE = "test-export";
+
+    @Autowired
+    private TransactionBulkLoader transactionBulkLoader;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private LoadCheckpointRepository loadCheckpointRepository;
+
+    @Autowired
+    private RewardLedgerRepository rewardLedgerRepository;
+
+    @Autowired
+    private MongoIndexInitializer mongoIndexInitializer;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final LocalDateTime lastMonth = LocalDateTime.now().minusMonths(1).withDayOfMonth(15).withNano(0);
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAll();
+        loadCheckpointRepository.deleteAll();
+    }
+
+    private String json(int records) {
+        String date = lastMonth.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        return IntStream.range(0, records)
+                .mapToObj(i -> "{\"customerId\":\"cust" + (i % 3) + "\",\"amount\":120.0,\"date\":\"" + date + "\"}")
+                .collect(Collectors.joining(",", "[", "]"));
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Should replace the existing transactions, keep indexes, and rebuild the ledger.
+     */
+    @Test
+    void shouldReplaceTransactions() throws Exception {
+        transactionRepository.save(new Transaction(null, "old", 120.0, lastMonth));
+
+        LoadReport report = transactionBulkLoader.load(SOURCE, stream(json(10)));
+
+        assertEquals(10, report.getLoadedRecords());
+        assertEquals(0, report.getResumedFromOffset());
+        assertEquals(10, transactionRepository.count());
+        assertFalse(transactionRepository.existsByCustomerId("old"));
+        assertFalse(mongoTemplate.collectionExists("transactions" + TransactionBulkLoader.STAGING_SUFFIX));
+        assertTrue(mongoIndexInitializer.findMissingIndexes().isEmpty());
+        assertTrue(loadCheckpointRepository.findById(SOURCE).isEmpty());
+        assertEquals(360, rewardLedgerRepository.findById(RewardLedgerEntry.idOf("cust0", YearMonth.from(lastMonth)))
+                .orElseThrow().getPoints());
+        assertFalse(rewardLedgerRepository.existsByCustomerId("old"));
+    }
+
+    /**
+     * Should leave the live transactions untouched when a load fails, and resume it from the checkpoint.
+     */
+    @Test
+    void shouldResumeInterruptedLoad() throws Exception {
+        transactionRepository.save(new Transaction(null, "old", 120.0, lastMonth));
+        String complete = json(10);
+        // Truncated after the seventh record: one full batch of four is stored before the failure
+        String truncated = complete.substring(0, nthIndexOf(complete, '}', 7) + 1) + ",{\"customerId\":";
+
+        assertThrows(JsonProcessingException.class, () -> transactionBulkLoader.load(SOURCE, stream(truncated)));
+
+        assertEquals(1, transactionRepository.count());
+        LoadCheckpoint checkpoint = loadCheckpointRepository.findById(SOURCE).orElseThrow();
+        assertEquals(4, checkpoint.getOffset());
+
+        transactionBulkLoader.load(SOURCE, stream(complete));
+
+        assertEquals(10, transactionRepository.count());
+        assertFalse(transactionRepository.existsByCustomerId("old"));
+    }
+
+    /**
+     * Should not create duplicates when batches are re-inserted after an interruption.
+     */
+    @Test
+    void shouldIgnoreRecordsStoredBeforeInterruption() throws Exception {
+        String complete = json(10);
+        String truncated = complete.substring(0, nthIndexOf(complete, '}', 6) + 1) + ",{";
+        assertThrows(JsonProcessingException.class, () -> transactionBulkLoader.load(SOURCE, stream(truncated)));
+
+        // Roll the checkpoint back, as if the run failed after inserting a batch but before checkpointing it
+        LoadCheckpoint checkpoint = loadCheckpointRepository.findById(SOURCE).orElseThrow();
+        checkpoint.setOffset(0);
+        loadCheckpointRepository.save(checkpoint);
+
+        LoadReport report = transactionBulkLoader.load(SOURCE, stream(complete));
+
+        assertEquals(10, report.getLoadedRecords());
+        assertEquals(10, transactionRepository.count());
+    }
+
+    /**
+     * Should reject input that is not a JSON array.
+     */
+    @Test
+    void shouldRejectNonArrayInput() {
+        assertThrows(JsonProcessingException.class, () -> transactionBulkLoader.load(SOURCE, stream("{\"customerId\":\"cust1\"}")));
+    }
+
+    private static int nthIndexOf(String text, char character, int n) {
+        int index = -1;
+        for (int i = 0; i < n; i++) {
+            index = text.indexOf(character, index + 1);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,131 @@
+package com.customer.rewards.service;
+
+import com.customer.rewards.EmbeddedMongoConfig;
+import com.customer.rewards.model.LoadReport;
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for parallel directory ingestion with {@link TransactionFileLoader}, using an embedded MongoDB.
+ * Small splits and batches make sure every file is cut into many splits.
+ */
+@SpringBootTest(properties = {
+        "rewards.loader.batch-size=25",
+        "rewards.loader.split-size=1KB",
+        "rewards.loader.parser-threads=4",
+        "rewards.loader.writer-threads=2"
+})
+@Import(EmbeddedMongoConfig.class)
+class TransactionFileLoaderTest {
+
+    @Autowired
+    private TransactionFileLoader transactionFileLoader;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @TempDir
+    private Path directory;
+
+    private final LocalDateTime lastMonth = LocalDateTime.now().minusMonths(1).withDayOfMonth(15).withNano(0);
+
+    @BeforeEach
+    void clearTransactions() {
+        transactionRepository.deleteAll();
+    }
+
+    /**
+     * Should load every record of NDJSON and CSV files, ignoring other files and blank lines.
+     */
+    @Test
+    void shouldLoadNdjsonAndCsvFiles() throws IOException {
+        transactionRepository.save(new Transaction(null, "old", 120.0, lastMonth));
+        Files.writeString(directory.resolve("a.ndjson"), IntStream.range(0, 500)
+                .mapToObj(i -> "{\"customerId\":\"cust" + (i % 5) + "\",\"amount\":" + (i % 200) + ".5,\"date\":\"" + lastMonth + "\"}")
+                .collect(Collectors.joining("\n", "", "\n\n")));
+        Files.writeString(directory.resolve("b.csv"), IntStream.range(0, 300)
+                .mapToObj(i -> "csv" + (i % 3) + "," + (i % 200) + ".25," + lastMonth + "," + (i % 2 == 0 ? "grocery" : ""))
+                .collect(Collectors.joining("\r\n", "customerId,amount,date,category\r\n", "")));
+        Files.writeString(directory.resolve("notes.txt"), "not a transaction file");
+
+        LoadReport report = transactionFileLoader.loadDirectory(directory);
+
+        assertEquals(800, report.getLoadedRecords());
+        assertEquals(800, transactionRepository.count());
+        assertFalse(transactionRepository.existsByCustomerId("old"));
+
+        List<Transaction> cust1 = transactionRepository.findByCustomerId("cust1");
+        assertEquals(100, cust1.size());
+        assertEquals(IntStream.range(0, 500).filter(i -> i % 5 == 1).mapToDouble(i -> i % 200 + 0.5).sum(),
+                cust1.stream().mapToDouble(Transaction::getAmount).sum(), 1e-6);
+
+        List<Transaction> csv0 = transactionRepository.findByCustomerId("csv0");
+        assertEquals(100, csv0.size());
+        assertEquals(50, csv0.stream().filter(transaction -> "grocery".equals(transaction.getCategory())).count());
+        assertTrue(csv0.stream().allMatch(transaction -> transaction.getDate().equals(lastMonth)));
+    }
+
+    /**
+     * Should fail on a malformed record and leave the live transactions untouched.
+     */
+    @Test
+    void shouldKeepTransactionsWhenARecordIsMalformed() throws IOException {
+        transactionRepository.save(new Transaction(null, "old", 120.0, lastMonth));
+        String valid = "{\"customerId\":\"cust1\",\"amount\":80.0,\"date\":\"" + lastMonth + "\"}";
+        Files.writeString(directory.resolve("a.jsonl"), String.join("\n", valid, valid, "{\"customerId\":", valid));
+
+        IOException exception = assertThrows(IOException.class, () -> transactionFileLoader.loadDirectory(directory));
+
+        assertTrue(exception.getMessage().contains("a.jsonl"), exception.getMessage());
+        assertEquals(1, transactionRepository.count());
+        assertTrue(transactionRepository.existsByCustomerId("old"));
+    }
+
+    /**
+     * Should reject records missing a required field, in NDJSON and CSV files alike, and leave the
+     * live transactions untouched.
+     */
+    @Test
+    void shouldRejectRecordsMissingRequiredFields() throws IOException {
+        transactionRepository.save(new Transaction(null, "old", 120.0, lastMonth));
+        Files.writeString(directory.resolve("a.jsonl"), "{\"customerId\":\"cust1\",\"amount\":80.0}\n");
+
+        IOException ndjson = assertThrows(IOException.class, () -> transactionFileLoader.loadDirectory(directory));
+        assertTrue(ndjson.getMessage().contains("date must not be null"), ndjson.getMessage());
+
+        Files.delete(directory.resolve("a.jsonl"));
+        Files.writeString(directory.resolve("a.csv"), "customerId,amount,date\n ,80.0," + lastMonth + "\ncust1,," + lastMonth + "\n");
+
+        IOException csv = assertThrows(IOException.class, () -> transactionFileLoader.loadDirectory(directory));
+        assertTrue(csv.getMessage().contains("a.csv"), csv.getMessage());
+        assertTrue(csv.getMessage().contains("must not be"), csv.getMessage());
+        assertEquals(1, transactionRepository.count());
+        assertTrue(transactionRepository.existsByCustomerId("old"));
+    }
+
+    /**
+     * Should reject CSV files without the required header columns.
+     */
+    @Test
+    void shouldRejectCsvWithoutHeader() throws IOException {
+        Files.writeString(directory.resolve("a.csv"), "cust1,80.0," + lastMonth + "\n");
+
+        assertThrows(IOException.class, () -> transactionFileLoader.loadDirectory(directory));
+    }
+}
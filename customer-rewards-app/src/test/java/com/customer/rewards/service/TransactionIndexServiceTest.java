@@ -0,0 +1,140 @@
+package com.customer.rewards.service;
+
+import com.customer.rewards.EmbeddedMongoConfig;
+import com.customer.rewards.exception.CustomerNotFoundException;
+import com.customer.rewards.model.RewardSummary;
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for {@link TransactionIndexService} serving per-customer reads, using an embedded MongoDB.
+ */
+@SpringBootTest(properties = "rewards.index.enabled=true")
+@Import(EmbeddedMongoConfig.class)
+class TransactionIndexServiceTest {
+
+    @Autowired
+    private TransactionIndexService transactionIndexService;
+
+    @Autowired
+    private RewardService rewardService;
+
+    @SpyBean
+    private TransactionRepository transactionRepository;
+
+    private final LocalDateTime lastMonth = LocalDateTime.now().minusMonths(1).withDayOfMonth(15);
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAll();
+        transactionRepository.saveAll(List.of(
+                new Transaction(null, "cust1", 120.0, lastMonth),                 // 90 points
+                new Transaction(null, "cust1", 200.0, lastMonth.minusMonths(1)),  // 250 points
+                new Transaction(null, "cust1", 75.0, LocalDateTime.now().plusDays(2)),
+                new Transaction(null, "cust2", 300.0, lastMonth.minusYears(5))
+        ));
+        transactionIndexService.rebuild().join();
+        clearInvocations(transactionRepository);
+    }
+
+    /**
+     * Should score customers from the index without querying their transactions, and keep it up to date on save.
+     */
+    @Test
+    void shouldServeReadsFromIndex() {
+        RewardWindow window = rewardService.rewardWindow(null, null, null);
+        RewardSummary summary = rewardService.getRewardsByCustomer("cust1", window);
+
+        assertEquals(340, summary.getTotalPoints());
+        assertEquals(Map.of(YearMonth.from(lastMonth), 90, YearMonth.from(lastMonth.minusMonths(1)), 250), summary.getMonthlyPoints());
+
+        transactionRepository.save(new Transaction(null, "cust1", 70.0, lastMonth)); // 20 points
+        assertEquals(360, rewardService.getRewardsByCustomer("cust1", window).getTotalPoints());
+        verify(transactionRepository, never()).streamByDateGreaterThanEqual(any());
+        verify(transactionRepository, never()).findByCustomerIdAndDateBetween(any(), any(), any());
+    }
+
+    /**
+     * Should leave windows before the index, and customers it does not hold, to MongoDB.
+     */
+    @Test
+    void shouldFallBackToMongoOutsideIndex() {
+        RewardWindow old = rewardService.rewardWindow(LocalDate.from(lastMonth.minusYears(5).withDayOfMonth(1)),
+                LocalDate.from(lastMonth.minusYears(5).withDayOfMonth(28)), null);
+        assertNull(transactionIndexService.getRewardsByCustomer("cust2", old));
+        assertEquals(450, rewardService.getRewardsByCustomer("cust2", old).getTotalPoints());
+
+        RewardWindow window = rewardService.rewardWindow(null, null, null);
+        assertEquals(0, rewardService.getRewardsByCustomer("cust2", window).getTotalPoints());
+        assertThrows(CustomerNotFoundException.class, () -> rewardService.getRewardsByCustomer("unknown", window));
+        assertTrue(transactionIndexService.footprint().transactions() >= 3);
+    }
+
+    /**
+     * Should leave reads to MongoDB while the index is rebuilt after an invalidation, then serve them from the new index.
+     */
+    @Test
+    void shouldFallBackToMongoWhileRebuilding() throws InterruptedException {
+        CountDownLatch scanning = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            scanning.countDown();
+            release.await();
+            return Stream.of(new Transaction(null, "cust1", 120.0, lastMonth));
+        }).when(transactionRepository).streamByDateGreaterThanEqual(any());
+
+        transactionIndexService.invalidate();
+        scanning.await();
+        RewardWindow window = rewardService.rewardWindow(null, null, null);
+        assertEquals(340, rewardService.getRewardsByCustomer("cust1", window).getTotalPoints());
+        verify(transactionRepository).findByCustomerIdAndDateBetween(eq("cust1"), any(), any());
+
+        release.countDown();
+        transactionIndexService.rebuild().join();
+        assertEquals(90, rewardService.getRewardsByCustomer("cust1", window).getTotalPoints());
+        verify(transactionRepository, times(1)).findByCustomerIdAndDateBetween(eq("cust1"), any(), any());
+    }
+
+    /**
+     * Should add transactions written while the index is built to the new index.
+     */
+    @Test
+    void shouldApplyTransactionsRecordedWhileBuilding() throws Exception {
+        CountDownLatch scanning = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            scanning.countDown();
+            release.await();
+            return Stream.of(new Transaction(null, "cust1", 120.0, lastMonth));
+        }).when(transactionRepository).streamByDateGreaterThanEqual(any());
+
+        CompletableFuture<Void> build = transactionIndexService.rebuild();
+        scanning.await();
+        transactionIndexService.recordAll(List.of(new Transaction(null, "cust1", 200.0, lastMonth))); // 250 points
+        release.countDown();
+        build.join();
+
+        RewardWindow window = rewardService.rewardWindow(null, null, null);
+        clearInvocations(transactionRepository);
+        assertEquals(340, rewardService.getRewardsByCustomer("cust1", window).getTotalPoints());
+        verify(transactionRepository, never()).findByCustomerIdAndDateBetween(any(), any(), any());
+    }
+}
@@ -0,0 +1,111 @@
+package com.customer.rewards.service;
+
+import com.customer.rewards.EmbeddedMongoConfig;
+import com.customer.rewards.model.RewardSummary;
+import com.customer.rewards.model.Transaction;
+import com.customer.rewards.repository.TransactionRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link TransactionIngestService}, using an embedded MongoDB.
+ */
+@SpringBootTest(properties = {"rewards.ingest.batch-size=50", "rewards.ingest.flush-interval=200ms"})
+@Import(EmbeddedMongoConfig.class)
+class TransactionIngestServiceTest {
+
+    @Autowired
+    private TransactionIngestService transactionIngestService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private RewardLedgerService rewardLedgerService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final LocalDateTime lastMonth = LocalDateTime.now().minusMonths(1).withDayOfMonth(15);
+
+    @BeforeEach
+    void clearTransactions() {
+        transactionRepository.deleteAll();
+    }
+
+    /**
+     * Should group concurrent submissions into few bulk inserts and acknowledge each once stored.
+     */
+    @Test
+    void shouldWriteSubmissionsInMicroBatches() throws Exception {
+        DistributionSummary batches = meterRegistry.get(RewardMetrics.INGEST_BATCH_SIZE).summary();
+        long batchesBefore = batches.count();
+
+        List<CompletableFuture<TransactionIngestService.Acknowledgement>> acknowledgements = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            acknowledgements.add(transactionIngestService.submit(List.of(new Transaction(null, "cust" + (i % 4), 120.0, lastMonth))));
+        }
+        for (CompletableFuture<TransactionIngestService.Acknowledgement> acknowledgement : acknowledgements) {
+            Transaction written = acknowledgement.get(10, TimeUnit.SECONDS).written().get(0);
+            assertNotNull(written.getId());
+        }
+
+        assertEquals(100, transactionRepository.count());
+        assertTrue(batches.count() - batchesBefore <= 4, "Expected at most 4 bulk inserts, got " + (batches.count() - batchesBefore));
+        // The ledger follows each committed batch
+        assertEquals(25 * 90, rewardLedgerService.getRewardsByCustomer("cust0", YearMonth.from(lastMonth), YearMonth.from(lastMonth)).getTotalPoints());
+    }
+
+    /**
+     * Should report resubmitted transactions as duplicates without storing them twice.
+     */
+    @Test
+    void shouldNotDuplicateResubmittedTransactions() throws Exception {
+        List<Transaction> written = transactionIngestService.submit(List.of(
+                new Transaction(null, "cust1", 120.0, lastMonth),
+                new Transaction(null, "cust1", 80.0, lastMonth))).get(10, TimeUnit.SECONDS).written();
+
+        TransactionIngestService.Acknowledgement resubmitted = transactionIngestService.submit(List.of(
+                new Transaction(written.get(0).getId(), "cust1", 120.0, lastMonth),
+                new Transaction(null, "cust1", 60.0, lastMonth))).get(10, TimeUnit.SECONDS);
+
+        assertEquals(List.of(written.get(0).getId()), resubmitted.duplicates());
+        assertEquals(1, resubmitted.written().size());
+        assertEquals(List.of(), resubmitted.conflicts());
+        assertEquals(3, transactionRepository.count());
+        // Only the newly stored transactions reach the ledger
+        RewardSummary ledger = rewardLedgerService.getRewardsByCustomer("cust1", YearMonth.from(lastMonth), YearMonth.from(lastMonth));
+        assertEquals(90 + 30 + 10, ledger.getTotalPoints());
+    }
+
+    /**
+     * Should report a transaction reusing the ID of another one as a conflict, keeping the stored one.
+     */
+    @Test
+    void shouldReportConflictingResubmissions() throws Exception {
+        Transaction stored = transactionIngestService.submit(List.of(new Transaction(null, "cust1", 120.0, lastMonth)))
+                .get(10, TimeUnit.SECONDS).written().get(0);
+
+        TransactionIngestService.Acknowledgement resubmitted = transactionIngestService.submit(List.of(
+                new Transaction(stored.getId(), "cust1", 500.0, lastMonth))).get(10, TimeUnit.SECONDS);
+
+        assertEquals(List.of(stored.getId()), resubmitted.conflicts());
+        assertEquals(List.of(), resubmitted.duplicates());
+        assertEquals(List.of(), resubmitted.written());
+        assertEquals(120.0, transactionRepository.findById(stored.getId()).orElseThrow().getAmount());
+    }
+}
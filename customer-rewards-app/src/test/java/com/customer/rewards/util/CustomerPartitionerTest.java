@@ -0,0 +1,39 @@
+package com.customer.rewards.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link CustomerPartitioner}.
+ */
+class CustomerPartitionerTest {
+
+    /**
+     * Should spread sequential customer IDs evenly and always assign a customer to the same partition.
+     */
+    @Test
+    void shouldSpreadSequentialIdsEvenlyAndStably() {
+        CustomerPartitioner partitioner = new CustomerPartitioner(4);
+        int[] counts = new int[4];
+
+        for (int i = 0; i < 10_000; i++) {
+            int partition = partitioner.partitionOf("cust" + i);
+            assertEquals(partition, new CustomerPartitioner(4).partitionOf("cust" + i));
+            counts[partition]++;
+        }
+
+        for (int count : counts) {
+            assertTrue(count > 2300 && count < 2700, "Unbalanced partition size " + count);
+        }
+    }
+
+    /**
+     * Should put every customer in the only partition, and reject fewer than one partition.
+     */
+    @Test
+    void shouldHandleSinglePartitionAndRejectNone() {
+        assertEquals(0, new CustomerPartitioner(1).partitionOf("cust1"));
+        assertThrows(IllegalArgumentException.class, () -> new CustomerPartitioner(0));
+    }
+}
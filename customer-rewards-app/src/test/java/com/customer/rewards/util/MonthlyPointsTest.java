@@ -0,0 +1,60 @@
+package com.customer.rewards.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link MonthlyPoints}.
+ */
+class MonthlyPointsTest {
+
+    /**
+     * Should sum points per month across a year boundary and list the months chronologically.
+     */
+    @Test
+    void shouldSumPointsPerMonthAcrossYearBoundary() {
+        MonthlyPoints monthlyPoints = new MonthlyPoints(YearMonth.of(2025, 11), YearMonth.of(2026, 2));
+
+        monthlyPoints.add(LocalDateTime.of(2026, 1, 3, 9, 0), 40);
+        monthlyPoints.add(LocalDateTime.of(2025, 11, 30, 23, 59), 25);
+        monthlyPoints.add(2026, 1, 10);
+        monthlyPoints.add(2026, 2, 5);
+
+        Map<YearMonth, Integer> points = monthlyPoints.toMap();
+        assertEquals(List.of(YearMonth.of(2025, 11), YearMonth.of(2026, 1), YearMonth.of(2026, 2)), List.copyOf(points.keySet()));
+        assertEquals(50, points.get(YearMonth.of(2026, 1)));
+        assertEquals(80, monthlyPoints.totalPoints());
+    }
+
+    /**
+     * Should reject months outside the window.
+     */
+    @Test
+    void shouldRejectMonthsOutsideWindow() {
+        MonthlyPoints monthlyPoints = new MonthlyPoints(YearMonth.of(2025, 11), YearMonth.of(2026, 2));
+
+        assertThrows(IllegalArgumentException.class, () -> monthlyPoints.add(2025, 10, 1));
+        assertThrows(IllegalArgumentException.class, () -> monthlyPoints.add(2026, 3, 1));
+        assertThrows(IllegalArgumentException.class, () -> new MonthlyPoints(YearMonth.of(2026, 2), YearMonth.of(2025, 11)));
+    }
+
+    /**
+     * Should start from zero again after clearing.
+     */
+    @Test
+    void shouldResetAfterClear() {
+        MonthlyPoints monthlyPoints = new MonthlyPoints(YearMonth.of(2026, 1), YearMonth.of(2026, 4));
+        monthlyPoints.add(2026, 3, 30);
+
+        monthlyPoints.clear();
+
+        assertTrue(monthlyPoints.toMap().isEmpty());
+        assertEquals(0, monthlyPoints.totalPoints());
+    }
+}
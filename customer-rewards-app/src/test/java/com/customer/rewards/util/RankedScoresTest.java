@@ -0,0 +1,86 @@
+package com.customer.rewards.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link RankedScores}.
+ */
+class RankedScoresTest {
+
+    /**
+     * Should list customers by points and give customers with equal points the same rank.
+     */
+    @Test
+    void shouldRankCustomersByPointsWithSharedRanksForTies() {
+        RankedScores scores = new RankedScores();
+        scores.add("cust1", 90);
+        scores.add("cust2", 250);
+        scores.add("cust3", 90);
+        scores.add("cust4", 0);
+
+        assertEquals(List.of(
+                new RankedScores.Ranking(1, "cust2", 250),
+                new RankedScores.Ranking(2, "cust1", 90),
+                new RankedScores.Ranking(2, "cust3", 90)), scores.top(3));
+        assertEquals(new RankedScores.Ranking(4, "cust4", 0), scores.rank("cust4"));
+        assertNull(scores.rank("unknown"));
+        assertEquals(4, scores.size());
+    }
+
+    /**
+     * Should move a customer when points are added, and only register a customer when adding zero.
+     */
+    @Test
+    void shouldReorderCustomersAsPointsAreAdded() {
+        RankedScores scores = new RankedScores();
+        scores.add("cust1", 90);
+        scores.add("cust2", 40);
+
+        scores.add("cust2", 60);
+        scores.add("cust1", 0);
+        scores.add("cust3", 0);
+
+        assertEquals(new RankedScores.Ranking(1, "cust2", 100), scores.rank("cust2"));
+        assertEquals(new RankedScores.Ranking(2, "cust1", 90), scores.rank("cust1"));
+        assertEquals(3, scores.size());
+    }
+
+    /**
+     * Should agree with sorting every customer after a random sequence of updates.
+     */
+    @Test
+    void shouldMatchFullSortAfterRandomUpdates() {
+        RankedScores scores = new RankedScores();
+        Map<String, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 5000; i++) {
+            String customerId = "cust" + random.nextInt(300);
+            int points = random.nextInt(200) - 20;
+            scores.add(customerId, points);
+            expected.merge(customerId, points, Integer::sum);
+        }
+
+        List<Map.Entry<String, Integer>> sorted = new ArrayList<>(expected.entrySet());
+        sorted.sort(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()).thenComparing(Map.Entry.comparingByKey()));
+
+        List<RankedScores.Ranking> top = scores.top(sorted.size());
+        assertEquals(sorted.size(), top.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            String customerId = sorted.get(i).getKey();
+            int points = sorted.get(i).getValue();
+            long rank = expected.values().stream().filter(p -> p > points).count() + 1;
+            assertEquals(new RankedScores.Ranking((int) rank, customerId, points), top.get(i));
+            assertEquals(top.get(i), scores.rank(customerId));
+        }
+    }
+}
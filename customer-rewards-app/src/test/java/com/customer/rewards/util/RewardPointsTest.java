@@ -0,0 +1,34 @@
+package com.customer.rewards.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link RewardPoints}.
+ */
+class RewardPointsTest {
+
+    /**
+     * Should convert every amount with two decimals from -$10.00 to $1,000.00 to its exact number of cents.
+     */
+    @Test
+    void shouldConvertEveryCentExactly() {
+        for (long cents = -1_000; cents <= 100_000; cents++) {
+            assertEquals(cents, RewardPoints.toCents(BigDecimal.valueOf(cents, 2).doubleValue()), "cents " + cents);
+        }
+    }
+
+    /**
+     * Should round amounts to the nearest cent.
+     */
+    @Test
+    void shouldConvertToCents() {
+        assertEquals(10001, RewardPoints.toCents(100.01));
+        assertEquals(29, RewardPoints.toCents(0.29));
+        assertEquals(-5000, RewardPoints.toCents(-50.0));
+        assertEquals(1235, RewardPoints.toCents(12.345));
+    }
+}
@@ -0,0 +1,93 @@
+package com.customer.rewards.util;
+
+import com.customer.rewards.model.RewardSummary;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link RewardSnapshotFile}.
+ */
+class RewardSnapshotFileTest {
+
+    private static final YearMonth FIRST_MONTH = YearMonth.of(2024, 1);
+
+    @TempDir
+    private Path directory;
+
+    private final RewardSnapshotFile.Metadata metadata = new RewardSnapshotFile.Metadata(1_700_000_000_000L,
+            new ObjectId().toByteArray(), 3, 42, FIRST_MONTH, 3);
+
+    private final List<RewardSummary> summaries = List.of(
+            summary("cust1", Map.of(YearMonth.of(2024, 1), 90, YearMonth.of(2024, 3), 250)),
+            summary("cust10", Map.of(YearMonth.of(2024, 2), 25, YearMonth.of(2023, 12), 1000)),
+            summary("cust2", Map.of()));
+
+    /**
+     * Should read back the metadata and each customer's points for the months held.
+     */
+    @Test
+    void shouldRoundTripCustomerPoints() throws IOException {
+        Path path = directory.resolve("snapshot.bin");
+        assertEquals(3, RewardSnapshotFile.write(path, metadata, summaries.iterator()));
+
+        RewardSnapshotFile file = RewardSnapshotFile.open(path);
+        assertEquals(3, file.customerCount());
+        assertEquals(metadata.createdAtMilli(), file.metadata().createdAtMilli());
+        assertArrayEquals(metadata.highWaterMark(), file.metadata().highWaterMark());
+        assertEquals(42, file.metadata().transactionCount());
+        assertEquals(YearMonth.of(2024, 3), file.metadata().lastMonth());
+
+        MonthlyPoints cust1 = new MonthlyPoints(YearMonth.of(2023, 11), YearMonth.of(2024, 2));
+        assertTrue(file.addPoints("cust1", cust1, YearMonth.of(2023, 11), YearMonth.of(2024, 2)));
+        assertEquals(Map.of(YearMonth.of(2024, 1), 90), cust1.toMap());
+
+        MonthlyPoints cust10 = new MonthlyPoints(FIRST_MONTH, YearMonth.of(2024, 3));
+        assertTrue(file.addPoints("cust10", cust10, FIRST_MONTH, YearMonth.of(2024, 3)));
+        assertEquals(25, cust10.totalPoints());
+
+        MonthlyPoints cust2 = new MonthlyPoints(FIRST_MONTH, YearMonth.of(2024, 3));
+        assertTrue(file.addPoints("cust2", cust2, FIRST_MONTH, YearMonth.of(2024, 3)));
+        assertEquals(0, cust2.totalPoints());
+        assertFalse(file.addPoints("cust3", cust2, FIRST_MONTH, YearMonth.of(2024, 3)));
+        assertFalse(file.addPoints("cust", cust2, FIRST_MONTH, YearMonth.of(2024, 3)));
+    }
+
+    /**
+     * Should refuse customers out of order, and reject files with a corrupted byte.
+     */
+    @Test
+    void shouldRejectUnorderedAndCorruptSnapshots() throws IOException {
+        Path path = directory.resolve("snapshot.bin");
+        assertThrows(IllegalStateException.class,
+                () -> RewardSnapshotFile.write(path, metadata, List.of(summaries.get(2), summaries.get(0)).iterator()));
+
+        RewardSnapshotFile.write(path, metadata, summaries.iterator());
+        byte[] bytes = Files.readAllBytes(path);
+        byte[] corrupt = Arrays.copyOf(bytes, bytes.length);
+        corrupt[bytes.length / 2] ^= 1;
+        Files.write(path, corrupt);
+        assertThrows(IOException.class, () -> RewardSnapshotFile.open(path));
+
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IOException.class, () -> RewardSnapshotFile.open(path));
+    }
+
+    private static RewardSummary summary(String customerId, Map<YearMonth, Integer> monthlyPoints) {
+        return RewardSummary.builder()
+                .customerId(customerId)
+                .monthlyPoints(monthlyPoints)
+                .totalPoints(monthlyPoints.values().stream().mapToInt(Integer::intValue).sum())
+                .build();
+    }
+}
@@ -0,0 +1,69 @@
+package com.customer.rewards.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link TransactionColumns}.
+ */
+class TransactionColumnsTest {
+
+    private record Row(long epochMilli, long cents, String category) {
+    }
+
+    /**
+     * Should return each customer's rows within the date range, in the order they were added, on and off the heap.
+     */
+    @Test
+    void shouldVisitCustomerRowsWithinRange() {
+        for (boolean offHeap : new boolean[]{false, true}) {
+            TransactionColumns columns = new TransactionColumns(offHeap);
+            columns.add("cust1", 100, 12_000, null);
+            columns.add("cust2", 150, 5_000, "grocery");
+            columns.add("cust1", 200, 20_000, "grocery");
+            columns.add("cust1", 300, 7_500, null);
+
+            List<Row> rows = new ArrayList<>();
+            assertTrue(columns.forEach("cust1", 100, 200, (epochMilli, cents, category) -> rows.add(new Row(epochMilli, cents, category))));
+            assertEquals(List.of(new Row(100, 12_000, null), new Row(200, 20_000, "grocery")), rows);
+            assertFalse(columns.forEach("unknown", 0, Long.MAX_VALUE, (epochMilli, cents, category) -> fail()));
+            assertEquals(4, columns.size());
+        }
+    }
+
+    /**
+     * Should keep every row when the columns grow, and report their footprint per transaction.
+     */
+    @Test
+    void shouldGrowAndReportFootprint() {
+        TransactionColumns columns = new TransactionColumns(false);
+        for (int i = 0; i < 10_000; i++) {
+            columns.add("cust" + (i % 100), i, i, i % 2 == 0 ? null : "travel");
+        }
+
+        long[] total = new long[1];
+        columns.forEach("cust7", 0, Long.MAX_VALUE, (epochMilli, cents, category) -> total[0] += cents);
+        assertEquals(100 * 7 + 100L * 99 * 100 / 2, total[0]);
+
+        TransactionColumns.Footprint footprint = columns.footprint();
+        assertEquals(100, footprint.customers());
+        assertEquals(10_000, footprint.transactions());
+        assertTrue(footprint.bytesPerTransaction() >= TransactionColumns.ROW_BYTES);
+        assertTrue(footprint.bytesPerTransaction() < 2 * TransactionColumns.ROW_BYTES, "columns grow by doubling");
+    }
+
+    /**
+     * Should stop doubling at the maximum capacity rather than overflowing.
+     */
+    @Test
+    void shouldCapGrowthAtMaximumCapacity() {
+        assertEquals(2048, TransactionColumns.grownCapacity(1024, Integer.MAX_VALUE / Long.BYTES));
+        assertEquals(Integer.MAX_VALUE / Long.BYTES, TransactionColumns.grownCapacity((1 << 27) + 1, Integer.MAX_VALUE / Long.BYTES));
+        assertEquals(Integer.MAX_VALUE - 8, TransactionColumns.grownCapacity(1 << 30, Integer.MAX_VALUE - 8));
+        assertThrows(IllegalStateException.class, () -> TransactionColumns.grownCapacity(Integer.MAX_VALUE - 8, Integer.MAX_VALUE - 8));
+    }
+}